@@ -256,6 +256,7 @@ public class ConnectionStatus implements Cloneable {
         }
 
         clonedObj.backPressureDataSizeThreshold = backPressureDataSizeThreshold;
+        clonedObj.backPressureBytesThreshold = backPressureBytesThreshold;
         clonedObj.backPressureObjectThreshold = backPressureObjectThreshold;
         clonedObj.maxQueuedBytes = maxQueuedBytes;
         clonedObj.maxQueuedCount = maxQueuedCount;
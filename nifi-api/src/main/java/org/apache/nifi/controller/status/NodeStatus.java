@@ -44,6 +44,8 @@ public class NodeStatus implements Cloneable {
     private List<StorageStatus> contentRepositories = new ArrayList<>();
     private List<StorageStatus> provenanceRepositories = new ArrayList<>();
 
+    private List<ThreadPoolStatus> threadPools = new ArrayList<>();
+
     public long getCreatedAtInMs() {
         return createdAtInMs;
     }
@@ -166,6 +168,15 @@ public class NodeStatus implements Cloneable {
         this.provenanceRepositories.addAll(provenanceRepositories);
     }
 
+    public List<ThreadPoolStatus> getThreadPools() {
+        return threadPools;
+    }
+
+    public void setThreadPools(final List<ThreadPoolStatus> threadPools) {
+        this.threadPools = new ArrayList<>();
+        this.threadPools.addAll(threadPools);
+    }
+
     @Override
     protected NodeStatus clone() {
         final NodeStatus clonedObj = new NodeStatus();
@@ -191,6 +202,10 @@ public class NodeStatus implements Cloneable {
         provenanceRepositories.stream().map(r -> r.clone()).forEach(r -> clonedProvenanceRepositories.add(r));
         clonedObj.provenanceRepositories = clonedProvenanceRepositories;
 
+        final List<ThreadPoolStatus> clonedThreadPools = new ArrayList<>();
+        threadPools.stream().map(p -> p.clone()).forEach(p -> clonedThreadPools.add(p));
+        clonedObj.threadPools = clonedThreadPools;
+
         return clonedObj;
     }
 
@@ -212,6 +227,7 @@ public class NodeStatus implements Cloneable {
         sb.append(", flowFileRepositoryUsedSpace=").append(flowFileRepositoryUsedSpace);
         sb.append(", contentRepositories=").append(contentRepositories);
         sb.append(", provenanceRepositories=").append(provenanceRepositories);
+        sb.append(", threadPools=").append(threadPools);
         sb.append('}');
         return sb.toString();
     }
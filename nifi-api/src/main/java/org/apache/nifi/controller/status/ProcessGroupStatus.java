@@ -298,6 +298,7 @@ public class ProcessGroupStatus implements Cloneable {
         clonedObj.bytesTransferred = bytesTransferred;
         clonedObj.processingNanos = processingNanos;
         clonedObj.processingPerformanceStatus = processingPerformanceStatus;
+        clonedObj.versionedFlowState = versionedFlowState;
 
         if (connectionStatus != null) {
             final Collection<ConnectionStatus> statusList = new ArrayList<>();
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status;
+
+/**
+ * The status of a thread pool that is dedicated to a set of Process Groups.
+ */
+public class ThreadPoolStatus implements Cloneable {
+    private String name;
+    private int maxThreads;
+    private int activeThreads;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(final int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    public void setActiveThreads(final int activeThreads) {
+        this.activeThreads = activeThreads;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("ThreadPoolStatus{");
+        builder.append("name='").append(name).append('\'');
+        builder.append(", maxThreads=").append(maxThreads);
+        builder.append(", activeThreads=").append(activeThreads);
+        builder.append('}');
+        return builder.toString();
+    }
+
+    @Override
+    public ThreadPoolStatus clone() {
+        final ThreadPoolStatus clonedObj = new ThreadPoolStatus();
+        clonedObj.name = name;
+        clonedObj.maxThreads = maxThreads;
+        clonedObj.activeThreads = activeThreads;
+        return clonedObj;
+    }
+}
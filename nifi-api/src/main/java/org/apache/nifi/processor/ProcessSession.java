@@ -36,6 +36,7 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -708,6 +709,23 @@ public interface ProcessSession {
      */
     InputStream read(FlowFile flowFile);
 
+    /**
+     * Returns the digest of the given FlowFile's content if the framework computed one using the given algorithm
+     * while the content was being written. This allows the digest of the content to be obtained without reading
+     * the content again. The framework computes digests only if configured to do so, and only for content that is
+     * written in its entirety, so callers must be prepared to read the content themselves when no digest is available.
+     *
+     * @param flowFile the FlowFile whose content digest is requested
+     * @param algorithm the name of the digest algorithm, such as <code>SHA-256</code>
+     * @return the digest of the FlowFile's content, or an empty Optional if no digest was computed using the given algorithm
+     * @throws FlowFileHandlingException if the given FlowFile is already
+     *             transferred or removed or doesn't belong to this session. Automatic
+     *             rollback will occur.
+     */
+    default Optional<byte[]> getContentDigest(FlowFile flowFile, String algorithm) {
+        return Optional.empty();
+    }
+
     /**
      * Executes the given callback against the contents corresponding to the
      * given FlowFile.
@@ -26,6 +26,18 @@ public interface ProgressiveResult {
 
     void update(Collection<ProvenanceEventRecord> records, long totalHitCount);
 
+    /**
+     * Updates the result with the events found by a step that may not have found every matching event: a matching event whose ID is less
+     * than <code>minimumCompleteEventId</code> may have been omitted because the step reached its maximum number of results.
+     *
+     * @param records the events found by the step
+     * @param totalHitCount the number of events that matched
+     * @param minimumCompleteEventId the smallest Event ID down to which the step found every matching event
+     */
+    default void update(final Collection<ProvenanceEventRecord> records, final long totalHitCount, final long minimumCompleteEventId) {
+        update(records, totalHitCount);
+    }
+
     void setError(String error);
 
     long getTotalHitCount();
@@ -39,6 +39,7 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
 
     public static final int TTL = (int) TimeUnit.MILLISECONDS.convert(30, TimeUnit.MINUTES);
     private final Query query;
+    private final boolean boundedByEventId;
     private final long creationNanos;
 
     private final int numSteps;
@@ -49,6 +50,7 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
     // guarded by writeLock
     private final SortedSet<ProvenanceEventRecord> matchingRecords = new TreeSet<>(new EventIdComparator());
     private long hitCount = 0L;
+    private long minimumCompleteEventId = -1L;
     private int numCompletedSteps = 0;
     private Date expirationDate;
     private String error;
@@ -59,6 +61,7 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
 
     public StandardQueryResult(final Query query, final int numSteps) {
         this.query = query;
+        this.boundedByEventId = query.getMaxEventId() != null;
         this.numSteps = numSteps;
         this.creationNanos = System.nanoTime();
 
@@ -126,7 +129,39 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
     public boolean isFinished() {
         readLock.lock();
         try {
-            return numCompletedSteps >= numSteps || canceled || matchingRecords.size() >= query.getMaxResults();
+            return numCompletedSteps >= numSteps || canceled || isMaxResultsReached();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * A query that is bounded by Event ID must return the matching events with the largest IDs so that the next page of results can
+     * continue from the smallest ID. Because the steps of a query may complete in any order, such a query cannot finish until every
+     * step has completed, even if it has already obtained the maximum number of results.
+     */
+    private boolean isMaxResultsReached() {
+        return !boundedByEventId && matchingRecords.size() >= query.getMaxResults();
+    }
+
+    @Override
+    public Long getNextMaxEventId() {
+        readLock.lock();
+        try {
+            if (!boundedByEventId || numCompletedSteps < numSteps || canceled) {
+                return null;
+            }
+
+            // If the page is full, the next page starts below its smallest Event ID. Otherwise, every matching event down to the
+            // point at which some step stopped searching has been returned, so the next page starts below that point.
+            final long nextMaxEventId;
+            if (matchingRecords.size() >= query.getMaxResults()) {
+                nextMaxEventId = matchingRecords.last().getEventId() - 1;
+            } else {
+                nextMaxEventId = minimumCompleteEventId - 1;
+            }
+
+            return nextMaxEventId < 0 ? null : nextMaxEventId;
         } finally {
             readLock.unlock();
         }
@@ -155,6 +190,11 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
 
     @Override
     public void update(final Collection<ProvenanceEventRecord> newEvents, final long totalHits) {
+        update(newEvents, totalHits, -1L);
+    }
+
+    @Override
+    public void update(final Collection<ProvenanceEventRecord> newEvents, final long totalHits, final long minimumCompleteEventId) {
         boolean queryComplete = false;
 
         writeLock.lock();
@@ -166,6 +206,13 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
             this.matchingRecords.addAll(newEvents);
             hitCount += totalHits;
 
+            // Below the point at which any step stopped searching, some matching events may be missing. Discard the events below
+            // that point so that the results are always the matching events with the largest IDs.
+            if (boundedByEventId && minimumCompleteEventId > this.minimumCompleteEventId) {
+                this.minimumCompleteEventId = minimumCompleteEventId;
+                matchingRecords.removeIf(event -> event.getEventId() < minimumCompleteEventId);
+            }
+
             // If we've added more records than the query's max, then remove the trailing elements.
             // We do this, rather than avoiding the addition of the elements because we want to choose
             // the events with the largest ID.
@@ -184,7 +231,7 @@ public class StandardQueryResult implements QueryResult, ProgressiveResult {
             numCompletedSteps++;
             updateExpiration();
 
-            if (numCompletedSteps >= numSteps || this.matchingRecords.size() >= query.getMaxResults()) {
+            if (numCompletedSteps >= numSteps || isMaxResultsReached()) {
                 final long searchNanos = System.nanoTime() - creationNanos;
                 queryTime = TimeUnit.MILLISECONDS.convert(searchNanos, TimeUnit.NANOSECONDS);
                 queryComplete = true;
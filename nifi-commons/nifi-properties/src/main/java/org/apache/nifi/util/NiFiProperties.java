@@ -86,7 +86,12 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String TEMPLATE_DIRECTORY = "nifi.templates.directory";
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
+    public static final String BORED_PARK_DURATION = "nifi.bored.park.duration";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
+    public static final String THREAD_POOL_PREFIX = "nifi.thread.pool.";
+    public static final String THREAD_POOL_MAX_THREADS_SUFFIX = ".max.threads";
+    public static final String THREAD_POOL_PROCESS_GROUPS_SUFFIX = ".process.groups";
+    public static final String VIRTUAL_THREADS_COMPONENT_TYPES = "nifi.virtual.threads.component.types";
     public static final String BACKPRESSURE_COUNT = "nifi.queue.backpressure.count";
     public static final String BACKPRESSURE_SIZE = "nifi.queue.backpressure.size";
     public static final String LISTENER_BOOTSTRAP_PORT = "nifi.listener.bootstrap.port";
@@ -107,6 +112,12 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_HOT_TIER_MAX_CONTENT_SIZE = "nifi.content.repository.hot.tier.max.content.size";
+    public static final String CONTENT_HOT_TIER_MAX_SIZE = "nifi.content.repository.hot.tier.max.size";
+    public static final String CONTENT_HOT_TIER_MAX_AGE = "nifi.content.repository.hot.tier.max.age";
+    public static final String CONTENT_HOT_TIER_DURABILITY = "nifi.content.repository.hot.tier.durability";
+    public static final String CONTENT_DEDUPLICATION_MAX_INDEX_ENTRIES = "nifi.content.repository.deduplication.max.index.entries";
+    public static final String CONTENT_DIGEST_ALGORITHM = "nifi.content.repository.digest.algorithm";
     public static final String CONTENT_VIEWER_URL = "nifi.content.viewer.url";
     public static final String CONTENT_REPOSITORY_ENCRYPTION_KEY = "nifi.content.repository.encryption.key";
     public static final String CONTENT_REPOSITORY_ENCRYPTION_KEY_ID = "nifi.content.repository.encryption.key.id";
@@ -120,6 +131,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String FLOWFILE_REPOSITORY_ALWAYS_SYNC = "nifi.flowfile.repository.always.sync";
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
+    public static final String FLOWFILE_UUID_GENERATOR = "nifi.flowfile.uuid.generator";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY = "nifi.flowfile.repository.encryption.key";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY_ID = "nifi.flowfile.repository.encryption.key.id";
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY_PROVIDER_IMPLEMENTATION_CLASS = "nifi.flowfile.repository.encryption.key.provider.implementation";
@@ -127,6 +139,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String FLOWFILE_REPOSITORY_ENCRYPTION_KEY_PROVIDER_PASSWORD = "nifi.flowfile.repository.encryption.key.provider.password";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
+    public static final String SWAP_COMPRESSION = "nifi.swap.compression";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -139,6 +152,7 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String PROVENANCE_QUERY_THREAD_POOL_SIZE = "nifi.provenance.repository.query.threads";
     public static final String PROVENANCE_INDEX_THREAD_POOL_SIZE = "nifi.provenance.repository.index.threads";
     public static final String PROVENANCE_COMPRESS_ON_ROLLOVER = "nifi.provenance.repository.compress.on.rollover";
+    public static final String PROVENANCE_COMPRESSION_CODEC = "nifi.provenance.repository.compression.codec";
     public static final String PROVENANCE_INDEXED_FIELDS = "nifi.provenance.repository.indexed.fields";
     public static final String PROVENANCE_INDEXED_ATTRIBUTES = "nifi.provenance.repository.indexed.attributes";
     public static final String PROVENANCE_INDEX_SHARD_SIZE = "nifi.provenance.repository.index.shard.size";
@@ -149,10 +163,12 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String PROVENANCE_REPO_ENCRYPTION_KEY_PROVIDER_LOCATION = "nifi.provenance.repository.encryption.key.provider.location";
     public static final String PROVENANCE_REPO_ENCRYPTION_KEY_PROVIDER_PASSWORD = "nifi.provenance.repository.encryption.key.provider.password";
     public static final String PROVENANCE_REPO_DEBUG_FREQUENCY = "nifi.provenance.repository.debug.frequency";
+    public static final String PROVENANCE_RECORDING_POLICY_PREFIX = "nifi.provenance.recording.policy.";
 
     // status repository properties
     public static final String COMPONENT_STATUS_REPOSITORY_IMPLEMENTATION = "nifi.components.status.repository.implementation";
     public static final String COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "nifi.components.status.snapshot.frequency";
+    public static final String COMPONENT_STATUS_CACHE_DURATION = "nifi.components.status.cache.duration";
 
     // questdb status storage properties
     public static final String STATUS_REPOSITORY_QUESTDB_PERSIST_NODE_DAYS = "nifi.status.repository.questdb.persist.node.days";
@@ -272,6 +288,8 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String LOAD_BALANCE_CONNECTIONS_PER_NODE = "nifi.cluster.load.balance.connections.per.node";
     public static final String LOAD_BALANCE_MAX_THREAD_COUNT = "nifi.cluster.load.balance.max.thread.count";
     public static final String LOAD_BALANCE_COMMS_TIMEOUT = "nifi.cluster.load.balance.comms.timeout";
+    public static final String LOAD_BALANCE_ROUND_ROBIN_PARTITIONER = "nifi.cluster.load.balance.round.robin.partitioner";
+    public static final String LOAD_BALANCE_ATTRIBUTE_PARTITIONER = "nifi.cluster.load.balance.attribute.partitioner";
 
     // zookeeper properties
     public static final String ZOOKEEPER_CONNECT_STRING = "nifi.zookeeper.connect.string";
@@ -359,13 +377,23 @@ public class NiFiProperties extends ApplicationProperties {
     public static final String DEFAULT_NAR_LIBRARY_DIR = "./lib";
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "20 secs";
+    public static final String DEFAULT_FLOWFILE_UUID_GENERATOR = "time-ordered";
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "1 MB";
+    public static final String DEFAULT_CONTENT_HOT_TIER_MAX_CONTENT_SIZE = "64 KB";
+    public static final String DEFAULT_CONTENT_HOT_TIER_MAX_SIZE = "256 MB";
+    public static final String DEFAULT_CONTENT_HOT_TIER_MAX_AGE = "30 secs";
+    public static final String DEFAULT_CONTENT_HOT_TIER_DURABILITY = "commit";
+    public static final String DEFAULT_CONTENT_DEDUPLICATION_MAX_INDEX_ENTRIES = "100000";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
+    public static final String DEFAULT_SWAP_COMPRESSION = "none";
+    public static final String DEFAULT_PROVENANCE_COMPRESSION_CODEC = "gzip";
     public static final long DEFAULT_BACKPRESSURE_COUNT = 10_000L;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
+    public static final String DEFAULT_COMPONENT_STATUS_CACHE_DURATION = "1 sec";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final String DEFAULT_BORED_PARK_DURATION = "0 secs";
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -417,6 +445,8 @@ public class NiFiProperties extends ApplicationProperties {
     public static final int DEFAULT_LOAD_BALANCE_CONNECTIONS_PER_NODE = 4;
     public static final int DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT = 8;
     public static final String DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT = "30 sec";
+    public static final String DEFAULT_LOAD_BALANCE_ROUND_ROBIN_PARTITIONER = "round-robin";
+    public static final String DEFAULT_LOAD_BALANCE_ATTRIBUTE_PARTITIONER = "modulo";
 
 
     // state management defaults
@@ -1569,6 +1599,10 @@ public class NiFiProperties extends ApplicationProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    public String getBoredParkDuration() {
+        return getProperty(BORED_PARK_DURATION, DEFAULT_BORED_PARK_DURATION);
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
@@ -25,6 +25,7 @@ import org.wali.UpdateType;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
@@ -34,27 +35,84 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * A snapshot that holds all active records in memory and writes them to a 'checkpoint' file in the storage directory.
+ * </p>
+ *
+ * <p>
+ * If configured to allow incremental snapshots, the snapshot also keeps track of which records have changed since the previous
+ * checkpoint. Rather than re-writing every active record on each checkpoint, it then writes a chain of 'checkpoint.delta.N' files
+ * that each hold only the records changed since the previous checkpoint, so that the cost of a checkpoint scales with the number
+ * of records that have changed rather than with the number of records that exist. Once the configured number of incremental snapshots
+ * have been written, or once an incremental snapshot would hold at least half of the active records, a full snapshot is written
+ * and the chain is discarded. On recovery, the full snapshot is read and each incremental snapshot in the chain is applied in order.
+ * </p>
+ *
+ * <p>
+ * Records in a full snapshot are written in length-prefixed blocks. This allows recovery to read each block from disk sequentially
+ * while deserializing the blocks concurrently, which is where the vast majority of recovery time is spent for large repositories.
+ * </p>
+ */
 public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T> {
     private static final Logger logger = LoggerFactory.getLogger(HashMapSnapshot.class);
-    private static final int ENCODING_VERSION = 1;
+    private static final int ENCODING_VERSION = 2;
+    private static final int BLOCKED_RECORDS_VERSION = 2;
+    private static final int MAX_RECORDS_PER_BLOCK = 1000;
+    private static final int MAX_BLOCK_BYTES = 1024 * 1024;
+    private static final String INCREMENTAL_FILENAME_PREFIX = "checkpoint.delta.";
 
     private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
     private final SerDeFactory<T> serdeFactory;
     private final Set<String> swapLocations = Collections.synchronizedSet(new HashSet<>());
     private final File storageDirectory;
+    private final int maxIncrementalSnapshots;
+    private final int recoveryThreads = Runtime.getRuntime().availableProcessors();
+
+    // Records that have been updated since the last checkpoint was prepared, keyed by Record Identifier. Only tracked if incremental snapshots are enabled.
+    private volatile ConcurrentMap<Object, T> changedRecords = new ConcurrentHashMap<>();
+    private volatile boolean fullSnapshotRequired = true;
+    private int incrementalSnapshotCount = 0; // guarded by synchronizing on 'this'
+    private long preparedTransactionId = -1L; // guarded by synchronizing on 'this'
+    private long writtenTransactionId = -1L; // guarded by synchronizing on 'this'
 
     public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory) {
+        this(storageDirectory, serdeFactory, 0);
+    }
+
+    /**
+     * @param storageDirectory the directory to write snapshots to
+     * @param serdeFactory the factory for the serializer/deserializer of records
+     * @param maxIncrementalSnapshots the maximum number of incremental snapshots to write between full snapshots, or 0 to always write full snapshots
+     */
+    public HashMapSnapshot(final File storageDirectory, final SerDeFactory<T> serdeFactory, final int maxIncrementalSnapshots) {
+        if (maxIncrementalSnapshots < 0) {
+            throw new IllegalArgumentException("Max number of incremental snapshots cannot be negative");
+        }
+
         this.serdeFactory = serdeFactory;
         this.storageDirectory = storageDirectory;
+        this.maxIncrementalSnapshots = maxIncrementalSnapshots;
     }
 
     private SnapshotHeader validateHeader(final DataInputStream dataIn) throws IOException {
@@ -85,9 +143,17 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         logger.debug("Number of Records for Snapshot at {} is {}", storageDirectory, numRecords);
 
         final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
-        serde.readHeader(dataIn);
+        if (snapshotVersion < BLOCKED_RECORDS_VERSION) {
+            serde.readHeader(dataIn);
+            return new SnapshotHeader(serde, serdeEncoding, serdeVersion, maxTransactionId, numRecords, null);
+        }
+
+        // The SerDe header is length-prefixed so that it can be read again by each thread that deserializes records.
+        final byte[] serdeHeader = new byte[dataIn.readInt()];
+        dataIn.readFully(serdeHeader);
+        serde.readHeader(new DataInputStream(new ByteArrayInputStream(serdeHeader)));
 
-        return new SnapshotHeader(serde, serdeVersion, maxTransactionId, numRecords);
+        return new SnapshotHeader(serde, serdeEncoding, serdeVersion, maxTransactionId, numRecords, serdeHeader);
     }
 
     @Override
@@ -125,26 +191,14 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             // Ensure that the header contains the information that we expect and retrieve the relevant information from the header.
             final SnapshotHeader header = validateHeader(dataIn);
 
-            final SerDe<T> serde = header.getSerDe();
-            final int serdeVersion = header.getSerDeVersion();
             final int numRecords = header.getNumRecords();
             final long maxTransactionId = header.getMaxTransactionId();
 
             // Read all of the records that we expect to receive.
-            for (int i = 0; i < numRecords; i++) {
-                final T record = serde.deserializeRecord(dataIn, serdeVersion);
-                if (record == null) {
-                    throw new EOFException();
-                }
-
-                final UpdateType updateType = serde.getUpdateType(record);
-                if (updateType == UpdateType.DELETE) {
-                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
-                    continue;
-                }
-
-                logger.trace("Recovered from snapshot: {}", record);
-                recordMap.put(serde.getRecordIdentifier(record), record);
+            if (header.getSerDeHeader() == null) {
+                recoverRecords(header.getSerDe(), header.getSerDeVersion(), dataIn, numRecords);
+            } else {
+                recoverRecordBlocks(header, dataIn);
             }
 
             // Determine the location of any swap files.
@@ -153,14 +207,189 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             for (int i = 0; i < numSwapRecords; i++) {
                 swapLocations.add(dataIn.readUTF());
             }
-            this.swapLocations.addAll(swapLocations);
 
             logger.info("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}", this, numRecords, swapLocations.size(), maxTransactionId);
 
-            return new StandardSnapshotRecovery<>(recordMap, swapLocations, snapshotFile, maxTransactionId);
+            final long recoveredTransactionId = recoverIncrementalSnapshots(maxTransactionId, swapLocations);
+            this.swapLocations.addAll(swapLocations);
+
+            synchronized (this) {
+                preparedTransactionId = recoveredTransactionId;
+                writtenTransactionId = recoveredTransactionId;
+            }
+
+            return new StandardSnapshotRecovery<>(recordMap, swapLocations, snapshotFile, recoveredTransactionId);
+        }
+    }
+
+    private void recoverRecords(final SerDe<T> serde, final int serdeVersion, final DataInputStream dataIn, final int numRecords) throws IOException {
+        for (int i = 0; i < numRecords; i++) {
+            final T record = serde.deserializeRecord(dataIn, serdeVersion);
+            if (record == null) {
+                throw new EOFException();
+            }
+
+            final UpdateType updateType = serde.getUpdateType(record);
+            if (updateType == UpdateType.DELETE) {
+                logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                continue;
+            }
+
+            logger.trace("Recovered from snapshot: {}", record);
+            recordMap.put(serde.getRecordIdentifier(record), record);
+        }
+    }
+
+    /**
+     * Reads each block of records from the snapshot on the calling thread and deserializes the blocks concurrently. At most two blocks per
+     * thread are held in memory at any time so that a large snapshot is not read into memory in its entirety.
+     */
+    private void recoverRecordBlocks(final SnapshotHeader header, final DataInputStream dataIn) throws IOException {
+        final int numRecords = header.getNumRecords();
+        if (recoveryThreads < 2 || numRecords <= MAX_RECORDS_PER_BLOCK) {
+            int recordsRead = 0;
+            while (recordsRead < numRecords) {
+                final int blockRecords = dataIn.readInt();
+                dataIn.readInt(); // block length is not needed when reading sequentially
+                recoverRecords(header.getSerDe(), header.getSerDeVersion(), dataIn, blockRecords);
+                recordsRead += blockRecords;
+            }
+
+            return;
+        }
+
+        final AtomicInteger threadIndex = new AtomicInteger(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(recoveryThreads, runnable -> {
+            final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+            thread.setName("Write-Ahead Log Snapshot Recovery-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final Semaphore blocksInMemory = new Semaphore(recoveryThreads * 2);
+            final List<Future<?>> futures = new ArrayList<>();
+
+            int recordsRead = 0;
+            while (recordsRead < numRecords) {
+                final int blockRecords = dataIn.readInt();
+                final byte[] block = new byte[dataIn.readInt()];
+                dataIn.readFully(block);
+                recordsRead += blockRecords;
+
+                blocksInMemory.acquireUninterruptibly();
+                futures.add(executor.submit(() -> {
+                    try {
+                        final SerDe<T> serde = serdeFactory.createSerDe(header.getSerDeEncoding());
+                        serde.readHeader(new DataInputStream(new ByteArrayInputStream(header.getSerDeHeader())));
+                        recoverRecords(serde, header.getSerDeVersion(), new DataInputStream(new ByteArrayInputStream(block)), blockRecords);
+                        return null;
+                    } finally {
+                        blocksInMemory.release();
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while recovering records from Snapshot", ie);
+                } catch (final ExecutionException ee) {
+                    final Throwable cause = ee.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Failed to recover records from Snapshot", cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
         }
     }
 
+    /**
+     * Applies each incremental snapshot that follows the full snapshot, in the order in which they were written
+     *
+     * @param baseTransactionId the max transaction ID of the full snapshot
+     * @param swapLocations the swap locations recovered from the full snapshot, which will be replaced by those of the last incremental snapshot applied
+     * @return the max transaction ID of the last incremental snapshot applied, or <code>baseTransactionId</code> if none was applied
+     * @throws IOException if unable to read an incremental snapshot
+     */
+    private long recoverIncrementalSnapshots(final long baseTransactionId, final Set<String> swapLocations) throws IOException {
+        final File partialFile = getIncrementalPartialFile();
+        if (partialFile.exists()) {
+            // An incremental snapshot that was never completed. The journals that it would have replaced were not deleted, so it can be ignored.
+            Files.delete(partialFile.toPath());
+        }
+
+        long transactionId = baseTransactionId;
+        int applied = 0;
+        for (final File incrementalFile : getIncrementalSnapshotFiles()) {
+            try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(new FileInputStream(incrementalFile)))) {
+                final String snapshotClass = dataIn.readUTF();
+                if (!snapshotClass.equals(HashMapSnapshot.class.getName())) {
+                    throw new IOException("Incremental Write-Ahead Log Snapshot " + incrementalFile + " was written using the " + snapshotClass
+                        + " class; cannot restore using " + getClass().getName());
+                }
+
+                final int snapshotVersion = dataIn.readInt();
+                if (snapshotVersion > getVersion()) {
+                    throw new IOException("Incremental Write-Ahead Log Snapshot " + incrementalFile + " was written using version " + snapshotVersion
+                        + " of the " + snapshotClass + " class; cannot restore using Version " + getVersion());
+                }
+
+                final String serdeEncoding = dataIn.readUTF();
+                final int serdeVersion = dataIn.readInt();
+                final long previousTransactionId = dataIn.readLong();
+                final long maxTransactionId = dataIn.readLong();
+                if (previousTransactionId != transactionId) {
+                    // Incremental snapshots left over from before the most recent full snapshot; they are already reflected in the full snapshot.
+                    logger.info("{} ignoring Incremental Snapshot {} because it follows Transaction ID {} but the Snapshot recovered thus far ends with Transaction ID {}",
+                        this, incrementalFile, previousTransactionId, transactionId);
+                    continue;
+                }
+
+                final int numRecords = dataIn.readInt();
+                final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+                serde.readHeader(dataIn);
+
+                for (int i = 0; i < numRecords; i++) {
+                    final T record = serde.deserializeRecord(dataIn, serdeVersion);
+                    if (record == null) {
+                        throw new EOFException();
+                    }
+
+                    final Object recordId = serde.getRecordIdentifier(record);
+                    final UpdateType updateType = serde.getUpdateType(record);
+                    if (updateType == UpdateType.DELETE || updateType == UpdateType.SWAP_OUT) {
+                        recordMap.remove(recordId);
+                    } else {
+                        recordMap.put(recordId, record);
+                    }
+                }
+
+                final int numSwapRecords = dataIn.readInt();
+                swapLocations.clear();
+                for (int i = 0; i < numSwapRecords; i++) {
+                    swapLocations.add(dataIn.readUTF());
+                }
+
+                transactionId = maxTransactionId;
+                applied++;
+                logger.debug("{} applied {} changed Records from Incremental Snapshot {}, ending with Transaction ID {}", this, numRecords, incrementalFile, maxTransactionId);
+            }
+        }
+
+        if (applied > 0) {
+            logger.info("{} applied {} Incremental Snapshots; recovered {} Records and {} Swap Files, ending with Transaction ID {}",
+                this, applied, recordMap.size(), swapLocations.size(), transactionId);
+        }
+
+        return transactionId;
+    }
+
     @Override
     public void update(final Collection<T> records) {
         // This implementation of Snapshot keeps a ConcurrentHashMap of all 'active' records
@@ -172,6 +401,10 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             final Object recordId = serdeFactory.getRecordIdentifier(record);
             final UpdateType updateType = serdeFactory.getUpdateType(record);
 
+            if (maxIncrementalSnapshots > 0) {
+                changedRecords.put(recordId, record);
+            }
+
             switch (updateType) {
                 case DELETE:
                     recordMap.remove(recordId);
@@ -225,6 +458,33 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         return new Snapshot(new HashMap<>(recordMap), new HashSet<>(swapFileLocations), maxTransactionId);
     }
 
+    @Override
+    public synchronized SnapshotCapture<T> prepareCheckpoint(final long maxTransactionId, final Set<String> swapFileLocations) {
+        final Set<String> locations = swapFileLocations == null ? this.swapLocations : swapFileLocations;
+        if (maxIncrementalSnapshots == 0) {
+            return prepareSnapshot(maxTransactionId, locations);
+        }
+
+        final Map<Object, T> changed = changedRecords;
+        changedRecords = new ConcurrentHashMap<>();
+
+        final int recordCount = recordMap.size();
+        final boolean fullSnapshot = swapFileLocations != null || fullSnapshotRequired || incrementalSnapshotCount >= maxIncrementalSnapshots || changed.size() >= recordCount / 2;
+
+        final SnapshotCapture<T> capture;
+        if (fullSnapshot) {
+            incrementalSnapshotCount = 0;
+            fullSnapshotRequired = false;
+            capture = prepareSnapshot(maxTransactionId, locations);
+        } else {
+            incrementalSnapshotCount++;
+            capture = new IncrementalSnapshot(changed, new HashSet<>(locations), preparedTransactionId, maxTransactionId, recordCount, incrementalSnapshotCount);
+        }
+
+        preparedTransactionId = maxTransactionId;
+        return capture;
+    }
+
     private int getVersion() {
         return ENCODING_VERSION;
     }
@@ -237,8 +497,108 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         return new File(storageDirectory, "checkpoint");
     }
 
+    private File getIncrementalPartialFile() {
+        return new File(storageDirectory, INCREMENTAL_FILENAME_PREFIX + "partial");
+    }
+
+    private File getIncrementalSnapshotFile(final int index) {
+        return new File(storageDirectory, INCREMENTAL_FILENAME_PREFIX + index);
+    }
+
+    /**
+     * @return all incremental snapshot files in the storage directory, ordered by the index with which they were written
+     */
+    private List<File> getIncrementalSnapshotFiles() {
+        final File[] files = storageDirectory.listFiles((dir, name) -> name.startsWith(INCREMENTAL_FILENAME_PREFIX) && getIncrementalIndex(name) > 0);
+        if (files == null) {
+            return Collections.emptyList();
+        }
+
+        final List<File> incrementalFiles = new ArrayList<>(Arrays.asList(files));
+        incrementalFiles.sort(Comparator.comparingInt(file -> getIncrementalIndex(file.getName())));
+        return incrementalFiles;
+    }
+
+    private static int getIncrementalIndex(final String filename) {
+        final String suffix = filename.substring(INCREMENTAL_FILENAME_PREFIX.length());
+        if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(suffix);
+        } catch (final NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
     @Override
     public synchronized void writeSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
+        try {
+            if (snapshot.isIncremental()) {
+                writeIncrementalSnapshot((IncrementalSnapshot) snapshot);
+            } else {
+                writeFullSnapshot(snapshot);
+            }
+        } catch (final IOException | RuntimeException e) {
+            // The changes captured by this snapshot are no longer being tracked, so the next snapshot must contain all records.
+            fullSnapshotRequired = true;
+            throw e;
+        }
+
+        writtenTransactionId = snapshot.getMaxTransactionId();
+    }
+
+    private void writeIncrementalSnapshot(final IncrementalSnapshot snapshot) throws IOException {
+        if (snapshot.getPreviousTransactionId() != writtenTransactionId) {
+            throw new IOException("Cannot write Incremental Snapshot ending with Transaction ID " + snapshot.getMaxTransactionId() + " because it follows Transaction ID "
+                + snapshot.getPreviousTransactionId() + " but the last Snapshot written ends with Transaction ID " + writtenTransactionId);
+        }
+
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        final File partialFile = getIncrementalPartialFile();
+
+        try (final FileOutputStream fileOut = new FileOutputStream(partialFile);
+            final OutputStream bufferedOut = new BufferedOutputStream(fileOut);
+            final DataOutputStream dataOut = new DataOutputStream(bufferedOut)) {
+
+            dataOut.writeUTF(HashMapSnapshot.class.getName());
+            dataOut.writeInt(getVersion());
+            dataOut.writeUTF(serde.getClass().getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeLong(snapshot.getPreviousTransactionId());
+            dataOut.writeLong(snapshot.getMaxTransactionId());
+            dataOut.writeInt(snapshot.getRecords().size());
+            serde.writeHeader(dataOut);
+
+            // Records that were deleted or swapped out are written as well, so that recovery knows to remove them.
+            for (final T record : snapshot.getRecords().values()) {
+                logger.trace("Incrementally checkpointing {}", record);
+                serde.serializeRecord(record, dataOut);
+            }
+
+            dataOut.writeInt(snapshot.getSwapLocations().size());
+            for (final String swapLocation : snapshot.getSwapLocations()) {
+                dataOut.writeUTF(swapLocation);
+            }
+
+            dataOut.flush();
+            fileOut.getChannel().force(false);
+        }
+
+        final File incrementalFile = getIncrementalSnapshotFile(snapshot.getIndex());
+        Files.move(partialFile.toPath(), incrementalFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        logger.debug("{} wrote Incremental Snapshot {} with {} changed Records", this, incrementalFile, snapshot.getRecords().size());
+    }
+
+    private void writeBlock(final ByteArrayDataOutputStream buffer, final int blockRecords, final DataOutputStream dataOut) throws IOException {
+        dataOut.writeInt(blockRecords);
+        dataOut.writeInt(buffer.getByteArrayOutputStream().size());
+        buffer.getByteArrayOutputStream().writeTo(dataOut);
+        buffer.getByteArrayOutputStream().reset();
+    }
+
+    private void writeFullSnapshot(final SnapshotCapture<T> snapshot) throws IOException {
         final SerDe<T> serde = serdeFactory.createSerDe(null);
 
         final File snapshotFile = getSnapshotFile();
@@ -274,12 +634,28 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
             dataOut.writeInt(serde.getVersion());
             dataOut.writeLong(snapshot.getMaxTransactionId());
             dataOut.writeInt(snapshot.getRecords().size());
-            serde.writeHeader(dataOut);
 
-            // Serialize each record
+            final ByteArrayDataOutputStream buffer = new ByteArrayDataOutputStream(MAX_BLOCK_BYTES);
+            serde.writeHeader(buffer.getDataOutputStream());
+            dataOut.writeInt(buffer.getByteArrayOutputStream().size());
+            buffer.getByteArrayOutputStream().writeTo(dataOut);
+            buffer.getByteArrayOutputStream().reset();
+
+            // Serialize each record, in blocks that can be deserialized independently of one another
+            int blockRecords = 0;
             for (final T record : snapshot.getRecords().values()) {
                 logger.trace("Checkpointing {}", record);
-                serde.serializeRecord(record, dataOut);
+                serde.serializeRecord(record, buffer.getDataOutputStream());
+                blockRecords++;
+
+                if (blockRecords >= MAX_RECORDS_PER_BLOCK || buffer.getByteArrayOutputStream().size() >= MAX_BLOCK_BYTES) {
+                    writeBlock(buffer, blockRecords, dataOut);
+                    blockRecords = 0;
+                }
+            }
+
+            if (blockRecords > 0) {
+                writeBlock(buffer, blockRecords, dataOut);
             }
 
             // Write out the number of swap locations, followed by the swap locations themselves.
@@ -306,6 +682,14 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         if (!rename) {
             throw new IOException("Failed to rename partial snapshot file " + partialFile + " to " + snapshotFile);
         }
+
+        // The full snapshot supersedes any incremental snapshots. If we fail to delete one, it will be ignored on recovery because
+        // it does not follow the full snapshot's Transaction ID.
+        for (final File incrementalFile : getIncrementalSnapshotFiles()) {
+            if (!incrementalFile.delete() && incrementalFile.exists()) {
+                logger.warn("Unable to delete Incremental Snapshot file {}", incrementalFile);
+            }
+        }
     }
 
 
@@ -336,23 +720,84 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         }
     }
 
+    public class IncrementalSnapshot implements SnapshotCapture<T> {
+        private final Map<Object, T> changedRecords;
+        private final Set<String> swapLocations;
+        private final long previousTransactionId;
+        private final long maxTransactionId;
+        private final int recordCount;
+        private final int index;
+
+        public IncrementalSnapshot(final Map<Object, T> changedRecords, final Set<String> swapLocations, final long previousTransactionId, final long maxTransactionId,
+                                   final int recordCount, final int index) {
+            this.changedRecords = changedRecords;
+            this.swapLocations = swapLocations;
+            this.previousTransactionId = previousTransactionId;
+            this.maxTransactionId = maxTransactionId;
+            this.recordCount = recordCount;
+            this.index = index;
+        }
+
+        @Override
+        public Map<Object, T> getRecords() {
+            return changedRecords;
+        }
+
+        @Override
+        public long getMaxTransactionId() {
+            return maxTransactionId;
+        }
+
+        @Override
+        public Set<String> getSwapLocations() {
+            return swapLocations;
+        }
+
+        @Override
+        public int getRecordCount() {
+            return recordCount;
+        }
+
+        @Override
+        public boolean isIncremental() {
+            return true;
+        }
+
+        public long getPreviousTransactionId() {
+            return previousTransactionId;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+
     private class SnapshotHeader {
         private final SerDe<T> serde;
+        private final String serdeEncoding;
         private final int serdeVersion;
         private final int numRecords;
         private final long maxTransactionId;
+        private final byte[] serdeHeader;
 
-        public SnapshotHeader(final SerDe<T> serde, final int serdeVersion, final long maxTransactionId, final int numRecords) {
+        public SnapshotHeader(final SerDe<T> serde, final String serdeEncoding, final int serdeVersion, final long maxTransactionId,
+                              final int numRecords, final byte[] serdeHeader) {
             this.serde = serde;
+            this.serdeEncoding = serdeEncoding;
             this.serdeVersion = serdeVersion;
             this.maxTransactionId = maxTransactionId;
             this.numRecords = numRecords;
+            this.serdeHeader = serdeHeader;
         }
 
         public SerDe<T> getSerDe() {
             return serde;
         }
 
+        public String getSerDeEncoding() {
+            return serdeEncoding;
+        }
+
         public int getSerDeVersion() {
             return serdeVersion;
         }
@@ -364,6 +809,13 @@ public class HashMapSnapshot<T> implements WriteAheadSnapshot<T>, RecordLookup<T
         public int getNumRecords() {
             return numRecords;
         }
+
+        /**
+         * @return the serialized SerDe header, or <code>null</code> if the snapshot was written before records were written in blocks
+         */
+        public byte[] getSerDeHeader() {
+            return serdeHeader;
+        }
     }
 
 }
@@ -28,7 +28,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -53,6 +55,14 @@ import org.wali.WriteAheadRepository;
  * that records are recovered correctly if two threads simultaneously update the write-ahead log
  * with updates for the same record.
  * </p>
+ *
+ * <p>
+ * When an update requests that the journal be synced to disk, each caller would ordinarily perform its own
+ * fsync. If a group commit window is configured, concurrent callers instead share a single fsync: the first
+ * caller to request a sync waits up to the configured window (or until the configured number of transactions
+ * are awaiting a sync) and then syncs the journal on behalf of every transaction that was written before the
+ * sync began. Each caller's update returns only once its own transaction has been synced to disk.
+ * </p>
  */
 public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
     private static final int PARTITION_INDEX = 0;
@@ -60,6 +70,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private static final Pattern JOURNAL_FILENAME_PATTERN = Pattern.compile("\\d+\\.journal");
     private static final int MAX_BUFFERS = 64;
     private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long MAX_GROUP_COMMIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100L);
 
     private final File storageDirectory;
     private final File journalsDirectory;
@@ -83,11 +94,65 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private WriteAheadJournal<T> journal;
     private volatile long nextTransactionId = 0L;
 
+    private final long groupCommitWindowNanos;
+    private final int groupCommitMaxTransactions;
+    private final AtomicLong journalWriteCount = new AtomicLong(0L);
+    private final Object syncMonitor = new Object();
+    private long syncedWriteCount = 0L; // guarded by syncMonitor
+    private boolean syncInProgress = false; // guarded by syncMonitor
+
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory) throws IOException {
         this(storageDirectory, serdeFactory, SyncListener.NOP_SYNC_LISTENER);
     }
 
     public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, 0L, TimeUnit.MILLISECONDS, 0);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that coalesces concurrent sync requests into a single fsync of the journal
+     *
+     * @param storageDirectory the directory to store the snapshot and journals in
+     * @param serdeFactory the factory for the serializer/deserializer of records
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param groupCommitWindow the maximum amount of time that a sync may be delayed in order to include transactions from other threads, or 0 to
+     *            sync each transaction individually
+     * @param groupCommitWindowUnit the unit of the group commit window
+     * @param groupCommitMaxTransactions the number of transactions awaiting a sync that will cause the sync to occur before the window elapses, or 0
+     *            to always wait for the full window
+     * @throws IOException if unable to create the storage directory
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final long groupCommitWindow, final TimeUnit groupCommitWindowUnit, final int groupCommitMaxTransactions) throws IOException {
+        this(storageDirectory, serdeFactory, syncListener, groupCommitWindow, groupCommitWindowUnit, groupCommitMaxTransactions, 0);
+    }
+
+    /**
+     * Creates a Write-Ahead Log that coalesces concurrent sync requests into a single fsync of the journal and that may checkpoint
+     * only the records that have changed since the previous checkpoint
+     *
+     * @param storageDirectory the directory to store the snapshot and journals in
+     * @param serdeFactory the factory for the serializer/deserializer of records
+     * @param syncListener the listener to notify when the repository is synced to disk
+     * @param groupCommitWindow the maximum amount of time that a sync may be delayed in order to include transactions from other threads, or 0 to
+     *            sync each transaction individually
+     * @param groupCommitWindowUnit the unit of the group commit window
+     * @param groupCommitMaxTransactions the number of transactions awaiting a sync that will cause the sync to occur before the window elapses, or 0
+     *            to always wait for the full window
+     * @param maxIncrementalSnapshots the maximum number of incremental snapshots to write between full snapshots, or 0 to write a full snapshot
+     *            on every checkpoint
+     * @throws IOException if unable to create the storage directory
+     */
+    public SequentialAccessWriteAheadLog(final File storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener,
+                                         final long groupCommitWindow, final TimeUnit groupCommitWindowUnit, final int groupCommitMaxTransactions,
+                                         final int maxIncrementalSnapshots) throws IOException {
+        if (groupCommitWindow < 0) {
+            throw new IllegalArgumentException("Group commit window cannot be negative");
+        }
+        if (groupCommitMaxTransactions < 0) {
+            throw new IllegalArgumentException("Group commit max transactions cannot be negative");
+        }
+
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new IOException("Directory " + storageDirectory + " does not exist and cannot be created");
         }
@@ -95,7 +160,7 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             throw new IOException("File " + storageDirectory + " is a regular file and not a directory");
         }
 
-        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        final HashMapSnapshot<T> hashMapSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, maxIncrementalSnapshots);
         this.snapshot = hashMapSnapshot;
         this.recordLookup = hashMapSnapshot;
 
@@ -109,6 +174,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         this.serdeFactory = serdeFactory;
         this.syncListener = (syncListener == null) ? SyncListener.NOP_SYNC_LISTENER : syncListener;
+        this.groupCommitWindowNanos = groupCommitWindowUnit.toNanos(groupCommitWindow);
+        this.groupCommitMaxTransactions = groupCommitMaxTransactions;
     }
 
     @Override
@@ -120,10 +187,15 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         journalReadLock.lock();
         try {
             journal.update(records, recordLookup);
+            final long writeIndex = journalWriteCount.incrementAndGet();
 
             if (forceSync) {
-                journal.fsync();
-                syncListener.onSync(PARTITION_INDEX);
+                if (groupCommitWindowNanos > 0L) {
+                    groupSync(writeIndex);
+                } else {
+                    journal.fsync();
+                    syncListener.onSync(PARTITION_INDEX);
+                }
             }
 
             snapshot.update(records);
@@ -134,6 +206,68 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
         return PARTITION_INDEX;
     }
 
+    /**
+     * Waits until the journal has been synced to disk with at least the first <code>writeIndex</code> transactions. If no other thread
+     * is currently syncing the journal, this thread becomes responsible for the sync, and all transactions written before the sync begins
+     * are made durable by it. This method MUST be called with the journal read lock held, so that the journal cannot be rolled over.
+     *
+     * @param writeIndex the index of the transaction that must be synced
+     * @throws IOException if unable to sync the journal
+     */
+    private void groupSync(final long writeIndex) throws IOException {
+        synchronized (syncMonitor) {
+            while (true) {
+                if (syncedWriteCount >= writeIndex) {
+                    return;
+                }
+
+                if (!syncInProgress) {
+                    syncInProgress = true;
+                    break;
+                }
+
+                try {
+                    syncMonitor.wait();
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for Write-Ahead Log journal to be synced to disk", ie);
+                }
+            }
+        }
+
+        boolean synced = false;
+        long syncedThrough = 0L;
+        try {
+            final long deadline = System.nanoTime() + groupCommitWindowNanos;
+            long remainingNanos = groupCommitWindowNanos;
+            while (remainingNanos > 0L && !isGroupCommitFull(writeIndex)) {
+                LockSupport.parkNanos(Math.min(remainingNanos, MAX_GROUP_COMMIT_PARK_NANOS));
+                remainingNanos = deadline - System.nanoTime();
+            }
+
+            // Every transaction counted here has already been written to the journal, so the fsync below makes all of them durable.
+            syncedThrough = journalWriteCount.get();
+            journal.fsync();
+            syncListener.onSync(PARTITION_INDEX);
+            synced = true;
+
+            logger.trace("Synced Write-Ahead Log journal through write index {} on behalf of {} transactions", syncedThrough, syncedThrough - writeIndex + 1);
+        } finally {
+            synchronized (syncMonitor) {
+                if (synced) {
+                    syncedWriteCount = Math.max(syncedWriteCount, syncedThrough);
+                }
+
+                syncInProgress = false;
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    private boolean isGroupCommitFull(final long writeIndex) {
+        return groupCommitMaxTransactions > 0 && journalWriteCount.get() - writeIndex + 1 >= groupCommitMaxTransactions;
+    }
+
     @Override
     public synchronized Collection<T> recoverRecords() throws IOException {
         if (recovered) {
@@ -212,7 +346,10 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long recoverNanos = System.nanoTime() - recoverStart;
         final long recoveryMillis = TimeUnit.MILLISECONDS.convert(recoverNanos, TimeUnit.NANOSECONDS);
-        logger.info("Successfully recovered {} records in {} milliseconds. Now checkpointing to ensure that Write-Ahead Log is in a consistent state", recoveredRecords.size(), recoveryMillis);
+        final long journalRecoveryMillis = recoveryMillis - snapshotRecoveryMillis;
+        logger.info("Successfully recovered {} records in {} milliseconds ({} milliseconds restoring Snapshot, {} milliseconds replaying {} journal files). "
+            + "Now checkpointing to ensure that Write-Ahead Log is in a consistent state", recoveredRecords.size(), recoveryMillis, snapshotRecoveryMillis,
+            journalRecoveryMillis, journalFilesRecovered);
 
         this.recoveredSwapLocations.addAll(swapLocations);
 
@@ -285,14 +422,15 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
             syncListener.onGlobalSync();
 
+            // No updates can occur while the write lock is held, so every transaction written thus far is now on disk.
+            synchronized (syncMonitor) {
+                syncedWriteCount = journalWriteCount.get();
+            }
+
             final File[] existingFiles = journalsDirectory.listFiles(this::isJournalFile);
             existingJournals = (existingFiles == null) ? new File[0] : existingFiles;
 
-            if (swapLocations == null) {
-                snapshotCapture = snapshot.prepareSnapshot(nextTransactionId - 1);
-            } else {
-                snapshotCapture = snapshot.prepareSnapshot(nextTransactionId - 1, swapLocations);
-            }
+            snapshotCapture = snapshot.prepareCheckpoint(nextTransactionId - 1, swapLocations);
 
 
             // Create a new journal. We name the journal file <next transaction id>.journal but it is possible
@@ -323,10 +461,16 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long totalNanos = System.nanoTime() - startNanos;
         final long millis = TimeUnit.NANOSECONDS.toMillis(totalNanos);
-        logger.info("Checkpointed Write-Ahead Log with {} Records and {} Swap Files in {} milliseconds (Stop-the-world time = {} milliseconds), max Transaction ID {}",
-                snapshotCapture.getRecords().size(), snapshotCapture.getSwapLocations().size(), millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
+        if (snapshotCapture.isIncremental()) {
+            logger.info("Incrementally checkpointed Write-Ahead Log with {} Records ({} changed) and {} Swap Files in {} milliseconds (Stop-the-world time = {} milliseconds), "
+                    + "max Transaction ID {}", snapshotCapture.getRecordCount(), snapshotCapture.getRecords().size(), snapshotCapture.getSwapLocations().size(), millis,
+                    stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
+        } else {
+            logger.info("Checkpointed Write-Ahead Log with {} Records and {} Swap Files in {} milliseconds (Stop-the-world time = {} milliseconds), max Transaction ID {}",
+                    snapshotCapture.getRecordCount(), snapshotCapture.getSwapLocations().size(), millis, stopTheWorldMillis, snapshotCapture.getMaxTransactionId());
+        }
 
-        return snapshotCapture.getRecords().size();
+        return snapshotCapture.getRecordCount();
     }
 
 
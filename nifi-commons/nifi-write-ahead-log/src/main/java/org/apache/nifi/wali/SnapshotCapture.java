@@ -21,8 +21,26 @@ import java.util.Map;
 import java.util.Set;
 
 public interface SnapshotCapture<T> {
+    /**
+     * @return the records that are to be written. For a full snapshot, these are all active records; for an incremental snapshot,
+     *         these are only the records that have changed since the previous snapshot
+     */
     Map<Object, T> getRecords();
 
+    /**
+     * @return the total number of active records in the repository at the time that the snapshot was captured
+     */
+    default int getRecordCount() {
+        return getRecords().size();
+    }
+
+    /**
+     * @return <code>true</code> if this capture holds only the records that have changed since the previous snapshot
+     */
+    default boolean isIncremental() {
+        return false;
+    }
+
     long getMaxTransactionId();
 
     Set<String> getSwapLocations();
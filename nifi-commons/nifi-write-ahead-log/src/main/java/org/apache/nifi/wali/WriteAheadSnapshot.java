@@ -26,6 +26,19 @@ public interface WriteAheadSnapshot<T> {
 
     SnapshotCapture<T> prepareSnapshot(long maxTransactionId, Set<String> swapLocations);
 
+    /**
+     * Prepares a capture of the current state that is to be written as the next checkpoint. Unlike {@link #prepareSnapshot(long)},
+     * the capture returned may be incremental, holding only those records that have changed since the previous checkpoint. This
+     * method must be called only while no updates are occurring, and the returned capture must then be passed to
+     * {@link #writeSnapshot(SnapshotCapture)}.
+     *
+     * @param maxTransactionId the ID of the last transaction that is included in the capture
+     * @param swapLocations the swap locations to include in the capture, or <code>null</code> to use the currently known swap locations.
+     *            If not <code>null</code>, a full capture is always returned.
+     * @return the capture to write
+     */
+    SnapshotCapture<T> prepareCheckpoint(long maxTransactionId, Set<String> swapLocations);
+
     void writeSnapshot(SnapshotCapture<T> snapshot) throws IOException;
 
     SnapshotRecovery<T> recover() throws IOException;
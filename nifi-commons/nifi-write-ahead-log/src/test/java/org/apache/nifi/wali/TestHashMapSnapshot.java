@@ -25,7 +25,9 @@ import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
 import org.wali.UpdateType;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collections;
@@ -35,6 +37,7 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -115,6 +118,136 @@ public class TestHashMapSnapshot {
         assertEquals(records, recoveredRecords);
     }
 
+    @Test
+    public void testRoundTripWithManyBlocks() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
+        final int numRecords = 25_000;
+        for (int i = 0; i < numRecords; i++) {
+            final DummyRecord record = new DummyRecord(String.valueOf(i), UpdateType.CREATE);
+            record.setProperty("index", String.valueOf(i));
+            snapshot.update(Collections.singleton(record));
+        }
+
+        snapshot.writeSnapshot(snapshot.prepareSnapshot(numRecords, Collections.singleton("swapFile-1")));
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(numRecords, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("swapFile-1"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recoveredRecords = recovery.getRecords();
+        assertEquals(numRecords, recoveredRecords.size());
+        for (int i = 0; i < numRecords; i++) {
+            assertEquals(String.valueOf(i), recoveredRecords.get(String.valueOf(i)).getProperty("index"));
+        }
+    }
+
+    @Test
+    public void testRecoverSnapshotWithoutBlocks() throws IOException {
+        // Write a snapshot using the encoding that preceded blocks of records.
+        try (final DataOutputStream dataOut = new DataOutputStream(new FileOutputStream(new File(storageDirectory, "checkpoint")))) {
+            dataOut.writeUTF(HashMapSnapshot.class.getName());
+            dataOut.writeInt(1);
+            dataOut.writeUTF(DummyRecordSerde.class.getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeLong(50L);
+            dataOut.writeInt(3);
+            serde.writeHeader(dataOut);
+            for (int i = 0; i < 3; i++) {
+                serde.serializeRecord(new DummyRecord(String.valueOf(i), UpdateType.CREATE), dataOut);
+            }
+            dataOut.writeInt(0);
+        }
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory).recover();
+        assertEquals(50L, recovery.getMaxTransactionId());
+        assertEquals(3, recovery.getRecords().size());
+        assertTrue(recovery.getRecoveredSwapLocations().isEmpty());
+    }
+
+    @Test
+    public void testIncrementalSnapshotRoundTrip() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2);
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+
+        // The first checkpoint must always be a full snapshot.
+        final SnapshotCapture<DummyRecord> fullCapture = snapshot.prepareCheckpoint(10L, null);
+        assertFalse(fullCapture.isIncremental());
+        assertEquals(10, fullCapture.getRecords().size());
+        snapshot.writeSnapshot(fullCapture);
+
+        final DummyRecord updated = new DummyRecord("1", UpdateType.UPDATE);
+        updated.setProperty("key", "value");
+        snapshot.update(Collections.singleton(updated));
+        snapshot.update(Collections.singleton(new DummyRecord("2", UpdateType.DELETE)));
+
+        final SnapshotCapture<DummyRecord> firstDelta = snapshot.prepareCheckpoint(20L, null);
+        assertTrue(firstDelta.isIncremental());
+        assertEquals(2, firstDelta.getRecords().size());
+        assertEquals(9, firstDelta.getRecordCount());
+        snapshot.writeSnapshot(firstDelta);
+
+        final DummyRecord swapOut = new DummyRecord("3", UpdateType.SWAP_OUT);
+        swapOut.setSwapLocation("swapFile-3");
+        snapshot.update(Collections.singleton(swapOut));
+
+        final SnapshotCapture<DummyRecord> secondDelta = snapshot.prepareCheckpoint(30L, null);
+        assertTrue(secondDelta.isIncremental());
+        assertEquals(1, secondDelta.getRecords().size());
+        snapshot.writeSnapshot(secondDelta);
+
+        assertTrue(new File(storageDirectory, "checkpoint.delta.1").exists());
+        assertTrue(new File(storageDirectory, "checkpoint.delta.2").exists());
+
+        final HashMapSnapshot<DummyRecord> recoveredSnapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2);
+        final SnapshotRecovery<DummyRecord> recovery = recoveredSnapshot.recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(Collections.singleton("swapFile-3"), recovery.getRecoveredSwapLocations());
+
+        final Map<Object, DummyRecord> recoveredRecords = recovery.getRecords();
+        assertEquals(8, recoveredRecords.size());
+        assertFalse(recoveredRecords.containsKey("2"));
+        assertFalse(recoveredRecords.containsKey("3"));
+        assertEquals("value", recoveredRecords.get("1").getProperty("key"));
+
+        // Once the maximum number of incremental snapshots has been written, a full snapshot replaces the chain.
+        snapshot.update(Collections.singleton(new DummyRecord("4", UpdateType.DELETE)));
+        final SnapshotCapture<DummyRecord> nextFull = snapshot.prepareCheckpoint(40L, null);
+        assertFalse(nextFull.isIncremental());
+        snapshot.writeSnapshot(nextFull);
+
+        assertFalse(new File(storageDirectory, "checkpoint.delta.1").exists());
+        assertFalse(new File(storageDirectory, "checkpoint.delta.2").exists());
+
+        final SnapshotRecovery<DummyRecord> finalRecovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 2).recover();
+        assertEquals(40L, finalRecovery.getMaxTransactionId());
+        assertEquals(7, finalRecovery.getRecords().size());
+    }
+
+    @Test
+    public void testIncrementalSnapshotNotFollowingLastSnapshotIsIgnored() throws IOException {
+        final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5);
+        for (int i = 0; i < 10; i++) {
+            snapshot.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE)));
+        }
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(10L, null));
+
+        snapshot.update(Collections.singleton(new DummyRecord("1", UpdateType.DELETE)));
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(20L, null));
+
+        // Move the incremental snapshot aside, write a new full snapshot, and then restore the stale incremental snapshot.
+        final File delta = new File(storageDirectory, "checkpoint.delta.1");
+        final File staleDelta = new File(storageDirectory, "stale-delta");
+        Files.move(delta.toPath(), staleDelta.toPath());
+        snapshot.writeSnapshot(snapshot.prepareCheckpoint(30L, Collections.emptySet()));
+        Files.move(staleDelta.toPath(), delta.toPath());
+
+        final SnapshotRecovery<DummyRecord> recovery = new HashMapSnapshot<>(storageDirectory, serdeFactory, 5).recover();
+        assertEquals(30L, recovery.getMaxTransactionId());
+        assertEquals(9, recovery.getRecords().size());
+    }
+
     @Test
     public void testOOMEWhenWritingResultsInPreviousSnapshotStillRecoverable() throws IOException {
         final HashMapSnapshot<DummyRecord> snapshot = new HashMapSnapshot<>(storageDirectory, serdeFactory);
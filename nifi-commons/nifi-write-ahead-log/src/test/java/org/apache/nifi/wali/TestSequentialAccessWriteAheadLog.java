@@ -24,6 +24,7 @@ import org.wali.DummyRecord;
 import org.wali.DummyRecordSerde;
 import org.wali.SerDeFactory;
 import org.wali.SingletonSerDeFactory;
+import org.wali.SyncListener;
 import org.wali.UpdateType;
 import org.wali.WriteAheadRepository;
 
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -303,6 +305,105 @@ public class TestSequentialAccessWriteAheadLog {
     }
 
 
+    @Test
+    public void testGroupCommitSyncsConcurrentUpdates(TestInfo testInfo) throws IOException, InterruptedException {
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final AtomicInteger syncCount = new AtomicInteger(0);
+        final SyncListener syncListener = new SyncListener() {
+            @Override
+            public void onSync(final int partitionIndex) {
+                syncCount.incrementAndGet();
+            }
+
+            @Override
+            public void onGlobalSync() {
+            }
+        };
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, syncListener, 50L, TimeUnit.MILLISECONDS, 0);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final int numThreads = 8;
+        final int updatesPerThread = 10;
+        final Thread[] threads = new Thread[numThreads];
+        final AtomicInteger failures = new AtomicInteger(0);
+        for (int i = 0; i < numThreads; i++) {
+            final int threadIndex = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < updatesPerThread; j++) {
+                    final DummyRecord record = new DummyRecord(threadIndex + "-" + j, UpdateType.CREATE);
+                    try {
+                        repo.update(Collections.singleton(record), true);
+                    } catch (final IOException ioe) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, failures.get());
+        assertTrue(syncCount.get() > 0);
+        assertTrue(syncCount.get() < numThreads * updatesPerThread, "Expected syncs to be shared among transactions but performed " + syncCount.get() + " syncs");
+
+        repo.shutdown();
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        assertEquals(numThreads * updatesPerThread, recoveryRepo.recoverRecords().size());
+        recoveryRepo.shutdown();
+    }
+
+    @Test
+    public void testRecoverWithIncrementalCheckpoints(TestInfo testInfo) throws IOException {
+        final File storageDir = new File("target", testInfo.getTestMethod().get().getName());
+        deleteRecursively(storageDir);
+        assertTrue(storageDir.mkdirs());
+
+        final SerDeFactory<DummyRecord> serdeFactory = new SingletonSerDeFactory<>(new DummyRecordSerde());
+        final SequentialAccessWriteAheadLog<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(storageDir, serdeFactory, SyncListener.NOP_SYNC_LISTENER,
+            0L, TimeUnit.MILLISECONDS, 0, 10);
+        assertTrue(repo.recoverRecords().isEmpty());
+
+        final List<DummyRecord> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(new DummyRecord(String.valueOf(i), UpdateType.CREATE));
+        }
+        repo.update(records, false);
+        assertEquals(100, repo.checkpoint());
+
+        for (int i = 0; i < 5; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.DELETE)), false);
+            assertEquals(99 - i, repo.checkpoint());
+        }
+
+        repo.update(Collections.singleton(new DummyRecord("100", UpdateType.CREATE)), false);
+        repo.shutdown();
+
+        assertTrue(new File(storageDir, "checkpoint.delta.1").exists());
+
+        final SequentialAccessWriteAheadLog<DummyRecord> recoveryRepo = createRecoveryRepo(testInfo);
+        final Set<Object> recoveredIds = recoveryRepo.recoverRecords().stream()
+            .map(DummyRecord::getId)
+            .collect(Collectors.toSet());
+        recoveryRepo.shutdown();
+
+        assertEquals(96, recoveredIds.size());
+        for (int i = 0; i < 5; i++) {
+            assertFalse(recoveredIds.contains(String.valueOf(i)));
+        }
+        assertTrue(recoveredIds.contains("100"));
+    }
+
     @Test
     @Disabled("For manual performance testing")
     public void testUpdatePerformance() throws IOException, InterruptedException {
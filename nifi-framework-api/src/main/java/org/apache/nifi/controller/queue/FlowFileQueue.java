@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 public interface FlowFileQueue {
@@ -50,6 +51,18 @@ public interface FlowFileQueue {
      */
     SwapSummary recoverSwappedFlowFiles();
 
+    /**
+     * Reads any Swap Files that belong to this queue and returns a summary of what is swapped out, as {@link #recoverSwappedFlowFiles()}
+     * does, but uses the given Executor to read the Swap Files concurrently. The same Executor is shared by all queues that are recovered
+     * so that the number of threads used for recovery does not depend on the number of queues.
+     *
+     * @param executor the Executor to use for reading Swap Files
+     * @return a SwapSummary that describes the FlowFiles that exist in the queue but are swapped out.
+     */
+    default SwapSummary recoverSwappedFlowFiles(final Executor executor) {
+        return recoverSwappedFlowFiles();
+    }
+
     /**
      * Destroys any Swap Files that exist for this queue without updating the FlowFile Repository
      * or Provenance Repository. This is done only on startup in the case of non-persistent
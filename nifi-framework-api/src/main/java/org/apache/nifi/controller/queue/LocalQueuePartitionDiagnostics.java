@@ -29,4 +29,25 @@ public interface LocalQueuePartitionDiagnostics {
     boolean isAnyActiveFlowFilePenalized();
 
     boolean isAllActiveFlowFilesPenalized();
+
+    /**
+     * @return the number of swap files that have been swapped in since the queue was created
+     */
+    default long getSwapInCount() {
+        return 0L;
+    }
+
+    /**
+     * @return the total number of milliseconds that polling threads have spent waiting for swap files to be swapped in
+     */
+    default long getSwapInMillis() {
+        return 0L;
+    }
+
+    /**
+     * @return the number of swap files whose contents had already been read in the background by the time they were swapped in
+     */
+    default long getSwapInPrefetchHitCount() {
+        return 0L;
+    }
 }
@@ -22,6 +22,8 @@ import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Set;
@@ -235,6 +237,25 @@ public interface ContentRepository {
      */
     long exportTo(ContentClaim claim, OutputStream destination, long offset, long length) throws IOException;
 
+    /**
+     * Exports a subset of the content of the given claim, starting at offset
+     * and copying length bytes, to the given channel. Implementations that store
+     * content in files may transfer the bytes directly from the file to the
+     * channel, without copying them through the heap, if the channel supports it.
+     * The default implementation copies the content through an OutputStream.
+     *
+     * @return the number of bytes copied
+     * @param claim to export from
+     * @param destination the channel to write the data to; must be in blocking mode.
+     * The channel is not closed.
+     * @param offset the offset into the claim at which the copy should begin
+     * @param length the number of bytes to copy
+     * @throws IOException if an IO error occurs.
+     */
+    default long exportTo(ContentClaim claim, WritableByteChannel destination, long offset, long length) throws IOException {
+        return exportTo(claim, Channels.newOutputStream(destination), offset, length);
+    }
+
     /**
      * @param claim to get size of
      * @return size in bytes of content for given claim
@@ -285,6 +306,17 @@ public interface ContentRepository {
      */
     OutputStream write(ContentClaim claim) throws IOException;
 
+    /**
+     * Ensures that the content of the given claims is held in durable storage. This is called before
+     * FlowFiles are swapped out of a queue, as they may then remain queued for a long time. The default
+     * implementation does nothing, as content is written to durable storage when its stream is closed.
+     *
+     * @param claims the claims whose content must be persisted
+     * @throws IOException if unable to persist the content
+     */
+    default void persist(Collection<ContentClaim> claims) throws IOException {
+    }
+
     /**
      * Purges the contents of the repository, as if the repository were newly
      * created.
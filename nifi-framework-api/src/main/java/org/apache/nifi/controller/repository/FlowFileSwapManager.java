@@ -80,6 +80,25 @@ public interface FlowFileSwapManager {
      */
     SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue) throws IncompleteSwapFileException, IOException;
 
+    /**
+     * Swaps in the FlowFiles from the swap file that lives at the given location, given the contents of that swap file
+     * as previously obtained from {@link #peek(String, FlowFileQueue)}. This allows the swap file to be read ahead of time,
+     * in the background, so that the FlowFile Repository update is all that remains when the FlowFiles are needed. The default
+     * implementation ignores the given contents and calls {@link #swapIn(String, FlowFileQueue)}.
+     *
+     * @param swapLocation the location of the swap file
+     * @param flowFileQueue the queue to which the FlowFiles belong
+     * @param peekedContents the contents of the swap file, as returned by {@link #peek(String, FlowFileQueue)}
+     *
+     * @return a SwapContents that includes FlowFiles that are stored in the given location
+     *
+     * @throws IOException if unable to recover the FlowFiles from the given location or update the
+     *             FlowFileRepository
+     */
+    default SwapContents swapIn(String swapLocation, FlowFileQueue flowFileQueue, SwapContents peekedContents) throws IncompleteSwapFileException, IOException {
+        return swapIn(swapLocation, flowFileQueue);
+    }
+
     /**
      * Determines swap files that exist for the given FlowFileQueue
      *
@@ -37,4 +37,12 @@ public interface SwapManagerInitializationContext {
      * @return an {@link EventReporter} that can be used to report events to users
      */
     EventReporter getEventReporter();
+
+    /**
+     * @return the {@link ContentRepository} that holds the content of the FlowFiles that are swapped out, or <code>null</code>
+     *         if it is not available
+     */
+    default ContentRepository getContentRepository() {
+        return null;
+    }
 }
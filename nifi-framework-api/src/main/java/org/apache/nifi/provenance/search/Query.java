@@ -32,6 +32,8 @@ public class Query {
     private String minFileSize;
     private String maxFileSize;
     private int maxResults = 1000;
+    private Long maxEventId;
+    private String continuationToken;
 
     public Query(final String identifier) {
         this.identifier = Objects.requireNonNull(identifier);
@@ -73,6 +75,43 @@ public class Query {
         this.maxResults = maxResults;
     }
 
+    /**
+     * @return the largest Event ID that the query may return, or <code>null</code> if the query is not bounded by Event ID
+     */
+    public Long getMaxEventId() {
+        return maxEventId;
+    }
+
+    /**
+     * Restricts the query to events whose ID is no greater than the given ID. A query that is bounded by Event ID returns the matching
+     * events with the largest IDs, in descending order of ID, so that the results can be retrieved one page at a time: each subsequent
+     * page is obtained by bounding the query by one less than the smallest Event ID of the previous page.
+     *
+     * @param maxEventId the largest Event ID that the query may return, or <code>null</code> to not bound the query by Event ID
+     */
+    public void setMaxEventId(final Long maxEventId) {
+        this.maxEventId = maxEventId;
+    }
+
+    /**
+     * @return the opaque token identifying the page of results that this query retrieves, or <code>null</code> if the results are not
+     * paginated
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * Retains the token identifying the page of results that this query retrieves, exactly as it was requested, so that it can be returned
+     * along with the query. The token may describe where the page begins on other nodes as well, so it is not derived from
+     * {@link #getMaxEventId()}.
+     *
+     * @param continuationToken the opaque token identifying the page of results, or <code>null</code> if the results are not paginated
+     */
+    public void setContinuationToken(final String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     public void setMinFileSize(final String fileSize) {
         this.minFileSize = fileSize;
     }
@@ -95,6 +134,6 @@ public class Query {
     }
 
     public boolean isEmpty() {
-        return searchTerms.isEmpty() && maxFileSize == null && minFileSize == null && startDate == null && endDate == null;
+        return searchTerms.isEmpty() && maxFileSize == null && minFileSize == null && startDate == null && endDate == null && maxEventId == null;
     }
 }
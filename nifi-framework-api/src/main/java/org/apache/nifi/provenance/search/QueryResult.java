@@ -63,4 +63,15 @@ public interface QueryResult {
     boolean isFinished();
 
     boolean awaitCompletion(long time, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Provides the bound to use in order to retrieve the next page of results for a query that is bounded by Event ID. See
+     * {@link Query#setMaxEventId(Long)}.
+     *
+     * @return the maximum Event ID with which to query for the next page of results, or <code>null</code> if the query is not bounded by
+     * Event ID, has not yet finished, or has no further results
+     */
+    default Long getNextMaxEventId() {
+        return null;
+    }
 }
@@ -34,6 +34,9 @@ public class LocalQueuePartitionDTO {
     private long inFlightByteCount;
     private Boolean allActiveQueueFlowFilesPenalized;
     private Boolean anyActiveQueueFlowFilesPenalized;
+    private long swapInCount;
+    private long swapInMillis;
+    private long swapInPrefetchHitCount;
 
     @ApiModelProperty("Total number of FlowFiles owned by the Connection")
     public int getTotalFlowFileCount() {
@@ -133,4 +136,31 @@ public class LocalQueuePartitionDTO {
     public void setAnyActiveQueueFlowFilesPenalized(Boolean anyFlowFilesPenalized) {
         this.anyActiveQueueFlowFilesPenalized = anyFlowFilesPenalized;
     }
+
+    @ApiModelProperty("The number of Swap Files that have been swapped in for this Connection")
+    public long getSwapInCount() {
+        return swapInCount;
+    }
+
+    public void setSwapInCount(long swapInCount) {
+        this.swapInCount = swapInCount;
+    }
+
+    @ApiModelProperty("The total number of milliseconds spent swapping in Swap Files for this Connection")
+    public long getSwapInMillis() {
+        return swapInMillis;
+    }
+
+    public void setSwapInMillis(long swapInMillis) {
+        this.swapInMillis = swapInMillis;
+    }
+
+    @ApiModelProperty("The number of Swap Files whose contents had already been read in the background by the time they were swapped in")
+    public long getSwapInPrefetchHitCount() {
+        return swapInPrefetchHitCount;
+    }
+
+    public void setSwapInPrefetchHitCount(long swapInPrefetchHitCount) {
+        this.swapInPrefetchHitCount = swapInPrefetchHitCount;
+    }
 }
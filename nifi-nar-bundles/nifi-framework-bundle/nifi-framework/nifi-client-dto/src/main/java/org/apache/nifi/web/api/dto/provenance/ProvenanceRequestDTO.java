@@ -37,6 +37,7 @@ public class ProvenanceRequestDTO {
     private String minimumFileSize;
     private String maximumFileSize;
     private Integer maxResults;
+    private String continuationToken;
 
     private Boolean summarize;
     private Boolean incrementalResults;
@@ -129,6 +130,22 @@ public class ProvenanceRequestDTO {
         this.maxResults = maxResults;
     }
 
+    /**
+     * @return token that identifies the page of results to retrieve
+     */
+    @ApiModelProperty(
+            value = "When specified, the query returns its results one page at a time, in descending order of event id on each node. "
+                    + "Specify an empty token to retrieve the first page, and the continuation token of the previous page's results to retrieve each "
+                    + "subsequent page. The maximum number of results is the size of each page."
+    )
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     /**
      * @return id of the node in the cluster where this provenance originated
      */
@@ -38,6 +38,7 @@ public class ProvenanceResultsDTO {
     private Date generated;
     private Date oldestEvent;
     private Integer timeOffset;
+    private String continuationToken;
 
     private Set<String> errors;
 
@@ -129,6 +130,21 @@ public class ProvenanceResultsDTO {
         this.oldestEvent = oldestEvent;
     }
 
+    /**
+     * @return token with which to retrieve the next page of results
+     */
+    @ApiModelProperty(
+            value = "For a query that returns its results one page at a time, the token with which to retrieve the next page of results. "
+                    + "Not present until the query has finished, or if there are no further results."
+    )
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     /**
      * @return time offset on the server that's used for event time
      */
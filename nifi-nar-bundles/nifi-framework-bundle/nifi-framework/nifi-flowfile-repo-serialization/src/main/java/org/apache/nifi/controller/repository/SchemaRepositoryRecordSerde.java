@@ -46,8 +46,8 @@ import java.util.Map;
 public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implements SerDe<SerializedRepositoryRecord> {
     private static final int MAX_ENCODING_VERSION = 2;
 
-    private final RecordSchema writeSchema = RepositoryRecordSchema.REPOSITORY_RECORD_SCHEMA_V2;
-    private final RecordSchema contentClaimSchema = ContentClaimSchema.CONTENT_CLAIM_SCHEMA_V1;
+    private final RecordSchema writeSchema = RepositoryRecordSchema.REPOSITORY_RECORD_SCHEMA_V3;
+    private final RecordSchema contentClaimSchema = ContentClaimSchema.CONTENT_CLAIM_SCHEMA_V2;
 
     private final ResourceClaimManager resourceClaimManager;
     private final FieldCache fieldCache;
@@ -75,23 +75,23 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
         switch (record.getType()) {
             case CREATE:
             case UPDATE:
-                schema = RepositoryRecordSchema.CREATE_OR_UPDATE_SCHEMA_V2;
+                schema = RepositoryRecordSchema.CREATE_OR_UPDATE_SCHEMA_V3;
                 break;
             case CONTENTMISSING:
             case DELETE:
-                schema = RepositoryRecordSchema.DELETE_SCHEMA_V2;
+                schema = RepositoryRecordSchema.DELETE_SCHEMA_V3;
                 break;
             case SWAP_IN:
-                schema = RepositoryRecordSchema.SWAP_IN_SCHEMA_V2;
+                schema = RepositoryRecordSchema.SWAP_IN_SCHEMA_V3;
                 break;
             case SWAP_OUT:
-                schema = RepositoryRecordSchema.SWAP_OUT_SCHEMA_V2;
+                schema = RepositoryRecordSchema.SWAP_OUT_SCHEMA_V3;
                 break;
             default:
                 throw new IllegalArgumentException("Received Repository Record with unknown Update Type: " + record.getType()); // won't happen.
         }
 
-        serializeRecord(record, out, schema, RepositoryRecordSchema.REPOSITORY_RECORD_SCHEMA_V2);
+        serializeRecord(record, out, schema, RepositoryRecordSchema.REPOSITORY_RECORD_SCHEMA_V3);
     }
 
 
@@ -54,6 +54,10 @@ public class ContentClaimFieldMap implements Record {
                 return contentClaimOffset;
             case ContentClaimSchema.RESOURCE_CLAIM_OFFSET:
                 return contentClaim.getOffset();
+            case ContentClaimSchema.CONTENT_DIGEST_ALGORITHM:
+                return contentClaim instanceof StandardContentClaim ? ((StandardContentClaim) contentClaim).getDigestAlgorithm() : null;
+            case ContentClaimSchema.CONTENT_DIGEST:
+                return contentClaim instanceof StandardContentClaim ? ((StandardContentClaim) contentClaim).getDigest() : null;
             default:
                 return null;
         }
@@ -124,6 +128,12 @@ public class ContentClaimFieldMap implements Record {
         final StandardContentClaim contentClaim = new StandardContentClaim(resourceClaim, resourceOffset);
         contentClaim.setLength(length);
 
+        final String digestAlgorithm = (String) claimRecord.getFieldValue(ContentClaimSchema.CONTENT_DIGEST_ALGORITHM);
+        final byte[] digest = (byte[]) claimRecord.getFieldValue(ContentClaimSchema.CONTENT_DIGEST);
+        if (digestAlgorithm != null && digest != null) {
+            contentClaim.setDigest(digestAlgorithm, digest);
+        }
+
         return contentClaim;
     }
 
@@ -41,9 +41,12 @@ public class ContentClaimSchema {
     public static final String RESOURCE_CLAIM_OFFSET = "Resource Claim Offset"; // offset into resource claim where the content claim begins
     public static final String CONTENT_CLAIM_OFFSET = "Content Claim Offset"; // offset into the content claim where the flowfile begins
     public static final String CONTENT_CLAIM_LENGTH = "Content Claim Length";
+    public static final String CONTENT_DIGEST_ALGORITHM = "Content Digest Algorithm";
+    public static final String CONTENT_DIGEST = "Content Digest";
 
     public static final RecordSchema CONTENT_CLAIM_SCHEMA_V1;
     public static final RecordSchema RESOURCE_CLAIM_SCHEMA_V1;
+    public static final RecordSchema CONTENT_CLAIM_SCHEMA_V2;
 
     static {
         final List<RecordField> resourceClaimFields = new ArrayList<>();
@@ -59,5 +62,11 @@ public class ContentClaimSchema {
         contentClaimFields.add(new SimpleRecordField(CONTENT_CLAIM_OFFSET, FieldType.LONG, Repetition.EXACTLY_ONE));
         contentClaimFields.add(new SimpleRecordField(CONTENT_CLAIM_LENGTH, FieldType.LONG, Repetition.EXACTLY_ONE));
         CONTENT_CLAIM_SCHEMA_V1 = new RecordSchema(Collections.unmodifiableList(contentClaimFields));
+
+        // V2 adds the digest that may have been computed while the content was written
+        final List<RecordField> contentClaimFieldsV2 = new ArrayList<>(contentClaimFields);
+        contentClaimFieldsV2.add(new SimpleRecordField(CONTENT_DIGEST_ALGORITHM, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        contentClaimFieldsV2.add(new SimpleRecordField(CONTENT_DIGEST, FieldType.BYTE_ARRAY, Repetition.ZERO_OR_ONE));
+        CONTENT_CLAIM_SCHEMA_V2 = new RecordSchema(Collections.unmodifiableList(contentClaimFieldsV2));
     }
 }
@@ -44,15 +44,10 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
     private static final Logger logger = LoggerFactory.getLogger(AbstractNodeProtocolSender.class);
     private final SocketConfiguration socketConfiguration;
     private final ProtocolContext<ProtocolMessage> protocolContext;
-    private final ProtocolMessageMarshaller<ProtocolMessage> marshaller;
-    private final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller;
 
     public AbstractNodeProtocolSender(final SocketConfiguration socketConfiguration, final ProtocolContext<ProtocolMessage> protocolContext) {
         this.socketConfiguration = socketConfiguration;
         this.protocolContext = protocolContext;
-
-        marshaller = protocolContext.createMarshaller();
-        unmarshaller = protocolContext.createUnmarshaller();
     }
 
     @Override
@@ -75,9 +70,10 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             logger.info("Cluster Coordinator is located at {}. Will send Cluster Connection Request to this address", socketAddress);
             socket = createSocket(socketAddress);
 
+            final String peerAddress = socketAddress.getHostString() + ":" + socketAddress.getPort();
             try {
                 // marshal message to output stream
-                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller(peerAddress);
                 marshaller.marshal(msg, socket.getOutputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed marshalling '" + msg.getType() + "' protocol message due to: " + ioe, ioe);
@@ -86,7 +82,7 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             final ProtocolMessage response;
             try {
                 // unmarshall response and return
-                final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+                final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller(peerAddress);
                 response = unmarshaller.unmarshal(socket.getInputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed unmarshalling '" + MessageType.CONNECTION_RESPONSE + "' protocol message from "
@@ -177,6 +173,7 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
         final long dnsLookupStart = System.currentTimeMillis();
         final InetSocketAddress socketAddress = new InetSocketAddress(hostname, port);
 
+        final String peerAddress = hostname + ":" + port;
         final long connectStart = System.currentTimeMillis();
         try (final Socket socket = SocketUtils.createSocket(socketAddress, socketConfiguration);
              final InputStream in = new BufferedInputStream(socket.getInputStream());
@@ -185,7 +182,7 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             final long sendStart = System.currentTimeMillis();
             try {
                 // marshal message to output stream
-                marshaller.marshal(msg, out);
+                protocolContext.createMarshaller(peerAddress).marshal(msg, out);
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed marshalling '" + msg.getType() + "' protocol message", ioe);
             }
@@ -202,7 +199,7 @@ public abstract class AbstractNodeProtocolSender implements NodeProtocolSender {
             final ProtocolMessage response;
             try {
                 // unmarshall response and return
-                response = unmarshaller.unmarshal(in);
+                response = protocolContext.createUnmarshaller(peerAddress).unmarshal(in);
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed unmarshalling '" + MessageType.CONNECTION_RESPONSE + "' protocol message from "
                         + socket.getRemoteSocketAddress(), ioe);
@@ -34,14 +34,28 @@ public class Heartbeat {
     private final NodeIdentifier nodeIdentifier;
     private final NodeConnectionStatus connectionStatus;
     private final long createdTimestamp;
-    private final byte[] payload;
+    private final HeartbeatPayload heartbeatPayload;
+    private volatile byte[] payload;
 
     public Heartbeat(final NodeIdentifier nodeIdentifier, final NodeConnectionStatus connectionStatus, final byte[] payload) {
+        this(nodeIdentifier, connectionStatus, null, payload);
+    }
+
+    /**
+     * Creates a heartbeat whose payload is marshalled only if it is sent using JAXB. When the heartbeat is sent using the cluster
+     * protocol message schema, the payload is encoded directly from the given object instead.
+     */
+    public Heartbeat(final NodeIdentifier nodeIdentifier, final NodeConnectionStatus connectionStatus, final HeartbeatPayload heartbeatPayload) {
+        this(nodeIdentifier, connectionStatus, heartbeatPayload, null);
+    }
+
+    private Heartbeat(final NodeIdentifier nodeIdentifier, final NodeConnectionStatus connectionStatus, final HeartbeatPayload heartbeatPayload, final byte[] payload) {
         if (nodeIdentifier == null) {
             throw new IllegalArgumentException("Node Identifier may not be null.");
         }
         this.nodeIdentifier = nodeIdentifier;
         this.connectionStatus = connectionStatus;
+        this.heartbeatPayload = heartbeatPayload;
         this.payload = payload;
         this.createdTimestamp = new Date().getTime();
     }
@@ -51,9 +65,20 @@ public class Heartbeat {
     }
 
     public byte[] getPayload() {
+        if (payload == null && heartbeatPayload != null) {
+            payload = heartbeatPayload.marshal();
+        }
         return payload;
     }
 
+    /**
+     * @return the payload that this heartbeat was created with, or <code>null</code> if it was created from the payload's bytes
+     */
+    @XmlTransient
+    public HeartbeatPayload getHeartbeatPayload() {
+        return heartbeatPayload;
+    }
+
     public NodeConnectionStatus getConnectionStatus() {
         return connectionStatus;
     }
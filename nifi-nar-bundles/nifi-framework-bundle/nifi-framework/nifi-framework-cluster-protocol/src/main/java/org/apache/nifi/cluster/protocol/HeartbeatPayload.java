@@ -17,6 +17,7 @@
 package org.apache.nifi.cluster.protocol;
 
 import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.schema.SchemaProtocolMessageSerde;
 import org.apache.nifi.xml.processing.ProcessingException;
 import org.apache.nifi.xml.processing.stream.StandardXMLStreamReaderProvider;
 import org.apache.nifi.xml.processing.stream.XMLStreamReaderProvider;
@@ -30,6 +31,7 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.stream.StreamSource;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
@@ -133,6 +135,15 @@ public class HeartbeatPayload {
     }
 
     public static HeartbeatPayload unmarshal(final byte[] bytes) throws ProtocolException {
+        // Heartbeats that are exchanged using the cluster protocol message schema carry a compact encoding of the payload
+        if (SchemaProtocolMessageSerde.isSerializedHeartbeatPayload(bytes)) {
+            try {
+                return SchemaProtocolMessageSerde.deserializeHeartbeatPayload(bytes);
+            } catch (final IOException ioe) {
+                throw new ProtocolException(ioe);
+            }
+        }
+
         return unmarshal(new ByteArrayInputStream(bytes));
     }
 }
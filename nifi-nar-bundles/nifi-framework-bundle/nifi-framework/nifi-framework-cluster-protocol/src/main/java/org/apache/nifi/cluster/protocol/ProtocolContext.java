@@ -37,4 +37,37 @@ public interface ProtocolContext<T> {
      * @return a unmarshaller
      */
     ProtocolMessageUnmarshaller<T> createUnmarshaller();
+
+    /**
+     * Creates a marshaller for serializing protocol messages that are sent to the given peer. The marshaller may use an
+     * encoding that the peer is known to support.
+     *
+     * @param peerAddress the address of the peer, in the form &lt;host&gt;:&lt;port&gt;
+     * @return a marshaller
+     */
+    default ProtocolMessageMarshaller<T> createMarshaller(final String peerAddress) {
+        return createMarshaller();
+    }
+
+    /**
+     * Creates an unmarshaller for deserializing the protocol messages that are received from the given peer. The unmarshaller
+     * may record which encodings the peer supports, for use by marshallers that are subsequently created for the peer.
+     *
+     * @param peerAddress the address of the peer, in the form &lt;host&gt;:&lt;port&gt;
+     * @return an unmarshaller
+     */
+    default ProtocolMessageUnmarshaller<T> createUnmarshaller(final String peerAddress) {
+        return createUnmarshaller();
+    }
+
+    /**
+     * Creates a marshaller for serializing the response to a request that was deserialized by the given unmarshaller. The
+     * marshaller may use an encoding that the requester indicated it supports.
+     *
+     * @param requestUnmarshaller the unmarshaller that deserialized the request
+     * @return a marshaller
+     */
+    default ProtocolMessageMarshaller<T> createResponseMarshaller(final ProtocolMessageUnmarshaller<T> requestUnmarshaller) {
+        return createMarshaller();
+    }
 }
@@ -46,6 +46,8 @@ import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
@@ -106,7 +108,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
 
             // marshal message to output stream
             try {
-                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller(getPeerAddress(msg.getNodeId()));
                 marshaller.marshal(msg, socket.getOutputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed marshalling '" + msg.getType() + "' protocol message due to: " + ioe, ioe);
@@ -115,7 +117,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
             final ProtocolMessage response;
             try {
                 // unmarshall response and return
-                final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+                final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller(getPeerAddress(msg.getNodeId()));
                 response = unmarshaller.unmarshal(socket.getInputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed unmarshalling '" + MessageType.RECONNECTION_RESPONSE + "' protocol message due to: " + ioe, ioe);
@@ -146,7 +148,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
 
             // marshal message to output stream
             try {
-                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller(getPeerAddress(msg.getNodeId()));
                 marshaller.marshal(msg, socket.getOutputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed marshalling '" + msg.getType() + "' protocol message due to: " + ioe, ioe);
@@ -171,7 +173,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
 
             // marshal message to output stream
             try {
-                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller(getPeerAddress(msg.getNodeId()));
                 marshaller.marshal(msg, socket.getOutputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed marshalling '" + msg.getType() + "' protocol message due to: " + ioe, ioe);
@@ -197,7 +199,11 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
     }
 
     public void setHandshakeTimeout(final String handshakeTimeout) {
-        this.handshakeTimeoutSeconds = (int) FormatUtils.getTimeDuration(handshakeTimeout, TimeUnit.SECONDS);
+        this.handshakeTimeoutSeconds = (int) FormatUtils.getPreciseTimeDuration(handshakeTimeout, TimeUnit.SECONDS);
+    }
+
+    private static String getPeerAddress(final NodeIdentifier nodeId) {
+        return nodeId.getSocketAddress() + ":" + nodeId.getSocketPort();
     }
 
     private Socket createSocket(final NodeIdentifier nodeId, final boolean applyHandshakeTimeout) {
@@ -225,7 +231,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
 
         final byte[] msgBytes;
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
+            final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller(hostname + ":" + port);
             marshaller.marshal(msg, baos);
             msgBytes = baos.toByteArray();
         } catch (final IOException e) {
@@ -239,7 +245,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
             final ProtocolMessage response;
             try {
                 // unmarshall response and return
-                final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller();
+                final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = protocolContext.createUnmarshaller(hostname + ":" + port);
                 response = unmarshaller.unmarshal(socket.getInputStream());
             } catch (final IOException ioe) {
                 throw new ProtocolException("Failed unmarshalling '" + MessageType.RECONNECTION_RESPONSE + "' protocol message due to: " + ioe, ioe);
@@ -263,13 +269,16 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
 
         final int numThreads = Math.min(nodesToNotify.size(), maxThreadsPerRequest);
 
-        final byte[] msgBytes;
-        try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller();
-            marshaller.marshal(msg, baos);
-            msgBytes = baos.toByteArray();
-        } catch (final IOException e) {
-            throw new ProtocolException("Failed to marshal NodeStatusChangeMessage", e);
+        // Each node may support a different encoding of the message, so marshal it separately for each
+        final Map<NodeIdentifier, byte[]> msgBytesByNode = new HashMap<>();
+        for (final NodeIdentifier nodeId : nodesToNotify) {
+            try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+                final ProtocolMessageMarshaller<ProtocolMessage> marshaller = protocolContext.createMarshaller(getPeerAddress(nodeId));
+                marshaller.marshal(msg, baos);
+                msgBytesByNode.put(nodeId, baos.toByteArray());
+            } catch (final IOException e) {
+                throw new ProtocolException("Failed to marshal NodeStatusChangeMessage", e);
+            }
         }
 
         final ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
@@ -296,7 +305,7 @@ public class StandardClusterCoordinationProtocolSender implements ClusterCoordin
                         try (final Socket socket = createSocket(nodeId, true)) {
                             // marshal message to output stream
                             final OutputStream out = socket.getOutputStream();
-                            out.write(msgBytes);
+                            out.write(msgBytesByNode.get(nodeId));
                         } catch (final Exception e) {
                             if (e instanceof ProtocolException && e.getCause() instanceof ConnectException && nodeId.equals(msg.getNodeId())) {
                                 // We treat Connect Exceptions different because it means we're not able to reach the node at all. If that is the case and the
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.schema;
+
+import org.apache.nifi.repository.schema.ComplexRecordField;
+import org.apache.nifi.repository.schema.FieldType;
+import org.apache.nifi.repository.schema.RecordField;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.Repetition;
+import org.apache.nifi.repository.schema.SimpleRecordField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The schemas of the compact binary encoding of cluster protocol messages. A message is encoded as a record with a
+ * {@link #MESSAGE_TYPE} field followed by one optional field per supported message type, of which only the field for the
+ * message's type is present.
+ */
+public class ProtocolMessageSchema {
+    public static final int CURRENT_VERSION = 1;
+
+    // message fields
+    public static final String MESSAGE_TYPE = "Message Type";
+    public static final String HEARTBEAT_MESSAGE = "Heartbeat Message";
+    public static final String HEARTBEAT_RESPONSE_MESSAGE = "Heartbeat Response Message";
+    public static final String CONNECTION_REQUEST_MESSAGE = "Connection Request Message";
+    public static final String CONNECTION_RESPONSE_MESSAGE = "Connection Response Message";
+    public static final String FLOW_REQUEST_MESSAGE = "Flow Request Message";
+    public static final String FLOW_RESPONSE_MESSAGE = "Flow Response Message";
+    public static final String NODE_STATUS_CHANGE_MESSAGE = "Node Status Change Message";
+
+    // node identifier fields
+    public static final String NODE_IDENTIFIER = "Node Identifier";
+    public static final String ID = "Identifier";
+    public static final String API_ADDRESS = "API Address";
+    public static final String API_PORT = "API Port";
+    public static final String SOCKET_ADDRESS = "Socket Address";
+    public static final String SOCKET_PORT = "Socket Port";
+    public static final String LOAD_BALANCE_ADDRESS = "Load Balance Address";
+    public static final String LOAD_BALANCE_PORT = "Load Balance Port";
+    public static final String SITE_TO_SITE_ADDRESS = "Site-to-Site Address";
+    public static final String SITE_TO_SITE_PORT = "Site-to-Site Port";
+    public static final String SITE_TO_SITE_HTTP_API_PORT = "Site-to-Site HTTP API Port";
+    public static final String SITE_TO_SITE_SECURE = "Site-to-Site Secure";
+
+    // node connection status fields
+    public static final String CONNECTION_STATUS = "Connection Status";
+    public static final String UPDATE_ID = "Update Identifier";
+    public static final String STATE = "State";
+    public static final String OFFLOAD_CODE = "Offload Code";
+    public static final String DISCONNECTION_CODE = "Disconnection Code";
+    public static final String REASON = "Reason";
+    public static final String CONNECTION_REQUEST_TIME = "Connection Request Time";
+
+    // data flow fields
+    public static final String DATA_FLOW = "Data Flow";
+    public static final String FLOW = "Flow";
+    public static final String SNIPPETS = "Snippets";
+    public static final String AUTHORIZER_FINGERPRINT = "Authorizer Fingerprint";
+    public static final String MISSING_COMPONENTS = "Missing Components";
+
+    // component revision fields
+    public static final String COMPONENT_REVISIONS = "Component Revisions";
+    public static final String COMPONENT_REVISION = "Component Revision";
+    public static final String VERSION = "Version";
+    public static final String CLIENT_ID = "Client Identifier";
+    public static final String COMPONENT_ID = "Component Identifier";
+    public static final String REVISION_UPDATE_COUNT = "Revision Update Count";
+
+    // heartbeat fields
+    public static final String PAYLOAD = "Payload";
+    public static final String UPDATED_NODE_STATUSES = "Updated Node Statuses";
+    public static final String FLOW_ELECTION_MESSAGE = "Flow Election Message";
+
+    // heartbeat payload fields
+    public static final String ACTIVE_THREAD_COUNT = "Active Thread Count";
+    public static final String TOTAL_FLOWFILE_COUNT = "Total FlowFile Count";
+    public static final String TOTAL_FLOWFILE_BYTES = "Total FlowFile Bytes";
+    public static final String SYSTEM_START_TIME = "System Start Time";
+    public static final String CLUSTER_STATUS = "Cluster Status";
+
+    // connection request and response fields
+    public static final String CONNECTION_REQUEST = "Connection Request";
+    public static final String CONNECTION_RESPONSE = "Connection Response";
+    public static final String REJECTION_REASON = "Rejection Reason";
+    public static final String TRY_LATER_SECONDS = "Try Later Seconds";
+    public static final String INSTANCE_ID = "Instance Identifier";
+    public static final String NODE_STATUSES = "Node Statuses";
+
+    public static final RecordSchema PROTOCOL_MESSAGE_SCHEMA_V1;
+    public static final RecordSchema HEARTBEAT_PAYLOAD_SCHEMA_V1;
+
+    static {
+        final List<RecordField> nodeIdentifierFields = new ArrayList<>();
+        nodeIdentifierFields.add(new SimpleRecordField(ID, FieldType.STRING, Repetition.EXACTLY_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(API_ADDRESS, FieldType.STRING, Repetition.EXACTLY_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(API_PORT, FieldType.INT, Repetition.EXACTLY_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(SOCKET_ADDRESS, FieldType.STRING, Repetition.EXACTLY_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(SOCKET_PORT, FieldType.INT, Repetition.EXACTLY_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(LOAD_BALANCE_ADDRESS, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(LOAD_BALANCE_PORT, FieldType.INT, Repetition.EXACTLY_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(SITE_TO_SITE_ADDRESS, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(SITE_TO_SITE_PORT, FieldType.INT, Repetition.ZERO_OR_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(SITE_TO_SITE_HTTP_API_PORT, FieldType.INT, Repetition.ZERO_OR_ONE));
+        nodeIdentifierFields.add(new SimpleRecordField(SITE_TO_SITE_SECURE, FieldType.BOOLEAN, Repetition.EXACTLY_ONE));
+        final RecordField nodeIdentifier = new ComplexRecordField(NODE_IDENTIFIER, Repetition.ZERO_OR_ONE, nodeIdentifierFields);
+
+        final List<RecordField> connectionStatusFields = new ArrayList<>();
+        connectionStatusFields.add(new SimpleRecordField(UPDATE_ID, FieldType.LONG, Repetition.EXACTLY_ONE));
+        connectionStatusFields.add(nodeIdentifier);
+        connectionStatusFields.add(new SimpleRecordField(STATE, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        connectionStatusFields.add(new SimpleRecordField(OFFLOAD_CODE, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        connectionStatusFields.add(new SimpleRecordField(DISCONNECTION_CODE, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        connectionStatusFields.add(new SimpleRecordField(REASON, FieldType.LONG_STRING, Repetition.ZERO_OR_ONE));
+        connectionStatusFields.add(new SimpleRecordField(CONNECTION_REQUEST_TIME, FieldType.LONG, Repetition.ZERO_OR_ONE));
+        final RecordField connectionStatus = new ComplexRecordField(CONNECTION_STATUS, Repetition.ZERO_OR_ONE, connectionStatusFields);
+
+        final List<RecordField> dataFlowFields = new ArrayList<>();
+        dataFlowFields.add(new SimpleRecordField(FLOW, FieldType.BYTE_ARRAY, Repetition.EXACTLY_ONE));
+        dataFlowFields.add(new SimpleRecordField(SNIPPETS, FieldType.BYTE_ARRAY, Repetition.ZERO_OR_ONE));
+        dataFlowFields.add(new SimpleRecordField(AUTHORIZER_FINGERPRINT, FieldType.BYTE_ARRAY, Repetition.ZERO_OR_ONE));
+        dataFlowFields.add(new SimpleRecordField(MISSING_COMPONENTS, FieldType.STRING, Repetition.ZERO_OR_MORE));
+        final RecordField dataFlow = new ComplexRecordField(DATA_FLOW, Repetition.ZERO_OR_ONE, dataFlowFields);
+
+        final List<RecordField> componentRevisionFields = new ArrayList<>();
+        componentRevisionFields.add(new SimpleRecordField(VERSION, FieldType.LONG, Repetition.ZERO_OR_ONE));
+        componentRevisionFields.add(new SimpleRecordField(CLIENT_ID, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        componentRevisionFields.add(new SimpleRecordField(COMPONENT_ID, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        final List<RecordField> componentRevisionSnapshotFields = new ArrayList<>();
+        componentRevisionSnapshotFields.add(new ComplexRecordField(COMPONENT_REVISION, Repetition.ZERO_OR_MORE, componentRevisionFields));
+        componentRevisionSnapshotFields.add(new SimpleRecordField(REVISION_UPDATE_COUNT, FieldType.LONG, Repetition.ZERO_OR_ONE));
+        final RecordField componentRevisions = new ComplexRecordField(COMPONENT_REVISIONS, Repetition.ZERO_OR_ONE, componentRevisionSnapshotFields);
+
+        final List<RecordField> heartbeatPayloadFields = new ArrayList<>();
+        heartbeatPayloadFields.add(new SimpleRecordField(ACTIVE_THREAD_COUNT, FieldType.INT, Repetition.EXACTLY_ONE));
+        heartbeatPayloadFields.add(new SimpleRecordField(TOTAL_FLOWFILE_COUNT, FieldType.LONG, Repetition.EXACTLY_ONE));
+        heartbeatPayloadFields.add(new SimpleRecordField(TOTAL_FLOWFILE_BYTES, FieldType.LONG, Repetition.EXACTLY_ONE));
+        heartbeatPayloadFields.add(new SimpleRecordField(SYSTEM_START_TIME, FieldType.LONG, Repetition.EXACTLY_ONE));
+        heartbeatPayloadFields.add(new ComplexRecordField(CLUSTER_STATUS, Repetition.ZERO_OR_MORE, connectionStatusFields));
+        heartbeatPayloadFields.add(new SimpleRecordField(REVISION_UPDATE_COUNT, FieldType.LONG, Repetition.EXACTLY_ONE));
+        HEARTBEAT_PAYLOAD_SCHEMA_V1 = new RecordSchema(Collections.unmodifiableList(heartbeatPayloadFields));
+
+        // The heartbeat payload is carried as bytes so that the Heartbeat object remains unchanged. When the message is encoded
+        // in the binary format, the payload is encoded with HEARTBEAT_PAYLOAD_SCHEMA_V1 as well.
+        final List<RecordField> heartbeatFields = new ArrayList<>();
+        heartbeatFields.add(nodeIdentifier);
+        heartbeatFields.add(connectionStatus);
+        heartbeatFields.add(new SimpleRecordField(PAYLOAD, FieldType.BYTE_ARRAY, Repetition.ZERO_OR_ONE));
+
+        final List<RecordField> heartbeatResponseFields = new ArrayList<>();
+        heartbeatResponseFields.add(new ComplexRecordField(UPDATED_NODE_STATUSES, Repetition.ZERO_OR_MORE, connectionStatusFields));
+        heartbeatResponseFields.add(new SimpleRecordField(FLOW_ELECTION_MESSAGE, FieldType.LONG_STRING, Repetition.ZERO_OR_ONE));
+
+        final List<RecordField> connectionRequestFields = new ArrayList<>();
+        connectionRequestFields.add(nodeIdentifier);
+        connectionRequestFields.add(dataFlow);
+        final List<RecordField> connectionRequestMessageFields = new ArrayList<>();
+        connectionRequestMessageFields.add(new ComplexRecordField(CONNECTION_REQUEST, Repetition.ZERO_OR_ONE, connectionRequestFields));
+
+        final List<RecordField> connectionResponseFields = new ArrayList<>();
+        connectionResponseFields.add(new SimpleRecordField(REJECTION_REASON, FieldType.LONG_STRING, Repetition.ZERO_OR_ONE));
+        connectionResponseFields.add(new SimpleRecordField(TRY_LATER_SECONDS, FieldType.INT, Repetition.EXACTLY_ONE));
+        connectionResponseFields.add(nodeIdentifier);
+        connectionResponseFields.add(dataFlow);
+        connectionResponseFields.add(new SimpleRecordField(INSTANCE_ID, FieldType.STRING, Repetition.ZERO_OR_ONE));
+        connectionResponseFields.add(new ComplexRecordField(NODE_STATUSES, Repetition.ZERO_OR_MORE, connectionStatusFields));
+        connectionResponseFields.add(componentRevisions);
+        final List<RecordField> connectionResponseMessageFields = new ArrayList<>();
+        connectionResponseMessageFields.add(new ComplexRecordField(CONNECTION_RESPONSE, Repetition.ZERO_OR_ONE, connectionResponseFields));
+
+        final List<RecordField> flowRequestFields = new ArrayList<>();
+        flowRequestFields.add(nodeIdentifier);
+
+        final List<RecordField> flowResponseFields = new ArrayList<>();
+        flowResponseFields.add(dataFlow);
+
+        final List<RecordField> nodeStatusChangeFields = new ArrayList<>();
+        nodeStatusChangeFields.add(nodeIdentifier);
+        nodeStatusChangeFields.add(connectionStatus);
+
+        final List<RecordField> messageFields = new ArrayList<>();
+        messageFields.add(new SimpleRecordField(MESSAGE_TYPE, FieldType.STRING, Repetition.EXACTLY_ONE));
+        messageFields.add(new ComplexRecordField(HEARTBEAT_MESSAGE, Repetition.ZERO_OR_ONE, heartbeatFields));
+        messageFields.add(new ComplexRecordField(HEARTBEAT_RESPONSE_MESSAGE, Repetition.ZERO_OR_ONE, heartbeatResponseFields));
+        messageFields.add(new ComplexRecordField(CONNECTION_REQUEST_MESSAGE, Repetition.ZERO_OR_ONE, connectionRequestMessageFields));
+        messageFields.add(new ComplexRecordField(CONNECTION_RESPONSE_MESSAGE, Repetition.ZERO_OR_ONE, connectionResponseMessageFields));
+        messageFields.add(new ComplexRecordField(FLOW_REQUEST_MESSAGE, Repetition.ZERO_OR_ONE, flowRequestFields));
+        messageFields.add(new ComplexRecordField(FLOW_RESPONSE_MESSAGE, Repetition.ZERO_OR_ONE, flowResponseFields));
+        messageFields.add(new ComplexRecordField(NODE_STATUS_CHANGE_MESSAGE, Repetition.ZERO_OR_ONE, nodeStatusChangeFields));
+        PROTOCOL_MESSAGE_SCHEMA_V1 = new RecordSchema(Collections.unmodifiableList(messageFields));
+    }
+
+    /**
+     * @param version the version of the encoding
+     * @return the schema of protocol messages that are encoded with the given version
+     * @throws IllegalArgumentException if the version is not known
+     */
+    public static RecordSchema getProtocolMessageSchema(final int version) {
+        if (version == 1) {
+            return PROTOCOL_MESSAGE_SCHEMA_V1;
+        }
+
+        throw new IllegalArgumentException("Unknown version " + version + " of the cluster protocol message schema; the highest known version is " + CURRENT_VERSION);
+    }
+}
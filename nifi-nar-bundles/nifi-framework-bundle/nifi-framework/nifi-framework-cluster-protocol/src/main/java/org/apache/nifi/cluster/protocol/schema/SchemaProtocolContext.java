@@ -0,0 +1,282 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.schema;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.ProtocolContext;
+import org.apache.nifi.cluster.protocol.ProtocolMessageMarshaller;
+import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.message.ConnectionRequestMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.xml.processing.ProcessingException;
+import org.apache.nifi.xml.processing.stream.StandardXMLStreamReaderProvider;
+import org.apache.nifi.xml.processing.stream.XMLStreamReaderProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * A context for communicating amongst the cluster that serializes the most frequently exchanged protocol messages with the compact,
+ * versioned encoding that is defined by {@link ProtocolMessageSchema}, and all other messages with JAXB.
+ * </p>
+ *
+ * <p>
+ * The encoding is negotiated with each peer. A message that is marshalled with JAXB is framed exactly as by
+ * {@link org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext JaxbProtocolContext}, but its XML carries a processing instruction that
+ * advertises the highest version of the schema that this node is able to read. Nodes that do not understand the schema ignore the processing
+ * instruction, so they continue to communicate using only JAXB. Once a peer has advertised the schema, either in a request that it sent or in a
+ * response to a request that was sent to it, subsequent messages to that peer are serialized with the schema. If a peer fails to respond to such
+ * a message, the peer is forgotten so that the next message is once again marshalled with JAXB.
+ * </p>
+ */
+public class SchemaProtocolContext implements ProtocolContext<ProtocolMessage> {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaProtocolContext.class);
+
+    /*
+     * Messages that are marshalled with JAXB begin with the same sentinel as those of the JaxbProtocolContext, so that they may be
+     * read by nodes that do not support the schema. Messages that are serialized with the schema begin with a different sentinel,
+     * followed by the version of the schema.
+     */
+    static final byte JAXB_MESSAGE_SENTINEL = 0x5A;
+    static final byte SCHEMA_MESSAGE_SENTINEL = 0x5B;
+
+    static final String SCHEMA_ADVERTISEMENT_TARGET = "nifi-cluster-protocol";
+    private static final String SCHEMA_ADVERTISEMENT_PREFIX = "<?" + SCHEMA_ADVERTISEMENT_TARGET + " schema-version=\"";
+    private static final byte[] XML_PROLOG = ("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+        + SCHEMA_ADVERTISEMENT_PREFIX + ProtocolMessageSchema.CURRENT_VERSION + "\"?>").getBytes(StandardCharsets.UTF_8);
+
+    // The advertisement must appear immediately after the XML declaration, so only the beginning of the message needs to be searched.
+    private static final int MAX_ADVERTISEMENT_OFFSET = 256;
+
+    private final JAXBContext jaxbContext;
+    private final ConcurrentMap<String, Integer> peerSchemaVersions = new ConcurrentHashMap<>();
+
+    public SchemaProtocolContext(final JAXBContext jaxbContext) {
+        this.jaxbContext = jaxbContext;
+    }
+
+    @Override
+    public ProtocolMessageMarshaller<ProtocolMessage> createMarshaller() {
+        return new SchemaProtocolMessageMarshaller(null);
+    }
+
+    @Override
+    public ProtocolMessageMarshaller<ProtocolMessage> createMarshaller(final String peerAddress) {
+        return new SchemaProtocolMessageMarshaller(peerAddress == null ? null : peerSchemaVersions.get(peerAddress));
+    }
+
+    @Override
+    public ProtocolMessageMarshaller<ProtocolMessage> createResponseMarshaller(final ProtocolMessageUnmarshaller<ProtocolMessage> requestUnmarshaller) {
+        if (requestUnmarshaller instanceof SchemaProtocolMessageUnmarshaller) {
+            return new SchemaProtocolMessageMarshaller(((SchemaProtocolMessageUnmarshaller) requestUnmarshaller).getPeerSchemaVersion());
+        }
+
+        return createMarshaller();
+    }
+
+    @Override
+    public ProtocolMessageUnmarshaller<ProtocolMessage> createUnmarshaller() {
+        return new SchemaProtocolMessageUnmarshaller(null);
+    }
+
+    @Override
+    public ProtocolMessageUnmarshaller<ProtocolMessage> createUnmarshaller(final String peerAddress) {
+        return new SchemaProtocolMessageUnmarshaller(peerAddress);
+    }
+
+    /**
+     * @param peerAddress the address of the peer, in the form &lt;host&gt;:&lt;port&gt;
+     * @return the highest version of the schema that the peer is known to support, or <code>null</code> if the peer is not known to support the schema
+     */
+    public Integer getPeerSchemaVersion(final String peerAddress) {
+        return peerSchemaVersions.get(peerAddress);
+    }
+
+    private void updatePeerSchemaVersion(final String peerAddress, final Integer schemaVersion) {
+        final Integer previousVersion = schemaVersion == null ? peerSchemaVersions.remove(peerAddress) : peerSchemaVersions.put(peerAddress, schemaVersion);
+        if (previousVersion == null ? schemaVersion != null : !previousVersion.equals(schemaVersion)) {
+            logger.debug("Schema version of cluster protocol messages for {} changed from {} to {}", peerAddress, previousVersion, schemaVersion);
+        }
+    }
+
+    private static String getPeerAddress(final ProtocolMessage message) {
+        final NodeIdentifier nodeId;
+        switch (message.getType()) {
+            case HEARTBEAT:
+                final HeartbeatMessage heartbeatMessage = (HeartbeatMessage) message;
+                nodeId = heartbeatMessage.getHeartbeat() == null ? null : heartbeatMessage.getHeartbeat().getNodeIdentifier();
+                break;
+            case CONNECTION_REQUEST:
+                final ConnectionRequestMessage connectionRequestMessage = (ConnectionRequestMessage) message;
+                nodeId = connectionRequestMessage.getConnectionRequest() == null ? null : connectionRequestMessage.getConnectionRequest().getProposedNodeIdentifier();
+                break;
+            default:
+                return null;
+        }
+
+        return nodeId == null ? null : nodeId.getSocketAddress() + ":" + nodeId.getSocketPort();
+    }
+
+    static Integer getAdvertisedSchemaVersion(final byte[] xml) {
+        final String prolog = new String(xml, 0, Math.min(xml.length, MAX_ADVERTISEMENT_OFFSET), StandardCharsets.ISO_8859_1);
+        final int prefixIndex = prolog.indexOf(SCHEMA_ADVERTISEMENT_PREFIX);
+        if (prefixIndex < 0) {
+            return null;
+        }
+
+        final int versionStart = prefixIndex + SCHEMA_ADVERTISEMENT_PREFIX.length();
+        final int versionEnd = prolog.indexOf('"', versionStart);
+        if (versionEnd < 0) {
+            return null;
+        }
+
+        try {
+            return Integer.parseInt(prolog.substring(versionStart, versionEnd));
+        } catch (final NumberFormatException nfe) {
+            return null;
+        }
+    }
+
+    private class SchemaProtocolMessageMarshaller implements ProtocolMessageMarshaller<ProtocolMessage> {
+        private final Integer peerSchemaVersion;
+
+        private SchemaProtocolMessageMarshaller(final Integer peerSchemaVersion) {
+            this.peerSchemaVersion = peerSchemaVersion;
+        }
+
+        @Override
+        public void marshal(final ProtocolMessage msg, final OutputStream os) throws IOException {
+            final ByteArrayOutputStream msgBytes = new ByteArrayOutputStream();
+            final DataOutputStream dos = new DataOutputStream(os);
+
+            if (peerSchemaVersion != null && peerSchemaVersion >= ProtocolMessageSchema.CURRENT_VERSION && SchemaProtocolMessageSerde.isSupported(msg.getType())) {
+                new SchemaProtocolMessageSerde().serialize(msg, msgBytes);
+
+                dos.write(SCHEMA_MESSAGE_SENTINEL);
+                dos.write(ProtocolMessageSchema.CURRENT_VERSION);
+            } else {
+                try {
+                    final Marshaller marshaller = jaxbContext.createMarshaller();
+                    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+                    msgBytes.write(XML_PROLOG);
+                    marshaller.marshal(msg, msgBytes);
+                } catch (final JAXBException je) {
+                    throw new IOException("Failed marshalling protocol message due to: " + je, je);
+                }
+
+                dos.write(JAXB_MESSAGE_SENTINEL);
+            }
+
+            dos.writeInt(msgBytes.size());
+            msgBytes.writeTo(dos);
+            dos.flush();
+        }
+    }
+
+    private class SchemaProtocolMessageUnmarshaller implements ProtocolMessageUnmarshaller<ProtocolMessage> {
+        private final String peerAddress;
+        private volatile Integer peerSchemaVersion;
+
+        private SchemaProtocolMessageUnmarshaller(final String peerAddress) {
+            this.peerAddress = peerAddress;
+        }
+
+        Integer getPeerSchemaVersion() {
+            return peerSchemaVersion;
+        }
+
+        @Override
+        public ProtocolMessage unmarshal(final InputStream is) throws IOException {
+            final ProtocolMessage message;
+            try {
+                message = readMessage(is);
+            } catch (final IOException ioe) {
+                // The peer may no longer support the schema, as happens if it is downgraded. Fall back to JAXB until it advertises the schema again.
+                if (peerAddress != null) {
+                    updatePeerSchemaVersion(peerAddress, null);
+                }
+
+                throw ioe;
+            }
+
+            final String address = peerAddress == null ? getPeerAddress(message) : peerAddress;
+            if (address != null) {
+                updatePeerSchemaVersion(address, peerSchemaVersion);
+            }
+
+            return message;
+        }
+
+        private ProtocolMessage readMessage(final InputStream is) throws IOException {
+            final DataInputStream dis = new DataInputStream(is);
+
+            final int sentinel = dis.read();
+            if (sentinel == -1) {
+                throw new EOFException();
+            }
+
+            final Integer schemaVersion;
+            if (sentinel == SCHEMA_MESSAGE_SENTINEL) {
+                schemaVersion = dis.read();
+                if (schemaVersion < 1 || schemaVersion > ProtocolMessageSchema.CURRENT_VERSION) {
+                    throw new IOException("Failed reading protocol message due to unknown schema version " + schemaVersion);
+                }
+            } else if (sentinel == JAXB_MESSAGE_SENTINEL) {
+                schemaVersion = null;
+            } else {
+                throw new IOException("Failed reading protocol message due to malformed header");
+            }
+
+            final byte[] msg = new byte[dis.readInt()];
+            dis.readFully(msg);
+
+            if (schemaVersion != null) {
+                peerSchemaVersion = schemaVersion;
+                return new SchemaProtocolMessageSerde().deserialize(new ByteArrayInputStream(msg), schemaVersion);
+            }
+
+            peerSchemaVersion = getAdvertisedSchemaVersion(msg);
+            try {
+                final Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+                final XMLStreamReaderProvider provider = new StandardXMLStreamReaderProvider();
+                final XMLStreamReader xsr = provider.getStreamReader(new StreamSource(new ByteArrayInputStream(msg)));
+                return (ProtocolMessage) unmarshaller.unmarshal(xsr);
+            } catch (final JAXBException | ProcessingException e) {
+                throw new IOException("Failed unmarshalling protocol message due to: " + e, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,593 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.schema;
+
+import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.coordination.node.OffloadCode;
+import org.apache.nifi.cluster.protocol.ComponentRevision;
+import org.apache.nifi.cluster.protocol.ComponentRevisionSnapshot;
+import org.apache.nifi.cluster.protocol.ConnectionRequest;
+import org.apache.nifi.cluster.protocol.ConnectionResponse;
+import org.apache.nifi.cluster.protocol.DataFlow;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.StandardDataFlow;
+import org.apache.nifi.cluster.protocol.message.ConnectionRequestMessage;
+import org.apache.nifi.cluster.protocol.message.ConnectionResponseMessage;
+import org.apache.nifi.cluster.protocol.message.FlowRequestMessage;
+import org.apache.nifi.cluster.protocol.message.FlowResponseMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.NodeStatusChangeMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage.MessageType;
+import org.apache.nifi.repository.schema.FieldMapRecord;
+import org.apache.nifi.repository.schema.NoOpFieldCache;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.ACTIVE_THREAD_COUNT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.API_ADDRESS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.API_PORT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.AUTHORIZER_FINGERPRINT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CLIENT_ID;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CLUSTER_STATUS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.COMPONENT_ID;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.COMPONENT_REVISION;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.COMPONENT_REVISIONS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CONNECTION_REQUEST;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CONNECTION_REQUEST_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CONNECTION_REQUEST_TIME;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CONNECTION_RESPONSE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CONNECTION_RESPONSE_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.CONNECTION_STATUS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.DATA_FLOW;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.DISCONNECTION_CODE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.FLOW;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.FLOW_ELECTION_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.FLOW_REQUEST_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.FLOW_RESPONSE_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.HEARTBEAT_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.HEARTBEAT_PAYLOAD_SCHEMA_V1;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.HEARTBEAT_RESPONSE_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.ID;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.INSTANCE_ID;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.LOAD_BALANCE_ADDRESS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.LOAD_BALANCE_PORT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.MESSAGE_TYPE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.MISSING_COMPONENTS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.NODE_IDENTIFIER;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.NODE_STATUSES;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.NODE_STATUS_CHANGE_MESSAGE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.OFFLOAD_CODE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.PAYLOAD;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.REASON;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.REJECTION_REASON;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.REVISION_UPDATE_COUNT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SITE_TO_SITE_ADDRESS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SITE_TO_SITE_HTTP_API_PORT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SITE_TO_SITE_PORT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SITE_TO_SITE_SECURE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SNIPPETS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SOCKET_ADDRESS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SOCKET_PORT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.STATE;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.SYSTEM_START_TIME;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.TOTAL_FLOWFILE_BYTES;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.TOTAL_FLOWFILE_COUNT;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.TRY_LATER_SECONDS;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.UPDATED_NODE_STATUSES;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.UPDATE_ID;
+import static org.apache.nifi.cluster.protocol.schema.ProtocolMessageSchema.VERSION;
+
+/**
+ * Serializes and deserializes the cluster protocol messages that have a compact binary encoding, which are defined by
+ * {@link ProtocolMessageSchema}. Messages of any other type must be serialized with JAXB.
+ */
+public class SchemaProtocolMessageSerde {
+    private static final Set<MessageType> SUPPORTED_TYPES = Collections.unmodifiableSet(EnumSet.of(MessageType.HEARTBEAT, MessageType.HEARTBEAT_RESPONSE,
+        MessageType.CONNECTION_REQUEST, MessageType.CONNECTION_RESPONSE, MessageType.FLOW_REQUEST, MessageType.FLOW_RESPONSE, MessageType.NODE_STATUS_CHANGE));
+
+    /**
+     * A heartbeat payload that is encoded with the schema begins with this byte, followed by the version of the schema. A payload
+     * that is marshalled with JAXB is XML and so cannot begin with a zero byte.
+     */
+    private static final int HEARTBEAT_PAYLOAD_HEADER = 0;
+
+    private static final RecordSchema MESSAGE_SCHEMA = ProtocolMessageSchema.PROTOCOL_MESSAGE_SCHEMA_V1;
+    private static final RecordSchema HEARTBEAT_SCHEMA = getSubSchema(MESSAGE_SCHEMA, HEARTBEAT_MESSAGE);
+    private static final RecordSchema HEARTBEAT_RESPONSE_SCHEMA = getSubSchema(MESSAGE_SCHEMA, HEARTBEAT_RESPONSE_MESSAGE);
+    private static final RecordSchema CONNECTION_REQUEST_MESSAGE_SCHEMA = getSubSchema(MESSAGE_SCHEMA, CONNECTION_REQUEST_MESSAGE);
+    private static final RecordSchema CONNECTION_REQUEST_SCHEMA = getSubSchema(CONNECTION_REQUEST_MESSAGE_SCHEMA, CONNECTION_REQUEST);
+    private static final RecordSchema CONNECTION_RESPONSE_MESSAGE_SCHEMA = getSubSchema(MESSAGE_SCHEMA, CONNECTION_RESPONSE_MESSAGE);
+    private static final RecordSchema CONNECTION_RESPONSE_SCHEMA = getSubSchema(CONNECTION_RESPONSE_MESSAGE_SCHEMA, CONNECTION_RESPONSE);
+    private static final RecordSchema FLOW_REQUEST_SCHEMA = getSubSchema(MESSAGE_SCHEMA, FLOW_REQUEST_MESSAGE);
+    private static final RecordSchema FLOW_RESPONSE_SCHEMA = getSubSchema(MESSAGE_SCHEMA, FLOW_RESPONSE_MESSAGE);
+    private static final RecordSchema NODE_STATUS_CHANGE_SCHEMA = getSubSchema(MESSAGE_SCHEMA, NODE_STATUS_CHANGE_MESSAGE);
+    private static final RecordSchema NODE_IDENTIFIER_SCHEMA = getSubSchema(HEARTBEAT_SCHEMA, NODE_IDENTIFIER);
+    private static final RecordSchema CONNECTION_STATUS_SCHEMA = getSubSchema(HEARTBEAT_SCHEMA, CONNECTION_STATUS);
+    private static final RecordSchema DATA_FLOW_SCHEMA = getSubSchema(FLOW_RESPONSE_SCHEMA, DATA_FLOW);
+    private static final RecordSchema COMPONENT_REVISIONS_SCHEMA = getSubSchema(CONNECTION_RESPONSE_SCHEMA, COMPONENT_REVISIONS);
+    private static final RecordSchema COMPONENT_REVISION_SCHEMA = getSubSchema(COMPONENT_REVISIONS_SCHEMA, COMPONENT_REVISION);
+
+    private final SchemaRecordWriter recordWriter = new SchemaRecordWriter();
+
+    private static RecordSchema getSubSchema(final RecordSchema schema, final String fieldName) {
+        return new RecordSchema(schema.getField(fieldName).getSubFields());
+    }
+
+    /**
+     * @param messageType the type of message
+     * @return <code>true</code> if messages of the given type can be serialized by this class
+     */
+    public static boolean isSupported(final MessageType messageType) {
+        return SUPPORTED_TYPES.contains(messageType);
+    }
+
+    /**
+     * Serializes the given message using the current version of {@link ProtocolMessageSchema}
+     *
+     * @param message the message to serialize
+     * @param out the stream to write to
+     * @throws IOException if unable to write to the stream
+     * @throws IllegalArgumentException if the message's type is not supported
+     */
+    public void serialize(final ProtocolMessage message, final OutputStream out) throws IOException {
+        final Map<String, Object> values = new HashMap<>();
+        values.put(MESSAGE_TYPE, message.getType().name());
+
+        switch (message.getType()) {
+            case HEARTBEAT:
+                values.put(HEARTBEAT_MESSAGE, toRecord(((HeartbeatMessage) message).getHeartbeat()));
+                break;
+            case HEARTBEAT_RESPONSE: {
+                final HeartbeatResponseMessage response = (HeartbeatResponseMessage) message;
+                final Map<String, Object> responseValues = new HashMap<>();
+                responseValues.put(UPDATED_NODE_STATUSES, toRecords(response.getUpdatedNodeStatuses()));
+                responseValues.put(FLOW_ELECTION_MESSAGE, response.getFlowElectionMessage());
+                values.put(HEARTBEAT_RESPONSE_MESSAGE, new FieldMapRecord(HEARTBEAT_RESPONSE_SCHEMA, responseValues));
+                break;
+            }
+            case CONNECTION_REQUEST: {
+                final ConnectionRequest request = ((ConnectionRequestMessage) message).getConnectionRequest();
+                final Map<String, Object> requestValues = new HashMap<>();
+                if (request != null) {
+                    final Map<String, Object> connectionRequestValues = new HashMap<>();
+                    connectionRequestValues.put(NODE_IDENTIFIER, toRecord(request.getProposedNodeIdentifier()));
+                    connectionRequestValues.put(DATA_FLOW, toRecord(request.getDataFlow()));
+                    requestValues.put(CONNECTION_REQUEST, new FieldMapRecord(CONNECTION_REQUEST_SCHEMA, connectionRequestValues));
+                }
+                values.put(CONNECTION_REQUEST_MESSAGE, new FieldMapRecord(CONNECTION_REQUEST_MESSAGE_SCHEMA, requestValues));
+                break;
+            }
+            case CONNECTION_RESPONSE: {
+                final ConnectionResponse response = ((ConnectionResponseMessage) message).getConnectionResponse();
+                final Map<String, Object> responseValues = new HashMap<>();
+                if (response != null) {
+                    responseValues.put(CONNECTION_RESPONSE, toRecord(response));
+                }
+                values.put(CONNECTION_RESPONSE_MESSAGE, new FieldMapRecord(CONNECTION_RESPONSE_MESSAGE_SCHEMA, responseValues));
+                break;
+            }
+            case FLOW_REQUEST:
+                values.put(FLOW_REQUEST_MESSAGE, new FieldMapRecord(FLOW_REQUEST_SCHEMA,
+                    Collections.singletonMap(NODE_IDENTIFIER, toRecord(((FlowRequestMessage) message).getNodeId()))));
+                break;
+            case FLOW_RESPONSE:
+                values.put(FLOW_RESPONSE_MESSAGE, new FieldMapRecord(FLOW_RESPONSE_SCHEMA,
+                    Collections.singletonMap(DATA_FLOW, toRecord(((FlowResponseMessage) message).getDataFlow()))));
+                break;
+            case NODE_STATUS_CHANGE: {
+                final NodeStatusChangeMessage statusChange = (NodeStatusChangeMessage) message;
+                final Map<String, Object> statusChangeValues = new HashMap<>();
+                statusChangeValues.put(NODE_IDENTIFIER, toRecord(statusChange.getNodeId()));
+                statusChangeValues.put(CONNECTION_STATUS, toRecord(statusChange.getNodeConnectionStatus()));
+                values.put(NODE_STATUS_CHANGE_MESSAGE, new FieldMapRecord(NODE_STATUS_CHANGE_SCHEMA, statusChangeValues));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Protocol messages of type " + message.getType() + " cannot be serialized with the cluster protocol message schema");
+        }
+
+        recordWriter.writeRecord(new FieldMapRecord(MESSAGE_SCHEMA, values), out);
+    }
+
+    /**
+     * Deserializes a message that was serialized with the given version of {@link ProtocolMessageSchema}
+     *
+     * @param in the stream to read from
+     * @param version the version of the schema that the message was serialized with
+     * @return the message
+     * @throws IOException if unable to read from the stream or the message is not valid
+     */
+    public ProtocolMessage deserialize(final InputStream in, final int version) throws IOException {
+        final RecordSchema schema;
+        try {
+            schema = ProtocolMessageSchema.getProtocolMessageSchema(version);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        final Record record = SchemaRecordReader.fromSchema(schema, new NoOpFieldCache()).readRecord(in);
+        if (record == null) {
+            throw new IOException("Expected to read a protocol message but reached the end of the stream");
+        }
+
+        final String messageTypeName = (String) record.getFieldValue(MESSAGE_TYPE);
+        final MessageType messageType;
+        try {
+            messageType = MessageType.valueOf(messageTypeName);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Protocol message has unknown type " + messageTypeName, e);
+        }
+
+        try {
+            return toMessage(messageType, record);
+        } catch (final RuntimeException e) {
+            throw new IOException("Failed to deserialize protocol message of type " + messageType + " due to " + e, e);
+        }
+    }
+
+    private ProtocolMessage toMessage(final MessageType messageType, final Record record) throws IOException {
+        switch (messageType) {
+            case HEARTBEAT: {
+                final HeartbeatMessage message = new HeartbeatMessage();
+                message.setHeartbeat(toHeartbeat((Record) record.getFieldValue(HEARTBEAT_MESSAGE)));
+                return message;
+            }
+            case HEARTBEAT_RESPONSE: {
+                final Record responseRecord = (Record) record.getFieldValue(HEARTBEAT_RESPONSE_MESSAGE);
+                final HeartbeatResponseMessage message = new HeartbeatResponseMessage();
+                message.setUpdatedNodeStatuses(toNodeConnectionStatuses(responseRecord.getFieldValue(UPDATED_NODE_STATUSES)));
+                message.setFlowElectionMessage((String) responseRecord.getFieldValue(FLOW_ELECTION_MESSAGE));
+                return message;
+            }
+            case CONNECTION_REQUEST: {
+                final Record requestRecord = (Record) ((Record) record.getFieldValue(CONNECTION_REQUEST_MESSAGE)).getFieldValue(CONNECTION_REQUEST);
+                final ConnectionRequestMessage message = new ConnectionRequestMessage();
+                if (requestRecord != null) {
+                    message.setConnectionRequest(new ConnectionRequest(toNodeIdentifier(requestRecord.getFieldValue(NODE_IDENTIFIER)),
+                        toDataFlow(requestRecord.getFieldValue(DATA_FLOW))));
+                }
+                return message;
+            }
+            case CONNECTION_RESPONSE: {
+                final Record responseRecord = (Record) ((Record) record.getFieldValue(CONNECTION_RESPONSE_MESSAGE)).getFieldValue(CONNECTION_RESPONSE);
+                final ConnectionResponseMessage message = new ConnectionResponseMessage();
+                if (responseRecord != null) {
+                    message.setConnectionResponse(toConnectionResponse(responseRecord));
+                }
+                return message;
+            }
+            case FLOW_REQUEST: {
+                final FlowRequestMessage message = new FlowRequestMessage();
+                message.setNodeId(toNodeIdentifier(((Record) record.getFieldValue(FLOW_REQUEST_MESSAGE)).getFieldValue(NODE_IDENTIFIER)));
+                return message;
+            }
+            case FLOW_RESPONSE: {
+                final FlowResponseMessage message = new FlowResponseMessage();
+                message.setDataFlow(toDataFlow(((Record) record.getFieldValue(FLOW_RESPONSE_MESSAGE)).getFieldValue(DATA_FLOW)));
+                return message;
+            }
+            case NODE_STATUS_CHANGE: {
+                final Record statusChangeRecord = (Record) record.getFieldValue(NODE_STATUS_CHANGE_MESSAGE);
+                final NodeStatusChangeMessage message = new NodeStatusChangeMessage();
+                message.setNodeId(toNodeIdentifier(statusChangeRecord.getFieldValue(NODE_IDENTIFIER)));
+                message.setNodeConnectionStatus(toNodeConnectionStatus(statusChangeRecord.getFieldValue(CONNECTION_STATUS)));
+                return message;
+            }
+            default:
+                throw new IOException("Protocol messages of type " + messageType + " cannot be deserialized with the cluster protocol message schema");
+        }
+    }
+
+    /**
+     * Serializes the given Heartbeat Payload using the current version of {@link ProtocolMessageSchema}. The result may be
+     * deserialized by {@link HeartbeatPayload#unmarshal(byte[])}.
+     *
+     * @param payload the payload to serialize
+     * @return the serialized payload
+     * @throws IOException if unable to serialize the payload
+     */
+    public static byte[] serializeHeartbeatPayload(final HeartbeatPayload payload) throws IOException {
+        final Map<String, Object> values = new HashMap<>();
+        values.put(ACTIVE_THREAD_COUNT, payload.getActiveThreadCount());
+        values.put(TOTAL_FLOWFILE_COUNT, payload.getTotalFlowFileCount());
+        values.put(TOTAL_FLOWFILE_BYTES, payload.getTotalFlowFileBytes());
+        values.put(SYSTEM_START_TIME, payload.getSystemStartTime());
+        values.put(CLUSTER_STATUS, toRecords(payload.getClusterStatus()));
+        values.put(REVISION_UPDATE_COUNT, payload.getRevisionUpdateCount());
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(HEARTBEAT_PAYLOAD_HEADER);
+        baos.write(ProtocolMessageSchema.CURRENT_VERSION);
+        new SchemaRecordWriter().writeRecord(new FieldMapRecord(HEARTBEAT_PAYLOAD_SCHEMA_V1, values), baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * @param payloadBytes the bytes of a Heartbeat Payload
+     * @return <code>true</code> if the payload was serialized by {@link #serializeHeartbeatPayload(HeartbeatPayload)} rather than marshalled with JAXB
+     */
+    public static boolean isSerializedHeartbeatPayload(final byte[] payloadBytes) {
+        return payloadBytes != null && payloadBytes.length > 1 && payloadBytes[0] == HEARTBEAT_PAYLOAD_HEADER;
+    }
+
+    /**
+     * Deserializes a Heartbeat Payload that was serialized by {@link #serializeHeartbeatPayload(HeartbeatPayload)}
+     *
+     * @param payloadBytes the serialized payload
+     * @return the payload
+     * @throws IOException if the payload is not valid
+     */
+    public static HeartbeatPayload deserializeHeartbeatPayload(final byte[] payloadBytes) throws IOException {
+        if (!isSerializedHeartbeatPayload(payloadBytes)) {
+            throw new IOException("Heartbeat Payload was not serialized with the cluster protocol message schema");
+        }
+
+        final int version = payloadBytes[1];
+        if (version != 1) {
+            throw new IOException("Unknown version " + version + " of the Heartbeat Payload schema; the highest known version is " + ProtocolMessageSchema.CURRENT_VERSION);
+        }
+
+        final InputStream in = new ByteArrayInputStream(payloadBytes, 2, payloadBytes.length - 2);
+        final Record record = SchemaRecordReader.fromSchema(HEARTBEAT_PAYLOAD_SCHEMA_V1, new NoOpFieldCache()).readRecord(in);
+        if (record == null) {
+            throw new IOException("Heartbeat Payload is empty");
+        }
+
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount((Integer) record.getFieldValue(ACTIVE_THREAD_COUNT));
+        payload.setTotalFlowFileCount((Long) record.getFieldValue(TOTAL_FLOWFILE_COUNT));
+        payload.setTotalFlowFileBytes((Long) record.getFieldValue(TOTAL_FLOWFILE_BYTES));
+        payload.setSystemStartTime((Long) record.getFieldValue(SYSTEM_START_TIME));
+        payload.setClusterStatus(toNodeConnectionStatuses(record.getFieldValue(CLUSTER_STATUS)));
+        payload.setRevisionUpdateCount((Long) record.getFieldValue(REVISION_UPDATE_COUNT));
+        return payload;
+    }
+
+    private static Record toRecord(final Heartbeat heartbeat) throws IOException {
+        if (heartbeat == null) {
+            throw new IllegalArgumentException("Heartbeat Message does not contain a Heartbeat");
+        }
+
+        // A heartbeat that was created from its payload object is encoded compactly, so that neither side handles any XML.
+        // Otherwise, the payload's bytes are sent as they are, as HeartbeatPayload.unmarshal accepts either encoding.
+        final HeartbeatPayload heartbeatPayload = heartbeat.getHeartbeatPayload();
+        final byte[] payload = heartbeatPayload == null ? heartbeat.getPayload() : serializeHeartbeatPayload(heartbeatPayload);
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put(NODE_IDENTIFIER, toRecord(heartbeat.getNodeIdentifier()));
+        values.put(CONNECTION_STATUS, toRecord(heartbeat.getConnectionStatus()));
+        values.put(PAYLOAD, payload);
+        return new FieldMapRecord(HEARTBEAT_SCHEMA, values);
+    }
+
+    private static Heartbeat toHeartbeat(final Record record) {
+        return new Heartbeat(toNodeIdentifier(record.getFieldValue(NODE_IDENTIFIER)), toNodeConnectionStatus(record.getFieldValue(CONNECTION_STATUS)),
+            (byte[]) record.getFieldValue(PAYLOAD));
+    }
+
+    private static Record toRecord(final NodeIdentifier nodeId) {
+        if (nodeId == null) {
+            return null;
+        }
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put(ID, nodeId.getId());
+        values.put(API_ADDRESS, nodeId.getApiAddress());
+        values.put(API_PORT, nodeId.getApiPort());
+        values.put(SOCKET_ADDRESS, nodeId.getSocketAddress());
+        values.put(SOCKET_PORT, nodeId.getSocketPort());
+        values.put(LOAD_BALANCE_ADDRESS, nodeId.getLoadBalanceAddress());
+        values.put(LOAD_BALANCE_PORT, nodeId.getLoadBalancePort());
+        values.put(SITE_TO_SITE_ADDRESS, nodeId.getSiteToSiteAddress());
+        values.put(SITE_TO_SITE_PORT, nodeId.getSiteToSitePort());
+        values.put(SITE_TO_SITE_HTTP_API_PORT, nodeId.getSiteToSiteHttpApiPort());
+        values.put(SITE_TO_SITE_SECURE, nodeId.isSiteToSiteSecure());
+        return new FieldMapRecord(NODE_IDENTIFIER_SCHEMA, values);
+    }
+
+    private static NodeIdentifier toNodeIdentifier(final Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        final Record record = (Record) value;
+        return new NodeIdentifier((String) record.getFieldValue(ID), (String) record.getFieldValue(API_ADDRESS), (Integer) record.getFieldValue(API_PORT),
+            (String) record.getFieldValue(SOCKET_ADDRESS), (Integer) record.getFieldValue(SOCKET_PORT),
+            (String) record.getFieldValue(LOAD_BALANCE_ADDRESS), (Integer) record.getFieldValue(LOAD_BALANCE_PORT),
+            (String) record.getFieldValue(SITE_TO_SITE_ADDRESS), (Integer) record.getFieldValue(SITE_TO_SITE_PORT),
+            (Integer) record.getFieldValue(SITE_TO_SITE_HTTP_API_PORT), (Boolean) record.getFieldValue(SITE_TO_SITE_SECURE));
+    }
+
+    private static Record toRecord(final NodeConnectionStatus status) {
+        if (status == null) {
+            return null;
+        }
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put(UPDATE_ID, status.getUpdateIdentifier());
+        values.put(NODE_IDENTIFIER, toRecord(status.getNodeIdentifier()));
+        values.put(STATE, status.getState() == null ? null : status.getState().name());
+        values.put(OFFLOAD_CODE, status.getOffloadCode() == null ? null : status.getOffloadCode().name());
+        values.put(DISCONNECTION_CODE, status.getDisconnectCode() == null ? null : status.getDisconnectCode().name());
+        values.put(REASON, status.getReason());
+        values.put(CONNECTION_REQUEST_TIME, status.getConnectionRequestTime());
+        return new FieldMapRecord(CONNECTION_STATUS_SCHEMA, values);
+    }
+
+    private static List<Record> toRecords(final List<NodeConnectionStatus> statuses) {
+        if (statuses == null) {
+            return null;
+        }
+
+        final List<Record> records = new ArrayList<>(statuses.size());
+        for (final NodeConnectionStatus status : statuses) {
+            records.add(toRecord(status));
+        }
+        return records;
+    }
+
+    private static NodeConnectionStatus toNodeConnectionStatus(final Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        final Record record = (Record) value;
+        final String state = (String) record.getFieldValue(STATE);
+        final String offloadCode = (String) record.getFieldValue(OFFLOAD_CODE);
+        final String disconnectionCode = (String) record.getFieldValue(DISCONNECTION_CODE);
+        return new NodeConnectionStatus((Long) record.getFieldValue(UPDATE_ID), toNodeIdentifier(record.getFieldValue(NODE_IDENTIFIER)),
+            state == null ? null : NodeConnectionState.valueOf(state),
+            offloadCode == null ? null : OffloadCode.valueOf(offloadCode),
+            disconnectionCode == null ? null : DisconnectionCode.valueOf(disconnectionCode),
+            (String) record.getFieldValue(REASON), (Long) record.getFieldValue(CONNECTION_REQUEST_TIME));
+    }
+
+    private static List<NodeConnectionStatus> toNodeConnectionStatuses(final Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+
+        final List<?> records = (List<?>) value;
+        final List<NodeConnectionStatus> statuses = new ArrayList<>(records.size());
+        for (final Object record : records) {
+            statuses.add(toNodeConnectionStatus(record));
+        }
+        return statuses;
+    }
+
+    private static Record toRecord(final DataFlow dataFlow) {
+        if (dataFlow == null) {
+            return null;
+        }
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put(FLOW, dataFlow.getFlow());
+        values.put(SNIPPETS, dataFlow.getSnippets());
+        values.put(AUTHORIZER_FINGERPRINT, dataFlow.getAuthorizerFingerprint());
+        values.put(MISSING_COMPONENTS, dataFlow.getMissingComponents() == null ? null : new ArrayList<>(dataFlow.getMissingComponents()));
+        return new FieldMapRecord(DATA_FLOW_SCHEMA, values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static StandardDataFlow toDataFlow(final Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        final Record record = (Record) value;
+        final List<String> missingComponentList = (List<String>) record.getFieldValue(MISSING_COMPONENTS);
+        final Set<String> missingComponents = missingComponentList == null ? Collections.emptySet() : new HashSet<>(missingComponentList);
+        return new StandardDataFlow((byte[]) record.getFieldValue(FLOW), (byte[]) record.getFieldValue(SNIPPETS),
+            (byte[]) record.getFieldValue(AUTHORIZER_FINGERPRINT), missingComponents);
+    }
+
+    private static Record toRecord(final ConnectionResponse response) {
+        final Map<String, Object> values = new HashMap<>();
+        values.put(REJECTION_REASON, response.getRejectionReason());
+        values.put(TRY_LATER_SECONDS, response.getTryLaterSeconds());
+        values.put(NODE_IDENTIFIER, toRecord(response.getNodeIdentifier()));
+        values.put(DATA_FLOW, toRecord(response.getDataFlow()));
+        values.put(INSTANCE_ID, response.getInstanceId());
+        values.put(NODE_STATUSES, toRecords(response.getNodeConnectionStatuses()));
+        values.put(COMPONENT_REVISIONS, toRecord(response.getComponentRevisions()));
+        return new FieldMapRecord(CONNECTION_RESPONSE_SCHEMA, values);
+    }
+
+    private static ConnectionResponse toConnectionResponse(final Record record) {
+        final String rejectionReason = (String) record.getFieldValue(REJECTION_REASON);
+        final int tryLaterSeconds = (Integer) record.getFieldValue(TRY_LATER_SECONDS);
+
+        // Mirror the way that the JAXB adapter reconstructs the response
+        if (tryLaterSeconds > 0) {
+            return new ConnectionResponse(tryLaterSeconds, rejectionReason);
+        } else if (rejectionReason != null) {
+            return ConnectionResponse.createRejectionResponse(rejectionReason);
+        } else {
+            return new ConnectionResponse(toNodeIdentifier(record.getFieldValue(NODE_IDENTIFIER)), toDataFlow(record.getFieldValue(DATA_FLOW)),
+                (String) record.getFieldValue(INSTANCE_ID), toNodeConnectionStatuses(record.getFieldValue(NODE_STATUSES)),
+                toComponentRevisionSnapshot(record.getFieldValue(COMPONENT_REVISIONS)));
+        }
+    }
+
+    private static Record toRecord(final ComponentRevisionSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+
+        List<Record> revisionRecords = null;
+        if (snapshot.getComponentRevisions() != null) {
+            revisionRecords = new ArrayList<>(snapshot.getComponentRevisions().size());
+            for (final ComponentRevision revision : snapshot.getComponentRevisions()) {
+                final Map<String, Object> values = new HashMap<>();
+                values.put(VERSION, revision.getVersion());
+                values.put(CLIENT_ID, revision.getClientId());
+                values.put(COMPONENT_ID, revision.getComponentId());
+                revisionRecords.add(new FieldMapRecord(COMPONENT_REVISION_SCHEMA, values));
+            }
+        }
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put(COMPONENT_REVISION, revisionRecords);
+        values.put(REVISION_UPDATE_COUNT, snapshot.getRevisionUpdateCount());
+        return new FieldMapRecord(COMPONENT_REVISIONS_SCHEMA, values);
+    }
+
+    private static ComponentRevisionSnapshot toComponentRevisionSnapshot(final Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        final Record record = (Record) value;
+        final List<?> revisionRecords = (List<?>) record.getFieldValue(COMPONENT_REVISION);
+        final List<ComponentRevision> revisions = new ArrayList<>(revisionRecords.size());
+        for (final Object revisionRecord : revisionRecords) {
+            final Record revisionFields = (Record) revisionRecord;
+            final ComponentRevision revision = new ComponentRevision();
+            revision.setVersion((Long) revisionFields.getFieldValue(VERSION));
+            revision.setClientId((String) revisionFields.getFieldValue(CLIENT_ID));
+            revision.setComponentId((String) revisionFields.getFieldValue(COMPONENT_ID));
+            revisions.add(revision);
+        }
+
+        final ComponentRevisionSnapshot snapshot = new ComponentRevisionSnapshot();
+        snapshot.setComponentRevisions(revisions);
+        snapshot.setRevisionUpdateCount((Long) record.getFieldValue(REVISION_UPDATE_COUNT));
+        return snapshot;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.protocol.schema;
+
+import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.ComponentRevision;
+import org.apache.nifi.cluster.protocol.ComponentRevisionSnapshot;
+import org.apache.nifi.cluster.protocol.ConnectionRequest;
+import org.apache.nifi.cluster.protocol.ConnectionResponse;
+import org.apache.nifi.cluster.protocol.DataFlow;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.ProtocolContext;
+import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.StandardDataFlow;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.ConnectionRequestMessage;
+import org.apache.nifi.cluster.protocol.message.ConnectionResponseMessage;
+import org.apache.nifi.cluster.protocol.message.DisconnectMessage;
+import org.apache.nifi.cluster.protocol.message.FlowResponseMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.NodeStatusChangeMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.web.Revision;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestSchemaProtocolContext {
+    private static final String PEER_ADDRESS = "node1.nifi:11443";
+
+    private final NodeIdentifier nodeId = new NodeIdentifier("node-1", "node1.nifi", 8443, "node1.nifi", 11443, "node1.nifi", 6342, null, null, null, false);
+
+    private SchemaProtocolContext context;
+
+    @BeforeEach
+    public void setup() {
+        context = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+    }
+
+    @Test
+    public void testJaxbUntilPeerAdvertisesSchema() throws IOException {
+        final byte[] firstMessage = marshal(context, PEER_ADDRESS, createHeartbeatMessage());
+        assertEquals(SchemaProtocolContext.JAXB_MESSAGE_SENTINEL, firstMessage[0]);
+
+        // The response from the peer advertises the schema, so subsequent messages to the peer use it
+        final SchemaProtocolContext peerContext = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+        final ProtocolMessageUnmarshaller<ProtocolMessage> peerUnmarshaller = peerContext.createUnmarshaller();
+        peerUnmarshaller.unmarshal(new ByteArrayInputStream(firstMessage));
+
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        peerContext.createResponseMarshaller(peerUnmarshaller).marshal(new HeartbeatResponseMessage(), response);
+        assertEquals(SchemaProtocolContext.SCHEMA_MESSAGE_SENTINEL, response.toByteArray()[0]);
+
+        context.createUnmarshaller(PEER_ADDRESS).unmarshal(new ByteArrayInputStream(response.toByteArray()));
+        assertEquals(ProtocolMessageSchema.CURRENT_VERSION, context.getPeerSchemaVersion(PEER_ADDRESS));
+
+        final byte[] secondMessage = marshal(context, PEER_ADDRESS, createHeartbeatMessage());
+        assertEquals(SchemaProtocolContext.SCHEMA_MESSAGE_SENTINEL, secondMessage[0]);
+        assertTrue(secondMessage.length < firstMessage.length);
+
+        // Messages without a compact encoding are always marshalled with JAXB
+        final DisconnectMessage disconnectMessage = new DisconnectMessage();
+        disconnectMessage.setNodeId(nodeId);
+        disconnectMessage.setExplanation("Unit Test");
+        assertEquals(SchemaProtocolContext.JAXB_MESSAGE_SENTINEL, marshal(context, PEER_ADDRESS, disconnectMessage)[0]);
+    }
+
+    @Test
+    public void testListenerLearnsSchemaVersionFromHeartbeat() throws IOException {
+        final SchemaProtocolContext nodeContext = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+        final byte[] heartbeat = marshal(nodeContext, "coordinator:11443", createHeartbeatMessage());
+
+        context.createUnmarshaller().unmarshal(new ByteArrayInputStream(heartbeat));
+        assertEquals(ProtocolMessageSchema.CURRENT_VERSION, context.getPeerSchemaVersion(PEER_ADDRESS));
+
+        final NodeStatusChangeMessage statusChange = new NodeStatusChangeMessage();
+        statusChange.setNodeId(nodeId);
+        statusChange.setNodeConnectionStatus(new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED));
+        assertEquals(SchemaProtocolContext.SCHEMA_MESSAGE_SENTINEL, marshal(context, PEER_ADDRESS, statusChange)[0]);
+    }
+
+    @Test
+    public void testFallBackToJaxbForLegacyPeer() throws IOException {
+        final JaxbProtocolContext<ProtocolMessage> legacyContext = new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT);
+
+        // A legacy peer is able to read the messages that advertise the schema
+        final byte[] advertisement = marshal(context, PEER_ADDRESS, createHeartbeatMessage());
+        final ProtocolMessage legacyReceived = legacyContext.createUnmarshaller().unmarshal(new ByteArrayInputStream(advertisement));
+        assertHeartbeatEquals((HeartbeatMessage) legacyReceived);
+
+        // A legacy peer does not advertise the schema, so a peer that was previously known to support it is forgotten
+        context.createUnmarshaller(PEER_ADDRESS).unmarshal(new ByteArrayInputStream(marshal(context, null, new HeartbeatResponseMessage())));
+        assertEquals(ProtocolMessageSchema.CURRENT_VERSION, context.getPeerSchemaVersion(PEER_ADDRESS));
+
+        final ByteArrayOutputStream legacyResponse = new ByteArrayOutputStream();
+        legacyContext.createMarshaller().marshal(new HeartbeatResponseMessage(), legacyResponse);
+        final ProtocolMessage received = context.createUnmarshaller(PEER_ADDRESS).unmarshal(new ByteArrayInputStream(legacyResponse.toByteArray()));
+        assertEquals(ProtocolMessage.MessageType.HEARTBEAT_RESPONSE, received.getType());
+        assertNull(context.getPeerSchemaVersion(PEER_ADDRESS));
+        assertEquals(SchemaProtocolContext.JAXB_MESSAGE_SENTINEL, marshal(context, PEER_ADDRESS, createHeartbeatMessage())[0]);
+    }
+
+    @Test
+    public void testPeerForgottenOnUnmarshalFailure() throws IOException {
+        context.createUnmarshaller(PEER_ADDRESS).unmarshal(new ByteArrayInputStream(marshal(context, null, new HeartbeatResponseMessage())));
+        assertEquals(ProtocolMessageSchema.CURRENT_VERSION, context.getPeerSchemaVersion(PEER_ADDRESS));
+
+        assertThrows(IOException.class, () -> context.createUnmarshaller(PEER_ADDRESS).unmarshal(new ByteArrayInputStream(new byte[0])));
+        assertNull(context.getPeerSchemaVersion(PEER_ADDRESS));
+    }
+
+    @Test
+    public void testRoundTripHeartbeat() throws IOException {
+        final HeartbeatMessage received = (HeartbeatMessage) roundTrip(createHeartbeatMessage());
+        assertHeartbeatEquals(received);
+
+        // The payload is encoded compactly from the payload object, which is transparent to the receiver
+        final byte[] payloadBytes = received.getHeartbeat().getPayload();
+        assertTrue(SchemaProtocolMessageSerde.isSerializedHeartbeatPayload(payloadBytes));
+        final HeartbeatPayload payload = HeartbeatPayload.unmarshal(payloadBytes);
+        assertEquals(12, payload.getActiveThreadCount());
+        assertEquals(1000L, payload.getTotalFlowFileCount());
+        assertEquals(1024L * 1024L, payload.getTotalFlowFileBytes());
+        assertEquals(1234567890L, payload.getSystemStartTime());
+        assertEquals(42L, payload.getRevisionUpdateCount());
+        assertEquals(1, payload.getClusterStatus().size());
+        assertEquals(nodeId, payload.getClusterStatus().get(0).getNodeIdentifier());
+        assertEquals(NodeConnectionState.CONNECTED, payload.getClusterStatus().get(0).getState());
+    }
+
+    @Test
+    public void testRoundTripHeartbeatWithMarshalledPayload() throws IOException {
+        // A payload that was already marshalled with JAXB is sent as it is rather than being transcoded
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(12);
+        final byte[] marshalledPayload = payload.marshal();
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED), marshalledPayload));
+
+        final HeartbeatMessage received = (HeartbeatMessage) roundTrip(message);
+        assertHeartbeatEquals(received);
+        assertArrayEquals(marshalledPayload, received.getHeartbeat().getPayload());
+    }
+
+    @Test
+    public void testRoundTripHeartbeatWithoutClusterStatus() throws IOException {
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(12);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED), payload));
+
+        final HeartbeatMessage received = (HeartbeatMessage) roundTrip(message);
+        assertHeartbeatEquals(received);
+        assertTrue(HeartbeatPayload.unmarshal(received.getHeartbeat().getPayload()).getClusterStatus().isEmpty());
+    }
+
+    @Test
+    public void testRoundTripHeartbeatResponse() throws IOException {
+        final HeartbeatResponseMessage message = new HeartbeatResponseMessage();
+        message.setUpdatedNodeStatuses(Collections.singletonList(new NodeConnectionStatus(nodeId, DisconnectionCode.LACK_OF_HEARTBEAT, "No heartbeat")));
+        message.setFlowElectionMessage("Waiting for 2 nodes");
+
+        final HeartbeatResponseMessage received = (HeartbeatResponseMessage) roundTrip(message);
+        assertEquals("Waiting for 2 nodes", received.getFlowElectionMessage());
+        final NodeConnectionStatus status = received.getUpdatedNodeStatuses().get(0);
+        assertEquals(NodeConnectionState.DISCONNECTED, status.getState());
+        assertEquals(DisconnectionCode.LACK_OF_HEARTBEAT, status.getDisconnectCode());
+        assertEquals("No heartbeat", status.getReason());
+        assertEquals(nodeId, status.getNodeIdentifier());
+    }
+
+    @Test
+    public void testRoundTripConnectionRequestAndResponse() throws IOException {
+        final StandardDataFlow dataFlow = new StandardDataFlow("<flow/>".getBytes(), null, "fingerprint".getBytes(), new HashSet<>(Arrays.asList("a", "b")));
+
+        final ConnectionRequestMessage request = new ConnectionRequestMessage();
+        request.setConnectionRequest(new ConnectionRequest(nodeId, dataFlow));
+        final ConnectionRequestMessage receivedRequest = (ConnectionRequestMessage) roundTrip(request);
+        assertEquals(nodeId, receivedRequest.getConnectionRequest().getProposedNodeIdentifier());
+        assertArrayEquals(dataFlow.getFlow(), receivedRequest.getConnectionRequest().getDataFlow().getFlow());
+        assertNull(receivedRequest.getConnectionRequest().getDataFlow().getSnippets());
+        assertArrayEquals(dataFlow.getAuthorizerFingerprint(), receivedRequest.getConnectionRequest().getDataFlow().getAuthorizerFingerprint());
+        assertEquals(dataFlow.getMissingComponents(), receivedRequest.getConnectionRequest().getDataFlow().getMissingComponents());
+
+        final ComponentRevisionSnapshot revisions = new ComponentRevisionSnapshot();
+        revisions.setComponentRevisions(Collections.singletonList(ComponentRevision.fromRevision(new Revision(8L, "client-1", "component-1"))));
+        revisions.setRevisionUpdateCount(12L);
+        final ConnectionResponseMessage response = new ConnectionResponseMessage();
+        response.setConnectionResponse(new ConnectionResponse(nodeId, dataFlow, "instance-1",
+            Collections.singletonList(new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTING)), revisions));
+
+        final ConnectionResponse receivedResponse = ((ConnectionResponseMessage) roundTrip(response)).getConnectionResponse();
+        assertEquals(nodeId, receivedResponse.getNodeIdentifier());
+        assertEquals("instance-1", receivedResponse.getInstanceId());
+        assertEquals(NodeConnectionState.CONNECTING, receivedResponse.getNodeConnectionStatuses().get(0).getState());
+        assertEquals(12L, receivedResponse.getComponentRevisions().getRevisionUpdateCount());
+        assertEquals(new Revision(8L, "client-1", "component-1"), receivedResponse.getComponentRevisions().getComponentRevisions().get(0).toRevision());
+
+        final ConnectionResponseMessage tryLater = new ConnectionResponseMessage();
+        tryLater.setConnectionResponse(new ConnectionResponse(5, "Flow election in progress"));
+        final ConnectionResponse receivedTryLater = ((ConnectionResponseMessage) roundTrip(tryLater)).getConnectionResponse();
+        assertTrue(receivedTryLater.shouldTryLater());
+        assertEquals(5, receivedTryLater.getTryLaterSeconds());
+        assertEquals("Flow election in progress", receivedTryLater.getRejectionReason());
+    }
+
+    @Test
+    public void testRoundTripConnectionRequestWithoutMissingComponents() throws IOException {
+        final DataFlow dataFlow = mock(DataFlow.class);
+        when(dataFlow.getFlow()).thenReturn("<flow/>".getBytes());
+
+        final ConnectionRequestMessage request = new ConnectionRequestMessage();
+        request.setConnectionRequest(new ConnectionRequest(nodeId, dataFlow));
+        final ConnectionRequestMessage receivedRequest = (ConnectionRequestMessage) roundTrip(request);
+        assertArrayEquals("<flow/>".getBytes(), receivedRequest.getConnectionRequest().getDataFlow().getFlow());
+        assertTrue(receivedRequest.getConnectionRequest().getDataFlow().getMissingComponents().isEmpty());
+    }
+
+    @Test
+    public void testRoundTripFlowResponseAndNodeStatusChange() throws IOException {
+        final FlowResponseMessage flowResponse = new FlowResponseMessage();
+        flowResponse.setDataFlow(new StandardDataFlow("<flow/>".getBytes(), "snippets".getBytes(), null, Collections.emptySet()));
+        final FlowResponseMessage receivedFlowResponse = (FlowResponseMessage) roundTrip(flowResponse);
+        assertArrayEquals("<flow/>".getBytes(), receivedFlowResponse.getDataFlow().getFlow());
+        assertArrayEquals("snippets".getBytes(), receivedFlowResponse.getDataFlow().getSnippets());
+
+        final NodeStatusChangeMessage statusChange = new NodeStatusChangeMessage();
+        statusChange.setNodeId(nodeId);
+        statusChange.setNodeConnectionStatus(new NodeConnectionStatus(nodeId, DisconnectionCode.USER_DISCONNECTED, "Disconnected by user"));
+        final NodeStatusChangeMessage receivedStatusChange = (NodeStatusChangeMessage) roundTrip(statusChange);
+        assertEquals(nodeId, receivedStatusChange.getNodeId());
+        assertEquals(statusChange.getNodeConnectionStatus(), receivedStatusChange.getNodeConnectionStatus());
+        assertEquals(DisconnectionCode.USER_DISCONNECTED, receivedStatusChange.getNodeConnectionStatus().getDisconnectCode());
+    }
+
+    private ProtocolMessage roundTrip(final ProtocolMessage message) throws IOException {
+        // Make the peer known to support the schema so that the message is serialized with it
+        context.createUnmarshaller(PEER_ADDRESS).unmarshal(new ByteArrayInputStream(marshal(context, null, new HeartbeatResponseMessage())));
+
+        final byte[] serialized = marshal(context, PEER_ADDRESS, message);
+        assertEquals(SchemaProtocolContext.SCHEMA_MESSAGE_SENTINEL, serialized[0]);
+        return context.createUnmarshaller().unmarshal(new ByteArrayInputStream(serialized));
+    }
+
+    private static byte[] marshal(final ProtocolContext<ProtocolMessage> protocolContext, final String peerAddress, final ProtocolMessage message) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        protocolContext.createMarshaller(peerAddress).marshal(message, baos);
+        return baos.toByteArray();
+    }
+
+    private HeartbeatMessage createHeartbeatMessage() {
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(12);
+        payload.setTotalFlowFileCount(1000L);
+        payload.setTotalFlowFileBytes(1024L * 1024L);
+        payload.setSystemStartTime(1234567890L);
+        payload.setRevisionUpdateCount(42L);
+        payload.setClusterStatus(Collections.singletonList(new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED)));
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId, new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED), payload));
+        return message;
+    }
+
+    private void assertHeartbeatEquals(final HeartbeatMessage received) {
+        final Heartbeat heartbeat = received.getHeartbeat();
+        assertEquals(nodeId, heartbeat.getNodeIdentifier());
+        assertEquals(NodeConnectionState.CONNECTED, heartbeat.getConnectionStatus().getState());
+        assertEquals(12, HeartbeatPayload.unmarshal(heartbeat.getPayload()).getActiveThreadCount());
+    }
+}
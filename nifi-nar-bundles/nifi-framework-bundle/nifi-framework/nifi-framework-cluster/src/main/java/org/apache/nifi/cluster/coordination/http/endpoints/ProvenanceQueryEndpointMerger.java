@@ -19,6 +19,7 @@ package org.apache.nifi.cluster.coordination.http.endpoints;
 
 import org.apache.nifi.cluster.coordination.http.EndpointResponseMerger;
 import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.manager.ProvenanceContinuationToken;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.web.api.dto.provenance.ProvenanceDTO;
@@ -36,10 +37,45 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
+    private static final Comparator<ProvenanceEventDTO> EVENT_COMPARATOR = new Comparator<ProvenanceEventDTO>() {
+        @Override
+        public int compare(final ProvenanceEventDTO o1, final ProvenanceEventDTO o2) {
+            final int eventTimeComparison = o1.getEventTime().compareTo(o2.getEventTime());
+            if (eventTimeComparison != 0) {
+                return -eventTimeComparison;
+            }
+
+            final String nodeId1 = o1.getClusterNodeId();
+            final String nodeId2 = o2.getClusterNodeId();
+            final int nodeIdComparison;
+            if (nodeId1 == null && nodeId2 == null) {
+                nodeIdComparison = 0;
+            } else if (nodeId1 == null) {
+                nodeIdComparison = 1;
+            } else if (nodeId2 == null) {
+                nodeIdComparison = -1;
+            } else {
+                nodeIdComparison = -nodeId1.compareTo(nodeId2);
+            }
+
+            if (nodeIdComparison != 0) {
+                return nodeIdComparison;
+            }
+
+            return -Long.compare(o1.getEventId(), o2.getEventId());
+        }
+    };
+
+    // The order in which each node paginates its results: descending Event ID. Events from different nodes that have the same ID are ordered
+    // by Cluster Node Identifier so that every page is selected deterministically.
+    private static final Comparator<ProvenanceEventDTO> PAGINATION_COMPARATOR = Comparator.comparing(ProvenanceEventDTO::getEventId, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(ProvenanceEventDTO::getClusterNodeId, Comparator.nullsLast(Comparator.reverseOrder()));
+
     public static final String PROVENANCE_URI = "/nifi-api/provenance";
     public static final Pattern PROVENANCE_QUERY_URI = Pattern.compile("/nifi-api/provenance/[a-f0-9\\-]{36}");
 
@@ -75,10 +111,63 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
     }
 
 
+    private static List<ProvenanceEventDTO> mergeResults(final Map<String, List<ProvenanceEventDTO>> resultsByNode, final int maxResults,
+                                                         final Map<String, Integer> selectedCountsByNode) {
+        final PriorityQueue<NodeResults> heads = new PriorityQueue<>((o1, o2) -> PAGINATION_COMPARATOR.compare(o1.peek(), o2.peek()));
+        for (final Map.Entry<String, List<ProvenanceEventDTO>> entry : resultsByNode.entrySet()) {
+            final NodeResults nodeResults = new NodeResults(entry.getKey(), entry.getValue());
+            if (nodeResults.hasNext()) {
+                heads.add(nodeResults);
+            }
+        }
+
+        final List<ProvenanceEventDTO> selectedResults = new ArrayList<>(Math.min(maxResults, 1024));
+        while (selectedResults.size() < maxResults && !heads.isEmpty()) {
+            final NodeResults nodeResults = heads.poll();
+            selectedResults.add(nodeResults.next());
+            selectedCountsByNode.merge(nodeResults.nodeId, 1, Integer::sum);
+
+            if (nodeResults.hasNext()) {
+                heads.add(nodeResults);
+            }
+        }
+
+        return selectedResults;
+    }
+
+    /**
+     * For each node, the next page begins just after the last of the node's events that was selected for this page. If none of the node's
+     * events were selected, the next page begins at the node's first event. If all of them were selected, the next page begins where the
+     * node determined that its own next page begins, or the node has no further results. A node that did not respond keeps the bound that
+     * it had in the token of the current page, so that the next page neither skips nor repeats any of its events.
+     */
+    private static ProvenanceContinuationToken createContinuationToken(final Map<String, Long> previousMaxEventIds, final Set<String> respondedNodeIds,
+                                                                       final Map<String, List<ProvenanceEventDTO>> resultsByNode, final Map<String, Integer> selectedCountsByNode,
+                                                                       final Map<String, Long> reportedMaxEventIds) {
+        final Map<String, Long> maxEventIds = new HashMap<>(previousMaxEventIds);
+        for (final String nodeId : respondedNodeIds) {
+            final List<ProvenanceEventDTO> nodeResults = resultsByNode.getOrDefault(nodeId, Collections.emptyList());
+            final int selectedCount = selectedCountsByNode.getOrDefault(nodeId, 0);
+
+            final Long maxEventId;
+            if (selectedCount < nodeResults.size()) {
+                maxEventId = selectedCount == 0 ? nodeResults.get(0).getEventId() : nodeResults.get(selectedCount - 1).getEventId() - 1;
+            } else {
+                maxEventId = reportedMaxEventIds.get(nodeId);
+            }
+
+            maxEventIds.put(nodeId, maxEventId == null ? -1L : maxEventId);
+        }
+
+        return new ProvenanceContinuationToken(maxEventIds);
+    }
+
     protected void mergeResponses(ProvenanceDTO clientDto, Map<NodeIdentifier, ProvenanceDTO> dtoMap, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses) {
         final ProvenanceResultsDTO results = clientDto.getResults();
         final ProvenanceRequestDTO request = clientDto.getRequest();
-        final List<ProvenanceEventDTO> allResults = new ArrayList<>(1024);
+        final Map<String, List<ProvenanceEventDTO>> resultsByNode = new HashMap<>();
+        final Map<String, Long> reportedMaxEventIds = new HashMap<>();
+        final Set<String> respondedNodeIds = new HashSet<>();
 
         final Set<String> errors = new HashSet<>();
         Date oldestEventDate = new Date();
@@ -109,10 +198,17 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
                         eventDto.setId(nodeIdentifier.getId() + eventDto.getId());
                     }
 
-                    allResults.add(eventDto);
+                    resultsByNode.computeIfAbsent(eventDto.getClusterNodeId(), nodeId -> new ArrayList<>()).add(eventDto);
                 }
             }
 
+            // If the results are paginated, each node reports where its next page begins. If this is the response from the Cluster
+            // Coordinator, it has already merged these for all nodes.
+            respondedNodeIds.add(nodeIdentifier.getId());
+            if (nodeResultDto != null && nodeResultDto.getContinuationToken() != null) {
+                reportedMaxEventIds.putAll(ProvenanceContinuationToken.parse(nodeResultDto.getContinuationToken()).getMaxEventIds());
+            }
+
             if (nodeResultDto.getOldestEvent() != null && nodeResultDto.getOldestEvent().before(oldestEventDate)) {
                 oldestEventDate = nodeResultDto.getOldestEvent();
             }
@@ -137,45 +233,29 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
             errors.add(String.format("%s -- Request did not complete successfully (Status code: %s)", problemNodeAddress, problematicResponse.getStatus()));
         }
 
-        // Since we get back up to the maximum number of results from each node, we need to sort those values and then
-        // grab only the first X number of them. We do a sort based on time, such that the newest are included.
-        // If 2 events have the same timestamp, we do a secondary sort based on Cluster Node Identifier. If those are
-        // equal, we perform a tertiary sort based on the the event id
-        Collections.sort(allResults, new Comparator<ProvenanceEventDTO>() {
-            @Override
-            public int compare(final ProvenanceEventDTO o1, final ProvenanceEventDTO o2) {
-                final int eventTimeComparison = o1.getEventTime().compareTo(o2.getEventTime());
-                if (eventTimeComparison != 0) {
-                    return -eventTimeComparison;
-                }
-
-                final String nodeId1 = o1.getClusterNodeId();
-                final String nodeId2 = o2.getClusterNodeId();
-                final int nodeIdComparison;
-                if (nodeId1 == null && nodeId2 == null) {
-                    nodeIdComparison = 0;
-                } else if (nodeId1 == null) {
-                    nodeIdComparison = 1;
-                } else if (nodeId2 == null) {
-                    nodeIdComparison = -1;
-                } else {
-                    nodeIdComparison = -nodeId1.compareTo(nodeId2);
-                }
-
-                if (nodeIdComparison != 0) {
-                    return nodeIdComparison;
-                }
-
-                return -Long.compare(o1.getEventId(), o2.getEventId());
-            }
-        });
+        // Since we get back up to the maximum number of results from each node, we need to merge those values and then
+        // grab only the first X number of them. Each node paginates its results in descending order of event id, so we perform a k-way merge
+        // of the nodes' results in that same order. This way, the events selected from each node are always the first of that node's results,
+        // which is what allows the next page to resume just after them.
+        // Node results may arrive in any order, so sort them into the order in which they are paginated
+        for (final List<ProvenanceEventDTO> nodeResults : resultsByNode.values()) {
+            nodeResults.sort(PAGINATION_COMPARATOR);
+        }
 
         final int maxResults = request.getMaxResults().intValue();
-        final List<ProvenanceEventDTO> selectedResults;
-        if (allResults.size() < maxResults) {
-            selectedResults = allResults;
+        final Map<String, Integer> selectedCountsByNode = new HashMap<>();
+        final List<ProvenanceEventDTO> selectedResults = mergeResults(resultsByNode, maxResults, selectedCountsByNode);
+
+        // If the results are paginated, determine where the next page begins on each node
+        if (request.getContinuationToken() != null && finished) {
+            respondedNodeIds.addAll(resultsByNode.keySet());
+            respondedNodeIds.addAll(reportedMaxEventIds.keySet());
+            final Map<String, Long> previousMaxEventIds = ProvenanceContinuationToken.parse(request.getContinuationToken()).getMaxEventIds();
+            final ProvenanceContinuationToken continuationToken = createContinuationToken(previousMaxEventIds, respondedNodeIds, resultsByNode, selectedCountsByNode,
+                reportedMaxEventIds);
+            results.setContinuationToken(continuationToken.isExhausted() ? null : continuationToken.toString());
         } else {
-            selectedResults = allResults.subList(0, maxResults);
+            results.setContinuationToken(null);
         }
 
         // include any errors
@@ -191,10 +271,36 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
             results.setTotalCount(totalRecords);
         }
 
+        // Present the selected events newest first. If 2 events have the same timestamp, we do a secondary sort based on Cluster Node
+        // Identifier. If those are equal, we perform a tertiary sort based on the event id.
+        selectedResults.sort(EVENT_COMPARATOR);
         results.setProvenanceEvents(selectedResults);
         results.setOldestEvent(oldestEventDate);
         results.setGenerated(new Date());
         clientDto.setPercentCompleted(percentageComplete);
         clientDto.setFinished(finished);
     }
+
+    private static class NodeResults {
+        private final String nodeId;
+        private final List<ProvenanceEventDTO> events;
+        private int index = 0;
+
+        NodeResults(final String nodeId, final List<ProvenanceEventDTO> events) {
+            this.nodeId = nodeId;
+            this.events = events;
+        }
+
+        boolean hasNext() {
+            return index < events.size();
+        }
+
+        ProvenanceEventDTO peek() {
+            return events.get(index);
+        }
+
+        ProvenanceEventDTO next() {
+            return events.get(index++);
+        }
+    }
 }
@@ -180,6 +180,9 @@ public class ProcessorDiagnosticsEntityMerger implements ComponentEntityMerger<P
         localPartition.setSwapByteCount(0);
         localPartition.setSwapFiles(0);
         localPartition.setSwapFlowFileCount(0);
+        localPartition.setSwapInCount(0);
+        localPartition.setSwapInMillis(0);
+        localPartition.setSwapInPrefetchHitCount(0);
         localPartition.setTotalByteCount(0);
         localPartition.setTotalFlowFileCount(0);
 
@@ -201,6 +204,9 @@ public class ProcessorDiagnosticsEntityMerger implements ComponentEntityMerger<P
             localPartition.setSwapByteCount(localPartition.getSwapByteCount() + snapshotLocalPartition.getSwapByteCount());
             localPartition.setSwapFiles(localPartition.getSwapFiles() + snapshotLocalPartition.getSwapFiles());
             localPartition.setSwapFlowFileCount(localPartition.getSwapFlowFileCount() + snapshotLocalPartition.getSwapFlowFileCount());
+            localPartition.setSwapInCount(localPartition.getSwapInCount() + snapshotLocalPartition.getSwapInCount());
+            localPartition.setSwapInMillis(localPartition.getSwapInMillis() + snapshotLocalPartition.getSwapInMillis());
+            localPartition.setSwapInPrefetchHitCount(localPartition.getSwapInPrefetchHitCount() + snapshotLocalPartition.getSwapInPrefetchHitCount());
             localPartition.setTotalByteCount(localPartition.getTotalByteCount() + snapshotLocalPartition.getTotalByteCount());
             localPartition.setTotalFlowFileCount(localPartition.getTotalFlowFileCount() + snapshotLocalPartition.getTotalFlowFileCount());
 
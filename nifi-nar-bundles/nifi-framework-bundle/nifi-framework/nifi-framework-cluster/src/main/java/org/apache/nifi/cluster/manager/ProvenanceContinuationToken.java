@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.manager;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * Identifies where the next page of results of a paginated Provenance query begins. Each node returns the matching events in descending
+ * order of Event ID, so the token holds, for each node, the largest Event ID that the next page may include from that node. A node that
+ * has no entry has not yet contributed any results, so the next page may include any of its events. A node whose entry is negative has no
+ * further results.
+ * </p>
+ *
+ * <p>
+ * The token is passed through the REST API as an opaque String of comma-separated <code>&lt;node id&gt;:&lt;event id&gt;</code> entries.
+ * A standalone instance uses the node id {@value #STANDALONE_NODE_ID}.
+ * </p>
+ */
+public class ProvenanceContinuationToken {
+    public static final String STANDALONE_NODE_ID = "standalone";
+
+    private static final char ENTRY_SEPARATOR = ',';
+    private static final char NODE_SEPARATOR = ':';
+
+    private final Map<String, Long> maxEventIds;
+
+    public ProvenanceContinuationToken(final Map<String, Long> maxEventIds) {
+        this.maxEventIds = Collections.unmodifiableMap(new TreeMap<>(maxEventIds));
+    }
+
+    /**
+     * @param nodeId the identifier of the node
+     * @return the largest Event ID that the next page may include from the given node, or <code>null</code> if the next page may include any
+     * of the node's events
+     */
+    public Long getMaxEventId(final String nodeId) {
+        return maxEventIds.get(nodeId);
+    }
+
+    /**
+     * @return the largest Event ID that the next page may include from each node that has an entry in the token
+     */
+    public Map<String, Long> getMaxEventIds() {
+        return maxEventIds;
+    }
+
+    /**
+     * @return <code>true</code> if no node has any further results
+     */
+    public boolean isExhausted() {
+        return !maxEventIds.isEmpty() && maxEventIds.values().stream().allMatch(maxEventId -> maxEventId < 0);
+    }
+
+    /**
+     * Parses the given token. An empty token indicates the first page of results.
+     *
+     * @param token the token to parse
+     * @return the parsed token
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static ProvenanceContinuationToken parse(final String token) {
+        final Map<String, Long> maxEventIds = new TreeMap<>();
+        if (token.trim().isEmpty()) {
+            return new ProvenanceContinuationToken(maxEventIds);
+        }
+
+        for (final String entry : token.split(String.valueOf(ENTRY_SEPARATOR))) {
+            final int separatorIndex = entry.lastIndexOf(NODE_SEPARATOR);
+            if (separatorIndex < 1) {
+                throw new IllegalArgumentException("Invalid Provenance continuation token: " + token);
+            }
+
+            try {
+                maxEventIds.put(entry.substring(0, separatorIndex).trim(), Long.parseLong(entry.substring(separatorIndex + 1).trim()));
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid Provenance continuation token: " + token, e);
+            }
+        }
+
+        return new ProvenanceContinuationToken(maxEventIds);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (final Map.Entry<String, Long> entry : maxEventIds.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(ENTRY_SEPARATOR);
+            }
+
+            sb.append(entry.getKey()).append(NODE_SEPARATOR).append(entry.getValue());
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.heartbeat;
+
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.ProtocolContext;
+import org.apache.nifi.cluster.protocol.ProtocolListener;
+import org.apache.nifi.cluster.protocol.ProtocolMessageUnmarshaller;
+import org.apache.nifi.cluster.protocol.jaxb.JaxbProtocolContext;
+import org.apache.nifi.cluster.protocol.jaxb.message.JaxbProtocolUtils;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.cluster.protocol.message.ProtocolMessage;
+import org.apache.nifi.cluster.protocol.schema.SchemaProtocolContext;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestClusterProtocolHeartbeatMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(TestClusterProtocolHeartbeatMonitor.class);
+
+    private static final int NODE_COUNT = 10;
+    private static final String COORDINATOR_ADDRESS = "coordinator.nifi:11443";
+
+    private final List<NodeConnectionStatus> clusterStatus = new ArrayList<>();
+    private ClusterProtocolHeartbeatMonitor monitor;
+
+    @BeforeEach
+    public void setup() {
+        for (int i = 0; i < NODE_COUNT; i++) {
+            final NodeIdentifier nodeId = new NodeIdentifier("node-" + i, "node" + i + ".nifi", 8443, "node" + i + ".nifi", 11443, "node" + i + ".nifi", 6342, null, null, null, false);
+            clusterStatus.add(new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED));
+        }
+
+        final ClusterCoordinator clusterCoordinator = mock(ClusterCoordinator.class);
+        when(clusterCoordinator.getConnectionStatuses()).thenReturn(clusterStatus);
+        when(clusterCoordinator.isFlowElectionComplete()).thenReturn(true);
+
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.CLUSTER_NODE_PROTOCOL_PORT, "11443");
+        monitor = new ClusterProtocolHeartbeatMonitor(clusterCoordinator, mock(ProtocolListener.class), NiFiProperties.createBasicNiFiProperties(null, properties));
+    }
+
+    @Test
+    public void testHandleHeartbeatWithSchemaEncoding() throws IOException {
+        final SchemaProtocolContext coordinatorContext = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+        final SchemaProtocolContext nodeContext = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+
+        // The first exchange negotiates the schema; the second uses it in both directions
+        for (int i = 0; i < 2; i++) {
+            final byte[] request = marshal(nodeContext, COORDINATOR_ADDRESS, createHeartbeatMessage(0));
+            final byte[] response = handle(coordinatorContext, request);
+
+            final HeartbeatResponseMessage responseMessage = (HeartbeatResponseMessage) nodeContext.createUnmarshaller(COORDINATOR_ADDRESS).unmarshal(new ByteArrayInputStream(response));
+            assertTrue(responseMessage.getUpdatedNodeStatuses().isEmpty());
+        }
+
+        assertTrue(nodeContext.getPeerSchemaVersion(COORDINATOR_ADDRESS) != null);
+        assertEquals(1, monitor.getLatestHeartbeats().size());
+        assertEquals(12, monitor.getLatestHeartbeats().get(clusterStatus.get(0).getNodeIdentifier()).getActiveThreadCount());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testHeartbeatThroughput() throws IOException {
+        final JaxbProtocolContext<ProtocolMessage> jaxbContext = new JaxbProtocolContext<>(JaxbProtocolUtils.JAXB_CONTEXT);
+        final List<byte[]> jaxbHeartbeats = new ArrayList<>();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            jaxbHeartbeats.add(marshal(jaxbContext, COORDINATOR_ADDRESS, createHeartbeatMessage(i)));
+        }
+
+        final SchemaProtocolContext nodeContext = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+        final SchemaProtocolContext coordinatorContext = new SchemaProtocolContext(JaxbProtocolUtils.JAXB_CONTEXT);
+        nodeContext.createUnmarshaller(COORDINATOR_ADDRESS).unmarshal(new ByteArrayInputStream(handle(coordinatorContext, marshal(nodeContext, COORDINATOR_ADDRESS, createHeartbeatMessage(0)))));
+        final List<byte[]> schemaHeartbeats = new ArrayList<>();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            schemaHeartbeats.add(marshal(nodeContext, COORDINATOR_ADDRESS, createHeartbeatMessage(i)));
+        }
+
+        // The first round warms up the JVM
+        final int iterations = 100_000;
+        runHeartbeats("JAXB", jaxbContext, jaxbHeartbeats, iterations);
+        runHeartbeats("Schema", coordinatorContext, schemaHeartbeats, iterations);
+
+        final long jaxbBytes = runHeartbeats("JAXB", jaxbContext, jaxbHeartbeats, iterations);
+        final long schemaBytes = runHeartbeats("Schema", coordinatorContext, schemaHeartbeats, iterations);
+        assertTrue(schemaBytes < jaxbBytes);
+    }
+
+    /**
+     * @return the average number of bytes per heartbeat and response
+     */
+    private long runHeartbeats(final String encoding, final ProtocolContext<ProtocolMessage> coordinatorContext, final List<byte[]> heartbeats,
+                               final int iterations) throws IOException {
+        final long start = System.nanoTime();
+        long bytes = 0L;
+        for (int i = 0; i < iterations; i++) {
+            final byte[] heartbeat = heartbeats.get(i % heartbeats.size());
+            bytes += heartbeat.length;
+            bytes += handle(coordinatorContext, heartbeat).length;
+        }
+
+        final long nanos = System.nanoTime() - start;
+        logger.info("{}: Handled {} heartbeats in {} millis ({} heartbeats/sec), averaging {} bytes per heartbeat and response",
+            encoding, iterations, nanos / 1_000_000, (long) (iterations * 1_000_000_000D / nanos), bytes / iterations);
+        return bytes / iterations;
+    }
+
+    private byte[] handle(final ProtocolContext<ProtocolMessage> coordinatorContext, final byte[] request) throws IOException {
+        final ProtocolMessageUnmarshaller<ProtocolMessage> unmarshaller = coordinatorContext.createUnmarshaller();
+        final ProtocolMessage requestMessage = unmarshaller.unmarshal(new ByteArrayInputStream(request));
+        final ProtocolMessage responseMessage = monitor.handle(requestMessage, Collections.emptySet());
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        coordinatorContext.createResponseMarshaller(unmarshaller).marshal(responseMessage, baos);
+        return baos.toByteArray();
+    }
+
+    private static byte[] marshal(final ProtocolContext<ProtocolMessage> context, final String peerAddress, final ProtocolMessage message) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        context.createMarshaller(peerAddress).marshal(message, baos);
+        return baos.toByteArray();
+    }
+
+    private HeartbeatMessage createHeartbeatMessage(final int nodeIndex) {
+        final NodeConnectionStatus connectionStatus = clusterStatus.get(nodeIndex);
+
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(12);
+        payload.setTotalFlowFileCount(1000L);
+        payload.setTotalFlowFileBytes(1024L * 1024L);
+        payload.setSystemStartTime(System.currentTimeMillis());
+        payload.setRevisionUpdateCount(42L);
+        payload.setClusterStatus(clusterStatus);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(connectionStatus.getNodeIdentifier(), connectionStatus, payload));
+        return message;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.cluster.coordination.http.endpoints;
+
+import org.apache.nifi.cluster.manager.ProvenanceContinuationToken;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceEventDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceRequestDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceResultsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestProvenanceQueryEndpointMerger {
+    private final NodeIdentifier nodeA = new NodeIdentifier("node-a", "localhost", 8080, "localhost", 8081, "localhost", null, null, false);
+    private final NodeIdentifier nodeB = new NodeIdentifier("node-b", "localhost", 9080, "localhost", 9081, "localhost", null, null, false);
+
+    @Test
+    public void testMergeSelectsEventsInPaginationOrder() {
+        // Node B's event 4 is newer than its event 12, as events are not always assigned IDs in the order in which they occurred
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(nodeA, createProvenance(3, null, null, createEvent(8, 80), createEvent(10, 100), createEvent(9, 90)));
+        dtoMap.put(nodeB, createProvenance(3, null, null, createEvent(4, 95), createEvent(12, 85), createEvent(3, 75)));
+
+        final ProvenanceDTO clientDto = createProvenance(3, null, null);
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.emptySet());
+
+        // Events are selected in descending order of Event ID, as each node paginates them, and are then presented newest first
+        final List<ProvenanceEventDTO> events = clientDto.getResults().getProvenanceEvents();
+        assertEquals(3, events.size());
+        assertEquals("node-a10", events.get(0).getId());
+        assertEquals("node-a9", events.get(1).getId());
+        assertEquals("node-b12", events.get(2).getId());
+        assertNull(clientDto.getResults().getContinuationToken());
+    }
+
+    @Test
+    public void testContinuationTokenResumesAfterSelectedEvents() {
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(nodeA, createProvenance(3, "node-a:" + Long.MAX_VALUE, "node-a:7", createEvent(10, 100), createEvent(9, 90), createEvent(8, 80)));
+        dtoMap.put(nodeB, createProvenance(3, "node-b:" + Long.MAX_VALUE, null, createEvent(15, 95), createEvent(4, 85), createEvent(3, 75)));
+
+        final ProvenanceDTO clientDto = createProvenance(3, "", null);
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.emptySet());
+
+        assertEquals(3, clientDto.getResults().getProvenanceEvents().size());
+
+        final ProvenanceContinuationToken token = ProvenanceContinuationToken.parse(clientDto.getResults().getContinuationToken());
+        assertEquals(Long.valueOf(8L), token.getMaxEventId("node-a"));
+        assertEquals(Long.valueOf(14L), token.getMaxEventId("node-b"));
+    }
+
+    @Test
+    public void testContinuationTokenForExhaustedNodes() {
+        // Node A has more results beyond those it returned, while Node B has returned all of its remaining results and a
+        // previous page already exhausted Node C
+        final NodeIdentifier nodeC = new NodeIdentifier("node-c", "localhost", 7080, "localhost", 7081, "localhost", null, null, false);
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(nodeA, createProvenance(4, "node-a:20", "node-a:17", createEvent(20, 100), createEvent(19, 90), createEvent(18, 80)));
+        dtoMap.put(nodeB, createProvenance(4, "node-b:6", null, createEvent(6, 50)));
+        dtoMap.put(nodeC, createProvenance(4, "node-c:-1", null));
+
+        final ProvenanceDTO clientDto = createProvenance(4, "node-a:20,node-b:6,node-c:-1", null);
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.emptySet());
+
+        final List<Long> eventIds = clientDto.getResults().getProvenanceEvents().stream().map(ProvenanceEventDTO::getEventId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(20L, 19L, 18L, 6L), eventIds);
+
+        final ProvenanceContinuationToken token = ProvenanceContinuationToken.parse(clientDto.getResults().getContinuationToken());
+        assertEquals(Long.valueOf(17L), token.getMaxEventId("node-a"));
+        assertEquals(Long.valueOf(-1L), token.getMaxEventId("node-b"));
+        assertEquals(Long.valueOf(-1L), token.getMaxEventId("node-c"));
+
+        // Once Node A reports that it has no more results, the query is exhausted
+        dtoMap.put(nodeA, createProvenance(4, "node-a:17", null, createEvent(17, 70)));
+        dtoMap.put(nodeB, createProvenance(4, "node-b:-1", null));
+
+        final ProvenanceDTO nextClientDto = createProvenance(4, token.toString(), null);
+        new ProvenanceQueryEndpointMerger().mergeResponses(nextClientDto, dtoMap, Collections.emptySet(), Collections.emptySet());
+        assertEquals(1, nextClientDto.getResults().getProvenanceEvents().size());
+        assertNull(nextClientDto.getResults().getContinuationToken());
+    }
+
+    @Test
+    public void testContinuationTokenKeepsBoundOfMissingNode() {
+        // Node C was part of the previous page but did not respond to this one. Each node echoes the token that the client requested, and
+        // reports only where its own next page begins.
+        final String requestToken = "node-a:20,node-b:25,node-c:15";
+        final Map<NodeIdentifier, ProvenanceDTO> dtoMap = new LinkedHashMap<>();
+        dtoMap.put(nodeA, createProvenance(3, requestToken, "node-a:17", createEvent(20, 100), createEvent(19, 90), createEvent(18, 80)));
+        dtoMap.put(nodeB, createProvenance(3, requestToken, null, createEvent(25, 95)));
+
+        // As when merging the responses of the nodes, the response of one of the nodes is the one that is returned to the client
+        final ProvenanceDTO clientDto = dtoMap.get(nodeA);
+        new ProvenanceQueryEndpointMerger().mergeResponses(clientDto, dtoMap, Collections.emptySet(), Collections.emptySet());
+
+        final List<Long> eventIds = clientDto.getResults().getProvenanceEvents().stream().map(ProvenanceEventDTO::getEventId).collect(Collectors.toList());
+        assertEquals(Arrays.asList(20L, 25L, 19L), eventIds);
+
+        // The next page resumes Node C where the previous page left it rather than treating it as exhausted or starting it over
+        final ProvenanceContinuationToken token = ProvenanceContinuationToken.parse(clientDto.getResults().getContinuationToken());
+        assertEquals(Long.valueOf(18L), token.getMaxEventId("node-a"));
+        assertEquals(Long.valueOf(-1L), token.getMaxEventId("node-b"));
+        assertEquals(Long.valueOf(15L), token.getMaxEventId("node-c"));
+    }
+
+    @Test
+    public void testParseContinuationToken() {
+        final ProvenanceContinuationToken token = ProvenanceContinuationToken.parse("node-b:4,node-a:8");
+        assertEquals("node-a:8,node-b:4", token.toString());
+        assertTrue(ProvenanceContinuationToken.parse(" ").getMaxEventIds().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceContinuationToken.parse("node-a"));
+        assertThrows(IllegalArgumentException.class, () -> ProvenanceContinuationToken.parse("node-a:latest"));
+    }
+
+    private static ProvenanceDTO createProvenance(final int maxResults, final String requestToken, final String resultsToken, final ProvenanceEventDTO... events) {
+        final ProvenanceRequestDTO request = new ProvenanceRequestDTO();
+        request.setMaxResults(maxResults);
+        request.setContinuationToken(requestToken);
+
+        final List<ProvenanceEventDTO> eventList = new ArrayList<>();
+        Collections.addAll(eventList, events);
+
+        final ProvenanceResultsDTO results = new ProvenanceResultsDTO();
+        results.setProvenanceEvents(eventList);
+        results.setTotalCount((long) eventList.size());
+        results.setContinuationToken(resultsToken);
+
+        final ProvenanceDTO dto = new ProvenanceDTO();
+        dto.setRequest(request);
+        dto.setResults(results);
+        dto.setFinished(true);
+        dto.setPercentCompleted(100);
+        return dto;
+    }
+
+    private static ProvenanceEventDTO createEvent(final long eventId, final long eventTime) {
+        final ProvenanceEventDTO event = new ProvenanceEventDTO();
+        event.setId(String.valueOf(eventId));
+        event.setEventId(eventId);
+        event.setEventTime(new Date(eventTime));
+        return event;
+    }
+}
@@ -148,7 +148,9 @@ public final class StandardConnection implements Connection, ConnectionEventList
 
     @Override
     public void triggerDestinationEvent() {
-        if (getDestination().getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
+        // Timer Driven components are notified as well so that a component that was parked for lack of work can be woken up.
+        // Cron Driven components always run on their schedule.
+        if (getDestination().getSchedulingStrategy() != SchedulingStrategy.CRON_DRIVEN) {
             scheduler.registerEvent(getDestination());
         }
     }
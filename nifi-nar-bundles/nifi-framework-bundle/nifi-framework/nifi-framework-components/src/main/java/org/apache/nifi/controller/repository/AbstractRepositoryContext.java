@@ -22,6 +22,8 @@ import org.apache.nifi.connectable.Connectable;
 import org.apache.nifi.connectable.ConnectableType;
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.repository.uuid.FlowFileUuidGenerator;
+import org.apache.nifi.controller.repository.uuid.RandomFlowFileUuidGenerator;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.provenance.InternalProvenanceReporter;
@@ -47,11 +49,39 @@ public abstract class AbstractRepositoryContext implements RepositoryContext {
     private final ProvenanceEventRepository provenanceRepo;
     private final AtomicLong connectionIndex;
     private final StateManager stateManager;
+    private final FlowFileUuidGenerator flowFileUuidGenerator;
+    private final String contentDigestAlgorithm;
+    private final ProvenanceRecordingPolicies provenanceRecordingPolicies;
 
     public AbstractRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
                                      final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
                                      final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
                                      final StateManager stateManager) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager,
+            new RandomFlowFileUuidGenerator());
+    }
+
+    public AbstractRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
+                                     final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
+                                     final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final FlowFileUuidGenerator flowFileUuidGenerator) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager,
+            flowFileUuidGenerator, null);
+    }
+
+    public AbstractRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
+                                     final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
+                                     final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final FlowFileUuidGenerator flowFileUuidGenerator, final String contentDigestAlgorithm) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager,
+            flowFileUuidGenerator, contentDigestAlgorithm, ProvenanceRecordingPolicies.EMPTY);
+    }
+
+    public AbstractRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
+                                     final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
+                                     final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final FlowFileUuidGenerator flowFileUuidGenerator, final String contentDigestAlgorithm,
+                                     final ProvenanceRecordingPolicies provenanceRecordingPolicies) {
         this.connectable = connectable;
         contentRepo = contentRepository;
         flowFileRepo = flowFileRepository;
@@ -61,6 +91,9 @@ public abstract class AbstractRepositoryContext implements RepositoryContext {
 
         this.connectionIndex = connectionIndex;
         this.stateManager = stateManager;
+        this.flowFileUuidGenerator = flowFileUuidGenerator;
+        this.contentDigestAlgorithm = contentDigestAlgorithm;
+        this.provenanceRecordingPolicies = provenanceRecordingPolicies;
     }
 
     @Override
@@ -165,6 +198,21 @@ public abstract class AbstractRepositoryContext implements RepositoryContext {
         return flowFileRepo.getNextFlowFileSequence();
     }
 
+    @Override
+    public String generateFlowFileUuid() {
+        return flowFileUuidGenerator.generateUuid();
+    }
+
+    @Override
+    public String getContentDigestAlgorithm() {
+        return contentDigestAlgorithm;
+    }
+
+    @Override
+    public ProvenanceRecordingPolicy getProvenanceRecordingPolicy() {
+        return provenanceRecordingPolicies.getPolicy(connectable);
+    }
+
     @Override
     public int getNextIncomingConnectionIndex() {
         final int numIncomingConnections = connectable.getIncomingConnections().size();
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.util.NiFiProperties;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * The Provenance Recording Policies that are configured in nifi.properties. Each policy is defined by a group of properties
+ * that share the prefix <code>nifi.provenance.recording.policy.&lt;name&gt;.</code> and applies to the Processors, Ports, Funnels,
+ * and Process Groups whose identifiers are listed in its <code>components</code> property. A policy that applies to a Process Group
+ * also applies to every component within that group and its descendant groups, unless a policy applies to the component itself or
+ * to a group that is nested more deeply.
+ * </p>
+ */
+public class ProvenanceRecordingPolicies {
+    public static final ProvenanceRecordingPolicies EMPTY = new ProvenanceRecordingPolicies(Collections.emptyMap());
+
+    static final String COMPONENTS = "components";
+    static final String EVENT_TYPES = "event.types";
+    static final String SAMPLE_PERCENTAGE = "sample.percentage";
+    static final String MAX_EVENTS_PER_SECOND = "max.events.per.second";
+
+    private final Map<String, ProvenanceRecordingPolicy> policiesByComponentId;
+
+    public ProvenanceRecordingPolicies(final Map<String, ProvenanceRecordingPolicy> policiesByComponentId) {
+        this.policiesByComponentId = Collections.unmodifiableMap(new HashMap<>(policiesByComponentId));
+    }
+
+    /**
+     * Returns the policy that applies to the given component
+     *
+     * @param connectable the component
+     * @return the policy that applies to the component, or <code>null</code> if all of its events are to be recorded
+     */
+    public ProvenanceRecordingPolicy getPolicy(final Connectable connectable) {
+        if (policiesByComponentId.isEmpty() || connectable == null) {
+            return null;
+        }
+
+        final ProvenanceRecordingPolicy componentPolicy = policiesByComponentId.get(connectable.getIdentifier());
+        if (componentPolicy != null) {
+            return componentPolicy;
+        }
+
+        ProcessGroup group = connectable.getProcessGroup();
+        while (group != null) {
+            final ProvenanceRecordingPolicy groupPolicy = policiesByComponentId.get(group.getIdentifier());
+            if (groupPolicy != null) {
+                return groupPolicy;
+            }
+
+            group = group.getParent();
+        }
+
+        return null;
+    }
+
+    public boolean isEmpty() {
+        return policiesByComponentId.isEmpty();
+    }
+
+    /**
+     * Creates the policies that are configured in the given properties
+     *
+     * @param properties the NiFi Properties
+     * @return the configured policies
+     * @throws IllegalStateException if any policy is not configured properly
+     */
+    public static ProvenanceRecordingPolicies fromProperties(final NiFiProperties properties) {
+        final String prefix = NiFiProperties.PROVENANCE_RECORDING_POLICY_PREFIX;
+        final Set<String> policyNames = new TreeSet<>();
+        for (final String propertyName : properties.getPropertyKeys()) {
+            if (propertyName.startsWith(prefix)) {
+                final String remainder = propertyName.substring(prefix.length());
+                final int dotIndex = remainder.indexOf('.');
+                if (dotIndex > 0) {
+                    policyNames.add(remainder.substring(0, dotIndex));
+                }
+            }
+        }
+
+        final Map<String, ProvenanceRecordingPolicy> policiesByComponentId = new HashMap<>();
+        for (final String policyName : policyNames) {
+            final String policyPrefix = prefix + policyName + ".";
+            final ProvenanceRecordingPolicy policy = createPolicy(policyName, policyPrefix, properties);
+
+            final String componentIds = properties.getProperty(policyPrefix + COMPONENTS);
+            for (final String componentId : StringUtils.split(StringUtils.defaultString(componentIds), ',')) {
+                final String trimmed = componentId.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+
+                final ProvenanceRecordingPolicy existing = policiesByComponentId.put(trimmed, policy);
+                if (existing != null) {
+                    throw new IllegalStateException("Component " + trimmed + " is listed in both Provenance Recording Policy " + existing.getName() + " and " + policyName);
+                }
+            }
+        }
+
+        return policiesByComponentId.isEmpty() ? EMPTY : new ProvenanceRecordingPolicies(policiesByComponentId);
+    }
+
+    private static ProvenanceRecordingPolicy createPolicy(final String policyName, final String policyPrefix, final NiFiProperties properties) {
+        final String eventTypeNames = StringUtils.trimToNull(properties.getProperty(policyPrefix + EVENT_TYPES));
+        Set<ProvenanceEventType> eventTypes = null;
+        if (eventTypeNames != null) {
+            eventTypes = EnumSet.noneOf(ProvenanceEventType.class);
+            for (final String eventTypeName : StringUtils.split(eventTypeNames, ',')) {
+                try {
+                    eventTypes.add(ProvenanceEventType.valueOf(eventTypeName.trim().toUpperCase()));
+                } catch (final IllegalArgumentException e) {
+                    throw new IllegalStateException("Invalid value for property " + policyPrefix + EVENT_TYPES + ": " + eventTypeName.trim() + " is not a Provenance Event Type", e);
+                }
+            }
+        }
+
+        final String samplePercentage = StringUtils.trimToNull(properties.getProperty(policyPrefix + SAMPLE_PERCENTAGE));
+        final String maxEventsPerSecond = StringUtils.trimToNull(properties.getProperty(policyPrefix + MAX_EVENTS_PER_SECOND));
+        try {
+            return new ProvenanceRecordingPolicy(policyName, eventTypes,
+                samplePercentage == null ? 100D : Double.parseDouble(samplePercentage),
+                maxEventsPerSecond == null ? -1L : Long.parseLong(maxEventsPerSecond));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid configuration for Provenance Recording Policy " + policyName + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Determines which of the Provenance Events generated by a component are recorded in the Provenance Repository. An event is recorded
+ * only if all of the following hold:
+ * </p>
+ *
+ * <ul>
+ * <li>Its type is one of the policy's event types, if the policy restricts event types.</li>
+ * <li>The FlowFile that it describes is sampled. Sampling is determined by a hash of the FlowFile's UUID, so a FlowFile is either
+ * sampled by every component that uses the policy or by none of them, and a sampled FlowFile retains its full lineage. FORK, CLONE,
+ * and JOIN events are recorded if any of the FlowFiles involved is sampled so that sampled FlowFiles remain linked to their
+ * parents and children.</li>
+ * <li>Fewer than the policy's maximum number of events have been recorded in the current second. The limit is shared by all
+ * components that use the policy.</li>
+ * </ul>
+ */
+public class ProvenanceRecordingPolicy {
+    private static final int SAMPLE_BUCKETS = 10_000;
+
+    private final String name;
+    private final Set<ProvenanceEventType> eventTypes;
+    private final int sampledBuckets;
+    private final long maxEventsPerSecond;
+
+    private long currentSecond = -1L; // guarded by this
+    private long eventsRecordedThisSecond = 0L; // guarded by this
+
+    /**
+     * @param name the name of the policy
+     * @param eventTypes the types of events to record, or <code>null</code> to record all types
+     * @param samplePercentage the percentage of FlowFiles whose events should be recorded, between 0 and 100
+     * @param maxEventsPerSecond the maximum number of events to record per second, or a negative value for no limit
+     */
+    public ProvenanceRecordingPolicy(final String name, final Set<ProvenanceEventType> eventTypes, final double samplePercentage, final long maxEventsPerSecond) {
+        if (samplePercentage < 0D || samplePercentage > 100D) {
+            throw new IllegalArgumentException("Sample percentage for Provenance Recording Policy " + name + " must be between 0 and 100 but was " + samplePercentage);
+        }
+
+        this.name = name;
+        this.eventTypes = eventTypes == null ? null : Collections.unmodifiableSet(EnumSet.copyOf(eventTypes));
+        this.sampledBuckets = (int) Math.round(samplePercentage * SAMPLE_BUCKETS / 100D);
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Determines whether or not the given event should be recorded. If the policy limits the rate of events, calling this method
+     * counts the event against the limit when it returns <code>true</code>.
+     *
+     * @param event the event
+     * @return <code>true</code> if the event should be recorded, <code>false</code> if it should be discarded
+     */
+    public boolean isRecorded(final ProvenanceEventRecord event) {
+        if (eventTypes != null && !eventTypes.contains(event.getEventType())) {
+            return false;
+        }
+
+        if (sampledBuckets < SAMPLE_BUCKETS && !isSampled(event)) {
+            return false;
+        }
+
+        return maxEventsPerSecond < 0 || tryAcquire();
+    }
+
+    private boolean isSampled(final ProvenanceEventRecord event) {
+        if (isSampled(event.getFlowFileUuid())) {
+            return true;
+        }
+
+        return isAnySampled(event.getParentUuids()) || isAnySampled(event.getChildUuids());
+    }
+
+    private boolean isAnySampled(final List<String> uuids) {
+        if (uuids == null) {
+            return false;
+        }
+
+        for (final String uuid : uuids) {
+            if (isSampled(uuid)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Because the threshold is compared against the same hash regardless of the percentage, a FlowFile that is sampled by a
+     * policy is also sampled by any policy with a greater percentage.
+     */
+    boolean isSampled(final String flowFileUuid) {
+        if (flowFileUuid == null) {
+            return false;
+        }
+
+        // String.hashCode() is specified by the Java Language Specification, so every node in a cluster samples the same FlowFiles.
+        // Spread the bits so that UUIDs that differ only in their last characters fall into different buckets.
+        int hash = flowFileUuid.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, SAMPLE_BUCKETS) < sampledBuckets;
+    }
+
+    private synchronized boolean tryAcquire() {
+        final long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        if (second != currentSecond) {
+            currentSecond = second;
+            eventsRecordedThisSecond = 0L;
+        }
+
+        if (eventsRecordedThisSecond >= maxEventsPerSecond) {
+            return false;
+        }
+
+        eventsRecordedThisSecond++;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "ProvenanceRecordingPolicy[name=" + name + ", eventTypes=" + (eventTypes == null ? "ALL" : eventTypes) + ", samplePercentage=" + (sampledBuckets * 100D / SAMPLE_BUCKETS)
+            + ", maxEventsPerSecond=" + (maxEventsPerSecond < 0 ? "unlimited" : maxEventsPerSecond) + "]";
+    }
+}
@@ -59,6 +59,21 @@ public interface RepositoryContext {
 
     long getNextFlowFileSequence();
 
+    /**
+     * @return a new value for the <code>uuid</code> attribute of a FlowFile that is being created
+     */
+    String generateFlowFileUuid();
+
+    /**
+     * @return the name of the algorithm used to compute a digest of FlowFile content as it is written, or <code>null</code> if no digest is to be computed
+     */
+    String getContentDigestAlgorithm();
+
+    /**
+     * @return the policy that determines which of the component's Provenance Events are recorded, or <code>null</code> if all events are to be recorded
+     */
+    ProvenanceRecordingPolicy getProvenanceRecordingPolicy();
+
     void adjustCounter(String name, long delta);
 
     ProvenanceEventBuilder createProvenanceEventBuilder();
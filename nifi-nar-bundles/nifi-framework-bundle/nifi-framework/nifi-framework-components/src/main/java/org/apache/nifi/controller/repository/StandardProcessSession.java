@@ -30,6 +30,7 @@ import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ContentClaimWriteCache;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.io.ContentClaimInputStream;
 import org.apache.nifi.controller.repository.io.DisableOnCloseInputStream;
 import org.apache.nifi.controller.repository.io.DisableOnCloseOutputStream;
@@ -80,6 +81,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -93,8 +97,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -127,6 +131,9 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
     private static final Logger LOG = LoggerFactory.getLogger(StandardProcessSession.class);
     private static final Logger claimLog = LoggerFactory.getLogger(StandardProcessSession.class.getSimpleName() + ".claims");
     private static final int MAX_ROLLBACK_FLOWFILES_TO_LOG = 5;
+    // Sources at least this large are merged by handing the repository's own stream to the Content Repository, which may copy
+    // the bytes between files without passing them through the heap. Smaller sources are cheaper to copy through the buffer.
+    private static final long MERGE_DIRECT_TRANSFER_THRESHOLD = 64 * 1024L;
 
     private final Map<Long, StandardRepositoryRecord> records = new ConcurrentHashMap<>();
     private final Map<String, StandardFlowFileEvent> connectionCounts = new ConcurrentHashMap<>();
@@ -181,6 +188,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
     private StateMap localState;
     private StateMap clusterState;
     private final String retryAttribute;
+    private final String contentDigestAlgorithm;
     private final FlowFileLinkage flowFileLinkage = new FlowFileLinkage();
 
     public StandardProcessSession(final RepositoryContext context, final TaskTermination taskTermination, final PerformanceTracker performanceTracker) {
@@ -195,6 +203,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         LOG.trace("Session {} created for {}", this, connectableDescription);
         processingStartTime = System.nanoTime();
         retryAttribute = "retryCount." + context.getConnectable().getIdentifier();
+        contentDigestAlgorithm = context.getContentDigestAlgorithm();
     }
 
     private void verifyTaskActive() {
@@ -366,7 +375,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                     final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder().fromFlowFile(currRec);
                     builder.id(context.getNextFlowFileSequence());
 
-                    final String newUuid = UUID.randomUUID().toString();
+                    final String newUuid = context.generateFlowFileUuid();
                     builder.addAttribute(CoreAttributes.UUID.key(), newUuid);
 
                     final FlowFileRecord clone = builder.build();
@@ -975,8 +984,27 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             flowFileRecordMap.put(flowFile.getAttribute(CoreAttributes.UUID.key()), flowFile);
         }
 
+        // Discard any events that the component's Provenance Recording Policy does not record before they are enriched and serialized.
+        final ProvenanceRecordingPolicy recordingPolicy = context.getProvenanceRecordingPolicy();
+        final List<ProvenanceEventRecord> autoTermEvents;
+        if (recordingPolicy == null) {
+            autoTermEvents = checkpoint.autoTerminatedEvents;
+        } else {
+            recordsToSubmit.removeIf(event -> !recordingPolicy.isRecorded(event));
+
+            if (checkpoint.autoTerminatedEvents == null) {
+                autoTermEvents = null;
+            } else {
+                autoTermEvents = new ArrayList<>(checkpoint.autoTerminatedEvents.size());
+                for (final ProvenanceEventRecord event : checkpoint.autoTerminatedEvents) {
+                    if (recordingPolicy.isRecorded(event)) {
+                        autoTermEvents.add(event);
+                    }
+                }
+            }
+        }
+
         final long commitNanos = System.nanoTime();
-        final List<ProvenanceEventRecord> autoTermEvents = checkpoint.autoTerminatedEvents;
         final Iterable<ProvenanceEventRecord> iterable = new Iterable<ProvenanceEventRecord>() {
             final Iterator<ProvenanceEventRecord> recordsToSubmitIterator = recordsToSubmit.iterator();
             final Iterator<ProvenanceEventRecord> autoTermIterator = autoTermEvents == null ? null : autoTermEvents.iterator();
@@ -2008,7 +2036,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         verifyTaskActive();
 
         final Map<String, String> attrs = new HashMap<>();
-        final String uuid = UUID.randomUUID().toString();
+        final String uuid = context.generateFlowFileUuid();
         attrs.put(CoreAttributes.FILENAME.key(), uuid);
         attrs.put(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
         attrs.put(CoreAttributes.UUID.key(), uuid);
@@ -2031,7 +2059,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         verifyTaskActive();
         parent = getMostRecent(parent);
 
-        final String uuid = UUID.randomUUID().toString();
+        final String uuid = context.generateFlowFileUuid();
 
         final Map<String, String> newAttributes = new HashMap<>(3);
         newAttributes.put(CoreAttributes.FILENAME.key(), uuid);
@@ -2098,7 +2126,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
             }
         }
 
-        final String uuid = UUID.randomUUID().toString();
+        final String uuid = context.generateFlowFileUuid();
         newAttributes.put(CoreAttributes.FILENAME.key(), uuid);
         newAttributes.put(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
         newAttributes.put(CoreAttributes.UUID.key(), uuid);
@@ -2148,7 +2176,7 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         builder.contentClaimOffset(currRec.getContentClaimOffset() + offset);
         builder.size(size);
 
-        final String newUuid = UUID.randomUUID().toString();
+        final String newUuid = context.generateFlowFileUuid();
         builder.addAttribute(CoreAttributes.UUID.key(), newUuid);
 
         final FlowFileRecord clone = builder.build();
@@ -2856,6 +2884,48 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
         }
     }
 
+    @Override
+    public Optional<byte[]> getContentDigest(FlowFile flowFile, final String algorithm) {
+        verifyTaskActive();
+        flowFile = validateRecordState(flowFile, true);
+        final StandardRepositoryRecord record = getRecord(flowFile);
+
+        // The digest covers the entire claim, so it applies only if the FlowFile's content is the entire claim
+        final ContentClaim claim = record.getCurrentClaim();
+        if (!(claim instanceof StandardContentClaim) || record.getCurrentClaimOffset() != 0L || claim.getLength() != flowFile.getSize()) {
+            return Optional.empty();
+        }
+
+        final StandardContentClaim standardClaim = (StandardContentClaim) claim;
+        final String digestAlgorithm = standardClaim.getDigestAlgorithm();
+        if (digestAlgorithm == null || !digestAlgorithm.equalsIgnoreCase(algorithm)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(standardClaim.getDigest().clone());
+    }
+
+    private MessageDigest createContentDigest() {
+        if (contentDigestAlgorithm == null) {
+            return null;
+        }
+
+        try {
+            return MessageDigest.getInstance(contentDigestAlgorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new ProcessException("Unable to compute content digest using algorithm " + contentDigestAlgorithm, e);
+        }
+    }
+
+    private void setContentDigest(final ContentClaim claim, final long contentLength, final MessageDigest contentDigest) {
+        // The digest describes the claim only if nothing else was written to it
+        if (contentDigest == null || !(claim instanceof StandardContentClaim) || claim.getLength() != contentLength) {
+            return;
+        }
+
+        ((StandardContentClaim) claim).setDigest(contentDigestAlgorithm, contentDigest.digest());
+    }
+
     @Override
     public FlowFile merge(final Collection<FlowFile> sources, final FlowFile destination) {
         verifyTaskActive();
@@ -2914,7 +2984,13 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                 for (final FlowFile source : sources) {
                     final StandardRepositoryRecord sourceRecord = getRecord(source);
 
-                    final long copied = contentRepo.exportTo(sourceRecord.getCurrentClaim(), out, sourceRecord.getCurrentClaimOffset(), source.getSize());
+                    final long copied;
+                    if (source.getSize() >= MERGE_DIRECT_TRANSFER_THRESHOLD) {
+                        out.flush();
+                        copied = contentRepo.exportTo(sourceRecord.getCurrentClaim(), rawOut, sourceRecord.getCurrentClaimOffset(), source.getSize());
+                    } else {
+                        copied = contentRepo.exportTo(sourceRecord.getCurrentClaim(), out, sourceRecord.getCurrentClaimOffset(), source.getSize());
+                    }
                     writtenCount += copied;
                     readCount += copied;
 
@@ -3114,15 +3190,18 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         long writtenToFlowFile = 0L;
         ContentClaim newClaim = null;
+        MessageDigest contentDigest = null;
         try {
             newClaim = claimCache.getContentClaim();
             claimLog.debug("Creating ContentClaim {} for 'write' for {}", newClaim, source);
 
             ensureNotAppending(newClaim);
+            contentDigest = createContentDigest();
             try (final OutputStream stream = claimCache.write(newClaim);
                 final NonFlushableOutputStream nonFlushableOutputStream = new NonFlushableOutputStream(stream);
                 final OutputStream disableOnClose = new DisableOnCloseOutputStream(nonFlushableOutputStream);
-                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(disableOnClose)) {
+                final OutputStream digestOut = contentDigest == null ? disableOnClose : new DigestOutputStream(disableOnClose, contentDigest);
+                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(digestOut)) {
                 try {
                     writeRecursionSet.add(source);
                     final OutputStream ffaos = new FlowFileAccessOutputStream(countingOut, source);
@@ -3167,6 +3246,8 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                 .contentClaimOffset(Math.max(0, newClaim.getLength() - writtenToFlowFile))
                 .size(writtenToFlowFile)
                 .build();
+
+            setContentDigest(newClaim, writtenToFlowFile, contentDigest);
         }
 
         record.setWorking(newFile, true);
@@ -3398,11 +3479,13 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
 
         long writtenToFlowFile = 0L;
         ContentClaim newClaim = null;
+        MessageDigest contentDigest = null;
         try {
             newClaim = claimCache.getContentClaim();
             claimLog.debug("Creating ContentClaim {} for 'write' for {}", newClaim, source);
 
             ensureNotAppending(newClaim);
+            contentDigest = createContentDigest();
 
             if (currClaim != null) {
                 claimCache.flush(currClaim.getResourceClaim());
@@ -3415,7 +3498,8 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                 final OutputStream os = claimCache.write(newClaim);
                 final OutputStream nonFlushableOut = new NonFlushableOutputStream(os);
                 final OutputStream disableOnCloseOut = new DisableOnCloseOutputStream(nonFlushableOut);
-                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(disableOnCloseOut)) {
+                final OutputStream digestOut = contentDigest == null ? disableOnCloseOut : new DigestOutputStream(disableOnCloseOut, contentDigest);
+                final ByteCountingOutputStream countingOut = new ByteCountingOutputStream(digestOut)) {
 
                 writeRecursionSet.add(source);
 
@@ -3476,6 +3560,8 @@ public class StandardProcessSession implements ProcessSession, ProvenanceEventEn
                 .contentClaimOffset(Math.max(0L, newClaim.getLength() - writtenToFlowFile))
                 .size(writtenToFlowFile)
                 .build();
+
+            setContentDigest(newClaim, writtenToFlowFile, contentDigest);
         }
 
         record.setWorking(newFile, true);
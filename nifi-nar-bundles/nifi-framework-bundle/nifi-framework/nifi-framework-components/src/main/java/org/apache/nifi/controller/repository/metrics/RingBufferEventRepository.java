@@ -26,7 +26,7 @@ import java.util.concurrent.ConcurrentMap;
 
 public class RingBufferEventRepository implements FlowFileEventRepository {
     private final int numMinutes;
-    private final EventSumValue aggregateValues = new EventSumValue(0L);
+    private final StripedEventSumValue aggregateValues = new StripedEventSumValue();
     private final ConcurrentMap<String, EventContainer> componentEventMap = new ConcurrentHashMap<>();
 
     public RingBufferEventRepository(final int numMinutes) {
@@ -39,7 +39,11 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
 
     @Override
     public void updateRepository(final FlowFileEvent event, final String componentId) {
-        final EventContainer eventContainer = componentEventMap.computeIfAbsent(componentId, id -> new SecondPrecisionEventContainer(numMinutes));
+        EventContainer eventContainer = componentEventMap.get(componentId);
+        if (eventContainer == null) {
+            eventContainer = componentEventMap.computeIfAbsent(componentId, id -> new SecondPrecisionEventContainer(numMinutes));
+        }
+
         eventContainer.addEvent(event);
         aggregateValues.add(event);
     }
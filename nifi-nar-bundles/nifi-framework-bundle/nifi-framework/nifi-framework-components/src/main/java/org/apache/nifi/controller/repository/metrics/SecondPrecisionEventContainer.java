@@ -26,9 +26,12 @@ import java.util.concurrent.atomic.AtomicLong;
 public class SecondPrecisionEventContainer implements EventContainer {
     private static final Logger logger = LoggerFactory.getLogger(SecondPrecisionEventContainer.class);
 
+    // A component is typically updated by few threads at once, and there is one container per component, so keep its stripes few
+    private static final int AGGREGATE_STRIPES = 8;
+
     private final int numBins;
     private final EventSum[] sums;
-    private final EventSumValue aggregateValue = new EventSumValue(0L);
+    private final StripedEventSumValue aggregateValue = new StripedEventSumValue(AGGREGATE_STRIPES);
     private final AtomicLong lastUpdateSecond = new AtomicLong(System.currentTimeMillis() / 1000L);
 
     public SecondPrecisionEventContainer(final int numMinutes) {
@@ -57,13 +60,14 @@ public class SecondPrecisionEventContainer implements EventContainer {
 
         aggregateValue.add(event);
 
-        if (replaced == null) {
-            logger.debug("Updated bin {}. Did NOT replace.", binIdx);
-        } else {
-            logger.debug("Replaced bin {}", binIdx);
+        if (replaced != null) {
             aggregateValue.subtract(replaced);
         }
 
+        if (logger.isDebugEnabled()) {
+            logger.debug(replaced == null ? "Updated bin {}. Did NOT replace." : "Replaced bin {}", binIdx);
+        }
+
         // If there are any buckets that have expired, we need to update our aggregate value to reflect that.
         processExpiredBuckets(second);
     }
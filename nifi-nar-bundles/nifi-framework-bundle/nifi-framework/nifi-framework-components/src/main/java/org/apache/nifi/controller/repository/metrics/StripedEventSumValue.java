@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A running sum of FlowFile Events that many threads may update concurrently. Rather than having all threads contend for the lock
+ * of a single {@link EventSumValue}, each thread adds to one of several stripes, chosen by its thread id, and the stripes are
+ * combined when the value is read. Stripes are created only once a thread that maps to them adds to the sum.
+ */
+public class StripedEventSumValue {
+    private static final int MAX_STRIPES = 64;
+    private static final int DEFAULT_STRIPES = Math.min(MAX_STRIPES, nextPowerOfTwo(Runtime.getRuntime().availableProcessors()));
+
+    private final AtomicReferenceArray<EventSumValue> stripes;
+    private final int mask;
+
+    public StripedEventSumValue() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripeCount the maximum number of stripes to use, which is rounded up to a power of two. No more stripes are used
+     * than there are available processors, as threads that are not running at the same time do not contend with one another.
+     */
+    public StripedEventSumValue(final int stripeCount) {
+        final int stripes = nextPowerOfTwo(Math.max(1, Math.min(DEFAULT_STRIPES, stripeCount)));
+        this.stripes = new AtomicReferenceArray<>(stripes);
+        this.mask = stripes - 1;
+    }
+
+    public void add(final FlowFileEvent event) {
+        getStripe().add(event);
+    }
+
+    public void subtract(final EventSumValue value) {
+        getStripe().subtract(value);
+    }
+
+    public FlowFileEvent toFlowFileEvent() {
+        final EventSumValue sum = new EventSumValue(0L);
+        for (int i = 0; i < stripes.length(); i++) {
+            final EventSumValue stripe = stripes.get(i);
+            if (stripe != null) {
+                sum.add(stripe);
+            }
+        }
+
+        return sum.toFlowFileEvent();
+    }
+
+    private EventSumValue getStripe() {
+        final int index = (int) Thread.currentThread().getId() & mask;
+        final EventSumValue stripe = stripes.get(index);
+        if (stripe != null) {
+            return stripe;
+        }
+
+        final EventSumValue created = new EventSumValue(0L);
+        return stripes.compareAndSet(index, null, created) ? created : stripes.get(index);
+    }
+
+    private static int nextPowerOfTwo(final int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
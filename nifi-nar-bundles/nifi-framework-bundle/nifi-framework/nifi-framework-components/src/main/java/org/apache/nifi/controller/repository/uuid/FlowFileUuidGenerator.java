@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.uuid;
+
+/**
+ * Generates the value of the <code>uuid</code> attribute for FlowFiles that are created, cloned, or split by a Process Session
+ */
+public interface FlowFileUuidGenerator {
+
+    /**
+     * @return a new UUID, in its canonical String representation, that is unique across all FlowFiles
+     */
+    String generateUuid();
+
+    /**
+     * Returns the generator that corresponds to the given strategy name, as configured in nifi.properties
+     *
+     * @param strategy the name of the strategy, or <code>null</code> to use the default strategy
+     * @return the generator for the given strategy
+     * @throws IllegalArgumentException if the strategy is not known
+     */
+    static FlowFileUuidGenerator forStrategy(final String strategy) {
+        if (strategy == null || strategy.trim().isEmpty() || TimeOrderedFlowFileUuidGenerator.STRATEGY.equalsIgnoreCase(strategy.trim())) {
+            return new TimeOrderedFlowFileUuidGenerator();
+        }
+        if (RandomFlowFileUuidGenerator.STRATEGY.equalsIgnoreCase(strategy.trim())) {
+            return new RandomFlowFileUuidGenerator();
+        }
+
+        throw new IllegalArgumentException("Unknown FlowFile UUID generation strategy '" + strategy + "'; valid values are '"
+            + TimeOrderedFlowFileUuidGenerator.STRATEGY + "' and '" + RandomFlowFileUuidGenerator.STRATEGY + "'");
+    }
+}
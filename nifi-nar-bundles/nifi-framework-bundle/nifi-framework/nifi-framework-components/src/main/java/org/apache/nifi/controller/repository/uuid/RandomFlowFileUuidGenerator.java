@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.uuid;
+
+import java.util.UUID;
+
+/**
+ * Generates random (version 4) UUIDs using {@link UUID#randomUUID()}. Every call obtains its random bits from a single shared
+ * {@link java.security.SecureRandom}, which can become a point of contention when many FlowFiles are created concurrently.
+ */
+public class RandomFlowFileUuidGenerator implements FlowFileUuidGenerator {
+    public static final String STRATEGY = "random";
+
+    @Override
+    public String generateUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -76,13 +76,28 @@ public abstract class AbstractEventAccess implements EventAccess {
     private final StatusAnalyticsEngine statusAnalyticsEngine;
     private final FlowManager flowManager;
     private final FlowFileEventRepository flowFileEventRepository;
+    private final long statusSnapshotCacheMillis;
+
+    private final Object statusSnapshotLock = new Object();
+    private volatile ProcessGroupStatusSnapshot statusSnapshot;
+    private long statusSnapshotVersion = 0L;
 
     public AbstractEventAccess(final ProcessScheduler processScheduler, final StatusAnalyticsEngine analyticsEngine, final FlowManager flowManager,
                                final FlowFileEventRepository flowFileEventRepository) {
+        this(processScheduler, analyticsEngine, flowManager, flowFileEventRepository, 0L);
+    }
+
+    /**
+     * @param statusSnapshotCacheMillis the number of milliseconds for which a snapshot of the status of the entire flow may be shared between
+     * unfiltered status requests before it is recalculated, or 0 to calculate the status on every request
+     */
+    public AbstractEventAccess(final ProcessScheduler processScheduler, final StatusAnalyticsEngine analyticsEngine, final FlowManager flowManager,
+                               final FlowFileEventRepository flowFileEventRepository, final long statusSnapshotCacheMillis) {
         this.processScheduler = processScheduler;
         this.statusAnalyticsEngine = analyticsEngine;
         this.flowManager = flowManager;
         this.flowFileEventRepository = flowFileEventRepository;
+        this.statusSnapshotCacheMillis = statusSnapshotCacheMillis;
     }
 
     /**
@@ -94,6 +109,14 @@ public abstract class AbstractEventAccess implements EventAccess {
      */
     @Override
     public ProcessGroupStatus getGroupStatus(final String groupId) {
+        final ProcessGroupStatusSnapshot snapshot = getStatusSnapshot();
+        if (snapshot != null) {
+            final ProcessGroupStatus groupStatus = snapshot.getGroupStatus(groupId);
+            if (groupStatus != null) {
+                return groupStatus.clone();
+            }
+        }
+
         final RepositoryStatusReport statusReport = generateRepositoryStatusReport();
         final ProcessGroup group = flowManager.getGroup(groupId);
         return getGroupStatus(group, statusReport, authorizable -> true, Integer.MAX_VALUE, 1, true);
@@ -119,6 +142,64 @@ public abstract class AbstractEventAccess implements EventAccess {
         return flowFileEventRepository.reportTransferEvents(System.currentTimeMillis());
     }
 
+    /**
+     * Returns the report of FlowFile activity to use for an on demand status request. When status snapshots are enabled, this is the
+     * report of the current snapshot so that the status of any group beyond the requested depth can be taken from the snapshot rather
+     * than being recalculated.
+     *
+     * @return the report to use for a status request
+     */
+    protected RepositoryStatusReport getSharedRepositoryStatusReport() {
+        final ProcessGroupStatusSnapshot snapshot = getStatusSnapshot();
+        return snapshot == null ? generateRepositoryStatusReport() : snapshot.getStatusReport();
+    }
+
+    /**
+     * Returns a snapshot of the unfiltered status of the entire flow, calculating a new snapshot if the current one is older than the
+     * configured cache duration or was taken of a different root group. Concurrent requests for an expired snapshot result in a single
+     * calculation, the result of which is shared by all of them.
+     *
+     * @return the current status snapshot, or <code>null</code> if status snapshots are disabled or there is no root group
+     */
+    ProcessGroupStatusSnapshot getStatusSnapshot() {
+        if (statusSnapshotCacheMillis <= 0L) {
+            return null;
+        }
+
+        final String rootGroupId = flowManager.getRootGroupId();
+        ProcessGroupStatusSnapshot snapshot = statusSnapshot;
+        if (isCurrent(snapshot, rootGroupId)) {
+            return snapshot;
+        }
+
+        synchronized (statusSnapshotLock) {
+            snapshot = statusSnapshot;
+            if (isCurrent(snapshot, rootGroupId)) {
+                return snapshot;
+            }
+
+            final ProcessGroup rootGroup = flowManager.getGroup(rootGroupId);
+            if (rootGroup == null) {
+                return null;
+            }
+
+            final long timestamp = System.currentTimeMillis();
+            final RepositoryStatusReport statusReport = generateRepositoryStatusReport();
+            final ProcessGroupStatus rootGroupStatus = getGroupStatus(rootGroup, statusReport, authorizable -> true, Integer.MAX_VALUE, 1, true);
+            snapshot = new ProcessGroupStatusSnapshot(++statusSnapshotVersion, timestamp, statusReport, rootGroupStatus);
+            statusSnapshot = snapshot;
+
+            logger.debug("Calculated status snapshot {} of flow in {} millis", snapshot.getVersion(), System.currentTimeMillis() - timestamp);
+            return snapshot;
+        }
+    }
+
+    private boolean isCurrent(final ProcessGroupStatusSnapshot snapshot, final String rootGroupId) {
+        return snapshot != null
+            && snapshot.getRootGroupId().equals(rootGroupId)
+            && System.currentTimeMillis() - snapshot.getTimestamp() < statusSnapshotCacheMillis;
+    }
+
 
     /**
      * Returns the status for the components in the specified group with the
@@ -207,8 +288,12 @@ public abstract class AbstractEventAccess implements EventAccess {
                 // In this case, we don't want to include any of the recursive components' individual statuses. As a result, we can
                 // avoid performing any sort of authorizations. Because we only care about the numbers that come back, we can just indicate
                 // that the user is not authorized. This allows us to avoid the expense of both performing the authorization and calculating
-                // things that we would otherwise need to calculate if the user were in fact authorized.
-                childGroupStatus = getGroupStatus(childGroup, statusReport, authorizable -> false, recursiveStatusDepth, currentDepth + 1, includeConnectionDetails);
+                // things that we would otherwise need to calculate if the user were in fact authorized. If the snapshot was taken from the
+                // same report, its aggregate numbers for the child group are the ones we would calculate, so the subtree need not be walked.
+                final ProcessGroupStatus snapshotGroupStatus = getSnapshotGroupStatus(childGroup, statusReport);
+                childGroupStatus = snapshotGroupStatus == null
+                    ? getGroupStatus(childGroup, statusReport, authorizable -> false, recursiveStatusDepth, currentDepth + 1, includeConnectionDetails)
+                    : snapshotGroupStatus;
             }
 
             activeGroupThreads += childGroupStatus.getActiveThreadCount();
@@ -701,6 +786,11 @@ public abstract class AbstractEventAccess implements EventAccess {
      */
     @Override
     public ProcessGroupStatus getControllerStatus() {
+        final ProcessGroupStatusSnapshot snapshot = getStatusSnapshot();
+        if (snapshot != null) {
+            return snapshot.getGroupStatus(snapshot.getRootGroupId()).clone();
+        }
+
         final String rootGroupId = flowManager.getRootGroupId();
         final ProcessGroup group = flowManager.getGroup(rootGroupId);
         final RepositoryStatusReport statusReport = generateRepositoryStatusReport();
@@ -708,6 +798,15 @@ public abstract class AbstractEventAccess implements EventAccess {
         return getGroupStatus(group, statusReport, authorizable -> true, Integer.MAX_VALUE, 1, true);
     }
 
+    private ProcessGroupStatus getSnapshotGroupStatus(final ProcessGroup group, final RepositoryStatusReport statusReport) {
+        final ProcessGroupStatusSnapshot snapshot = statusSnapshot;
+        if (snapshot == null || snapshot.getStatusReport() != statusReport) {
+            return null;
+        }
+
+        return snapshot.getGroupStatus(group.getIdentifier());
+    }
+
     @Override
     public List<ProvenanceEventRecord> getProvenanceEvents(final long firstEventId, final int maxRecords) throws IOException {
         return new ArrayList<>(getProvenanceRepository().getEvents(firstEventId, maxRecords));
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.reporting;
+
+import org.apache.nifi.controller.repository.RepositoryStatusReport;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable, unfiltered view of the status of every component in the flow, as of a single {@link RepositoryStatusReport}.
+ * The status of each Process Group is indexed so that the status of any group can be looked up without walking the tree.
+ * The statuses that are held by the snapshot are shared by all readers and must not be modified.
+ */
+public class ProcessGroupStatusSnapshot {
+    private final long version;
+    private final long timestamp;
+    private final RepositoryStatusReport statusReport;
+    private final ProcessGroupStatus rootGroupStatus;
+    private final Map<String, ProcessGroupStatus> groupStatuses;
+
+    public ProcessGroupStatusSnapshot(final long version, final long timestamp, final RepositoryStatusReport statusReport, final ProcessGroupStatus rootGroupStatus) {
+        this.version = version;
+        this.timestamp = timestamp;
+        this.statusReport = statusReport;
+        this.rootGroupStatus = rootGroupStatus;
+
+        final Map<String, ProcessGroupStatus> groupStatuses = new HashMap<>();
+        final Deque<ProcessGroupStatus> toIndex = new ArrayDeque<>();
+        toIndex.add(rootGroupStatus);
+        while (!toIndex.isEmpty()) {
+            final ProcessGroupStatus groupStatus = toIndex.poll();
+            groupStatuses.put(groupStatus.getId(), groupStatus);
+
+            final Collection<ProcessGroupStatus> childGroupStatuses = groupStatus.getProcessGroupStatus();
+            if (childGroupStatuses != null) {
+                toIndex.addAll(childGroupStatuses);
+            }
+        }
+        this.groupStatuses = groupStatuses;
+    }
+
+    /**
+     * @return a number that increases each time that a new snapshot is taken
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the time at which the snapshot was taken, in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the report of FlowFile activity from which the snapshot was created
+     */
+    public RepositoryStatusReport getStatusReport() {
+        return statusReport;
+    }
+
+    /**
+     * @return the identifier of the root Process Group at the time that the snapshot was taken
+     */
+    public String getRootGroupId() {
+        return rootGroupStatus.getId();
+    }
+
+    /**
+     * @param groupId the identifier of a Process Group
+     * @return the status of the given group, including all of its descendants, or <code>null</code> if the group did not exist when the snapshot was taken
+     */
+    public ProcessGroupStatus getGroupStatus(final String groupId) {
+        return groupStatuses.get(groupId);
+    }
+}
@@ -38,6 +38,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -161,6 +162,7 @@ class StandardProcessSessionTest {
         when(repositoryContext.getProvenanceRepository()).thenReturn(provenanceRepository);
         when(repositoryContext.getFlowFileRepository()).thenReturn(flowFileRepository);
         when(repositoryContext.getFlowFileEventRepository()).thenReturn(flowFileEventRepository);
+        when(repositoryContext.generateFlowFileUuid()).thenAnswer(invocation -> UUID.randomUUID().toString());
         when(connectable.getMaxBackoffPeriod()).thenReturn(BACKOFF_PERIOD);
     }
 
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestProvenanceRecordingPolicies {
+
+    @Test
+    public void testEventTypesFiltered() {
+        final ProvenanceRecordingPolicy policy = new ProvenanceRecordingPolicy("types", EnumSet.of(ProvenanceEventType.SEND, ProvenanceEventType.DROP), 100D, -1L);
+
+        assertTrue(policy.isRecorded(createEvent(ProvenanceEventType.SEND, UUID.randomUUID().toString())));
+        assertTrue(policy.isRecorded(createEvent(ProvenanceEventType.DROP, UUID.randomUUID().toString())));
+        assertFalse(policy.isRecorded(createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED, UUID.randomUUID().toString())));
+    }
+
+    @Test
+    public void testSamplingIsDeterministicAndNested() {
+        final ProvenanceRecordingPolicy tenPercent = new ProvenanceRecordingPolicy("ten", null, 10D, -1L);
+        final ProvenanceRecordingPolicy fiftyPercent = new ProvenanceRecordingPolicy("fifty", null, 50D, -1L);
+        final ProvenanceRecordingPolicy none = new ProvenanceRecordingPolicy("none", null, 0D, -1L);
+
+        int sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            final String uuid = UUID.randomUUID().toString();
+            final boolean sampledAtTen = tenPercent.isSampled(uuid);
+            assertEquals(sampledAtTen, tenPercent.isSampled(uuid));
+            assertFalse(none.isSampled(uuid));
+
+            if (sampledAtTen) {
+                sampled++;
+                assertTrue(fiftyPercent.isSampled(uuid));
+            }
+        }
+
+        assertTrue(sampled > 700 && sampled < 1300, "Sampled " + sampled + " of 10,000 FlowFiles at 10%");
+    }
+
+    @Test
+    public void testForkRecordedIfChildSampled() {
+        final ProvenanceRecordingPolicy policy = new ProvenanceRecordingPolicy("fork", null, 50D, -1L);
+
+        String sampledUuid = null;
+        String unsampledUuid = null;
+        while (sampledUuid == null || unsampledUuid == null) {
+            final String uuid = UUID.randomUUID().toString();
+            if (policy.isSampled(uuid)) {
+                sampledUuid = uuid;
+            } else {
+                unsampledUuid = uuid;
+            }
+        }
+
+        assertFalse(policy.isRecorded(createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED, unsampledUuid)));
+        assertTrue(policy.isRecorded(createEvent(ProvenanceEventType.ATTRIBUTES_MODIFIED, sampledUuid)));
+
+        final ProvenanceEventRecord fork = new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.FORK)
+            .setFlowFileUUID(unsampledUuid)
+            .setComponentId("1234")
+            .setComponentType("Unit Test")
+            .addParentUuid(unsampledUuid)
+            .addChildUuid(sampledUuid)
+            .setCurrentContentClaim(null, null, null, null, 0L)
+            .build();
+        assertTrue(policy.isRecorded(fork));
+    }
+
+    @Test
+    public void testMaxEventsPerSecond() {
+        final ProvenanceRecordingPolicy policy = new ProvenanceRecordingPolicy("rate", null, 100D, 5L);
+
+        int recorded = 0;
+        for (int i = 0; i < 10; i++) {
+            if (policy.isRecorded(createEvent(ProvenanceEventType.CREATE, UUID.randomUUID().toString()))) {
+                recorded++;
+            }
+        }
+
+        // The calls may straddle a second boundary, in which case the limit resets once
+        assertTrue(recorded >= 5 && recorded <= 10, "Recorded " + recorded + " events");
+    }
+
+    @Test
+    public void testInvalidSamplePercentage() {
+        assertThrows(IllegalArgumentException.class, () -> new ProvenanceRecordingPolicy("invalid", null, 101D, -1L));
+    }
+
+    @Test
+    public void testFromProperties() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("nifi.provenance.recording.policy.edge.components", "proc-1, group-1");
+        properties.put("nifi.provenance.recording.policy.edge.event.types", "send, receive");
+        properties.put("nifi.provenance.recording.policy.edge.sample.percentage", "25");
+        properties.put("nifi.provenance.recording.policy.noisy.components", "proc-2");
+        properties.put("nifi.provenance.recording.policy.noisy.max.events.per.second", "100");
+
+        final ProvenanceRecordingPolicies policies = ProvenanceRecordingPolicies.fromProperties(NiFiProperties.createBasicNiFiProperties(null, properties));
+        assertFalse(policies.isEmpty());
+
+        final ProcessGroup root = mock(ProcessGroup.class);
+        when(root.getIdentifier()).thenReturn("root");
+        final ProcessGroup group = mock(ProcessGroup.class);
+        when(group.getIdentifier()).thenReturn("group-1");
+        when(group.getParent()).thenReturn(root);
+        final ProcessGroup child = mock(ProcessGroup.class);
+        when(child.getIdentifier()).thenReturn("group-2");
+        when(child.getParent()).thenReturn(group);
+
+        final ProvenanceRecordingPolicy edge = policies.getPolicy(createConnectable("proc-1", root));
+        assertEquals("edge", edge.getName());
+        assertSame(edge, policies.getPolicy(createConnectable("proc-3", child)));
+        assertEquals("noisy", policies.getPolicy(createConnectable("proc-2", child)).getName());
+        assertNull(policies.getPolicy(createConnectable("proc-4", root)));
+
+        assertFalse(edge.isRecorded(createEvent(ProvenanceEventType.CREATE, UUID.randomUUID().toString())));
+    }
+
+    @Test
+    public void testFromPropertiesWithoutPolicies() {
+        final ProvenanceRecordingPolicies policies = ProvenanceRecordingPolicies.fromProperties(NiFiProperties.createBasicNiFiProperties(null, Collections.emptyMap()));
+        assertSame(ProvenanceRecordingPolicies.EMPTY, policies);
+    }
+
+    @Test
+    public void testFromPropertiesInvalid() {
+        final Map<String, String> invalidType = new HashMap<>();
+        invalidType.put("nifi.provenance.recording.policy.bad.components", "proc-1");
+        invalidType.put("nifi.provenance.recording.policy.bad.event.types", "SEND, UPLOADED");
+        assertThrows(IllegalStateException.class, () -> ProvenanceRecordingPolicies.fromProperties(NiFiProperties.createBasicNiFiProperties(null, invalidType)));
+
+        final Map<String, String> invalidPercentage = new HashMap<>();
+        invalidPercentage.put("nifi.provenance.recording.policy.bad.components", "proc-1");
+        invalidPercentage.put("nifi.provenance.recording.policy.bad.sample.percentage", "half");
+        assertThrows(IllegalStateException.class, () -> ProvenanceRecordingPolicies.fromProperties(NiFiProperties.createBasicNiFiProperties(null, invalidPercentage)));
+
+        final Map<String, String> duplicateComponent = new HashMap<>();
+        duplicateComponent.put("nifi.provenance.recording.policy.first.components", "proc-1");
+        duplicateComponent.put("nifi.provenance.recording.policy.second.components", "proc-1");
+        assertThrows(IllegalStateException.class, () -> ProvenanceRecordingPolicies.fromProperties(NiFiProperties.createBasicNiFiProperties(null, duplicateComponent)));
+    }
+
+    private static Connectable createConnectable(final String id, final ProcessGroup group) {
+        final Connectable connectable = mock(Connectable.class);
+        when(connectable.getIdentifier()).thenReturn(id);
+        when(connectable.getProcessGroup()).thenReturn(group);
+        return connectable;
+    }
+
+    private static ProvenanceEventRecord createEvent(final ProvenanceEventType eventType, final String flowFileUuid) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setFlowFileUUID(flowFileUuid)
+            .setComponentId("1234")
+            .setComponentType("Unit Test")
+            .setTransitUri("nifi://unit-test")
+            .setCurrentContentClaim(null, null, null, null, 0L)
+            .build();
+    }
+}
@@ -18,17 +18,25 @@ package org.apache.nifi.controller.repository;
 
 import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 
 public class TestRingBufferEventRepository {
+    private static final Logger logger = LoggerFactory.getLogger(TestRingBufferEventRepository.class);
 
     @Test
     public void testAdd() throws IOException {
@@ -79,6 +87,75 @@ public class TestRingBufferEventRepository {
         repo.close();
     }
 
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final RingBufferEventRepository repo = new RingBufferEventRepository(5);
+        final int threadCount = 16;
+        final int updatesPerThread = 10_000;
+        updateConcurrently(repo, threadCount, updatesPerThread, 4);
+
+        final int totalUpdates = threadCount * updatesPerThread;
+        final FlowFileEvent aggregate = repo.reportAggregateEvent();
+        assertEquals(totalUpdates, aggregate.getFlowFilesIn());
+        assertEquals(totalUpdates * 1024L, aggregate.getContentSizeIn());
+        assertEquals(totalUpdates, aggregate.getInvocations());
+
+        final RepositoryStatusReport report = repo.reportTransferEvents(System.currentTimeMillis());
+        int componentFlowFilesIn = 0;
+        for (int i = 0; i < 4; i++) {
+            componentFlowFilesIn += report.getReportEntry("component-" + i).getFlowFilesIn();
+        }
+        assertEquals(totalUpdates, componentFlowFilesIn);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testConcurrentUpdatePerformance() throws InterruptedException {
+        final int threadCount = 64;
+        final int updatesPerThread = 250_000;
+
+        for (int iteration = 0; iteration < 3; iteration++) {
+            for (final int componentCount : new int[] {1, threadCount}) {
+                final RingBufferEventRepository repo = new RingBufferEventRepository(5);
+                final long start = System.nanoTime();
+                updateConcurrently(repo, threadCount, updatesPerThread, componentCount);
+                final long nanos = System.nanoTime() - start;
+
+                final long totalUpdates = (long) threadCount * updatesPerThread;
+                logger.info("{} threads updating {} components: {} updates in {} millis ({} updates/sec)",
+                    threadCount, componentCount, totalUpdates, TimeUnit.NANOSECONDS.toMillis(nanos), (long) (totalUpdates * 1_000_000_000D / nanos));
+                assertEquals(totalUpdates, repo.reportAggregateEvent().getInvocations());
+            }
+        }
+    }
+
+    private void updateConcurrently(final FlowFileEventRepository repo, final int threadCount, final int updatesPerThread, final int componentCount) throws InterruptedException {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            final String componentId = "component-" + (i % componentCount);
+            final Thread thread = new Thread(() -> {
+                // A session reuses the event for each of its commits, so do the same here
+                final FlowFileEvent event = generateEvent();
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < updatesPerThread; j++) {
+                        repo.updateRepository(event, componentId);
+                    }
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        startLatch.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+    }
+
     private FlowFileEvent generateEvent() {
         return new FlowFileEvent() {
             @Override
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.uuid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTimeOrderedFlowFileUuidGenerator {
+
+    @Test
+    public void testVersionAndVariant() {
+        final UUID uuid = UUID.fromString(new TimeOrderedFlowFileUuidGenerator().generateUuid());
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+    }
+
+    @Test
+    public void testTimestampPrefix() {
+        final long timestamp = 1_700_000_000_000L;
+        final UUID uuid = new TimeOrderedFlowFileUuidGenerator().generate(timestamp);
+        assertEquals(timestamp, uuid.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    public void testOrderedByTime() {
+        final TimeOrderedFlowFileUuidGenerator generator = new TimeOrderedFlowFileUuidGenerator();
+        final String earlier = generator.generate(1_700_000_000_000L).toString();
+        final String later = generator.generate(1_700_000_000_001L).toString();
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    public void testUnique() {
+        final FlowFileUuidGenerator generator = new TimeOrderedFlowFileUuidGenerator();
+        final Set<String> uuids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(uuids.add(generator.generateUuid()));
+        }
+    }
+
+    @Test
+    public void testForStrategy() {
+        assertInstanceOf(TimeOrderedFlowFileUuidGenerator.class, FlowFileUuidGenerator.forStrategy(null));
+        assertInstanceOf(TimeOrderedFlowFileUuidGenerator.class, FlowFileUuidGenerator.forStrategy("time-ordered"));
+        assertInstanceOf(RandomFlowFileUuidGenerator.class, FlowFileUuidGenerator.forStrategy("random"));
+        assertThrows(IllegalArgumentException.class, () -> FlowFileUuidGenerator.forStrategy("sequential"));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.reporting;
+
+import org.apache.nifi.action.Action;
+import org.apache.nifi.connectable.Funnel;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.flow.FlowManager;
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.RepositoryStatusReport;
+import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestAbstractEventAccess {
+    private static final long CACHE_MILLIS = 60_000L;
+
+    private FlowManager flowManager;
+    private FlowFileEventRepository flowFileEventRepository;
+    private ProcessScheduler processScheduler;
+    private ProcessGroup rootGroup;
+    private ProcessGroup childGroup;
+    private ProcessGroup grandchildGroup;
+
+    @BeforeEach
+    public void setup() {
+        flowManager = mock(FlowManager.class);
+        flowFileEventRepository = mock(FlowFileEventRepository.class);
+        when(flowFileEventRepository.reportTransferEvents(anyLong())).thenAnswer(invocation -> new StandardRepositoryStatusReport());
+        processScheduler = mock(ProcessScheduler.class);
+
+        grandchildGroup = createGroup("grandchild", 4);
+        childGroup = createGroup("child", 2, grandchildGroup);
+        rootGroup = createGroup("root", 1, childGroup);
+        when(flowManager.getRootGroupId()).thenReturn("root");
+    }
+
+    @Test
+    public void testStatusSharedWithinCacheDuration() {
+        final AbstractEventAccess eventAccess = new MockEventAccess(CACHE_MILLIS);
+
+        final ProcessGroupStatus controllerStatus = eventAccess.getControllerStatus();
+        final ProcessGroupStatus childStatus = eventAccess.getGroupStatus("child");
+        assertEquals(7, controllerStatus.getActiveThreadCount());
+        assertEquals(6, childStatus.getActiveThreadCount());
+        assertEquals(1, childStatus.getProcessGroupStatus().size());
+
+        // Callers receive their own copy so that changing one does not affect the shared snapshot
+        controllerStatus.setActiveThreadCount(0);
+        final ProcessGroupStatus secondControllerStatus = eventAccess.getControllerStatus();
+        assertNotSame(controllerStatus, secondControllerStatus);
+        assertEquals(7, secondControllerStatus.getActiveThreadCount());
+
+        verify(flowFileEventRepository, times(1)).reportTransferEvents(anyLong());
+        verify(grandchildGroup, times(1)).getFunnels();
+    }
+
+    @Test
+    public void testStatusRecalculatedWhenCachingDisabled() {
+        final AbstractEventAccess eventAccess = new MockEventAccess(0L);
+
+        assertEquals(7, eventAccess.getControllerStatus().getActiveThreadCount());
+        assertEquals(7, eventAccess.getControllerStatus().getActiveThreadCount());
+        assertEquals(6, eventAccess.getGroupStatus("child").getActiveThreadCount());
+
+        assertNotSame(eventAccess.getSharedRepositoryStatusReport(), eventAccess.getSharedRepositoryStatusReport());
+        verify(flowFileEventRepository, times(5)).reportTransferEvents(anyLong());
+    }
+
+    @Test
+    public void testDepthLimitedStatusUsesSnapshotForDeeperGroups() {
+        final AbstractEventAccess eventAccess = new MockEventAccess(CACHE_MILLIS);
+        eventAccess.getControllerStatus();
+
+        final RepositoryStatusReport statusReport = eventAccess.getSharedRepositoryStatusReport();
+        assertSame(eventAccess.getStatusSnapshot().getStatusReport(), statusReport);
+
+        final ProcessGroupStatus rootStatus = eventAccess.getGroupStatus(rootGroup, statusReport, authorizable -> true, 1, 1, false);
+        assertEquals(7, rootStatus.getActiveThreadCount());
+        assertEquals(1, rootStatus.getProcessGroupStatus().size());
+
+        final ProcessGroupStatus childStatus = rootStatus.getProcessGroupStatus().iterator().next();
+        assertEquals(6, childStatus.getActiveThreadCount());
+        assertTrue(childStatus.getProcessGroupStatus().isEmpty());
+
+        // The grandchild is beyond the requested depth, so its aggregate comes from the snapshot rather than a second walk
+        verify(grandchildGroup, times(1)).getFunnels();
+    }
+
+    @Test
+    public void testSnapshotRecalculatedWhenRootGroupChanges() {
+        final AbstractEventAccess eventAccess = new MockEventAccess(CACHE_MILLIS);
+        final long firstVersion = eventAccess.getStatusSnapshot().getVersion();
+        assertEquals(firstVersion, eventAccess.getStatusSnapshot().getVersion());
+
+        createGroup("new-root", 3);
+        when(flowManager.getRootGroupId()).thenReturn("new-root");
+
+        final ProcessGroupStatus controllerStatus = eventAccess.getControllerStatus();
+        assertEquals("new-root", controllerStatus.getId());
+        assertEquals(3, controllerStatus.getActiveThreadCount());
+        assertTrue(eventAccess.getStatusSnapshot().getVersion() > firstVersion);
+    }
+
+    private ProcessGroup createGroup(final String id, final int activeThreads, final ProcessGroup... children) {
+        final Funnel funnel = mock(Funnel.class);
+        when(processScheduler.getActiveThreadCount(funnel)).thenReturn(activeThreads);
+
+        final ProcessGroup group = mock(ProcessGroup.class);
+        when(group.getIdentifier()).thenReturn(id);
+        when(group.getName()).thenReturn(id);
+        when(group.getFunnels()).thenReturn(Collections.singleton(funnel));
+        when(group.getProcessGroups()).thenReturn(new HashSet<>(Arrays.asList(children)));
+        when(flowManager.getGroup(id)).thenReturn(group);
+        return group;
+    }
+
+    private class MockEventAccess extends AbstractEventAccess {
+        MockEventAccess(final long statusSnapshotCacheMillis) {
+            super(processScheduler, null, flowManager, flowFileEventRepository, statusSnapshotCacheMillis);
+        }
+
+        @Override
+        public ProvenanceEventRepository getProvenanceRepository() {
+            return null;
+        }
+
+        @Override
+        public List<Action> getFlowChanges(final int firstActionId, final int maxActions) {
+            return Collections.emptyList();
+        }
+    }
+}
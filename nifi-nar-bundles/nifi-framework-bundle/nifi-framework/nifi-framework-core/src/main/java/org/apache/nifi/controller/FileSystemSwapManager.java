@@ -20,12 +20,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.repository.CaffeineFieldCache;
+import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.controller.swap.SchemaSwapSerializer;
@@ -41,6 +43,8 @@ import org.apache.nifi.stream.io.StreamUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
@@ -83,28 +87,41 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     public static final String EVENT_CATEGORY = "Swap FlowFiles";
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
 
+    public static final String COMPRESSION_NONE = "none";
+    public static final String COMPRESSION_SNAPPY = "snappy";
+
     private final File storageDirectory;
+    private final boolean compressed;
     private final FieldCache fieldCache = new CaffeineFieldCache(10_000_000);
 
     // effectively final
     private FlowFileRepository flowFileRepository;
     private EventReporter eventReporter;
     private ResourceClaimManager claimManager;
+    private ContentRepository contentRepository;
 
     private static final byte[] MAGIC_HEADER = {'S', 'W', 'A', 'P'};
+    // Written before the Snappy-compressed form of a Swap File; the compressed stream then holds the Swap File exactly as it would be written without compression.
+    private static final byte[] SNAPPY_MAGIC_HEADER = {'S', 'W', 'P', 'S'};
 
     /**
      * Default no args constructor for service loading only.
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        compressed = false;
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
-        this(nifiProperties.getFlowFileRepositoryPath());
+        this(nifiProperties.getFlowFileRepositoryPath(), isCompressionEnabled(nifiProperties));
     }
 
     public FileSystemSwapManager(final Path flowFileRepoPath) {
+        this(flowFileRepoPath, false);
+    }
+
+    public FileSystemSwapManager(final Path flowFileRepoPath, final boolean compressed) {
+        this.compressed = compressed;
         this.storageDirectory = flowFileRepoPath.resolve("swap").toFile();
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
@@ -112,11 +129,25 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     }
 
 
+    private static boolean isCompressionEnabled(final NiFiProperties nifiProperties) {
+        final String compression = nifiProperties.getProperty(NiFiProperties.SWAP_COMPRESSION, NiFiProperties.DEFAULT_SWAP_COMPRESSION).trim();
+        if (COMPRESSION_SNAPPY.equalsIgnoreCase(compression)) {
+            return true;
+        }
+        if (COMPRESSION_NONE.equalsIgnoreCase(compression)) {
+            return false;
+        }
+
+        throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.SWAP_COMPRESSION + ": '" + compression + "'; valid values are '"
+            + COMPRESSION_NONE + "' and '" + COMPRESSION_SNAPPY + "'");
+    }
+
     @Override
     public synchronized void initialize(final SwapManagerInitializationContext initializationContext) {
         this.claimManager = initializationContext.getResourceClaimManager();
         this.eventReporter = initializationContext.getEventReporter();
         this.flowFileRepository = initializationContext.getFlowFileRepository();
+        this.contentRepository = initializationContext.getContentRepository();
     }
 
     protected InputStream getInputStream(final File file) throws IOException {
@@ -133,6 +164,17 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return null;
         }
 
+        // The Content Repository may hold the content of these FlowFiles only in memory. Ensure that it is persisted, as swapped out FlowFiles may remain queued for a long time.
+        if (contentRepository != null) {
+            final List<ContentClaim> contentClaims = new ArrayList<>(toSwap.size());
+            for (final FlowFileRecord flowFile : toSwap) {
+                if (flowFile.getContentClaim() != null) {
+                    contentClaims.add(flowFile.getContentClaim());
+                }
+            }
+            contentRepository.persist(contentClaims);
+        }
+
         final String swapFilePrefix = System.currentTimeMillis() + "-" + flowFileQueue.getIdentifier() + "-" + UUID.randomUUID().toString();
         final String swapFileBaseName = partitionName == null ? swapFilePrefix : swapFilePrefix + "." + partitionName;
         final String swapFileName = swapFileBaseName + ".swap";
@@ -143,7 +185,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         final SwapSerializer serializer = new SchemaSwapSerializer();
         try (final OutputStream os = getOutputStream(swapTempFile);
-            final OutputStream out = new BufferedOutputStream(os)) {
+            final OutputStream out = createSwapOutputStream(os)) {
             out.write(MAGIC_HEADER);
             final DataOutputStream dos = new DataOutputStream(out);
             dos.writeUTF(serializer.getSerializationName());
@@ -165,8 +207,22 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         return swapLocation;
     }
 
+    private OutputStream createSwapOutputStream(final OutputStream os) throws IOException {
+        if (!compressed) {
+            return new BufferedOutputStream(os);
+        }
+
+        os.write(SNAPPY_MAGIC_HEADER);
+        return new BufferedOutputStream(new SnappyFramedOutputStream(os));
+    }
+
     @Override
     public SwapContents swapIn(final String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        return swapIn(swapLocation, flowFileQueue, null);
+    }
+
+    @Override
+    public SwapContents swapIn(final String swapLocation, final FlowFileQueue flowFileQueue, final SwapContents peekedContents) throws IOException {
         final File swapFile = new File(swapLocation);
 
         final boolean validLocation = flowFileRepository.isValidSwapLocationSuffix(swapFile.getName());
@@ -178,7 +234,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return new StandardSwapContents(swapSummary, Collections.emptyList());
         }
 
-        final SwapContents swapContents = peek(swapLocation, flowFileQueue);
+        final SwapContents swapContents = peekedContents == null ? peek(swapLocation, flowFileQueue) : peekedContents;
         flowFileRepository.swapFlowFilesIn(swapFile.getAbsolutePath(), swapContents.getFlowFiles(), flowFileQueue);
 
         if (!swapFile.delete()) {
@@ -197,8 +253,9 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         try (final InputStream is = getInputStream(swapFile);
                 final InputStream bis = new BufferedInputStream(is);
-                final DataInputStream in = new DataInputStream(bis)) {
+                final DataInputStream dis = new DataInputStream(bis)) {
 
+            final DataInputStream in = decompressIfNecessary(dis);
             final SwapDeserializer deserializer = createSwapDeserializer(in);
             return deserializer.deserializeFlowFiles(in, swapLocation, flowFileQueue, claimManager);
         }
@@ -327,10 +384,12 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             // Read the queue identifier from the swap file to check if the swap file is for this queue
             try (final InputStream fis = getInputStream(swapFile);
                     final InputStream bufferedIn = new BufferedInputStream(fis);
-                    final DataInputStream in = new DataInputStream(bufferedIn)) {
+                    final DataInputStream dis = new DataInputStream(bufferedIn)) {
 
+                final DataInputStream in;
                 final SwapDeserializer deserializer;
                 try {
+                    in = decompressIfNecessary(dis);
                     deserializer = createSwapDeserializer(in);
                 } catch (final Exception e) {
                     final String errMsg = "Cannot swap FlowFiles in from " + swapFile + " due to " + e;
@@ -360,14 +419,37 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         // read record from disk via the swap file
         try (final InputStream fis = getInputStream(swapFile);
                 final InputStream bufferedIn = new BufferedInputStream(fis);
-                final DataInputStream in = new DataInputStream(bufferedIn)) {
+                final DataInputStream dis = new DataInputStream(bufferedIn)) {
 
+            final DataInputStream in = decompressIfNecessary(dis);
             final SwapDeserializer deserializer = createSwapDeserializer(in);
             return deserializer.getSwapSummary(in, swapLocation, claimManager);
         }
     }
 
 
+    /**
+     * Returns a stream from which the Swap File can be read as though it had been written without compression. Swap Files are read
+     * the same way regardless of the configured compression so that they can still be swapped in after the configuration changes.
+     */
+    private DataInputStream decompressIfNecessary(final DataInputStream dis) throws IOException {
+        dis.mark(SNAPPY_MAGIC_HEADER.length);
+
+        final byte[] magicHeader = new byte[SNAPPY_MAGIC_HEADER.length];
+        try {
+            StreamUtils.fillBuffer(dis, magicHeader);
+        } catch (final EOFException eof) {
+            throw new IOException("Failed to read swap file because the file contained less than 4 bytes of data");
+        }
+
+        if (Arrays.equals(magicHeader, SNAPPY_MAGIC_HEADER)) {
+            return new DataInputStream(new BufferedInputStream(new SnappyFramedInputStream(dis)));
+        }
+
+        dis.reset();
+        return dis;
+    }
+
     private SwapDeserializer createSwapDeserializer(final DataInputStream dis) throws IOException {
         dis.mark(MAGIC_HEADER.length);
 
@@ -72,6 +72,7 @@ import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlow
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientFactory;
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientRegistry;
 import org.apache.nifi.controller.queue.clustered.client.async.nio.NioAsyncLoadBalanceClientTask;
+import org.apache.nifi.controller.queue.clustered.partition.FlowFilePartitionerFactory;
 import org.apache.nifi.controller.queue.clustered.server.ClusterLoadBalanceAuthorizer;
 import org.apache.nifi.controller.queue.clustered.server.ConnectionLoadBalanceServer;
 import org.apache.nifi.controller.queue.clustered.server.LoadBalanceAuthorizer;
@@ -85,6 +86,7 @@ import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.ProvenanceRecordingPolicies;
 import org.apache.nifi.controller.repository.QueueProvider;
 import org.apache.nifi.controller.repository.RepositoryStatusReport;
 import org.apache.nifi.controller.repository.StandardContentRepositoryContext;
@@ -101,11 +103,14 @@ import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
+import org.apache.nifi.controller.repository.uuid.FlowFileUuidGenerator;
 import org.apache.nifi.controller.scheduling.EventDrivenSchedulingAgent;
+import org.apache.nifi.controller.scheduling.ProcessGroupThreadPools;
 import org.apache.nifi.controller.scheduling.QuartzSchedulingAgent;
 import org.apache.nifi.controller.scheduling.RepositoryContextFactory;
 import org.apache.nifi.controller.scheduling.StandardProcessScheduler;
 import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
+import org.apache.nifi.controller.scheduling.VirtualThreads;
 import org.apache.nifi.controller.serialization.FlowSerializationException;
 import org.apache.nifi.controller.serialization.FlowSerializer;
 import org.apache.nifi.controller.serialization.FlowSynchronizationException;
@@ -217,6 +222,8 @@ import java.io.OutputStream;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -263,6 +270,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     private final AtomicInteger maxTimerDrivenThreads;
     private final AtomicInteger maxEventDrivenThreads;
     private final AtomicReference<FlowEngine> timerDrivenEngineRef;
+    private final ProcessGroupThreadPools processGroupThreadPools;
+    private final VirtualThreads virtualThreads;
     private final AtomicReference<FlowEngine> eventDrivenEngineRef;
     private final EventDrivenSchedulingAgent eventDrivenSchedulingAgent;
 
@@ -294,6 +303,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
 
     private final ConnectionLoadBalanceServer loadBalanceServer;
     private final NioAsyncLoadBalanceClientRegistry loadBalanceClientRegistry;
+    private final FlowFilePartitionerFactory flowFilePartitionerFactory;
     private final FlowEngine loadBalanceClientThreadPool;
     private final Set<NioAsyncLoadBalanceClientTask> loadBalanceClientTasks = new HashSet<>();
 
@@ -347,6 +357,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     private final SensitiveValueEncoder sensitiveValueEncoder;
 
     private final ScheduledExecutorService clusterTaskExecutor = new FlowEngine(3, "Clustering Tasks", true);
+    private final FlowEngine swapPrefetchExecutor = new FlowEngine(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), "Swap Prefetch", true);
     private final ResourceClaimManager resourceClaimManager = new StandardResourceClaimManager();
 
     // guarded by rwLock
@@ -501,6 +512,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         this.sensitiveValueEncoder = new StandardSensitiveValueEncoder(nifiProperties);
 
         timerDrivenEngineRef = new AtomicReference<>(new FlowEngine(maxTimerDrivenThreads.get(), "Timer-Driven Process"));
+        processGroupThreadPools = ProcessGroupThreadPools.create(nifiProperties);
+        virtualThreads = VirtualThreads.create(nifiProperties);
         eventDrivenEngineRef = new AtomicReference<>(new FlowEngine(maxEventDrivenThreads.get(), "Event-Driven Process"));
 
         final FlowFileRepository flowFileRepo = createFlowFileRepository(nifiProperties, extensionManager, resourceClaimManager);
@@ -545,7 +558,10 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         eventDrivenWorkerQueue = new EventDrivenWorkerQueue(false, false, processScheduler);
 
         parameterContextManager = new StandardParameterContextManager();
-        repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, stateManagerProvider);
+        final FlowFileUuidGenerator flowFileUuidGenerator = FlowFileUuidGenerator.forStrategy(nifiProperties.getProperty(NiFiProperties.FLOWFILE_UUID_GENERATOR,
+            NiFiProperties.DEFAULT_FLOWFILE_UUID_GENERATOR));
+        repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, stateManagerProvider,
+            flowFileUuidGenerator, getContentDigestAlgorithm(nifiProperties), ProvenanceRecordingPolicies.fromProperties(nifiProperties));
         flowManager = new StandardFlowManager(nifiProperties, sslContext, this, flowFileEventRepository, parameterContextManager);
 
         controllerServiceProvider = new StandardControllerServiceProvider(processScheduler, bulletinRepository, flowManager, extensionManager);
@@ -559,7 +575,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         processScheduler.setSchedulingAgent(SchedulingStrategy.EVENT_DRIVEN, eventDrivenSchedulingAgent);
 
         final QuartzSchedulingAgent quartzSchedulingAgent = new QuartzSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory);
-        final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), repositoryContextFactory, this.nifiProperties);
+        final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), processGroupThreadPools,
+            virtualThreads, repositoryContextFactory, this.nifiProperties);
         processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenAgent);
         // PRIMARY_NODE_ONLY is deprecated, but still exists to handle processors that are still defined with it (they haven't been re-configured with executeNode = PRIMARY).
         processScheduler.setSchedulingAgent(SchedulingStrategy.PRIMARY_NODE_ONLY, timerDrivenAgent);
@@ -713,7 +730,9 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
 
         }
 
-        eventAccess = new StandardEventAccess(flowManager, flowFileEventRepository, processScheduler, authorizer, provenanceRepository, auditService, analyticsEngine);
+        final String statusCacheDuration = nifiProperties.getProperty(NiFiProperties.COMPONENT_STATUS_CACHE_DURATION, NiFiProperties.DEFAULT_COMPONENT_STATUS_CACHE_DURATION);
+        final long statusCacheMillis = (long) FormatUtils.getPreciseTimeDuration(statusCacheDuration, TimeUnit.MILLISECONDS);
+        eventAccess = new StandardEventAccess(flowManager, flowFileEventRepository, processScheduler, authorizer, provenanceRepository, auditService, analyticsEngine, statusCacheMillis);
 
         timerDrivenEngineRef.get().scheduleWithFixedDelay(new Runnable() {
             @Override
@@ -729,6 +748,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         this.connectionStatus = new NodeConnectionStatus(nodeId, DisconnectionCode.NOT_YET_CONNECTED);
         heartbeatBeanRef.set(new HeartbeatBean(rootGroup, false));
 
+        flowFilePartitionerFactory = new FlowFilePartitionerFactory(nifiProperties, () -> clusterCoordinator == null ? null : clusterCoordinator.getLocalNodeIdentifier());
+
         if (configuredForClustering) {
             heartbeater = new ClusterProtocolHeartbeater(protocolSender, clusterCoordinator, leaderElectionManager);
 
@@ -810,6 +831,21 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         return ResourceFactory.getControllerResource();
     }
 
+    private static String getContentDigestAlgorithm(final NiFiProperties properties) {
+        final String algorithm = StringUtils.trimToNull(properties.getProperty(NiFiProperties.CONTENT_DIGEST_ALGORITHM));
+        if (algorithm == null) {
+            return null;
+        }
+
+        try {
+            MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Invalid value for property " + NiFiProperties.CONTENT_DIGEST_ALGORITHM + ": digest algorithm " + algorithm + " is not supported", e);
+        }
+
+        return algorithm;
+    }
+
     private static FlowFileRepository createFlowFileRepository(final NiFiProperties properties, final ExtensionManager extensionManager, final ResourceClaimManager contentClaimManager) {
         final String implementationClassName = properties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_IMPLEMENTATION, DEFAULT_FLOWFILE_REPO_IMPLEMENTATION);
         if (implementationClassName == null) {
@@ -857,6 +893,11 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                     public EventReporter getEventReporter() {
                         return eventReporter;
                     }
+
+                    @Override
+                    public ContentRepository getContentRepository() {
+                        return contentRepository;
+                    }
                 };
 
                 swapManager.initialize(initializationContext);
@@ -911,20 +952,31 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                     queue.purgeSwapFiles();
                 }
             } else {
-                for (final Connection connection : connections) {
-                    final FlowFileQueue queue = connection.getFlowFileQueue();
-                    final SwapSummary swapSummary = queue.recoverSwappedFlowFiles();
-                    if (swapSummary != null) {
-                        final Long maxFlowFileId = swapSummary.getMaxFlowFileId();
-                        if (maxFlowFileId != null && maxFlowFileId > maxIdFromSwapFiles) {
-                            maxIdFromSwapFiles = maxFlowFileId;
-                        }
+                final long swapRecoveryStart = System.nanoTime();
 
-                        for (final ResourceClaim resourceClaim : swapSummary.getResourceClaims()) {
-                            resourceClaimManager.incrementClaimantCount(resourceClaim);
+                // Queues are recovered one at a time, but each reads its Swap Files using a thread pool that is shared by all of the queues.
+                final FlowEngine swapRecoveryExecutor = new FlowEngine(Runtime.getRuntime().availableProcessors(), "Recover Swap Files", true);
+                try {
+                    for (final Connection connection : connections) {
+                        final FlowFileQueue queue = connection.getFlowFileQueue();
+                        final SwapSummary swapSummary = queue.recoverSwappedFlowFiles(swapRecoveryExecutor);
+                        if (swapSummary != null) {
+                            final Long maxFlowFileId = swapSummary.getMaxFlowFileId();
+                            if (maxFlowFileId != null && maxFlowFileId > maxIdFromSwapFiles) {
+                                maxIdFromSwapFiles = maxFlowFileId;
+                            }
+
+                            for (final ResourceClaim resourceClaim : swapSummary.getResourceClaims()) {
+                                resourceClaimManager.incrementClaimantCount(resourceClaim);
+                            }
                         }
                     }
+                } finally {
+                    swapRecoveryExecutor.shutdown();
                 }
+
+                final long swapRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - swapRecoveryStart);
+                LOG.info("Recovered Swap Files for {} Connections in {} milliseconds", connections.size(), swapRecoveryMillis);
             }
 
             flowFileRepository.updateMaxFlowFileIdentifier(maxIdFromSwapFiles + 1);
@@ -1315,16 +1367,21 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
 
             if (kill) {
                 this.timerDrivenEngineRef.get().shutdownNow();
+                this.processGroupThreadPools.shutdown(true);
+                this.virtualThreads.shutdown(true);
                 this.eventDrivenEngineRef.get().shutdownNow();
                 LOG.info("Initiated immediate shutdown of flow controller...");
             } else {
                 this.timerDrivenEngineRef.get().shutdown();
+                this.processGroupThreadPools.shutdown(false);
+                this.virtualThreads.shutdown(false);
                 this.eventDrivenEngineRef.get().shutdown();
                 LOG.info("Initiated graceful shutdown of flow controller...waiting up to " + gracefulShutdownSeconds + " seconds");
             }
 
             validationThreadPool.shutdown();
             clusterTaskExecutor.shutdownNow();
+            swapPrefetchExecutor.shutdownNow();
 
             if (zooKeeperStateServer != null) {
                 zooKeeperStateServer.shutdown();
@@ -1352,6 +1409,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
 
             try {
                 this.timerDrivenEngineRef.get().awaitTermination(gracefulShutdownSeconds / 2, TimeUnit.SECONDS);
+                this.processGroupThreadPools.awaitTermination(gracefulShutdownSeconds / 2, TimeUnit.SECONDS);
+                this.virtualThreads.awaitTermination(gracefulShutdownSeconds / 2, TimeUnit.SECONDS);
                 this.eventDrivenEngineRef.get().awaitTermination(gracefulShutdownSeconds / 2, TimeUnit.SECONDS);
             } catch (final InterruptedException ie) {
                 LOG.info("Interrupted while waiting for controller termination.");
@@ -1363,7 +1422,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 LOG.warn("Unable to shut down FlowFileRepository due to {}", new Object[]{t});
             }
 
-            if (this.timerDrivenEngineRef.get().isTerminated() && eventDrivenEngineRef.get().isTerminated()) {
+            if (this.timerDrivenEngineRef.get().isTerminated() && processGroupThreadPools.isTerminated() && virtualThreads.isTerminated()
+                && eventDrivenEngineRef.get().isTerminated()) {
                 LOG.info("Controller has been terminated successfully.");
             } else {
                 LOG.warn("Controller hasn't terminated properly.  There exists an uninterruptable thread that "
@@ -1566,7 +1626,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     }
 
     public int getActiveTimerDrivenThreadCount() {
-        return timerDrivenEngineRef.get().getActiveCount();
+        return timerDrivenEngineRef.get().getActiveCount() + processGroupThreadPools.getActiveThreadCount() + virtualThreads.getActiveCount();
     }
 
     public void setMaxTimerDrivenThreadCount(final int maxThreadCount) {
@@ -2036,6 +2096,11 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 public EventReporter getEventReporter() {
                     return eventReporter;
                 }
+
+                @Override
+                public ContentRepository getContentRepository() {
+                    return contentRepository;
+                }
             };
 
             swapManager.initialize(initializationContext);
@@ -2050,10 +2115,12 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 if (clusterCoordinator == null) {
                     flowFileQueue = new StandardFlowFileQueue(id, eventListener, flowFileRepository, provenanceRepository, resourceClaimManager, processScheduler, swapManager,
                             eventReporter, nifiProperties.getQueueSwapThreshold(),
-                            processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold());
+                            processGroup.getDefaultFlowFileExpiration(), processGroup.getDefaultBackPressureObjectThreshold(), processGroup.getDefaultBackPressureDataSizeThreshold(),
+                            swapPrefetchExecutor);
                 } else {
                     flowFileQueue = new SocketLoadBalancedFlowFileQueue(id, eventListener, processScheduler, flowFileRepository, provenanceRepository, contentRepository, resourceClaimManager,
-                            clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter);
+                            clusterCoordinator, loadBalanceClientRegistry, swapManager, nifiProperties.getQueueSwapThreshold(), eventReporter, flowFilePartitionerFactory,
+                            swapPrefetchExecutor);
 
                     flowFileQueue.setFlowFileExpiration(processGroup.getDefaultFlowFileExpiration());
                     flowFileQueue.setBackPressureObjectThreshold(processGroup.getDefaultBackPressureObjectThreshold());
@@ -2215,7 +2282,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     }
 
     public int getActiveThreadCount() {
-        final int timerDrivenCount = timerDrivenEngineRef.get().getActiveCount();
+        final int timerDrivenCount = getActiveTimerDrivenThreadCount();
         final int eventDrivenCount = eventDrivenSchedulingAgent.getActiveThreadCount();
         return timerDrivenCount + eventDrivenCount;
     }
@@ -3048,7 +3115,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 return null;
             }
 
-            final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, hbPayload.marshal());
+            final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, hbPayload);
             final HeartbeatMessage message = new HeartbeatMessage();
             message.setHeartbeat(heartbeat);
 
@@ -3164,6 +3231,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         result.setFlowFileRepositoryUsedSpace(systemDiagnostics.getFlowFileRepositoryStorageUsage().getUsedSpace());
         result.setContentRepositories(systemDiagnostics.getContentRepositoryStorageUsage().entrySet().stream().map(e -> getStorageStatus(e)).collect(Collectors.toList()));
         result.setProvenanceRepositories(systemDiagnostics.getProvenanceRepositoryStorageUsage().entrySet().stream().map(e -> getStorageStatus(e)).collect(Collectors.toList()));
+        result.setThreadPools(processGroupThreadPools.getThreadPoolStatuses());
 
         return result;
     }
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * <p>
+ * An active queue for connections that have no prioritizers configured, or only the First-In-First-Out prioritizer. Rather than
+ * maintaining a single binary heap, which costs O(log n) comparisons on every insertion and removal, FlowFiles are held in a few
+ * {@link ArrayDeque}s ('runs'), each of which is kept in the same order as the {@link QueuePrioritizer} that the {@link PriorityQueue}
+ * would have used. A connection with a single upstream component receives FlowFiles in that order, so they are all appended to one run,
+ * and FlowFiles that are returned to the queue, such as those of a rolled back session, are placed at the head of a run; both are
+ * constant-time operations. This shortens the time that the owning {@link SwappablePriorityQueue} must hold its write lock.
+ * </p>
+ *
+ * <p>
+ * A connection with high fan-in does not receive FlowFiles in order: the sessions of the upstream components commit FlowFiles that are
+ * interleaved by content claim and by ID. Each session's FlowFiles are nonetheless in order, so a FlowFile is appended to the run whose
+ * tail is the latest FlowFile that precedes it, and a new run is started only when the FlowFile precedes the tail of every run. FlowFiles
+ * interleaved from k sources therefore form at most k runs, and each insertion costs O(log k) comparisons and each removal O(k), rather
+ * than O(log n). Runs are discarded as they are drained. At most {@link #MAX_RUNS} runs are kept; once that many are in use, further
+ * out-of-order FlowFiles are held in a heap. With very high fan-in or randomly ordered arrivals, each operation therefore costs at most
+ * {@link #MAX_RUNS} comparisons more than the {@link PriorityQueue} that it replaces, rather than taking constant time.
+ * </p>
+ *
+ * <p>
+ * {@link #poll()} takes whichever of the run heads and heap heads comes first, so FlowFiles are always polled in exactly the order that the
+ * {@link PriorityQueue} would have produced.
+ * </p>
+ *
+ * <p>
+ * FlowFiles that are penalized at the time that they are added are held separately, ordered by penalty expiration, so that a penalized
+ * FlowFile never blocks the FlowFiles behind it. Because a FlowFile's penalty expiration never changes while it is queued, a FlowFile that
+ * is not penalized when it is added can never become penalized while it sits in the queue.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe. As with the {@link PriorityQueue} that it replaces, all access must be guarded by the lock of the owning queue.
+ * </p>
+ */
+public class FifoActiveQueue extends AbstractQueue<FlowFileRecord> {
+    static final String FIFO_PRIORITIZER_CLASS_NAME = "org.apache.nifi.prioritizer.FirstInFirstOutPrioritizer";
+    static final int MAX_RUNS = 8;
+
+    private final QueuePrioritizer prioritizer;
+    private final int initialCapacity;
+    // Each run is non-empty and in priority order, and the runs are ordered such that the tail of each run precedes the tail of the run before it
+    private final List<ArrayDeque<FlowFileRecord>> runs = new ArrayList<>(MAX_RUNS);
+    private final PriorityQueue<FlowFileRecord> unordered;
+    private final PriorityQueue<FlowFileRecord> penalized;
+
+    public FifoActiveQueue(final int initialCapacity) {
+        this(Collections.emptyList(), initialCapacity);
+    }
+
+    /**
+     * @param prioritizers the prioritizers configured for the connection, which must be {@link #isApplicable(List) applicable}
+     * @param initialCapacity the initial capacity of the queue
+     */
+    public FifoActiveQueue(final List<FlowFilePrioritizer> prioritizers, final int initialCapacity) {
+        this.prioritizer = new QueuePrioritizer(prioritizers);
+        this.initialCapacity = Math.max(16, initialCapacity);
+        this.unordered = new PriorityQueue<>(20, prioritizer);
+        this.penalized = new PriorityQueue<>(20, prioritizer);
+    }
+
+    /**
+     * Indicates whether or not FlowFiles normally arrive in the order required by the given prioritizers, in which case a FifoActiveQueue may be used
+     * in place of a {@link PriorityQueue}.
+     *
+     * @param prioritizers the prioritizers configured for the connection
+     * @return <code>true</code> if no prioritizers are configured or the only prioritizer is the First-In-First-Out prioritizer
+     */
+    public static boolean isApplicable(final List<FlowFilePrioritizer> prioritizers) {
+        if (prioritizers == null || prioritizers.isEmpty()) {
+            return true;
+        }
+
+        return prioritizers.size() == 1 && FIFO_PRIORITIZER_CLASS_NAME.equals(prioritizers.get(0).getClass().getName());
+    }
+
+    @Override
+    public boolean offer(final FlowFileRecord flowFile) {
+        if (flowFile.isPenalized()) {
+            return penalized.offer(flowFile);
+        }
+
+        final int runIndex = getAppendableRunIndex(flowFile);
+        if (runIndex < runs.size()) {
+            runs.get(runIndex).offerLast(flowFile);
+            return true;
+        }
+
+        // The FlowFile precedes the tail of every run, which is the case for a FlowFile that is returned to the queue
+        for (final ArrayDeque<FlowFileRecord> run : runs) {
+            if (prioritizer.compare(flowFile, run.peekFirst()) <= 0) {
+                run.offerFirst(flowFile);
+                return true;
+            }
+        }
+
+        if (runs.size() < MAX_RUNS) {
+            final ArrayDeque<FlowFileRecord> run = new ArrayDeque<>(runs.isEmpty() ? initialCapacity : 16);
+            run.offerLast(flowFile);
+            runs.add(run);
+            return true;
+        }
+
+        return unordered.offer(flowFile);
+    }
+
+    /**
+     * @return the index of the run whose tail is the latest FlowFile that does not come after the given FlowFile, or the number of runs if the
+     * given FlowFile precedes the tail of every run
+     */
+    private int getAppendableRunIndex(final FlowFileRecord flowFile) {
+        int low = 0;
+        int high = runs.size();
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (prioritizer.compare(runs.get(mid).peekLast(), flowFile) <= 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public FlowFileRecord poll() {
+        final Queue<FlowFileRecord> head = getHeadQueue();
+        if (head == null) {
+            return null;
+        }
+
+        final FlowFileRecord flowFile = head.poll();
+        if (head.isEmpty()) {
+            runs.remove(head);
+        }
+
+        return flowFile;
+    }
+
+    @Override
+    public FlowFileRecord peek() {
+        final Queue<FlowFileRecord> head = getHeadQueue();
+        return head == null ? null : head.peek();
+    }
+
+    private Queue<FlowFileRecord> getHeadQueue() {
+        Queue<FlowFileRecord> head = null;
+        FlowFileRecord headFlowFile = null;
+        for (final ArrayDeque<FlowFileRecord> run : runs) {
+            final FlowFileRecord runHead = run.peekFirst();
+            if (headFlowFile == null || prioritizer.compare(runHead, headFlowFile) < 0) {
+                head = run;
+                headFlowFile = runHead;
+            }
+        }
+
+        final FlowFileRecord unorderedHead = unordered.peek();
+        if (unorderedHead != null && (headFlowFile == null || prioritizer.compare(unorderedHead, headFlowFile) < 0)) {
+            head = unordered;
+            headFlowFile = unorderedHead;
+        }
+
+        // A penalized FlowFile whose penalty has expired is compared with the others just as the PriorityQueue would compare it.
+        final FlowFileRecord penalizedHead = penalized.peek();
+        if (penalizedHead != null && (headFlowFile == null || prioritizer.compare(penalizedHead, headFlowFile) < 0)) {
+            head = penalized;
+        }
+
+        return head;
+    }
+
+    /**
+     * Returns the given FlowFiles to the queue. FlowFiles that were polled but not consumed come before everything still in the queue, so they
+     * are placed back at the head of a run.
+     *
+     * @param flowFiles the FlowFiles to return to the queue, in the order in which they were polled
+     */
+    public void requeue(final List<FlowFileRecord> flowFiles) {
+        for (int i = flowFiles.size() - 1; i >= 0; i--) {
+            offer(flowFiles.get(i));
+        }
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends FlowFileRecord> flowFiles) {
+        boolean modified = false;
+        for (final FlowFileRecord flowFile : flowFiles) {
+            modified |= offer(flowFile);
+        }
+        return modified;
+    }
+
+    @Override
+    public void clear() {
+        runs.clear();
+        unordered.clear();
+        penalized.clear();
+    }
+
+    @Override
+    public int size() {
+        int size = unordered.size() + penalized.size();
+        for (final ArrayDeque<FlowFileRecord> run : runs) {
+            size += run.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return runs.isEmpty() && unordered.isEmpty() && penalized.isEmpty();
+    }
+
+    int getRunCount() {
+        return runs.size();
+    }
+
+    int getUnorderedCount() {
+        return unordered.size();
+    }
+
+    @Override
+    public Iterator<FlowFileRecord> iterator() {
+        final List<Queue<FlowFileRecord>> queues = new ArrayList<>(runs);
+        queues.addAll(Arrays.asList(unordered, penalized));
+        final Iterator<Queue<FlowFileRecord>> queueIterator = queues.iterator();
+
+        return new Iterator<FlowFileRecord>() {
+            private Queue<FlowFileRecord> currentQueue = queueIterator.next();
+            private Iterator<FlowFileRecord> current = currentQueue.iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && queueIterator.hasNext()) {
+                    currentQueue = queueIterator.next();
+                    current = currentQueue.iterator();
+                }
+
+                return current.hasNext();
+            }
+
+            @Override
+            public FlowFileRecord next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                current.remove();
+                if (currentQueue.isEmpty()) {
+                    runs.remove(currentQueue);
+                }
+            }
+        };
+    }
+}
@@ -34,6 +34,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -55,11 +57,19 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
     public StandardFlowFileQueue(final String identifier, final ConnectionEventListener eventListener, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
                                  final ResourceClaimManager resourceClaimManager, final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
                                  final int swapThreshold, final String expirationPeriod, final long defaultBackPressureObjectThreshold, final String defaultBackPressureDataSizeThreshold) {
+        this(identifier, eventListener, flowFileRepo, provRepo, resourceClaimManager, scheduler, swapManager, eventReporter, swapThreshold, expirationPeriod,
+            defaultBackPressureObjectThreshold, defaultBackPressureDataSizeThreshold, null);
+    }
+
+    public StandardFlowFileQueue(final String identifier, final ConnectionEventListener eventListener, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
+                                 final ResourceClaimManager resourceClaimManager, final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter,
+                                 final int swapThreshold, final String expirationPeriod, final long defaultBackPressureObjectThreshold, final String defaultBackPressureDataSizeThreshold,
+                                 final ExecutorService swapPrefetchExecutor) {
 
         super(identifier, scheduler, flowFileRepo, provRepo, resourceClaimManager);
         super.setFlowFileExpiration(expirationPeriod);
         this.swapManager = swapManager;
-        this.queue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, this, this::drop, null);
+        this.queue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, this, this::drop, null, swapPrefetchExecutor);
         this.eventListener = eventListener;
 
         writeLock = new TimedLock(this.lock.writeLock(), getIdentifier() + " Write Lock", 100);
@@ -204,6 +214,11 @@ public class StandardFlowFileQueue extends AbstractFlowFileQueue implements Flow
         return queue.recoverSwappedFlowFiles();
     }
 
+    @Override
+    public SwapSummary recoverSwappedFlowFiles(final Executor executor) {
+        return queue.recoverSwappedFlowFiles(executor);
+    }
+
     @Override
     public String toString() {
         return "FlowFileQueue[id=" + getIdentifier() + "]";
@@ -21,11 +21,22 @@ public class StandardLocalQueuePartitionDiagnostics implements LocalQueuePartiti
     private final FlowFileQueueSize queueSize;
     private final boolean anyPenalized;
     private final boolean allPenalized;
+    private final long swapInCount;
+    private final long swapInMillis;
+    private final long swapInPrefetchHitCount;
 
     public StandardLocalQueuePartitionDiagnostics(final FlowFileQueueSize queueSize, final boolean anyPenalized, final boolean allPenalized) {
+        this(queueSize, anyPenalized, allPenalized, 0L, 0L, 0L);
+    }
+
+    public StandardLocalQueuePartitionDiagnostics(final FlowFileQueueSize queueSize, final boolean anyPenalized, final boolean allPenalized,
+                                                  final long swapInCount, final long swapInMillis, final long swapInPrefetchHitCount) {
         this.queueSize = queueSize;
         this.anyPenalized = anyPenalized;
         this.allPenalized = allPenalized;
+        this.swapInCount = swapInCount;
+        this.swapInMillis = swapInMillis;
+        this.swapInPrefetchHitCount = swapInPrefetchHitCount;
     }
 
     @Override
@@ -57,4 +68,19 @@ public class StandardLocalQueuePartitionDiagnostics implements LocalQueuePartiti
     public boolean isAllActiveFlowFilesPenalized() {
         return allPenalized;
     }
+
+    @Override
+    public long getSwapInCount() {
+        return swapInCount;
+    }
+
+    @Override
+    public long getSwapInMillis() {
+        return swapInMillis;
+    }
+
+    @Override
+    public long getSwapInPrefetchHitCount() {
+        return swapInPrefetchHitCount;
+    }
 }
@@ -49,7 +49,14 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -58,6 +65,8 @@ public class SwappablePriorityQueue {
     private static final Logger logger = LoggerFactory.getLogger(SwappablePriorityQueue.class);
     private static final int SWAP_RECORD_POLL_SIZE = 10_000;
     private static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 10_000;
+    // Once the active queue drops below this size, the next Swap File is read in the background so that it is ready by the time the active queue is empty.
+    private static final int SWAP_PREFETCH_LOW_WATER_MARK = SWAP_RECORD_POLL_SIZE / 2;
 
     private final int swapThreshold;
     private final FlowFileSwapManager swapManager;
@@ -66,6 +75,7 @@ public class SwappablePriorityQueue {
     private final DropFlowFileAction dropAction;
     private volatile List<FlowFilePrioritizer> priorities = new ArrayList<>();
     private final String swapPartitionName;
+    private final ExecutorService swapPrefetchExecutor;
 
     private final List<String> swapLocations = new ArrayList<>();
     private final AtomicReference<FlowFileQueueSize> size = new AtomicReference<>(new FlowFileQueueSize(0, 0L, 0, 0L, 0, 0, 0L));
@@ -82,7 +92,7 @@ public class SwappablePriorityQueue {
     // keeping these separate, we are able to guarantee that FlowFiles are swapped in in the same order
     // that they are swapped out.
     // Guarded by lock.
-    private PriorityQueue<FlowFileRecord> activeQueue;
+    private Queue<FlowFileRecord> activeQueue;
     private ArrayList<FlowFileRecord> swapQueue;
     private boolean swapMode = false;
     private volatile long topPenaltyExpiration = -1L;
@@ -92,17 +102,34 @@ public class SwappablePriorityQueue {
     private final Map<String, Long> minQueueDateInSwapLocation = new HashMap<>();
     private final Map<String, Long> totalQueueDateInSwapLocation = new HashMap<>();
 
+    // Swap File that is being read ahead of time, and its contents. Guarded by lock.
+    private String prefetchSwapLocation;
+    private Future<SwapContents> prefetchSwapContents;
+
+    private final AtomicLong swapInCount = new AtomicLong(0L);
+    private final AtomicLong swapInNanos = new AtomicLong(0L);
+    private final AtomicLong swapInPrefetchHitCount = new AtomicLong(0L);
+
     public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
         final DropFlowFileAction dropAction, final String swapPartitionName) {
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, swapPartitionName, null);
+    }
+
+    /**
+     * @param swapPrefetchExecutor the executor used to read the next Swap File ahead of time, or <code>null</code> if Swap Files are not to be read ahead
+     */
+    public SwappablePriorityQueue(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter, final FlowFileQueue flowFileQueue,
+        final DropFlowFileAction dropAction, final String swapPartitionName, final ExecutorService swapPrefetchExecutor) {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
 
-        this.activeQueue = new PriorityQueue<>(20, new QueuePrioritizer(Collections.emptyList()));
+        this.activeQueue = createActiveQueue(Collections.emptyList(), 20);
         this.swapQueue = new ArrayList<>();
         this.eventReporter = eventReporter;
         this.flowFileQueue = flowFileQueue;
         this.dropAction = dropAction;
         this.swapPartitionName = swapPartitionName;
+        this.swapPrefetchExecutor = swapPrefetchExecutor;
 
         final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
         readLock = new TimedLock(lock.readLock(), flowFileQueue.getIdentifier() + " Read Lock", 100);
@@ -122,7 +149,7 @@ public class SwappablePriorityQueue {
         try {
             this.priorities = new ArrayList<>(newPriorities);
 
-            final PriorityQueue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new QueuePrioritizer(newPriorities));
+            final Queue<FlowFileRecord> newQueue = createActiveQueue(newPriorities, Math.max(20, activeQueue.size()));
             newQueue.addAll(activeQueue);
             activeQueue = newQueue;
         } finally {
@@ -131,13 +158,26 @@ public class SwappablePriorityQueue {
     }
 
 
+    /**
+     * Creates the queue that holds the active FlowFiles. If FlowFiles normally arrive in the order required by the given prioritizers, a {@link FifoActiveQueue}
+     * is used so that FlowFiles can be added and removed in constant time; otherwise, a {@link PriorityQueue} ordered by the prioritizers is used.
+     */
+    private static Queue<FlowFileRecord> createActiveQueue(final List<FlowFilePrioritizer> prioritizers, final int initialCapacity) {
+        if (FifoActiveQueue.isApplicable(prioritizers)) {
+            return new FifoActiveQueue(prioritizers, initialCapacity);
+        }
+
+        return new PriorityQueue<>(initialCapacity, new QueuePrioritizer(prioritizers));
+    }
+
     public LocalQueuePartitionDiagnostics getQueueDiagnostics() {
         readLock.lock();
         try {
             final boolean anyPenalized = !activeQueue.isEmpty() && activeQueue.peek().isPenalized();
             final boolean allPenalized = anyPenalized && activeQueue.stream().anyMatch(FlowFileRecord::isPenalized);
 
-            return new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, allPenalized);
+            return new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, allPenalized,
+                swapInCount.get(), TimeUnit.NANOSECONDS.toMillis(swapInNanos.get()), swapInPrefetchHitCount.get());
         } finally {
             readLock.unlock("getQueueDiagnostics");
         }
@@ -291,6 +331,7 @@ public class SwappablePriorityQueue {
         // Swap Queue to the Active Queue. However, we don't do this if there are FlowFiles already swapped out
         // to disk, because we want them to be swapped back in in the same order that they were swapped out.
         if (!activeQueue.isEmpty()) {
+            prefetchSwapFile();
             return;
         }
 
@@ -352,13 +393,93 @@ public class SwappablePriorityQueue {
         }
     }
 
+    /**
+     * If the active queue is running low and there are Swap Files waiting to be swapped in, begins reading the next Swap File in the background.
+     * This way, the polling thread that finds the active queue empty needs only to update the FlowFile Repository rather than waiting for the
+     * Swap File to be read from disk. The contents are held in heap in addition to the active queue and the swap queue, so the Swap File is read
+     * only if all of them together fit within the swap threshold. When the swap threshold is smaller than a Swap File, nothing is read ahead.
+     *
+     * This method MUST be called with the writeLock held.
+     */
+    private void prefetchSwapFile() {
+        if (swapPrefetchExecutor == null || swapLocations.isEmpty() || activeQueue.size() >= SWAP_PREFETCH_LOW_WATER_MARK) {
+            return;
+        }
+
+        if ((long) activeQueue.size() + swapQueue.size() + SWAP_RECORD_POLL_SIZE > swapThreshold) {
+            return;
+        }
+
+        final String swapLocation = swapLocations.get(0);
+        if (swapLocation.equals(prefetchSwapLocation)) {
+            return;
+        }
+
+        discardPrefetchedSwapContents();
+        logger.debug("Reading Swap File {} in the background for {}", swapLocation, this);
+        try {
+            prefetchSwapContents = swapPrefetchExecutor.submit(() -> swapManager.peek(swapLocation, flowFileQueue));
+            prefetchSwapLocation = swapLocation;
+        } catch (final RejectedExecutionException ree) {
+            // The executor is shut down while the flow is stopping; the Swap File is simply read when it is swapped in.
+            logger.debug("Could not read Swap File {} in the background for {}", swapLocation, this, ree);
+        }
+    }
+
+    /**
+     * Returns the contents of the given Swap File if it has been read in the background, waiting for the read to complete if it is still in progress.
+     *
+     * @param swapLocation the Swap File that is to be swapped in
+     * @return the contents of the Swap File, or <code>null</code> if the Swap File was not read in the background or could not be read
+     */
+    private SwapContents getPrefetchedSwapContents(final String swapLocation) {
+        if (!swapLocation.equals(prefetchSwapLocation)) {
+            return null;
+        }
+
+        final Future<SwapContents> future = prefetchSwapContents;
+        prefetchSwapLocation = null;
+        prefetchSwapContents = null;
+
+        final boolean hit = future.isDone();
+        try {
+            final SwapContents contents = future.get();
+            if (hit) {
+                swapInPrefetchHitCount.incrementAndGet();
+            }
+            return contents;
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final ExecutionException ee) {
+            // The Swap File will be read again, so that any failure is handled in the same way as it would be without the read-ahead.
+            logger.debug("Failed to read Swap File {} in the background; will read it again when swapping in", swapLocation, ee.getCause());
+            return null;
+        }
+    }
+
+    private void discardPrefetchedSwapContents() {
+        if (prefetchSwapContents != null) {
+            prefetchSwapContents.cancel(false);
+        }
+
+        prefetchSwapLocation = null;
+        prefetchSwapContents = null;
+    }
+
     private void swapIn() {
         final String swapLocation = swapLocations.get(0);
         boolean partialContents = false;
         SwapContents swapContents;
+        final long swapInStart = System.nanoTime();
         try {
             logger.debug("Attempting to swap in {}; all swap locations = {}", swapLocation, swapLocations);
-            swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+            final SwapContents prefetchedContents = getPrefetchedSwapContents(swapLocation);
+            if (prefetchedContents == null) {
+                swapContents = swapManager.swapIn(swapLocation, flowFileQueue);
+            } else {
+                swapContents = swapManager.swapIn(swapLocation, flowFileQueue, prefetchedContents);
+            }
             swapLocations.remove(0);
             minQueueDateInSwapLocation.remove(swapLocation);
             totalQueueDateInSwapLocation.remove(swapLocation);
@@ -422,6 +543,8 @@ public class SwappablePriorityQueue {
         }
 
         activeQueue.addAll(swapContents.getFlowFiles());
+        swapInCount.incrementAndGet();
+        swapInNanos.addAndGet(System.nanoTime() - swapInStart);
     }
 
     public QueueSize size() {
@@ -652,7 +775,7 @@ public class SwappablePriorityQueue {
                 }
             }
 
-            this.activeQueue.addAll(unselected);
+            requeue(unselected);
             unacknowledge(flowFilesPulled, bytesPulled);
 
             if (flowFilesExpired > 0) {
@@ -673,6 +796,20 @@ public class SwappablePriorityQueue {
         }
     }
 
+    /**
+     * Returns FlowFiles that were polled but not selected to the active queue. A PriorityQueue restores their order on its own, but a
+     * FifoActiveQueue must be told to place them back at the head of the queue.
+     *
+     * This method MUST be called with the write lock held.
+     */
+    private void requeue(final List<FlowFileRecord> unselected) {
+        if (activeQueue instanceof FifoActiveQueue) {
+            ((FifoActiveQueue) activeQueue).requeue(unselected);
+        } else {
+            activeQueue.addAll(unselected);
+        }
+    }
+
     // MUST be called while holding read lock or write lock
     private void updateTopPenaltyExpiration() {
         final FlowFileRecord top = activeQueue.peek();
@@ -831,6 +968,7 @@ public class SwappablePriorityQueue {
                 incrementSwapQueueSize(-droppedSize.getObjectCount(), -droppedSize.getByteCount(), 0);
                 logger.debug("For DropFlowFileRequest {}, dropped {} from Swap Queue", requestIdentifier, droppedSize);
 
+                discardPrefetchedSwapContents();
                 final int swapFileCount = swapLocations.size();
                 final Iterator<String> swapLocationItr = swapLocations.iterator();
                 while (swapLocationItr.hasNext()) {
@@ -898,6 +1036,10 @@ public class SwappablePriorityQueue {
 
 
     public SwapSummary recoverSwappedFlowFiles() {
+        return recoverSwappedFlowFiles(Runnable::run);
+    }
+
+    public SwapSummary recoverSwappedFlowFiles(final Executor executor) {
         int swapFlowFileCount = 0;
         long swapByteCount = 0L;
         long totalSwappedQueueDate = 0L;
@@ -930,9 +1072,10 @@ public class SwappablePriorityQueue {
             swapLocations.removeAll(this.swapLocations);
 
             logger.debug("Swap Manager reports {} Swap Files for {}: {}", swapLocations.size(), flowFileQueue, swapLocations);
+            final Map<String, Future<SwapSummary>> swapSummaries = readSwapSummaries(swapLocations, executor);
             for (final String swapLocation : swapLocations) {
                 try {
-                    final SwapSummary summary = swapManager.getSwapSummary(swapLocation);
+                    final SwapSummary summary = getSwapSummary(swapSummaries.get(swapLocation));
                     final QueueSize queueSize = summary.getQueueSize();
                     final Long maxSwapRecordId = summary.getMaxFlowFileId();
                     if (maxSwapRecordId != null) {
@@ -988,6 +1131,43 @@ public class SwappablePriorityQueue {
         return new StandardSwapSummary(new QueueSize(swapFlowFileCount, swapByteCount), maxId, resourceClaims, minSwappedQueueDate, totalSwappedQueueDate);
     }
 
+    /**
+     * Reads the summaries of the given Swap Files using the given Executor. Reading a summary requires deserializing the entire Swap File, so when
+     * a queue has many Swap Files, reading them one at a time can account for a significant portion of the time that it takes to restart.
+     *
+     * @param swapLocations the locations of the Swap Files to read
+     * @param executor the Executor that reads the Swap Files, which is shared with the other queues that are being recovered
+     * @return a Future for the summary of each Swap File, keyed by Swap Location
+     */
+    private Map<String, Future<SwapSummary>> readSwapSummaries(final Collection<String> swapLocations, final Executor executor) {
+        final Map<String, Future<SwapSummary>> summaries = new HashMap<>();
+        for (final String swapLocation : swapLocations) {
+            final FutureTask<SwapSummary> task = new FutureTask<>(() -> swapManager.getSwapSummary(swapLocation));
+            executor.execute(task);
+            summaries.put(swapLocation, task);
+        }
+
+        return summaries;
+    }
+
+    private SwapSummary getSwapSummary(final Future<SwapSummary> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for Swap File to be read", ie);
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Failed to read Swap File", cause);
+        }
+    }
+
     public long getMinLastQueueDate() {
         readLock.lock();
         try {
@@ -1166,6 +1346,7 @@ public class SwappablePriorityQueue {
 
             this.swapLocations.clear();
             this.activeQueue.clear();
+            discardPrefetchedSwapContents();
 
             final int swapQueueCount = swapQueue.size();
             final long swapQueueBytes = swapQueue.stream().mapToLong(FlowFileRecord::getSize).sum();
@@ -40,16 +40,14 @@ import org.apache.nifi.controller.queue.RemoteQueuePartitionDiagnostics;
 import org.apache.nifi.controller.queue.StandardQueueDiagnostics;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.queue.clustered.client.async.AsyncLoadBalanceClientRegistry;
-import org.apache.nifi.controller.queue.clustered.partition.CorrelationAttributePartitioner;
-import org.apache.nifi.controller.queue.clustered.partition.FirstNodePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.FlowFilePartitioner;
+import org.apache.nifi.controller.queue.clustered.partition.FlowFilePartitionerFactory;
 import org.apache.nifi.controller.queue.clustered.partition.LocalPartitionPartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.LocalQueuePartition;
 import org.apache.nifi.controller.queue.clustered.partition.NonLocalPartitionPartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.QueuePartition;
 import org.apache.nifi.controller.queue.clustered.partition.RebalancingPartition;
 import org.apache.nifi.controller.queue.clustered.partition.RemoteQueuePartition;
-import org.apache.nifi.controller.queue.clustered.partition.RoundRobinPartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.StandardRebalancingPartition;
 import org.apache.nifi.controller.queue.clustered.partition.SwappablePriorityQueueLocalPartition;
 import org.apache.nifi.controller.repository.ContentRepository;
@@ -88,6 +86,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -111,6 +111,8 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     private final EventReporter eventReporter;
     private final ClusterCoordinator clusterCoordinator;
     private final AsyncLoadBalanceClientRegistry clientRegistry;
+    private final FlowFilePartitionerFactory partitionerFactory;
+    private final ExecutorService swapPrefetchExecutor;
 
     private final FlowFileRepository flowFileRepo;
     private final ProvenanceEventRepository provRepo;
@@ -130,6 +132,23 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
                                            final ProvenanceEventRepository provRepo, final ContentRepository contentRepo, final ResourceClaimManager resourceClaimManager,
                                            final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
                                            final int swapThreshold, final EventReporter eventReporter) {
+        this(identifier, eventListener, scheduler, flowFileRepo, provRepo, contentRepo, resourceClaimManager, clusterCoordinator, clientRegistry, swapManager, swapThreshold, eventReporter,
+            new FlowFilePartitionerFactory());
+    }
+
+    public SocketLoadBalancedFlowFileQueue(final String identifier, final ConnectionEventListener eventListener, final ProcessScheduler scheduler, final FlowFileRepository flowFileRepo,
+                                           final ProvenanceEventRepository provRepo, final ContentRepository contentRepo, final ResourceClaimManager resourceClaimManager,
+                                           final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
+                                           final int swapThreshold, final EventReporter eventReporter, final FlowFilePartitionerFactory partitionerFactory) {
+        this(identifier, eventListener, scheduler, flowFileRepo, provRepo, contentRepo, resourceClaimManager, clusterCoordinator, clientRegistry, swapManager, swapThreshold, eventReporter,
+            partitionerFactory, null);
+    }
+
+    public SocketLoadBalancedFlowFileQueue(final String identifier, final ConnectionEventListener eventListener, final ProcessScheduler scheduler, final FlowFileRepository flowFileRepo,
+                                           final ProvenanceEventRepository provRepo, final ContentRepository contentRepo, final ResourceClaimManager resourceClaimManager,
+                                           final ClusterCoordinator clusterCoordinator, final AsyncLoadBalanceClientRegistry clientRegistry, final FlowFileSwapManager swapManager,
+                                           final int swapThreshold, final EventReporter eventReporter, final FlowFilePartitionerFactory partitionerFactory,
+                                           final ExecutorService swapPrefetchExecutor) {
 
         super(identifier, scheduler, flowFileRepo, provRepo, resourceClaimManager);
         this.eventListener = eventListener;
@@ -140,8 +159,10 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
         this.contentRepo = contentRepo;
         this.clusterCoordinator = clusterCoordinator;
         this.clientRegistry = clientRegistry;
+        this.partitionerFactory = partitionerFactory;
+        this.swapPrefetchExecutor = swapPrefetchExecutor;
 
-        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
+        localPartition = new SwappablePriorityQueueLocalPartition(swapManager, swapThreshold, eventReporter, this, this::drop, swapPrefetchExecutor);
         rebalancingPartition = new StandardRebalancingPartition(swapManager, swapThreshold, eventReporter, this, this::drop);
 
         // Create a RemoteQueuePartition for each node
@@ -217,24 +238,7 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     }
 
     private FlowFilePartitioner getPartitionerForLoadBalancingStrategy(LoadBalanceStrategy strategy, String partitioningAttribute) {
-        FlowFilePartitioner partitioner;
-        switch (strategy) {
-            case DO_NOT_LOAD_BALANCE:
-                partitioner = new LocalPartitionPartitioner();
-                break;
-            case PARTITION_BY_ATTRIBUTE:
-                partitioner = new CorrelationAttributePartitioner(partitioningAttribute);
-                break;
-            case ROUND_ROBIN:
-                partitioner = new RoundRobinPartitioner();
-                break;
-            case SINGLE_NODE:
-                partitioner = new FirstNodePartitioner();
-                break;
-            default:
-                throw new IllegalArgumentException();
-        }
-        return partitioner;
+        return partitionerFactory.createPartitioner(strategy, partitioningAttribute, this);
     }
 
     @Override
@@ -371,7 +375,8 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
     }
 
     private QueuePartition createRemotePartition(final NodeIdentifier nodeId) {
-        final SwappablePriorityQueue partitionQueue = new SwappablePriorityQueue(swapManager, NODE_SWAP_THRESHOLD, eventReporter, this, this::drop, nodeId.getId());
+        final SwappablePriorityQueue partitionQueue = new SwappablePriorityQueue(swapManager, NODE_SWAP_THRESHOLD, eventReporter, this, this::drop, nodeId.getId(),
+            swapPrefetchExecutor);
 
         final TransferFailureDestination failureDestination = new TransferFailureDestination() {
             @Override
@@ -443,6 +448,11 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
 
     @Override
     public SwapSummary recoverSwappedFlowFiles() {
+        return recoverSwappedFlowFiles(Runnable::run);
+    }
+
+    @Override
+    public SwapSummary recoverSwappedFlowFiles(final Executor executor) {
         partitionReadLock.lock();
         try {
             final List<SwapSummary> summaries = new ArrayList<>(queuePartitions.length);
@@ -466,13 +476,13 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
             for (final QueuePartition partition : queuePartitions) {
                 partitionNamesToRecover.remove(partition.getSwapPartitionName());
 
-                final SwapSummary summary = partition.recoverSwappedFlowFiles();
+                final SwapSummary summary = partition.recoverSwappedFlowFiles(executor);
                 summaries.add(summary);
             }
 
             // Recover any swap files that may belong to the 'rebalancing' partition
             partitionNamesToRecover.remove(rebalancingPartition.getSwapPartitionName());
-            final SwapSummary rebalancingSwapSummary = rebalancingPartition.recoverSwappedFlowFiles();
+            final SwapSummary rebalancingSwapSummary = rebalancingPartition.recoverSwappedFlowFiles(executor);
             summaries.add(rebalancingSwapSummary);
 
             // If there is any Partition that has swapped FlowFiles but for which we don't have a Queue Partition created, we need to recover those swap locations
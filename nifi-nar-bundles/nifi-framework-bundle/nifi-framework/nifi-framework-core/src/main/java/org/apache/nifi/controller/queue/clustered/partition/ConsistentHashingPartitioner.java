@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A variant of {@link CorrelationAttributePartitioner} that places each node on a hash ring at many points, or virtual nodes, and assigns
+ * each FlowFile to the node that owns the first point at or after the hash of its correlation attribute. When a node joins or leaves the
+ * cluster, only the FlowFiles whose hashes fall between that node's points and their predecessors change partition, roughly 1 / N of them,
+ * so most FlowFiles with a given attribute value stay on the node that already has their correlated FlowFiles.
+ * <p>
+ * Nodes are placed on the ring by their load balancing address and port, rather than by their position in the list of partitions, so that
+ * every node in the cluster builds the same ring.
+ * </p>
+ */
+public class ConsistentHashingPartitioner implements FlowFilePartitioner {
+    private static final Logger logger = LoggerFactory.getLogger(ConsistentHashingPartitioner.class);
+
+    static final int VIRTUAL_NODES_PER_PARTITION = 128;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final String partitioningAttribute;
+    private final Supplier<NodeIdentifier> localNodeIdentifier;
+    private volatile HashRing ring;
+
+    /**
+     * @param partitioningAttribute the name of the attribute to partition by
+     * @param localNodeIdentifier supplies the identifier of the local node, or <code>null</code> if it is not yet known
+     */
+    public ConsistentHashingPartitioner(final String partitioningAttribute, final Supplier<NodeIdentifier> localNodeIdentifier) {
+        this.partitioningAttribute = partitioningAttribute;
+        this.localNodeIdentifier = localNodeIdentifier;
+    }
+
+    @Override
+    public QueuePartition getPartition(final FlowFileRecord flowFile, final QueuePartition[] partitions, final QueuePartition localPartition) {
+        final HashRing hashRing = getRing(partitions, localPartition);
+
+        final String partitionAttributeValue = flowFile.getAttribute(partitioningAttribute);
+        final long hash = partitionAttributeValue == null ? 0L : hash(partitionAttributeValue);
+        final QueuePartition partition = hashRing.getPartition(hash);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Assigning Partition {} to {} based on hash {} of {}", partition.getSwapPartitionName(), flowFile.getAttribute(CoreAttributes.UUID.key()),
+                hash, partitionAttributeValue);
+        }
+
+        return partition;
+    }
+
+    private HashRing getRing(final QueuePartition[] partitions, final QueuePartition localPartition) {
+        final NodeIdentifier localNodeId = localNodeIdentifier.get();
+        final HashRing current = ring;
+        if (current != null && current.partitions == partitions && Objects.equals(current.localNodeId, localNodeId)) {
+            return current;
+        }
+
+        final HashRing updated = new HashRing(partitions, localPartition, localNodeId);
+        ring = updated;
+        return updated;
+    }
+
+    @Override
+    public boolean isRebalanceOnClusterResize() {
+        return true;
+    }
+
+    @Override
+    public boolean isRebalanceOnFailure() {
+        return false;
+    }
+
+    static long hash(final String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+
+        return mix(hash);
+    }
+
+    // The finalizer of SplitMix64, which spreads values that differ in few bits, such as the successive virtual nodes of a partition, across the ring
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String getPartitionKey(final QueuePartition partition, final QueuePartition localPartition, final NodeIdentifier localNodeId) {
+        final NodeIdentifier nodeId = partition == localPartition ? localNodeId : partition.getNodeIdentifier().orElse(null);
+        return nodeId == null ? partition.getSwapPartitionName() : nodeId.getLoadBalanceAddress() + ":" + nodeId.getLoadBalancePort();
+    }
+
+    private static class HashRing {
+        private final QueuePartition[] partitions;
+        private final NodeIdentifier localNodeId;
+        private final long[] points;
+        private final QueuePartition[] owners;
+
+        private HashRing(final QueuePartition[] partitions, final QueuePartition localPartition, final NodeIdentifier localNodeId) {
+            this.partitions = partitions;
+            this.localNodeId = localNodeId;
+
+            final int pointCount = partitions.length * VIRTUAL_NODES_PER_PARTITION;
+            final long[] unsortedPoints = new long[pointCount];
+            final String[] pointKeys = new String[pointCount];
+            final Integer[] order = new Integer[pointCount];
+            for (int i = 0; i < partitions.length; i++) {
+                final String key = getPartitionKey(partitions[i], localPartition, localNodeId);
+                final long keyHash = hash(key);
+
+                for (int virtualNode = 0; virtualNode < VIRTUAL_NODES_PER_PARTITION; virtualNode++) {
+                    final int pointIndex = i * VIRTUAL_NODES_PER_PARTITION + virtualNode;
+                    unsortedPoints[pointIndex] = mix(keyHash + virtualNode * GOLDEN_GAMMA);
+                    pointKeys[pointIndex] = key;
+                    order[pointIndex] = pointIndex;
+                }
+            }
+
+            // Break ties by key so that every node orders the ring identically, regardless of the order of its partitions
+            Arrays.sort(order, Comparator.<Integer>comparingLong(index -> unsortedPoints[index]).thenComparing(index -> pointKeys[index]));
+
+            points = new long[pointCount];
+            owners = new QueuePartition[pointCount];
+            for (int i = 0; i < pointCount; i++) {
+                points[i] = unsortedPoints[order[i]];
+                owners[i] = partitions[order[i] / VIRTUAL_NODES_PER_PARTITION];
+            }
+        }
+
+        private QueuePartition getPartition(final long hash) {
+            final int searchIndex = Arrays.binarySearch(points, hash);
+            final int index = searchIndex >= 0 ? searchIndex : -searchIndex - 1;
+            return owners[index == points.length ? 0 : index];
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Creates the {@link FlowFilePartitioner} that a load-balanced connection uses for its configured {@link LoadBalanceStrategy}, taking into
+ * account how the cluster has been configured to implement each strategy.
+ */
+public class FlowFilePartitionerFactory {
+    private static final Logger logger = LoggerFactory.getLogger(FlowFilePartitionerFactory.class);
+
+    public static final String ROUND_ROBIN_PARTITIONER = "round-robin";
+    public static final String LEAST_LOADED_PARTITIONER = "least-loaded";
+    public static final String MODULO_PARTITIONER = "modulo";
+    public static final String CONSISTENT_HASHING_PARTITIONER = "consistent-hashing";
+
+    private final boolean leastLoadedRoundRobin;
+    private final boolean consistentHashing;
+    private final Supplier<NodeIdentifier> localNodeIdentifier;
+
+    /**
+     * Creates a factory that uses the default partitioner for each strategy
+     */
+    public FlowFilePartitionerFactory() {
+        this.leastLoadedRoundRobin = false;
+        this.consistentHashing = false;
+        this.localNodeIdentifier = () -> null;
+    }
+
+    /**
+     * @param nifiProperties the properties that determine which partitioner to use for each strategy
+     * @param localNodeIdentifier supplies the identifier of the local node, or <code>null</code> if it is not yet known
+     */
+    public FlowFilePartitionerFactory(final NiFiProperties nifiProperties, final Supplier<NodeIdentifier> localNodeIdentifier) {
+        this.localNodeIdentifier = localNodeIdentifier;
+
+        final String roundRobinPartitioner = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_ROUND_ROBIN_PARTITIONER, NiFiProperties.DEFAULT_LOAD_BALANCE_ROUND_ROBIN_PARTITIONER).trim();
+        if (LEAST_LOADED_PARTITIONER.equalsIgnoreCase(roundRobinPartitioner)) {
+            leastLoadedRoundRobin = true;
+        } else {
+            if (!ROUND_ROBIN_PARTITIONER.equalsIgnoreCase(roundRobinPartitioner)) {
+                logger.warn("Invalid value of [{}] for property {}; must be either {} or {}. Will use {}", roundRobinPartitioner, NiFiProperties.LOAD_BALANCE_ROUND_ROBIN_PARTITIONER,
+                    ROUND_ROBIN_PARTITIONER, LEAST_LOADED_PARTITIONER, ROUND_ROBIN_PARTITIONER);
+            }
+
+            leastLoadedRoundRobin = false;
+        }
+
+        final String attributePartitioner = nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_ATTRIBUTE_PARTITIONER, NiFiProperties.DEFAULT_LOAD_BALANCE_ATTRIBUTE_PARTITIONER).trim();
+        if (CONSISTENT_HASHING_PARTITIONER.equalsIgnoreCase(attributePartitioner)) {
+            consistentHashing = true;
+        } else {
+            if (!MODULO_PARTITIONER.equalsIgnoreCase(attributePartitioner)) {
+                logger.warn("Invalid value of [{}] for property {}; must be either {} or {}. Will use {}", attributePartitioner, NiFiProperties.LOAD_BALANCE_ATTRIBUTE_PARTITIONER,
+                    MODULO_PARTITIONER, CONSISTENT_HASHING_PARTITIONER, MODULO_PARTITIONER);
+            }
+
+            consistentHashing = false;
+        }
+    }
+
+    /**
+     * Creates a partitioner for the given queue
+     *
+     * @param strategy the load balance strategy of the queue
+     * @param partitioningAttribute the name of the attribute to partition by, if the strategy is {@link LoadBalanceStrategy#PARTITION_BY_ATTRIBUTE}
+     * @param queue the queue whose FlowFiles are to be partitioned
+     * @return the partitioner to use
+     */
+    public FlowFilePartitioner createPartitioner(final LoadBalanceStrategy strategy, final String partitioningAttribute, final FlowFileQueue queue) {
+        switch (strategy) {
+            case DO_NOT_LOAD_BALANCE:
+                return new LocalPartitionPartitioner();
+            case PARTITION_BY_ATTRIBUTE:
+                return consistentHashing ? new ConsistentHashingPartitioner(partitioningAttribute, localNodeIdentifier) : new CorrelationAttributePartitioner(partitioningAttribute);
+            case ROUND_ROBIN:
+                return leastLoadedRoundRobin ? new LeastLoadedPartitioner(queue::getBackPressureObjectThreshold) : new RoundRobinPartitioner();
+            case SINGLE_NODE:
+                return new FirstNodePartitioner();
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A variant of round-robin partitioning that sends fewer FlowFiles to the partitions that are most backed up. The number of FlowFiles
+ * queued in the partition for a remote node grows when that node accepts data more slowly than the others, and the local partition grows
+ * when this node processes data more slowly, so each partition is weighted by how far its queue exceeds that of the least loaded partition.
+ * FlowFiles are then distributed using a smooth weighted round-robin, so that even a partition with little weight receives FlowFiles at regular
+ * intervals rather than in bursts. A partition whose queue has reached its share of the connection's back pressure threshold receives no
+ * FlowFiles until it drains, unless it is the least loaded partition.
+ */
+public class LeastLoadedPartitioner implements FlowFilePartitioner {
+    private static final Logger logger = LoggerFactory.getLogger(LeastLoadedPartitioner.class);
+
+    private static final long WEIGHT_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+    private static final int MAX_WEIGHT = 100;
+    // The number of FlowFiles by which a partition's queue must exceed that of the least loaded partition in order to halve its weight
+    private static final long HALF_WEIGHT_BACKLOG = 100L;
+
+    private final LongSupplier backPressureObjectThreshold;
+
+    private QueuePartition[] weightedPartitions;
+    private int[] weights;
+    private int[] currentWeights;
+    private int totalWeight;
+    private long lastRefreshNanos;
+
+    /**
+     * @param backPressureObjectThreshold supplies the back pressure object threshold of the connection whose FlowFiles are being partitioned
+     */
+    public LeastLoadedPartitioner(final LongSupplier backPressureObjectThreshold) {
+        this.backPressureObjectThreshold = backPressureObjectThreshold;
+    }
+
+    @Override
+    public synchronized QueuePartition getPartition(final FlowFileRecord flowFile, final QueuePartition[] partitions, final QueuePartition localPartition) {
+        final long now = System.nanoTime();
+        if (partitions != weightedPartitions || now - lastRefreshNanos > WEIGHT_REFRESH_NANOS) {
+            refreshWeights(partitions);
+            lastRefreshNanos = now;
+        }
+
+        // The least loaded partition always has a weight, so some partition is always selected
+        int selected = -1;
+        for (int i = 0; i < partitions.length; i++) {
+            if (weights[i] == 0) {
+                continue;
+            }
+
+            currentWeights[i] += weights[i];
+            if (selected < 0 || currentWeights[i] > currentWeights[selected]) {
+                selected = i;
+            }
+        }
+
+        currentWeights[selected] -= totalWeight;
+        return partitions[selected];
+    }
+
+    private void refreshWeights(final QueuePartition[] partitions) {
+        final long[] backlogs = new long[partitions.length];
+        long minBacklog = Long.MAX_VALUE;
+        for (int i = 0; i < partitions.length; i++) {
+            backlogs[i] = partitions[i].size().getObjectCount();
+            minBacklog = Math.min(minBacklog, backlogs[i]);
+        }
+
+        final long threshold = backPressureObjectThreshold.getAsLong();
+        final long partitionThreshold = threshold > 0 ? Math.max(1L, threshold / partitions.length) : Long.MAX_VALUE;
+
+        final int[] updatedWeights = new int[partitions.length];
+        int updatedTotal = 0;
+        for (int i = 0; i < partitions.length; i++) {
+            final long excessBacklog = backlogs[i] - minBacklog;
+            if (excessBacklog > 0 && backlogs[i] >= partitionThreshold) {
+                continue;
+            }
+
+            updatedWeights[i] = (int) Math.max(1L, MAX_WEIGHT * HALF_WEIGHT_BACKLOG / (HALF_WEIGHT_BACKLOG + excessBacklog));
+            updatedTotal += updatedWeights[i];
+        }
+
+        if (partitions != weightedPartitions) {
+            currentWeights = new int[partitions.length];
+            weightedPartitions = partitions;
+        }
+
+        // A partition that is excluded must not keep the credit that it accumulated, or it would be selected again as soon as it is no longer excluded
+        for (int i = 0; i < partitions.length; i++) {
+            if (updatedWeights[i] == 0) {
+                currentWeights[i] = 0;
+            }
+        }
+
+        weights = updatedWeights;
+        totalWeight = updatedTotal;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Partition backlogs are {} so weighted partitions as {}", Arrays.toString(backlogs), Arrays.toString(updatedWeights));
+        }
+    }
+
+    @Override
+    public boolean isRebalanceOnClusterResize() {
+        return false;
+    }
+
+    @Override
+    public boolean isRebalanceOnFailure() {
+        return true;
+    }
+}
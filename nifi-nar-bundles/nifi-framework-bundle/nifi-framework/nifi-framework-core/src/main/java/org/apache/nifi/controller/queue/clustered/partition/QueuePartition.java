@@ -28,6 +28,7 @@ import org.apache.nifi.flowfile.FlowFilePrioritizer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 /**
  * Represents a portion of a FlowFile Queue such that a FlowFile Queue can be broken into
@@ -36,9 +37,10 @@ import java.util.Optional;
 public interface QueuePartition {
     /**
      * Discovers any FlowFiles that have been swapped out, returning a summary of the swap files' contents
+     * @param executor the Executor to use for reading swap files
      * @return a summary of the swap files' contents
      */
-    SwapSummary recoverSwappedFlowFiles();
+    SwapSummary recoverSwappedFlowFiles(Executor executor);
 
     /**
      * @return the Node Identifier that this Queue Partition corresponds to, or and empty Optional if the Node Identifier is not yet known.
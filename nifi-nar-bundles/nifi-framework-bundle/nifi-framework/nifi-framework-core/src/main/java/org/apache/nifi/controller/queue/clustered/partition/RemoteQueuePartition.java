@@ -56,6 +56,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
@@ -135,8 +136,8 @@ public class RemoteQueuePartition implements QueuePartition {
     }
 
     @Override
-    public SwapSummary recoverSwappedFlowFiles() {
-        return priorityQueue.recoverSwappedFlowFiles();
+    public SwapSummary recoverSwappedFlowFiles(final Executor executor) {
+        return priorityQueue.recoverSwappedFlowFiles(executor);
     }
 
     @Override
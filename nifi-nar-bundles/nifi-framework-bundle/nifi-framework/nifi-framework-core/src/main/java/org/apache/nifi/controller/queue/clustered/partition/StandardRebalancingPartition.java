@@ -39,6 +39,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class StandardRebalancingPartition implements RebalancingPartition {
     private static final Logger logger = LoggerFactory.getLogger(StandardRebalancingPartition.class);
@@ -83,8 +84,8 @@ public class StandardRebalancingPartition implements RebalancingPartition {
     }
 
     @Override
-    public SwapSummary recoverSwappedFlowFiles() {
-        return this.queue.recoverSwappedFlowFiles();
+    public SwapSummary recoverSwappedFlowFiles(final Executor executor) {
+        return this.queue.recoverSwappedFlowFiles(executor);
     }
 
     @Override
@@ -39,6 +39,8 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,7 +55,12 @@ public class SwappablePriorityQueueLocalPartition implements LocalQueuePartition
 
     public SwappablePriorityQueueLocalPartition(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter,
             final FlowFileQueue flowFileQueue, final DropFlowFileAction dropAction) {
-        this.priorityQueue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, SWAP_PARTITION_NAME);
+        this(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, null);
+    }
+
+    public SwappablePriorityQueueLocalPartition(final FlowFileSwapManager swapManager, final int swapThreshold, final EventReporter eventReporter,
+            final FlowFileQueue flowFileQueue, final DropFlowFileAction dropAction, final ExecutorService swapPrefetchExecutor) {
+        this.priorityQueue = new SwappablePriorityQueue(swapManager, swapThreshold, eventReporter, flowFileQueue, dropAction, SWAP_PARTITION_NAME, swapPrefetchExecutor);
         this.flowFileQueue = flowFileQueue;
         this.description = "SwappablePriorityQueueLocalPartition[queueId=" + flowFileQueue.getIdentifier() + "]";
     }
@@ -158,8 +165,8 @@ public class SwappablePriorityQueueLocalPartition implements LocalQueuePartition
     }
 
     @Override
-    public SwapSummary recoverSwappedFlowFiles() {
-        return priorityQueue.recoverSwappedFlowFiles();
+    public SwapSummary recoverSwappedFlowFiles(final Executor executor) {
+        return priorityQueue.recoverSwappedFlowFiles(executor);
     }
 
     @Override
@@ -0,0 +1,458 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.FileSystemRepository.ArchiveInfo;
+import org.apache.nifi.stream.io.ByteCountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * A persistent index of the files in the archive directories of a File System Content Repository container, in the order in which
+ * they were archived. Archive cleanup takes the oldest files from the head of the index rather than walking every archive directory
+ * to find them, so the cost of cleanup is proportional to the number of files that are removed, and the number of archived files
+ * is known at startup without listing the directories.
+ * </p>
+ *
+ * <p>
+ * The index is an append-only log that is split into segment files in the root of the container. Each segment is named for the
+ * sequence number of its first record, and is deleted once all of its records have been consumed. A checkpoint file holds the
+ * sequence number of the head of the index. If NiFi stops before a checkpoint is written, the records since the last checkpoint
+ * are returned again; as the files they describe have already been removed, this is harmless.
+ * </p>
+ *
+ * <p>
+ * An index that was newly created, or that had to be cleared because it could not be read, is incomplete: it does not know about
+ * the files that were already in the archive. Such an index is rebuilt from a scan of the archive directories. While the scan is
+ * running, appended files are held back so that they can be merged with the scanned files in order of last modified time.
+ * </p>
+ */
+class ArchiveIndex implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveIndex.class);
+
+    static final String SEGMENT_PREFIX = "archive-index-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String CHECKPOINT_FILENAME = "archive-index.checkpoint";
+    static final int DEFAULT_RECORDS_PER_SEGMENT = 100_000;
+
+    private static final int ENCODING_VERSION = 1;
+
+    private final Path containerPath;
+    private final int recordsPerSegment;
+    private final boolean existing;
+    private final NavigableMap<Long, Path> segments = new TreeMap<>();
+
+    private long headSequence;
+    private long nextSequence;
+
+    private DataOutputStream out;
+    private long writeSegmentStart;
+
+    private DataInputStream in;
+    private long readSegmentStart;
+    private long readSequence;
+    private ArchiveInfo peeked;
+
+    private boolean complete;
+    private List<ArchiveInfo> appendedDuringRebuild;
+
+    private ArchiveIndex(final Path containerPath, final int recordsPerSegment, final boolean existing) {
+        this.containerPath = containerPath;
+        this.recordsPerSegment = recordsPerSegment;
+        this.existing = existing;
+        this.complete = existing;
+    }
+
+    static ArchiveIndex open(final Path containerPath) throws IOException {
+        return open(containerPath, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * Opens the index of the given container, recovering its state from the segment and checkpoint files that are there
+     *
+     * @param containerPath the root directory of the container
+     * @param recordsPerSegment the number of records to write to a segment before starting the next
+     * @return the index
+     * @throws IOException if unable to read the index
+     */
+    static ArchiveIndex open(final Path containerPath, final int recordsPerSegment) throws IOException {
+        final Path checkpointPath = containerPath.resolve(CHECKPOINT_FILENAME);
+        final boolean existing = Files.exists(checkpointPath);
+        final ArchiveIndex index = new ArchiveIndex(containerPath, recordsPerSegment, existing);
+
+        if (existing) {
+            try (final DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointPath)))) {
+                final int version = dis.readInt();
+                if (version != ENCODING_VERSION) {
+                    throw new IOException("Cannot read Archive Index checkpoint " + checkpointPath + " because it has an unsupported encoding version of " + version);
+                }
+                index.headSequence = dis.readLong();
+            }
+        }
+
+        final File[] segmentFiles = containerPath.toFile().listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (segmentFiles != null) {
+            for (final File segmentFile : segmentFiles) {
+                final String name = segmentFile.getName();
+                try {
+                    final long segmentStart = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    index.segments.put(segmentStart, segmentFile.toPath());
+                } catch (final NumberFormatException nfe) {
+                    logger.warn("Ignoring unexpected file {} in Archive Index of {}", segmentFile, containerPath);
+                }
+            }
+        }
+
+        index.nextSequence = index.headSequence;
+        if (!index.segments.isEmpty()) {
+            final Map.Entry<Long, Path> lastSegment = index.segments.lastEntry();
+            index.nextSequence = Math.max(index.headSequence, lastSegment.getKey() + recoverRecordCount(lastSegment.getValue()));
+        }
+
+        index.deleteConsumedSegments();
+        return index;
+    }
+
+    /**
+     * Counts the complete records in the given segment, truncating any record that was only partially written when NiFi stopped
+     */
+    private static long recoverRecordCount(final Path segmentPath) throws IOException {
+        long recordCount = 0L;
+        long validLength = 0L;
+        try (final InputStream fis = Files.newInputStream(segmentPath);
+             final CountingDataInputStream dis = new CountingDataInputStream(new BufferedInputStream(fis))) {
+            while (true) {
+                try {
+                    readRecord(dis, null);
+                } catch (final EOFException eof) {
+                    break;
+                }
+
+                recordCount++;
+                validLength = dis.getBytesRead();
+            }
+        }
+
+        if (Files.size(segmentPath) > validLength) {
+            logger.warn("Archive Index segment {} ends with an incomplete record; truncating it to {} bytes", segmentPath, validLength);
+            try (final FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+
+        return recordCount;
+    }
+
+    /**
+     * @return <code>true</code> if the index was recovered from an earlier run, <code>false</code> if it was newly created, in which
+     * case it does not yet know about any files that are already in the archive
+     */
+    boolean isExisting() {
+        return existing;
+    }
+
+    /**
+     * @return <code>true</code> if the index holds every file in the archive, <code>false</code> if it must first be rebuilt
+     * from a scan of the archive directories
+     */
+    synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Indicates that the archive directories are about to be scanned in order to rebuild the index. Until
+     * {@link #completeRebuild(Collection)} is called, appended files are held in memory rather than written to the index.
+     */
+    synchronized void startRebuild() {
+        appendedDuringRebuild = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the contents of the index with the given files, which were found by scanning the archive directories, and any
+     * files that were appended since {@link #startRebuild()} was called. The files are added in order of last modified time.
+     *
+     * @param archivedFiles the files that were found in the archive directories
+     * @throws IOException if unable to write to the index
+     */
+    synchronized void completeRebuild(final Collection<ArchiveInfo> archivedFiles) throws IOException {
+        final List<ArchiveInfo> appended = appendedDuringRebuild == null ? new ArrayList<>() : appendedDuringRebuild;
+        appendedDuringRebuild = null;
+
+        // A file that was archived while the directories were being scanned may also have been found by the scan
+        final Set<Path> appendedPaths = new HashSet<>();
+        for (final ArchiveInfo archiveInfo : appended) {
+            appendedPaths.add(archiveInfo.toPath());
+        }
+
+        final List<ArchiveInfo> merged = new ArrayList<>(appended);
+        for (final ArchiveInfo archiveInfo : archivedFiles) {
+            if (!appendedPaths.contains(archiveInfo.toPath())) {
+                merged.add(archiveInfo);
+            }
+        }
+        merged.sort(Comparator.comparing(ArchiveInfo::getLastModTime));
+
+        clear();
+        for (final ArchiveInfo archiveInfo : merged) {
+            append(archiveInfo);
+        }
+
+        checkpoint();
+        complete = true;
+    }
+
+    /**
+     * @return the number of records that remain in the index
+     */
+    synchronized long size() {
+        return nextSequence - headSequence;
+    }
+
+    /**
+     * Adds the given archived file to the tail of the index. The record is not guaranteed to be written to the file system until
+     * {@link #flush()} is called.
+     *
+     * @param archiveInfo the archived file
+     * @throws IOException if unable to write to the index
+     */
+    synchronized void append(final ArchiveInfo archiveInfo) throws IOException {
+        if (appendedDuringRebuild != null) {
+            appendedDuringRebuild.add(archiveInfo);
+            return;
+        }
+
+        if (out == null || nextSequence - writeSegmentStart >= recordsPerSegment) {
+            rollSegment();
+        }
+
+        out.writeLong(archiveInfo.getLastModTime());
+        out.writeLong(archiveInfo.getSize());
+        out.writeUTF(containerPath.relativize(archiveInfo.toPath()).toString());
+        nextSequence++;
+    }
+
+    private void rollSegment() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+
+        writeSegmentStart = nextSequence;
+        final Path segmentPath = containerPath.resolve(SEGMENT_PREFIX + writeSegmentStart + SEGMENT_SUFFIX);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segmentPath.toFile(), true)));
+        segments.put(writeSegmentStart, segmentPath);
+    }
+
+    synchronized void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * @return the oldest file in the index, without removing it, or <code>null</code> if the index is empty
+     * @throws IOException if unable to read from the index
+     */
+    synchronized ArchiveInfo peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        if (headSequence >= nextSequence) {
+            return null;
+        }
+
+        // Make sure that all records that have been appended can be read
+        flush();
+
+        final Map.Entry<Long, Path> segment = segments.floorEntry(headSequence);
+        if (segment == null) {
+            throw new IOException("Archive Index for " + containerPath + " has no segment containing record " + headSequence);
+        }
+
+        if (in == null || readSegmentStart != segment.getKey() || readSequence != headSequence) {
+            openReader(segment.getKey(), segment.getValue());
+
+            // Any segment before the one that is now being read has been fully consumed
+            deleteConsumedSegments();
+        }
+
+        try {
+            peeked = readRecord(in, containerPath);
+            readSequence++;
+        } catch (final EOFException eof) {
+            throw new IOException("Archive Index segment " + segment.getValue() + " ended before record " + headSequence, eof);
+        }
+
+        return peeked;
+    }
+
+    private void openReader(final long segmentStart, final Path segmentPath) throws IOException {
+        if (in != null) {
+            in.close();
+        }
+
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(segmentPath.toFile())));
+        readSegmentStart = segmentStart;
+        readSequence = segmentStart;
+
+        while (readSequence < headSequence) {
+            readRecord(in, null);
+            readSequence++;
+        }
+    }
+
+    /**
+     * Removes the oldest file from the index
+     *
+     * @return the file that was removed, or <code>null</code> if the index is empty
+     * @throws IOException if unable to read from the index
+     */
+    synchronized ArchiveInfo poll() throws IOException {
+        final ArchiveInfo head = peek();
+        if (head == null) {
+            return null;
+        }
+
+        peeked = null;
+        headSequence++;
+        return head;
+    }
+
+    /**
+     * Records the current head of the index so that files that have already been removed are not returned again after a restart
+     *
+     * @throws IOException if unable to write the checkpoint
+     */
+    synchronized void checkpoint() throws IOException {
+        // An index that has never had a file added to it knows nothing about the archive, so there is nothing worth recording.
+        // Leaving the checkpoint absent means that the archive directories are scanned on the next startup instead.
+        if (nextSequence == 0L) {
+            return;
+        }
+
+        flush();
+
+        final Path checkpointPath = containerPath.resolve(CHECKPOINT_FILENAME);
+        final Path partialPath = containerPath.resolve(CHECKPOINT_FILENAME + ".partial");
+        try (final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partialPath)))) {
+            dos.writeInt(ENCODING_VERSION);
+            dos.writeLong(headSequence);
+        }
+
+        Files.move(partialPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Removes all records from the index and deletes its files. The index is then incomplete until it is rebuilt.
+     *
+     * @throws IOException if unable to delete the files
+     */
+    synchronized void clear() throws IOException {
+        closeStreams();
+
+        for (final Path segmentPath : segments.values()) {
+            Files.deleteIfExists(segmentPath);
+        }
+        segments.clear();
+        Files.deleteIfExists(containerPath.resolve(CHECKPOINT_FILENAME));
+
+        headSequence = 0L;
+        nextSequence = 0L;
+        peeked = null;
+        complete = false;
+    }
+
+    private void deleteConsumedSegments() throws IOException {
+        while (segments.size() > 1) {
+            final Map.Entry<Long, Path> oldest = segments.firstEntry();
+            final Long nextSegmentStart = segments.higherKey(oldest.getKey());
+            if (headSequence < nextSegmentStart) {
+                return;
+            }
+
+            Files.deleteIfExists(oldest.getValue());
+            segments.remove(oldest.getKey());
+        }
+    }
+
+    private void closeStreams() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+            }
+        } finally {
+            out = null;
+            if (in != null) {
+                in.close();
+            }
+            in = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            checkpoint();
+        } finally {
+            closeStreams();
+        }
+    }
+
+    private static ArchiveInfo readRecord(final DataInputStream dis, final Path containerPath) throws IOException {
+        final long lastModTime = dis.readLong();
+        final long size = dis.readLong();
+        final String relativePath = dis.readUTF();
+        return containerPath == null ? null : new ArchiveInfo(containerPath, containerPath.resolve(relativePath), size, lastModTime);
+    }
+
+    private static class CountingDataInputStream extends DataInputStream {
+        CountingDataInputStream(final InputStream in) {
+            super(new ByteCountingInputStream(in));
+        }
+
+        long getBytesRead() {
+            return ((ByteCountingInputStream) in).getBytesRead();
+        }
+    }
+}
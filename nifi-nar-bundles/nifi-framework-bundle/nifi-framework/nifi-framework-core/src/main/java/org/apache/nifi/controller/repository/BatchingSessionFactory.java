@@ -38,6 +38,7 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -236,6 +237,11 @@ public class BatchingSessionFactory implements ProcessSessionFactory {
             return session.read(flowFile);
         }
 
+        @Override
+        public Optional<byte[]> getContentDigest(FlowFile flowFile, String algorithm) {
+            return session.getContentDigest(flowFile, algorithm);
+        }
+
         @Override
         public FlowFile merge(Collection<FlowFile> sources, FlowFile destination) {
             return session.merge(sources, destination);
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.stream.io.ByteCountingOutputStream;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A {@link FileSystemRepository} that stores identical content only once. Content that is written to the start of a new Resource
+ * Claim is hashed with SHA-256 as it is written. When the stream is closed and the Resource Claim holds nothing but that content,
+ * the digest is looked up in an index of the content in the same container. If identical content is already stored, the file of
+ * the new Resource Claim is replaced with a hard link to the existing file, so that the bytes are stored on disk only once.
+ * </p>
+ *
+ * <p>
+ * Every Resource Claim keeps its own file name, so FlowFiles continue to reference their content correctly after a restart, and
+ * each Resource Claim is archived and removed independently of the others. The file system keeps the shared bytes until the last
+ * file that links to them is removed. Small content that is packed into the same Resource Claim as other content, which is the case
+ * for content smaller than <code>nifi.content.claim.max.appendable.size</code>, is not deduplicated.
+ * </p>
+ *
+ * <p>
+ * The index holds the most recently stored content of each container, up to a configurable number of entries. It is written to the
+ * root of each container on shutdown and read back on startup. Entries whose file has since been archived or removed are replaced
+ * when they are next looked up.
+ * </p>
+ */
+public class DeduplicatingFileSystemRepository extends FileSystemRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(DeduplicatingFileSystemRepository.class);
+
+    static final String INDEX_FILENAME = "content-digest.index";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String LINK_FILE_SUFFIX = ".link";
+    private static final int ENCODING_VERSION = 1;
+
+    private final int maxIndexEntries;
+    private final Map<String, Path> containerPaths = new HashMap<>();
+    private final Map<String, DigestIndex> digestIndexes = new HashMap<>();
+
+    private volatile boolean linkSupported = true;
+
+    public DeduplicatingFileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
+        super(nifiProperties);
+
+        final String maxIndexEntriesValue = nifiProperties.getProperty(NiFiProperties.CONTENT_DEDUPLICATION_MAX_INDEX_ENTRIES,
+            NiFiProperties.DEFAULT_CONTENT_DEDUPLICATION_MAX_INDEX_ENTRIES);
+        try {
+            this.maxIndexEntries = Integer.parseInt(maxIndexEntriesValue.trim());
+        } catch (final NumberFormatException nfe) {
+            throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.CONTENT_DEDUPLICATION_MAX_INDEX_ENTRIES + ": '" + maxIndexEntriesValue + "'");
+        }
+        if (maxIndexEntries < 1) {
+            throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.CONTENT_DEDUPLICATION_MAX_INDEX_ENTRIES + ": '" + maxIndexEntriesValue + "'");
+        }
+
+        // Ensure that the algorithm is available before any content is written
+        createMessageDigest();
+
+        for (final Map.Entry<String, Path> entry : nifiProperties.getContentRepositoryPaths().entrySet()) {
+            final String containerName = entry.getKey();
+            final Path containerPath = entry.getValue().toRealPath();
+            containerPaths.put(containerName, containerPath);
+
+            final DigestIndex digestIndex = new DigestIndex(maxIndexEntries);
+            digestIndexes.put(containerName, digestIndex);
+            try {
+                digestIndex.load(containerPath);
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to read content digest index for Container {}; content written before this restart will not be deduplicated", containerName, ioe);
+                digestIndex.clear();
+            }
+        }
+
+        LOG.info("Content will be deduplicated using an index of up to {} entries per container", maxIndexEntries);
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+
+        for (final Map.Entry<String, DigestIndex> entry : digestIndexes.entrySet()) {
+            try {
+                entry.getValue().save(containerPaths.get(entry.getKey()));
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to write content digest index for Container {}", entry.getKey(), ioe);
+            }
+        }
+    }
+
+    @Override
+    public void purge() {
+        for (final DigestIndex digestIndex : digestIndexes.values()) {
+            digestIndex.clear();
+        }
+
+        super.purge();
+    }
+
+    @Override
+    protected ContentRepositoryOutputStream createOutputStream(final StandardContentClaim scc, final ByteCountingOutputStream bcos, final int initialLength) {
+        // Only content that starts a new Resource Claim can end up being the whole of its file
+        if (!linkSupported || scc.getOffset() != 0 || initialLength != 0) {
+            return super.createOutputStream(scc, bcos, initialLength);
+        }
+
+        return new DeduplicatingOutputStream(scc, bcos);
+    }
+
+    /**
+     * Replaces the file of the given Resource Claim with a hard link to a file that holds the same content, if there is one
+     *
+     * @param resourceClaim the Resource Claim whose file holds nothing but the given content
+     * @param length the length of the content
+     * @param digest the digest of the content
+     * @return <code>true</code> if the file was replaced, <code>false</code> if it was added to the index instead
+     * @throws IOException if unable to replace the file
+     */
+    boolean deduplicate(final ResourceClaim resourceClaim, final long length, final byte[] digest) throws IOException {
+        final DigestIndex digestIndex = digestIndexes.get(resourceClaim.getContainer());
+        final Path path = getPath(resourceClaim);
+        if (digestIndex == null || path == null || Files.size(path) != length) {
+            return false;
+        }
+
+        final ByteBuffer key = ByteBuffer.wrap(digest);
+        final Path existingPath = digestIndex.get(key);
+        if (existingPath == null || !isSameContent(existingPath, path, length)) {
+            digestIndex.put(key, path);
+            return false;
+        }
+
+        // Create the link under a temporary name and then move it over the file that was written, so that there is never a
+        // moment at which the Resource Claim has no file.
+        final Path linkPath = path.resolveSibling(path.getFileName().toString() + LINK_FILE_SUFFIX);
+        try {
+            Files.createLink(linkPath, existingPath);
+            Files.move(linkPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final UnsupportedOperationException uoe) {
+            LOG.warn("Content will not be deduplicated because the file system does not support hard links");
+            linkSupported = false;
+            return false;
+        } catch (final FileSystemException fse) {
+            // The existing file may have been removed since it was looked up, or may have reached the file system's limit on links
+            Files.deleteIfExists(linkPath);
+            LOG.debug("Unable to link {} to {} due to {}; keeping the content that was written", path, existingPath, fse.toString());
+            digestIndex.put(key, path);
+            return false;
+        }
+
+        LOG.debug("Content of {} is identical to {}; stored {} bytes once", resourceClaim, existingPath, length);
+        return true;
+    }
+
+    private static boolean isSameContent(final Path existingPath, final Path path, final long length) throws IOException {
+        if (!Files.exists(existingPath) || Files.size(existingPath) != length) {
+            return false;
+        }
+
+        return !Files.isSameFile(existingPath, path);
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported", e);
+        }
+    }
+
+    private class DeduplicatingOutputStream extends ContentRepositoryOutputStream {
+        private MessageDigest digest = createMessageDigest();
+
+        DeduplicatingOutputStream(final StandardContentClaim scc, final ByteCountingOutputStream bcos) {
+            super(scc, bcos, 0);
+        }
+
+        @Override
+        public synchronized void write(final int b) throws IOException {
+            super.write(b);
+            if (digest != null) {
+                digest.update((byte) b);
+            }
+        }
+
+        @Override
+        public synchronized void write(final byte[] b) throws IOException {
+            super.write(b);
+            if (digest != null) {
+                digest.update(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+            super.write(b, off, len);
+            if (digest != null) {
+                digest.update(b, off, len);
+            }
+        }
+
+        @Override
+        protected synchronized long transferFrom(final ContentClaim source, final long offset, final long length) throws IOException {
+            // Content that is transferred between files is never seen by this stream, so it cannot be hashed
+            digest = null;
+            return super.transferFrom(source, offset, length);
+        }
+
+        @Override
+        public synchronized ContentClaim newContentClaim() throws IOException {
+            // The next Content Claim does not start the Resource Claim, so it cannot be deduplicated
+            digest = null;
+            return super.newContentClaim();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            super.close();
+
+            // If the Resource Claim can still be appended to, it may yet hold other content, so its file cannot be shared
+            final ResourceClaim resourceClaim = scc.getResourceClaim();
+            if (digest == null || resourceClaim.isWritable() || scc.getLength() == 0) {
+                return;
+            }
+
+            try {
+                deduplicate(resourceClaim, scc.getLength(), digest.digest());
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to deduplicate content of {}; keeping the content that was written", resourceClaim, ioe);
+            } finally {
+                digest = null;
+            }
+        }
+    }
+
+    /**
+     * The most recently stored content of a container, keyed by digest
+     */
+    private static class DigestIndex {
+        private final Map<ByteBuffer, Path> entries;
+
+        DigestIndex(final int maxEntries) {
+            this.entries = new LinkedHashMap<ByteBuffer, Path>(16, 0.75F, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, Path> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized Path get(final ByteBuffer digest) {
+            return entries.get(digest);
+        }
+
+        synchronized void put(final ByteBuffer digest, final Path path) {
+            entries.put(digest, path);
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+
+        synchronized void load(final Path containerPath) throws IOException {
+            final Path indexPath = containerPath.resolve(INDEX_FILENAME);
+            if (!Files.exists(indexPath)) {
+                return;
+            }
+
+            try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+                final int version = in.readInt();
+                if (version != ENCODING_VERSION) {
+                    throw new IOException("Cannot read content digest index " + indexPath + " because it has an unsupported encoding version of " + version);
+                }
+
+                final int entryCount = in.readInt();
+                for (int i = 0; i < entryCount; i++) {
+                    final byte[] digest = new byte[in.readUnsignedShort()];
+                    in.readFully(digest);
+                    final String relativePath = in.readUTF();
+                    entries.put(ByteBuffer.wrap(digest), containerPath.resolve(relativePath));
+                }
+            }
+        }
+
+        synchronized void save(final Path containerPath) throws IOException {
+            final Path indexPath = containerPath.resolve(INDEX_FILENAME);
+            final Path partialPath = containerPath.resolve(INDEX_FILENAME + ".partial");
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partialPath)))) {
+                out.writeInt(ENCODING_VERSION);
+                out.writeInt(entries.size());
+
+                // Entries are written from least to most recently used so that they are read back in the same order
+                for (final Map.Entry<ByteBuffer, Path> entry : entries.entrySet()) {
+                    final ByteBuffer digest = entry.getKey().duplicate();
+                    out.writeShort(digest.remaining());
+                    while (digest.hasRemaining()) {
+                        out.write(digest.get());
+                    }
+                    out.writeUTF(containerPath.relativize(entry.getValue()).toString());
+                }
+            }
+
+            Files.move(partialPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+}
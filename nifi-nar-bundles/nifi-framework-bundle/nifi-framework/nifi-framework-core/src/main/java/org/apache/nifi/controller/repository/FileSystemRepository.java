@@ -47,6 +47,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -128,8 +130,8 @@ public class FileSystemRepository implements ContentRepository {
     private ResourceClaimManager resourceClaimManager; // effectively final
     private EventReporter eventReporter;
 
-    // Map of container to archived files that should be deleted next.
-    private final Map<String, BlockingQueue<ArchiveInfo>> archivedFiles = new HashMap<>();
+    // Map of container to the index of its archived files, in the order that they should be deleted.
+    private final Map<String, ArchiveIndex> archiveIndexes = new HashMap<>();
 
 
     private final NiFiProperties nifiProperties;
@@ -162,7 +164,6 @@ public class FileSystemRepository implements ContentRepository {
 
         for (final String containerName : containerNames) {
             reclaimable.put(containerName, new LinkedBlockingQueue<>(10000));
-            archivedFiles.put(containerName, new LinkedBlockingQueue<>(100000));
         }
 
         final String enableArchiving = nifiProperties.getProperty(NiFiProperties.CONTENT_ARCHIVE_ENABLED);
@@ -277,6 +278,14 @@ public class FileSystemRepository implements ContentRepository {
             } catch (final IOException ignored) {
             }
         }
+
+        for (final Map.Entry<String, ArchiveIndex> entry : archiveIndexes.entrySet()) {
+            try {
+                entry.getValue().close();
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to close Archive Index for Container {}", entry.getKey(), ioe);
+            }
+        }
     }
 
     private static double getRatio(final String value) {
@@ -312,7 +321,19 @@ public class FileSystemRepository implements ContentRepository {
 
             realPathMap.put(containerName, realPath);
 
-            // If the path didn't exist to begin with, there's no archive directory, so don't bother scanning.
+            // If the Archive Index was recovered from a previous run, it already knows how many files are archived.
+            // Otherwise, the archive directories must be scanned. If the path didn't exist to begin with, there's no
+            // archive directory, so don't bother scanning.
+            if (archiveData) {
+                final ArchiveIndex archiveIndex = ArchiveIndex.open(realPath);
+                archiveIndexes.put(containerName, archiveIndex);
+
+                if (archiveIndex.isExisting()) {
+                    containerState.incrementArchiveCount(archiveIndex.size());
+                    continue;
+                }
+            }
+
             if (pathExists) {
                 futures.add(executor.submit(() -> scanArchiveDirectories(realPath.toFile(), containerState)));
             }
@@ -425,6 +446,8 @@ public class FileSystemRepository implements ContentRepository {
                     removeIncompleteContent(containerName, containerPath, sectionFile.toPath());
                 }
             }
+
+            flushArchiveIndex(containerName);
         }
     }
 
@@ -477,6 +500,8 @@ public class FileSystemRepository implements ContentRepository {
                 final boolean archived = archive(fileToRemove);
 
                 if (archived) {
+                    addToArchiveIndex(containerName, getArchivePath(fileToRemove));
+
                     final ContainerState containerState = containerStateMap.get(containerName);
                     if (containerState == null) {
                         LOG.warn("Failed to increment container's archive count for {} because container {} could not be found", fileToRemove.toFile(), containerName);
@@ -566,7 +591,7 @@ public class FileSystemRepository implements ContentRepository {
         return getPath(resourceClaim);
     }
 
-    private Path getPath(final ResourceClaim resourceClaim) {
+    protected Path getPath(final ResourceClaim resourceClaim) {
         final Path containerPath = containers.get(resourceClaim.getContainer());
         if (containerPath == null) {
             return null;
@@ -839,11 +864,10 @@ public class FileSystemRepository implements ContentRepository {
             return 0L;
         }
 
-        try (final InputStream in = read(claim);
-             final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
-            final long copied = StreamUtils.copy(in, fos);
+        try (final FileChannel out = openDestinationChannel(destination, append)) {
+            final long copied = exportTo(claim, out, 0L, size(claim));
             if (alwaysSync) {
-                fos.getFD().sync();
+                out.force(true);
             }
             return copied;
         }
@@ -868,25 +892,36 @@ public class FileSystemRepository implements ContentRepository {
 
         }
 
-        try (final InputStream in = read(claim);
-             final FileOutputStream fos = new FileOutputStream(destination.toFile(), append)) {
-            if (offset > 0) {
-                StreamUtils.skip(in, offset);
+        try (final FileChannel out = openDestinationChannel(destination, append)) {
+            final long copied = exportTo(claim, out, offset, length);
+            if (copied < length) {
+                throw new EOFException("Expected to export " + length + " bytes of " + claim + " starting at offset " + offset + " but only " + copied + " bytes were available");
             }
-            StreamUtils.copy(in, fos, length);
             if (alwaysSync) {
-                fos.getFD().sync();
+                out.force(true);
             }
             return length;
         }
     }
 
+    private FileChannel openDestinationChannel(final Path destination, final boolean append) throws IOException {
+        if (append) {
+            return FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        return FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
     @Override
     public long exportTo(final ContentClaim claim, final OutputStream destination) throws IOException {
         if (claim == null) {
             return 0L;
         }
 
+        if (isTransferSupported(destination)) {
+            return ((ContentRepositoryOutputStream) destination).transferFrom(claim, 0L, size(claim));
+        }
+
         try (final InputStream in = read(claim)) {
             return StreamUtils.copy(in, destination);
         }
@@ -904,6 +939,9 @@ public class FileSystemRepository implements ContentRepository {
         if (offset == 0 && length == claimSize) {
             return exportTo(claim, destination);
         }
+        if (isTransferSupported(destination)) {
+            return ((ContentRepositoryOutputStream) destination).transferFrom(claim, offset, length);
+        }
         try (final InputStream in = read(claim)) {
             StreamUtils.skip(in, offset);
             final byte[] buffer = new byte[8192];
@@ -917,6 +955,68 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    @Override
+    public long exportTo(final ContentClaim claim, final WritableByteChannel destination, final long offset, final long length) throws IOException {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset cannot be negative");
+        }
+        if (claim == null) {
+            if (offset > 0) {
+                throw new IllegalArgumentException("Cannot specify an offset of " + offset + " for a null claim");
+            }
+            return 0L;
+        }
+
+        final long claimSize = size(claim);
+        if (offset > claimSize) {
+            throw new IllegalArgumentException("offset of " + offset + " exceeds claim size of " + claimSize);
+        }
+
+        // Transfer directly from the file to the destination, which allows the operating system to copy the bytes without
+        // them ever being copied into the heap, for instance by using sendfile() when the destination is a socket.
+        final long bytesToTransfer = Math.min(length, claimSize - offset);
+        try (final FileChannel source = openChannel(claim)) {
+            final long startPosition = claim.getOffset() + offset;
+            long transferred = 0L;
+            while (transferred < bytesToTransfer) {
+                final long count = source.transferTo(startPosition + transferred, bytesToTransfer - transferred, destination);
+                if (count < 1) {
+                    // File is shorter than the claim indicates
+                    break;
+                }
+                transferred += count;
+            }
+
+            return transferred;
+        }
+    }
+
+    private static boolean isTransferSupported(final OutputStream destination) {
+        return destination instanceof ContentRepositoryOutputStream && ((ContentRepositoryOutputStream) destination).isTransferSupported();
+    }
+
+    private FileChannel openChannel(final ContentClaim claim) throws IOException {
+        final ResourceClaim resourceClaim = claim.getResourceClaim();
+        final Path containerPath = containers.get(resourceClaim.getContainer());
+        if (containerPath == null) {
+            throw new ContentNotFoundException(claim);
+        }
+
+        final Path resolvedPath = containerPath.resolve(resourceClaim.getSection()).resolve(resourceClaim.getId());
+        try {
+            return FileChannel.open(resolvedPath, StandardOpenOption.READ);
+        } catch (final NoSuchFileException nsfe) {
+            // If this occurs, we will also check the archive directory.
+        }
+
+        final Path archivePath = getArchivePath(resourceClaim);
+        try {
+            return FileChannel.open(archivePath, StandardOpenOption.READ);
+        } catch (final IOException ioe) {
+            throw new ContentNotFoundException(claim, ioe);
+        }
+    }
+
     @Override
     public long size(final ContentClaim claim) throws IOException {
         if (claim == null) {
@@ -1019,7 +1119,7 @@ public class FileSystemRepository implements ContentRepository {
 
         final ByteCountingOutputStream bcos = claimStream;
 
-        final OutputStream out = new ContentRepositoryOutputStream(scc, bcos, initialLength);
+        final OutputStream out = createOutputStream(scc, bcos, initialLength);
 
         LOG.debug("Writing to {}", out);
         if (LOG.isTraceEnabled()) {
@@ -1029,6 +1129,11 @@ public class FileSystemRepository implements ContentRepository {
         return out;
     }
 
+    // marked protected so that subclasses can observe the content that is written
+    protected ContentRepositoryOutputStream createOutputStream(final StandardContentClaim scc, final ByteCountingOutputStream bcos, final int initialLength) {
+        return new ContentRepositoryOutputStream(scc, bcos, initialLength);
+    }
+
     public static StandardContentClaim validateContentClaimForWriting(ContentClaim claim) {
         if (claim == null) {
             throw new NullPointerException("ContentClaim cannot be null");
@@ -1049,6 +1154,14 @@ public class FileSystemRepository implements ContentRepository {
 
     @Override
     public void purge() {
+        for (final Map.Entry<String, ArchiveIndex> entry : archiveIndexes.entrySet()) {
+            try {
+                entry.getValue().clear();
+            } catch (final IOException ioe) {
+                throw new RepositoryPurgeException("Failed to clear Archive Index for Container " + entry.getKey(), ioe);
+            }
+        }
+
         // delete all content from repositories
         for (final Path path : containers.values()) {
             FileUtils.deleteFilesInDir(path.toFile(), null, LOG, true);
@@ -1186,10 +1299,44 @@ public class FileSystemRepository implements ContentRepository {
         }
 
         final boolean archived = archive(curPath);
+        if (archived) {
+            addToArchiveIndex(claim.getContainer(), getArchivePath(curPath));
+        }
+
         LOG.debug("Successfully moved {} to archive", claim);
         return archived;
     }
 
+    private void addToArchiveIndex(final String containerName, final Path archivePath) {
+        final ArchiveIndex archiveIndex = archiveIndexes.get(containerName);
+        if (archiveIndex == null) {
+            return;
+        }
+
+        try {
+            final long size = Files.size(archivePath);
+            archiveIndex.append(new ArchiveInfo(containers.get(containerName), archivePath, size, getLastModTime(archivePath)));
+        } catch (final NoSuchFileException nsfe) {
+            // The file was already removed from the archive, so there is nothing to index
+        } catch (final IOException ioe) {
+            // The file will be picked up the next time that the archive directories are scanned
+            LOG.warn("Failed to add {} to Archive Index for Container {} due to {}", archivePath, containerName, ioe.toString());
+        }
+    }
+
+    private void flushArchiveIndex(final String containerName) {
+        final ArchiveIndex archiveIndex = archiveIndexes.get(containerName);
+        if (archiveIndex == null) {
+            return;
+        }
+
+        try {
+            archiveIndex.flush();
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to flush Archive Index for Container {} due to {}", containerName, ioe.toString());
+        }
+    }
+
     protected int getOpenStreamCount() {
         return writableClaimStreams.size();
     }
@@ -1256,23 +1403,8 @@ public class FileSystemRepository implements ContentRepository {
         return getLastModTime(file.toFile());
     }
 
-    private boolean deleteBasedOnTimestamp(final BlockingQueue<ArchiveInfo> fileQueue, final long removalTimeThreshold) throws IOException {
-        // check next file's last mod time.
-        final ArchiveInfo nextFile = fileQueue.peek();
-        if (nextFile == null) {
-            // Continue on to queue up the files, in case the next file must be destroyed based on time.
-            return false;
-        }
-
-        // If the last mod time indicates that it should be removed, just continue loop.
-        final long oldestArchiveDate = getLastModTime(nextFile.toPath());
-        return (oldestArchiveDate <= removalTimeThreshold);
-    }
-
     private void destroyExpiredArchives(final String containerName, final Path container) throws IOException {
         archiveExpirationLog.debug("Destroying Expired Archives for Container {}", containerName);
-        final List<ArchiveInfo> notYetExceedingThreshold = new ArrayList<>();
-        long removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
 
         // determine how much space we must have in order to stop deleting old data
         final Long minRequiredSpace = minUsableContainerBytesForArchive.get(containerName);
@@ -1282,12 +1414,10 @@ public class FileSystemRepository implements ContentRepository {
         }
 
         final long usableSpace = getContainerUsableSpace(containerName);
-        final ContainerState containerState = containerStateMap.get(containerName);
 
-        // First, delete files from our queue
+        // Determine how much space must be freed
         final long startNanos = System.nanoTime();
         final long toFree = minRequiredSpace - usableSpace;
-        final BlockingQueue<ArchiveInfo> fileQueue = archivedFiles.get(containerName);
         if (archiveExpirationLog.isDebugEnabled()) {
             if (toFree < 0) {
                 archiveExpirationLog.debug("Currently {} bytes free for Container {}; requirement is {} byte free, so no need to free space until an additional {} bytes are used",
@@ -1298,64 +1428,87 @@ public class FileSystemRepository implements ContentRepository {
             }
         }
 
-        ArchiveInfo toDelete;
-        int deleteCount = 0;
-        long freed = 0L;
-        while ((toDelete = fileQueue.peek()) != null) {
-            try {
-                final long fileSize = toDelete.getSize();
-
-                removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
-
-                // we use fileQueue.peek above instead of fileQueue.poll() because we don't always want to
-                // remove the head of the queue. Instead, we want to remove it only if we plan to delete it.
-                // In order to accomplish this, we just peek at the head and check if it should be deleted.
-                // If so, then we call poll() to remove it
-                if (freed < toFree || getLastModTime(toDelete.toPath()) < removalTimeThreshold) {
-                    toDelete = fileQueue.poll(); // remove the head of the queue, which is already stored in 'toDelete'
-                    if (toDelete == null) {
-                        continue;
-                    }
+        // Delete the oldest files in the Archive Index for as long as they have expired or we need to free up space.
+        // Files that have been indexed are removed in the order that they were archived, without scanning any directories.
+        // If the Archive Index does not know about every archived file, it must be rebuilt first, or newer files would be
+        // removed while older ones remain.
+        final ArchiveIndex archiveIndex = archiveIndexes.get(containerName);
+        if (archiveIndex.isComplete()) {
+            destroyIndexedArchives(containerName, archiveIndex, toFree, startNanos);
 
-                    Files.deleteIfExists(toDelete.toPath());
-                    containerState.decrementArchiveCount();
-                    LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because the archival size was exceeding the max configured size", toDelete.getName(), containerName);
-                    freed += fileSize;
-                    deleteCount++;
-                }
+            // If there are still files in the Archive Index, we're done. Otherwise, scan the archive directories in case there are
+            // files that the Archive Index does not know about, such as those archived before an unclean shutdown.
+            if (archiveIndex.isComplete() && archiveIndex.size() > 0) {
+                return;
+            }
+        }
 
-                // If we've freed up enough space, we're done... unless the next file needs to be destroyed based on time.
-                if (freed >= toFree) {
-                    // If the last mod time indicates that it should be removed, just continue loop.
-                    if (deleteBasedOnTimestamp(fileQueue, removalTimeThreshold)) {
-                        archiveExpirationLog.debug("Freed enough space ({} bytes freed, needed to free {} bytes) but will continue to expire data based on timestamp", freed, toFree);
-                        continue;
-                    }
+        rebuildArchiveIndex(containerName, container, archiveIndex, minRequiredSpace);
+    }
 
-                    archiveExpirationLog.debug("Freed enough space ({} bytes freed, needed to free {} bytes). Finished expiring data", freed, toFree);
+    private void destroyIndexedArchives(final String containerName, final ArchiveIndex archiveIndex, final long toFree, final long startNanos) throws IOException {
+        final ContainerState containerState = containerStateMap.get(containerName);
+        int deleteCount = 0;
+        long freed = 0L;
+        try {
+            ArchiveInfo toDelete;
+            while ((toDelete = archiveIndex.peek()) != null) {
+                final long removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
+                if (freed >= toFree && toDelete.getLastModTime() >= removalTimeThreshold) {
+                    break;
+                }
 
-                    final ArchiveInfo archiveInfo = fileQueue.peek();
-                    final long oldestArchiveDate = archiveInfo == null ? System.currentTimeMillis() : getLastModTime(archiveInfo.toPath());
+                archiveIndex.poll();
 
-                    // Otherwise, we're done. Return the last mod time of the oldest file in the container's archive.
-                    final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
-                    if (deleteCount > 0) {
-                        LOG.info("Deleted {} files from archive for Container {}; oldest Archive Date is now {}; container cleanup took {} millis",
-                                deleteCount, containerName, new Date(oldestArchiveDate), millis);
-                    } else {
-                        LOG.debug("Deleted {} files from archive for Container {}; oldest Archive Date is now {}; container cleanup took {} millis",
-                                deleteCount, containerName, new Date(oldestArchiveDate), millis);
+                try {
+                    // The file may already be gone if it was indexed more than once, so only count files that were actually deleted
+                    if (Files.deleteIfExists(toDelete.toPath())) {
+                        containerState.decrementArchiveCount();
+                        LOG.debug("Deleted archived ContentClaim with ID {} from Container {} because the archival size was exceeding the max configured size", toDelete.getName(), containerName);
+                        freed += toDelete.getSize();
+                        deleteCount++;
+                    }
+                } catch (final IOException ioe) {
+                    LOG.warn("Failed to delete {} from archive due to {}", toDelete, ioe.toString());
+                    if (LOG.isDebugEnabled()) {
+                        LOG.warn("", ioe);
                     }
-
-                    return;
-                }
-            } catch (final IOException ioe) {
-                LOG.warn("Failed to delete {} from archive due to {}", toDelete, ioe.toString());
-                if (LOG.isDebugEnabled()) {
-                    LOG.warn("", ioe);
                 }
             }
+
+            archiveIndex.checkpoint();
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to read Archive Index for Container {}; the Archive Index will be rebuilt from the archive directories", containerName, ioe);
+            archiveIndex.clear();
+            return;
+        }
+
+        archiveExpirationLog.debug("Freed enough space ({} bytes freed, needed to free {} bytes). Finished expiring data", freed, toFree);
+
+        final ArchiveInfo oldestArchive = archiveIndex.peek();
+        final long oldestArchiveDate = oldestArchive == null ? System.currentTimeMillis() : oldestArchive.getLastModTime();
+        final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (deleteCount > 0) {
+            LOG.info("Deleted {} files from archive for Container {}; oldest Archive Date is now {}; container cleanup took {} millis",
+                    deleteCount, containerName, new Date(oldestArchiveDate), millis);
+        } else {
+            LOG.debug("Deleted {} files from archive for Container {}; oldest Archive Date is now {}; container cleanup took {} millis",
+                    deleteCount, containerName, new Date(oldestArchiveDate), millis);
         }
+    }
+
+    /**
+     * Scans the archive directories of the given container, destroying expired files, and the oldest files if more space is needed,
+     * and then rebuilds the Archive Index from the files that remain. This is necessary only when the Archive Index does not know
+     * about every archived file, such as those archived by an earlier version or before the Archive Index had to be cleared.
+     */
+    private void rebuildArchiveIndex(final String containerName, final Path container, final ArchiveIndex archiveIndex, final long minRequiredSpace) throws IOException {
+        final List<ArchiveInfo> notYetExceedingThreshold = new ArrayList<>();
+        final long removalTimeThreshold = System.currentTimeMillis() - maxArchiveMillis;
+        final ContainerState containerState = containerStateMap.get(containerName);
+
+        // Files that are archived while the directories are scanned are merged into the Archive Index once the scan completes
+        archiveIndex.startRebuild();
 
         // Go through each container and grab the archived data into a List
         archiveExpirationLog.debug("Searching for more archived data to expire");
@@ -1395,7 +1548,7 @@ public class FileSystemRepository implements ContentRepository {
                                     LOG.warn("", ioe);
                                 }
                             }
-                        } else if (usableSpace < minRequiredSpace) {
+                        } else {
                             notYetExceedingThreshold.add(new ArchiveInfo(container, file, attrs.size(), lastModTime));
                         }
 
@@ -1416,11 +1569,12 @@ public class FileSystemRepository implements ContentRepository {
 
         final long sortRemainingMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS) - deleteExpiredMillis;
 
-        // Delete the oldest data
+        // Delete the oldest data if we still need to free up space
         archiveExpirationLog.debug("Deleting data based on timestamp");
         int archiveFilesDeleted = 0;
         long archiveBytesDeleted = 0L;
-        for (final ArchiveInfo archiveInfo : notYetExceedingThreshold) {
+        final List<ArchiveInfo> toDestroy = getContainerUsableSpace(containerName) < minRequiredSpace ? notYetExceedingThreshold : Collections.emptyList();
+        for (final ArchiveInfo archiveInfo : toDestroy) {
             try {
                 final Path path = archiveInfo.toPath();
                 Files.deleteIfExists(path);
@@ -1466,10 +1620,8 @@ public class FileSystemRepository implements ContentRepository {
             oldestContainerArchive = notYetExceedingThreshold.get(0).getLastModTime();
         }
 
-        // Queue up the files in the order that they should be destroyed so that we don't have to scan the directories for a while.
-        for (final ArchiveInfo toEnqueue : notYetExceedingThreshold.subList(0, Math.min(100000, notYetExceedingThreshold.size()))) {
-            fileQueue.offer(toEnqueue);
-        }
+        // Add the files to the Archive Index in the order that they should be destroyed so that we don't have to scan the directories again.
+        archiveIndex.completeRebuild(notYetExceedingThreshold);
 
         final long cleanupMillis = stopWatch.getElapsed(TimeUnit.MILLISECONDS) - deleteOldestMillis - sortRemainingMillis - deleteExpiredMillis;
         LOG.debug("Oldest Archive Date for Container {} is {}; delete expired = {} ms, sort remaining = {} ms, delete oldest = {} ms, cleanup = {} ms",
@@ -1518,6 +1670,8 @@ public class FileSystemRepository implements ContentRepository {
                             }
                         }
 
+                        flushArchiveIndex(container);
+
                         final long nanos = System.nanoTime() - start;
                         final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
 
@@ -1542,7 +1696,7 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
-    private static class ArchiveInfo {
+    static class ArchiveInfo {
 
         private final Path containerPath;
         private final String relativePath;
@@ -1727,7 +1881,7 @@ public class FileSystemRepository implements ContentRepository {
             archivedFileCount.incrementAndGet();
         }
 
-        public void incrementArchiveCount(final int count) {
+        public void incrementArchiveCount(final long count) {
             archivedFileCount.addAndGet(count);
         }
 
@@ -1906,6 +2060,46 @@ public class FileSystemRepository implements ContentRepository {
             bcos.flush();
         }
 
+        /**
+         * @return <code>true</code> if content may be appended to this stream with {@link #transferFrom(ContentClaim, long, long)},
+         * <code>false</code> if every byte must be written through the stream, as is the case for a stream that transforms or inspects
+         * the content that is written to it
+         */
+        protected boolean isTransferSupported() {
+            return true;
+        }
+
+        /**
+         * Appends a subset of the content of the given claim to this stream. The bytes are transferred from the file that holds the
+         * source content directly to the file that this stream writes to, which allows the operating system to copy them without them
+         * ever being copied into the heap.
+         *
+         * @param source the claim whose content should be appended
+         * @param offset the offset into the source claim at which the copy should begin
+         * @param length the number of bytes to copy
+         * @return the number of bytes copied
+         * @throws IOException if unable to read the source content or write to this stream
+         */
+        protected synchronized long transferFrom(final ContentClaim source, final long offset, final long length) throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            final long transferred;
+            try {
+                // The file is opened for appending, so the channel always writes to the end of the file
+                final FileChannel channel = ((FileOutputStream) bcos.getWrappedStream()).getChannel();
+                transferred = exportTo(source, channel, offset, length);
+            } catch (final IOException ioe) {
+                recycle = false;
+                throw ioe;
+            }
+
+            bytesWritten += transferred;
+            scc.setLength(bytesWritten + initialLength);
+            return transferred;
+        }
+
         @Override
         public synchronized void close() throws IOException {
             closed = true;
@@ -21,6 +21,7 @@ import org.apache.nifi.connectable.Connectable;
 import org.apache.nifi.controller.repository.claim.ContentClaimWriteCache;
 import org.apache.nifi.controller.repository.claim.StandardContentClaimWriteCache;
 import org.apache.nifi.controller.repository.metrics.PerformanceTracker;
+import org.apache.nifi.controller.repository.uuid.FlowFileUuidGenerator;
 import org.apache.nifi.provenance.ProvenanceEventRepository;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -33,6 +34,27 @@ public class StandardRepositoryContext extends AbstractRepositoryContext impleme
         super(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager);
     }
 
+    public StandardRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+                                     final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final FlowFileUuidGenerator flowFileUuidGenerator) {
+        super(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager, flowFileUuidGenerator);
+    }
+
+    public StandardRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+                                     final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final FlowFileUuidGenerator flowFileUuidGenerator, final String contentDigestAlgorithm) {
+        super(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager, flowFileUuidGenerator,
+            contentDigestAlgorithm);
+    }
+
+    public StandardRepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+                                     final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+                                     final StateManager stateManager, final FlowFileUuidGenerator flowFileUuidGenerator, final String contentDigestAlgorithm,
+                                     final ProvenanceRecordingPolicies provenanceRecordingPolicies) {
+        super(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManager, flowFileUuidGenerator,
+            contentDigestAlgorithm, provenanceRecordingPolicies);
+    }
+
     @Override
     public ContentClaimWriteCache createContentClaimWriteCache(final PerformanceTracker performanceTracker) {
         return new StandardContentClaimWriteCache(getContentRepository(), performanceTracker);
@@ -0,0 +1,805 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.io.ContentClaimOutputStream;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.apache.nifi.util.FormatUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A {@link FileSystemRepository} with an in-memory hot tier for small content. Each Resource Claim that it creates is first held in
+ * a block of a bounded, off-heap buffer pool rather than in a file. The content of FlowFiles that are written by the same session is
+ * packed into the same block, just as it would be appended to the same file, and is read back from memory by the next component.
+ * A Resource Claim is written to its file only when its content outgrows the block, when the buffer pool comes under pressure, when
+ * the FlowFiles that reference it are swapped out, or when it outlives the configured maximum age. If it is no longer referenced
+ * before that happens, it never reaches the disk at all. Claimant counts are kept by the {@link ResourceClaimManager} exactly as
+ * they are for content on disk.
+ * </p>
+ *
+ * <p>
+ * The durability of content that has not been written to disk is configurable:
+ * </p>
+ * <ul>
+ * <li><code>commit</code> - A Resource Claim is written to disk when its stream is closed, which happens before the session that
+ * wrote it is committed, so no committed content can be lost. Content is still read back from memory, and the content of an
+ * entire session is written with a single write.</li>
+ * <li><code>loss-tolerant</code> - A Resource Claim stays in memory after the session that wrote it is committed. If NiFi is not
+ * shut down gracefully, content that was not yet written to disk is lost, and the FlowFiles that reference it are dropped as any
+ * FlowFile whose content cannot be found is. Content that is created for loss-tolerant components is always handled this way.</li>
+ * </ul>
+ *
+ * <p>
+ * Content is written to the same file that the {@link FileSystemRepository} would have used for the Resource Claim, so FlowFiles
+ * continue to reference it correctly after a restart, and it is archived and removed in the same way.
+ * </p>
+ */
+public class TieredFileSystemRepository extends FileSystemRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(TieredFileSystemRepository.class);
+
+    public static final String DURABILITY_COMMIT = "commit";
+    public static final String DURABILITY_LOSS_TOLERANT = "loss-tolerant";
+
+    private static final double HIGH_USAGE_RATIO = 0.9D;
+    private static final double TARGET_USAGE_RATIO = 0.75D;
+    private static final String PARTIAL_FILE_SUFFIX = ".partial";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10L;
+
+    private final int maxContentSize;
+    private final long maxAgeNanos;
+    private final boolean lossTolerant;
+    private final boolean alwaysSync;
+    private final List<String> containerNames;
+    private final BufferPool bufferPool;
+    private final ConcurrentMap<ResourceClaim, HotClaim> hotClaims = new ConcurrentHashMap<>();
+    private final AtomicLong index = new AtomicLong(0L);
+    private final ScheduledExecutorService hotTierExecutor = new FlowEngine(1, "TieredFileSystemRepository Hot Tier", true);
+
+    private volatile ResourceClaimManager resourceClaimManager;
+
+    public TieredFileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
+        super(nifiProperties);
+
+        final String maxContentSizeValue = nifiProperties.getProperty(NiFiProperties.CONTENT_HOT_TIER_MAX_CONTENT_SIZE, NiFiProperties.DEFAULT_CONTENT_HOT_TIER_MAX_CONTENT_SIZE);
+        final long configuredMaxContentSize = DataUnit.parseDataSize(maxContentSizeValue.trim(), DataUnit.B).longValue();
+        if (configuredMaxContentSize < 1 || configuredMaxContentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.CONTENT_HOT_TIER_MAX_CONTENT_SIZE + ": '" + maxContentSizeValue + "'");
+        }
+        this.maxContentSize = (int) configuredMaxContentSize;
+
+        final String maxSizeValue = nifiProperties.getProperty(NiFiProperties.CONTENT_HOT_TIER_MAX_SIZE, NiFiProperties.DEFAULT_CONTENT_HOT_TIER_MAX_SIZE);
+        final long maxSize = DataUnit.parseDataSize(maxSizeValue.trim(), DataUnit.B).longValue();
+        if (maxSize < maxContentSize) {
+            throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.CONTENT_HOT_TIER_MAX_SIZE + ": '" + maxSizeValue
+                + "' is smaller than the value of " + NiFiProperties.CONTENT_HOT_TIER_MAX_CONTENT_SIZE);
+        }
+
+        final String maxAgeValue = nifiProperties.getProperty(NiFiProperties.CONTENT_HOT_TIER_MAX_AGE, NiFiProperties.DEFAULT_CONTENT_HOT_TIER_MAX_AGE);
+        this.maxAgeNanos = (long) FormatUtils.getPreciseTimeDuration(maxAgeValue.trim(), TimeUnit.NANOSECONDS);
+
+        final String durability = nifiProperties.getProperty(NiFiProperties.CONTENT_HOT_TIER_DURABILITY, NiFiProperties.DEFAULT_CONTENT_HOT_TIER_DURABILITY).trim();
+        if (DURABILITY_LOSS_TOLERANT.equalsIgnoreCase(durability)) {
+            this.lossTolerant = true;
+        } else if (DURABILITY_COMMIT.equalsIgnoreCase(durability)) {
+            this.lossTolerant = false;
+        } else {
+            throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.CONTENT_HOT_TIER_DURABILITY + ": '" + durability + "'; valid values are '"
+                + DURABILITY_COMMIT + "' and '" + DURABILITY_LOSS_TOLERANT + "'");
+        }
+
+        this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
+        this.containerNames = new ArrayList<>(getContainerNames());
+        this.bufferPool = new BufferPool(maxContentSize, (int) Math.min(Integer.MAX_VALUE, maxSize / maxContentSize));
+
+        LOG.info("Content up to {} bytes per Resource Claim will be held in a hot tier of up to {} bytes with {} durability", maxContentSize, maxSize, durability);
+    }
+
+    @Override
+    public void initialize(final ContentRepositoryContext context) {
+        super.initialize(context);
+        this.resourceClaimManager = context.getResourceClaimManager();
+
+        hotTierExecutor.scheduleWithFixedDelay(this::sweep, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        hotTierExecutor.shutdown();
+        try {
+            // A sweep that is in progress must finish before the remaining content is written, so that the two do not write the same claims
+            if (!hotTierExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Hot tier sweep did not finish within {} seconds of shutdown", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Any content that is only in memory is written to disk so that it is not lost across a graceful restart
+        for (final HotClaim hotClaim : hotClaims.values()) {
+            try {
+                persist(hotClaim);
+            } catch (final IOException ioe) {
+                LOG.warn("Failed to write {} to disk on shutdown", hotClaim.resourceClaim, ioe);
+            }
+        }
+
+        super.shutdown();
+    }
+
+    @Override
+    public ContentClaim create(final boolean lossTolerant) throws IOException {
+        final ByteBuffer buffer = bufferPool.acquire();
+        if (buffer == null) {
+            // The hot tier is full, so the content goes directly to disk
+            return super.create(lossTolerant);
+        }
+
+        final long currentIndex = index.incrementAndGet();
+        final String containerName = containerNames.get((int) (currentIndex % containerNames.size()));
+        final String section = String.valueOf(currentIndex % SECTIONS_PER_CONTAINER).intern();
+        final String claimId = System.currentTimeMillis() + "-h" + currentIndex;
+
+        final ResourceClaim resourceClaim = resourceClaimManager.newResourceClaim(containerName, section, claimId, lossTolerant, true);
+        hotClaims.put(resourceClaim, new HotClaim(resourceClaim, buffer, lossTolerant || this.lossTolerant));
+        incrementClaimantCount(resourceClaim, true);
+        LOG.debug("Creating new in-memory Resource Claim {}", resourceClaim);
+
+        return new StandardContentClaim(resourceClaim, 0L);
+    }
+
+    @Override
+    public OutputStream write(final ContentClaim claim) throws IOException {
+        final StandardContentClaim scc = validateContentClaimForWriting(claim);
+        final HotClaim hotClaim = hotClaims.get(scc.getResourceClaim());
+        if (hotClaim == null) {
+            return super.write(claim);
+        }
+
+        synchronized (hotClaim) {
+            if (!hotClaim.writable) {
+                throw new IOException("Cannot write to " + claim + " because its Resource Claim is no longer writable");
+            }
+        }
+
+        return new HotClaimOutputStream(hotClaim, scc);
+    }
+
+    @Override
+    public long importFrom(final InputStream content, final ContentClaim claim) throws IOException {
+        try (final OutputStream out = write(claim)) {
+            return StreamUtils.copy(content, out);
+        }
+    }
+
+    @Override
+    public InputStream read(final ContentClaim claim) throws IOException {
+        final HotContent content = claim == null ? null : getHotContent(claim);
+        if (content == null) {
+            return super.read(claim);
+        }
+
+        return new HotContentInputStream(content);
+    }
+
+    @Override
+    public InputStream read(final ResourceClaim claim) throws IOException {
+        final HotContent content = claim == null ? null : getHotContent(claim, 0L, -1L);
+        if (content == null) {
+            return super.read(claim);
+        }
+
+        return new HotContentInputStream(content);
+    }
+
+    /**
+     * Content that is held in memory is read one Content Claim at a time, so that it is never read from the file of its Resource Claim.
+     *
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isResourceClaimStreamSupported() {
+        return false;
+    }
+
+    @Override
+    public long exportTo(final ContentClaim claim, final WritableByteChannel destination, final long offset, final long length) throws IOException {
+        final HotContent content = claim == null ? null : getHotContent(claim);
+        if (content == null) {
+            return super.exportTo(claim, destination, offset, length);
+        }
+
+        try {
+            final ByteBuffer buffer = content.buffer;
+            if (offset < 0) {
+                throw new IllegalArgumentException("offset cannot be negative");
+            }
+            if (offset > buffer.limit()) {
+                throw new IllegalArgumentException("offset of " + offset + " exceeds claim size of " + buffer.limit());
+            }
+
+            buffer.position((int) offset);
+            buffer.limit((int) (offset + Math.min(length, buffer.limit() - offset)));
+            final long bytesToWrite = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                destination.write(buffer);
+            }
+            return bytesToWrite;
+        } finally {
+            content.close();
+        }
+    }
+
+    @Override
+    public long size(final ContentClaim claim) throws IOException {
+        if (claim != null && claim.getLength() < 0) {
+            final HotContent content = getHotContent(claim);
+            if (content != null) {
+                try {
+                    return content.buffer.remaining();
+                } finally {
+                    content.close();
+                }
+            }
+        }
+
+        return super.size(claim);
+    }
+
+    @Override
+    public long size(final ResourceClaim claim) throws IOException {
+        final HotClaim hotClaim = claim == null ? null : hotClaims.get(claim);
+        if (hotClaim != null) {
+            synchronized (hotClaim) {
+                if (hotClaim.buffer != null) {
+                    return hotClaim.buffer.position();
+                }
+            }
+        }
+
+        return super.size(claim);
+    }
+
+    @Override
+    public boolean isAccessible(final ContentClaim contentClaim) {
+        final HotContent content = contentClaim == null ? null : getHotContent(contentClaim);
+        if (content != null) {
+            content.close();
+            return true;
+        }
+
+        return super.isAccessible(contentClaim);
+    }
+
+    @Override
+    public boolean remove(final ContentClaim claim) {
+        if (claim != null && !claim.getResourceClaim().isInUse()) {
+            final HotClaim hotClaim = hotClaims.get(claim.getResourceClaim());
+            if (hotClaim != null) {
+                discard(hotClaim);
+            }
+        }
+
+        return super.remove(claim);
+    }
+
+    @Override
+    public void persist(final Collection<ContentClaim> claims) throws IOException {
+        for (final ContentClaim claim : claims) {
+            final HotClaim hotClaim = claim == null ? null : hotClaims.get(claim.getResourceClaim());
+            if (hotClaim == null) {
+                continue;
+            }
+
+            persist(hotClaim);
+            discardIfPersisted(hotClaim);
+        }
+    }
+
+    // visible for testing
+    boolean isHot(final ResourceClaim resourceClaim) {
+        return hotClaims.containsKey(resourceClaim);
+    }
+
+    // visible for testing
+    void sweep() {
+        try {
+            final List<HotClaim> sealedClaims = new ArrayList<>();
+            for (final HotClaim hotClaim : hotClaims.values()) {
+                if (!hotClaim.resourceClaim.isInUse()) {
+                    // No FlowFile references the content any longer, so it never has to be written to disk
+                    discard(hotClaim);
+                    continue;
+                }
+
+                synchronized (hotClaim) {
+                    if (hotClaim.writable) {
+                        continue;
+                    }
+                }
+
+                if (System.nanoTime() - hotClaim.createdNanos > maxAgeNanos) {
+                    persistAndDiscard(hotClaim);
+                } else {
+                    sealedClaims.add(hotClaim);
+                }
+            }
+
+            if (bufferPool.getUsage() < HIGH_USAGE_RATIO) {
+                return;
+            }
+
+            // Under memory pressure, write the oldest content to disk until enough of the pool is free again
+            sealedClaims.sort(Comparator.comparingLong(hotClaim -> hotClaim.createdNanos));
+            for (final HotClaim hotClaim : sealedClaims) {
+                if (bufferPool.getUsage() <= TARGET_USAGE_RATIO) {
+                    break;
+                }
+
+                persistAndDiscard(hotClaim);
+            }
+        } catch (final Exception e) {
+            LOG.error("Failed to evict content from the hot tier", e);
+        }
+    }
+
+    private void persistAndDiscard(final HotClaim hotClaim) {
+        try {
+            persist(hotClaim);
+            discardIfPersisted(hotClaim);
+        } catch (final IOException ioe) {
+            LOG.warn("Failed to write {} to disk; it will remain in memory", hotClaim.resourceClaim, ioe);
+        }
+    }
+
+    private void persist(final HotClaim hotClaim) throws IOException {
+        final ResourceClaim resourceClaim = hotClaim.resourceClaim;
+
+        synchronized (hotClaim) {
+            // A claim that is still being written to is written to disk when its stream is closed, if it needs to be
+            if (hotClaim.persisted || hotClaim.buffer == null || hotClaim.writable) {
+                return;
+            }
+
+            if (!resourceClaim.isInUse()) {
+                return;
+            }
+
+            final Path path = getPath(resourceClaim);
+            if (path == null) {
+                throw new IOException("Could not determine file to write to for " + resourceClaim);
+            }
+
+            // Write to a temporary file first so that a FlowFile can never reference a file that was only partially written
+            final Path partialPath = path.resolveSibling(path.getFileName() + PARTIAL_FILE_SUFFIX);
+            try (final FileChannel channel = FileChannel.open(partialPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer content = hotClaim.buffer.duplicate();
+                content.flip();
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+
+                if (alwaysSync) {
+                    channel.force(true);
+                }
+            }
+
+            Files.move(partialPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            hotClaim.persisted = true;
+            LOG.debug("Wrote {} bytes of {} to {}", hotClaim.buffer.position(), resourceClaim, path);
+        }
+
+        // The claim may have been destroyed while it was being written, in which case the file must not be left behind
+        if (!resourceClaim.isInUse()) {
+            Files.deleteIfExists(getPath(resourceClaim));
+        }
+    }
+
+    private void discardIfPersisted(final HotClaim hotClaim) {
+        synchronized (hotClaim) {
+            if (!hotClaim.persisted && hotClaim.resourceClaim.isInUse()) {
+                return;
+            }
+        }
+
+        discard(hotClaim);
+    }
+
+    private void discard(final HotClaim hotClaim) {
+        hotClaims.remove(hotClaim.resourceClaim, hotClaim);
+
+        synchronized (hotClaim) {
+            if (hotClaim.buffer != null) {
+                // A block that is still being read from is returned to the pool only once the last reader is done with it
+                if (hotClaim.readers == 0) {
+                    bufferPool.release(hotClaim.buffer);
+                } else {
+                    hotClaim.releasedBuffer = hotClaim.buffer;
+                }
+                hotClaim.buffer = null;
+            }
+        }
+    }
+
+    private void releaseReader(final HotClaim hotClaim) {
+        synchronized (hotClaim) {
+            hotClaim.readers--;
+            if (hotClaim.readers == 0 && hotClaim.releasedBuffer != null) {
+                bufferPool.release(hotClaim.releasedBuffer);
+                hotClaim.releasedBuffer = null;
+            }
+        }
+    }
+
+    private HotContent getHotContent(final ContentClaim claim) {
+        final HotContent content = getHotContent(claim.getResourceClaim(), claim.getOffset(), claim.getLength());
+        if (content == null) {
+            return null;
+        }
+
+        if (content.buffer.remaining() < claim.getLength()) {
+            final int available = content.buffer.remaining();
+            content.close();
+            throw new ContentNotFoundException(claim, "Content Claim has a length of " + claim.getLength() + " but only " + available + " bytes are available");
+        }
+
+        return content;
+    }
+
+    /**
+     * Returns a read-only view of the given range of a Resource Claim that is held in memory. The block that holds the content is not returned
+     * to the pool until the view is closed.
+     *
+     * @return the content, or <code>null</code> if the Resource Claim is not held in memory
+     */
+    private HotContent getHotContent(final ResourceClaim resourceClaim, final long offset, final long length) {
+        final HotClaim hotClaim = hotClaims.get(resourceClaim);
+        if (hotClaim == null) {
+            return null;
+        }
+
+        synchronized (hotClaim) {
+            if (hotClaim.buffer == null) {
+                return null;
+            }
+
+            final int available = hotClaim.buffer.position();
+            if (offset > available) {
+                throw new ContentNotFoundException(new StandardContentClaim(resourceClaim, offset),
+                    "Content Claim has an offset of " + offset + " but Resource Claim " + resourceClaim + " is only " + available + " bytes");
+            }
+
+            // A negative length indicates that the claim is still being written to, so all of the content that is available is returned
+            final int contentLength = (int) (length < 0 ? available - offset : Math.min(length, available - offset));
+            final ByteBuffer view = hotClaim.buffer.asReadOnlyBuffer();
+            view.position((int) offset);
+            view.limit((int) offset + contentLength);
+
+            hotClaim.readers++;
+            return new HotContent(hotClaim, view.slice());
+        }
+    }
+
+    private class HotClaim {
+        private final ResourceClaim resourceClaim;
+        private final boolean lossTolerant;
+        private final long createdNanos = System.nanoTime();
+
+        private ByteBuffer buffer;
+        private boolean writable = true;
+        private boolean persisted = false;
+        private int readers = 0;
+        private ByteBuffer releasedBuffer;
+
+        HotClaim(final ResourceClaim resourceClaim, final ByteBuffer buffer, final boolean lossTolerant) {
+            this.resourceClaim = resourceClaim;
+            this.buffer = buffer;
+            this.lossTolerant = lossTolerant;
+        }
+    }
+
+    /**
+     * A read-only view of content that is held in memory, which keeps the block that holds it from being reused until it is closed.
+     */
+    private class HotContent implements Closeable {
+        private final HotClaim hotClaim;
+        private final ByteBuffer buffer;
+        private boolean closed = false;
+
+        HotContent(final HotClaim hotClaim, final ByteBuffer buffer) {
+            this.hotClaim = hotClaim;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            releaseReader(hotClaim);
+        }
+    }
+
+    private static class HotContentInputStream extends InputStream {
+        private final HotContent content;
+
+        HotContentInputStream(final HotContent content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read() {
+            return content.buffer.hasRemaining() ? content.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+
+            final int bytesRead = Math.min(len, content.buffer.remaining());
+            if (bytesRead == 0) {
+                return -1;
+            }
+
+            content.buffer.get(b, off, bytesRead);
+            return bytesRead;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int skipped = (int) Math.max(0L, Math.min(n, content.buffer.remaining()));
+            content.buffer.position(content.buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return content.buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            content.close();
+        }
+    }
+
+    /**
+     * Writes to the block of a Resource Claim that is held in memory. Content that does not fit in the block is written to the Resource
+     * Claim's file instead, along with all content that was written to the block before it.
+     */
+    private class HotClaimOutputStream extends ContentClaimOutputStream {
+        private final HotClaim hotClaim;
+        private StandardContentClaim scc;
+        private OutputStream spillStream;
+        private long bytesWritten = 0L;
+        private boolean closed = false;
+
+        HotClaimOutputStream(final HotClaim hotClaim, final StandardContentClaim scc) {
+            this.hotClaim = hotClaim;
+            this.scc = scc;
+        }
+
+        @Override
+        public String toString() {
+            return "TieredFileSystemRepository Stream [" + scc + "]";
+        }
+
+        @Override
+        public synchronized void write(final int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(final byte[] b) throws IOException {
+            write(b, 0, b.length);
+        }
+
+        @Override
+        public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream is closed");
+            }
+
+            if (spillStream == null) {
+                synchronized (hotClaim) {
+                    if (hotClaim.buffer.remaining() >= len) {
+                        hotClaim.buffer.put(b, off, len);
+                    } else {
+                        spill();
+                    }
+                }
+            }
+
+            if (spillStream != null) {
+                try {
+                    spillStream.write(b, off, len);
+                } catch (final IOException ioe) {
+                    throw new IOException("Failed to write to " + this, ioe);
+                }
+            }
+
+            bytesWritten += len;
+            scc.setLength(bytesWritten);
+        }
+
+        private void spill() throws IOException {
+            final Path path = getPath(hotClaim.resourceClaim);
+            if (path == null) {
+                throw new IOException("Could not determine file to write to for " + hotClaim.resourceClaim);
+            }
+
+            final FileOutputStream fos = new FileOutputStream(path.toFile());
+            try {
+                final ByteBuffer content = hotClaim.buffer.duplicate();
+                content.flip();
+                while (content.hasRemaining()) {
+                    fos.getChannel().write(content);
+                }
+            } catch (final IOException ioe) {
+                fos.close();
+                throw new IOException("Failed to write to " + this, ioe);
+            }
+
+            // Content is read from the file from now on
+            spillStream = fos;
+            discard(hotClaim);
+            LOG.debug("Content of {} exceeds {} bytes; writing it to {}", hotClaim.resourceClaim, maxContentSize, path);
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (spillStream != null && !closed) {
+                spillStream.flush();
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            finish();
+        }
+
+        private void finish() throws IOException {
+            if (scc.getLength() < 0) {
+                // If claim was not written to, set length to 0
+                scc.setLength(0L);
+            }
+
+            try {
+                if (spillStream != null) {
+                    if (alwaysSync) {
+                        ((FileOutputStream) spillStream).getFD().sync();
+                    }
+
+                    spillStream.close();
+                } else {
+                    synchronized (hotClaim) {
+                        hotClaim.writable = false;
+                    }
+
+                    if (!hotClaim.lossTolerant) {
+                        persist(hotClaim);
+                    }
+                }
+            } finally {
+                resourceClaimManager.freeze(hotClaim.resourceClaim);
+            }
+        }
+
+        @Override
+        public synchronized ContentClaim newContentClaim() throws IOException {
+            final boolean blockAvailable;
+            synchronized (hotClaim) {
+                blockAvailable = spillStream == null && hotClaim.buffer.position() <= maxContentSize / 2;
+            }
+
+            if (blockAvailable) {
+                scc = new StandardContentClaim(hotClaim.resourceClaim, scc.getOffset() + Math.max(0, scc.getLength()));
+                bytesWritten = 0L;
+                incrementClaimaintCount(scc);
+                return scc;
+            }
+
+            // Once the block is mostly full, the content that follows goes to a new Resource Claim, which will be written through a new stream
+            closed = true;
+            finish();
+            return create(hotClaim.resourceClaim.isLossTolerant());
+        }
+    }
+
+    /**
+     * A pool of equally sized, direct buffers, which are allocated as they are first needed and are then reused.
+     */
+    private static class BufferPool {
+        private final int blockSize;
+        private final int maxBlocks;
+        private final Queue<ByteBuffer> freeBlocks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger allocatedCount = new AtomicInteger(0);
+        private final AtomicInteger inUseCount = new AtomicInteger(0);
+
+        BufferPool(final int blockSize, final int maxBlocks) {
+            this.blockSize = blockSize;
+            this.maxBlocks = maxBlocks;
+        }
+
+        ByteBuffer acquire() {
+            ByteBuffer buffer = freeBlocks.poll();
+            if (buffer == null) {
+                if (allocatedCount.incrementAndGet() > maxBlocks) {
+                    allocatedCount.decrementAndGet();
+                    return null;
+                }
+
+                buffer = ByteBuffer.allocateDirect(blockSize);
+            }
+
+            buffer.clear();
+            inUseCount.incrementAndGet();
+            return buffer;
+        }
+
+        void release(final ByteBuffer buffer) {
+            inUseCount.decrementAndGet();
+            freeBlocks.offer(buffer);
+        }
+
+        double getUsage() {
+            return (double) inUseCount.get() / maxBlocks;
+        }
+    }
+}
@@ -90,18 +90,27 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     private static final String WRITE_AHEAD_LOG_IMPL = "nifi.flowfile.repository.wal.implementation";
     private static final String RETAIN_ORPHANED_FLOWFILES = "nifi.flowfile.repository.retain.orphaned.flowfiles";
     private static final String FLOWFILE_REPO_CACHE_SIZE = "nifi.flowfile.repository.wal.cache.characters";
+    private static final String GROUP_COMMIT_WINDOW = "nifi.flowfile.repository.always.sync.group.commit.window";
+    private static final String GROUP_COMMIT_MAX_TRANSACTIONS = "nifi.flowfile.repository.always.sync.group.commit.max.transactions";
+    private static final String MAX_INCREMENTAL_CHECKPOINTS = "nifi.flowfile.repository.checkpoint.max.incremental";
 
     static final String SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.SequentialAccessWriteAheadLog";
     static final String ENCRYPTED_SEQUENTIAL_ACCESS_WAL = "org.apache.nifi.wali.EncryptedSequentialAccessWriteAheadLog";
     private static final String MINIMAL_LOCKING_WALI = "org.wali.MinimalLockingWriteAheadLog";
     private static final String DEFAULT_WAL_IMPLEMENTATION = SEQUENTIAL_ACCESS_WAL;
     private static final int DEFAULT_CACHE_SIZE = 10_000_000;
+    private static final String DEFAULT_GROUP_COMMIT_WINDOW = "0 millis";
+    private static final int DEFAULT_GROUP_COMMIT_MAX_TRANSACTIONS = 0;
+    private static final int DEFAULT_MAX_INCREMENTAL_CHECKPOINTS = 0;
 
     private final String walImplementation;
     protected final NiFiProperties nifiProperties;
 
     private final AtomicLong flowFileSequenceGenerator = new AtomicLong(0L);
     private final boolean alwaysSync;
+    private final long groupCommitWindowNanos;
+    private final int groupCommitMaxTransactions;
+    private final int maxIncrementalCheckpoints;
     private final boolean retainOrphanedFlowFiles;
 
     private static final Logger logger = LoggerFactory.getLogger(WriteAheadFlowFileRepository.class);
@@ -152,6 +161,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
      */
     public WriteAheadFlowFileRepository() {
         alwaysSync = false;
+        groupCommitWindowNanos = 0L;
+        groupCommitMaxTransactions = 0;
+        maxIncrementalCheckpoints = 0;
         checkpointDelayMillis = 0L;
         checkpointExecutor = null;
         walImplementation = null;
@@ -162,6 +174,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
     public WriteAheadFlowFileRepository(final NiFiProperties nifiProperties) {
         alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_ALWAYS_SYNC, "false"));
+        groupCommitWindowNanos = Math.round(FormatUtils.getPreciseTimeDuration(nifiProperties.getProperty(GROUP_COMMIT_WINDOW, DEFAULT_GROUP_COMMIT_WINDOW), TimeUnit.NANOSECONDS));
+        groupCommitMaxTransactions = nifiProperties.getIntegerProperty(GROUP_COMMIT_MAX_TRANSACTIONS, DEFAULT_GROUP_COMMIT_MAX_TRANSACTIONS);
+        maxIncrementalCheckpoints = nifiProperties.getIntegerProperty(MAX_INCREMENTAL_CHECKPOINTS, DEFAULT_MAX_INCREMENTAL_CHECKPOINTS);
         this.nifiProperties = nifiProperties;
 
         final String orphanedFlowFileProperty = nifiProperties.getProperty(RETAIN_ORPHANED_FLOWFILES);
@@ -245,7 +260,11 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // The specified implementation can be plaintext or encrypted; the only difference is the serde factory
         if (isSequentialAccessWAL(walImplementation)) {
             // TODO: May need to instantiate ESAWAL for clarity?
-            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this);
+            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths.get(0), serdeFactory, this, groupCommitWindowNanos, TimeUnit.NANOSECONDS, groupCommitMaxTransactions,
+                maxIncrementalCheckpoints);
+            if (alwaysSync && groupCommitWindowNanos > 0L) {
+                logger.info("FlowFile Repository will group commits that are synced to disk within a window of {} nanoseconds", groupCommitWindowNanos);
+            }
         } else if (walImplementation.equals(MINIMAL_LOCKING_WALI)) {
             final SortedSet<Path> paths = flowFileRepositoryPaths.stream()
                     .map(File::toPath)
@@ -896,6 +915,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
 
         fieldCache.clear();
 
+        final long restoreStart = System.nanoTime();
         final Map<String, FlowFileQueue> queueMap = new HashMap<>();
         for (final FlowFileQueue queue : queueProvider.getAllQueues()) {
             queueMap.put(queue.getIdentifier(), queue);
@@ -967,7 +987,9 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // Set the AtomicLong to 1 more than the max ID so that calls to #getNextFlowFileSequence() will
         // return the appropriate number.
         flowFileSequenceGenerator.set(maxId + 1);
-        logger.info("Successfully restored {} FlowFiles and {} Swap Files", recordList.size() - numFlowFilesMissingQueue, recoveredSwapLocations.size());
+        final long restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - restoreStart);
+        logger.info("Successfully restored {} FlowFiles and {} Swap Files to their queues in {} milliseconds", recordList.size() - numFlowFilesMissingQueue,
+            recoveredSwapLocations.size(), restoreMillis);
         if (numFlowFilesMissingQueue > 0) {
             logger.warn("On recovery, found {} FlowFiles whose queues no longer exists.", numFlowFilesMissingQueue);
         }
@@ -40,6 +40,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.Objects;
 
@@ -150,6 +152,23 @@ public class EncryptedFileSystemRepository extends FileSystemRepository {
         return super.exportTo(claim, destination, append, offset, length);
     }
 
+    /**
+     * Exports a subset of the content of the given claim, starting at offset
+     * and copying length bytes, to the given channel. The content must be decrypted, so it is always copied
+     * through the heap rather than transferred directly from the file. <strong>This method decrypts the encrypted content and writes it in plaintext.</strong>
+     *
+     * @param claim       to export from
+     * @param destination where to export data
+     * @param offset      the offset into the claim at which the copy should begin
+     * @param length      the number of bytes to copy
+     * @return the number of bytes copied
+     * @throws IOException if an IO error occurs
+     */
+    @Override
+    public long exportTo(final ContentClaim claim, final WritableByteChannel destination, final long offset, final long length) throws IOException {
+        return super.exportTo(claim, Channels.newOutputStream(destination), offset, length);
+    }
+
     @Override
     public InputStream read(final ResourceClaim claim) {
         throw new UnsupportedOperationException("Cannot read full ResourceClaim as a Stream when using EncryptedFileSystemRepository");
@@ -292,6 +311,12 @@ public class EncryptedFileSystemRepository extends FileSystemRepository {
             cipherOutputStream.flush();
         }
 
+        @Override
+        protected boolean isTransferSupported() {
+            // All content must pass through the cipher
+            return false;
+        }
+
         @Override
         public synchronized void close() throws IOException {
             closed = true;
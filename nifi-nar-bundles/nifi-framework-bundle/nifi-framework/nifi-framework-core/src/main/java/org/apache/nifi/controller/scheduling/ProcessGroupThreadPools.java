@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.status.ThreadPoolStatus;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Named thread pools that are dedicated to the Timer Driven components of specific Process Groups, so that components in one group
+ * cannot starve those in another of threads. Each pool is configured in nifi.properties with a maximum number of threads and the
+ * identifiers of the Process Groups that it serves:
+ * </p>
+ *
+ * <pre>
+ * nifi.thread.pool.ingest.max.threads=8
+ * nifi.thread.pool.ingest.process.groups=&lt;group id&gt;,&lt;group id&gt;
+ * </pre>
+ *
+ * <p>
+ * A component runs in the pool of the nearest ancestor Process Group that is assigned to a pool, or in the shared Timer Driven
+ * thread pool if there is no such group. Because a pool's threads are used only by the components that it serves, all of them are
+ * always available to those components regardless of how busy the rest of the flow is.
+ * </p>
+ */
+public class ProcessGroupThreadPools {
+    private static final Logger logger = LoggerFactory.getLogger(ProcessGroupThreadPools.class);
+
+    private final Map<String, FlowEngine> flowEngines;
+    private final Map<String, Integer> maxThreadCounts;
+    private final Map<String, String> poolNamesByGroupId;
+
+    private ProcessGroupThreadPools(final Map<String, Integer> maxThreadCounts, final Map<String, String> poolNamesByGroupId) {
+        this.maxThreadCounts = maxThreadCounts;
+        this.poolNamesByGroupId = poolNamesByGroupId;
+
+        final Map<String, FlowEngine> engines = new TreeMap<>();
+        maxThreadCounts.forEach((poolName, maxThreads) -> engines.put(poolName, new FlowEngine(maxThreads, "Timer-Driven Process (" + poolName + ")")));
+        this.flowEngines = Collections.unmodifiableMap(engines);
+    }
+
+    public static ProcessGroupThreadPools empty() {
+        return new ProcessGroupThreadPools(Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    /**
+     * Creates the thread pools that are configured in the given properties
+     *
+     * @param nifiProperties the properties
+     * @return the configured thread pools
+     * @throws IllegalArgumentException if a thread pool is not configured correctly, or if a Process Group is assigned to more than one thread pool
+     */
+    public static ProcessGroupThreadPools create(final NiFiProperties nifiProperties) {
+        final Map<String, Integer> maxThreadCounts = new TreeMap<>();
+        final Map<String, String> poolNamesByGroupId = new HashMap<>();
+
+        for (final String propertyName : nifiProperties.getPropertyKeys()) {
+            if (!propertyName.startsWith(NiFiProperties.THREAD_POOL_PREFIX) || !propertyName.endsWith(NiFiProperties.THREAD_POOL_MAX_THREADS_SUFFIX)) {
+                continue;
+            }
+
+            final String poolName = StringUtils.substringBetween(propertyName, NiFiProperties.THREAD_POOL_PREFIX, NiFiProperties.THREAD_POOL_MAX_THREADS_SUFFIX);
+            if (StringUtils.isBlank(poolName)) {
+                continue;
+            }
+
+            final String maxThreadsValue = nifiProperties.getProperty(propertyName).trim();
+            final int maxThreads;
+            try {
+                maxThreads = Integer.parseInt(maxThreadsValue);
+            } catch (final NumberFormatException nfe) {
+                throw new IllegalArgumentException("Invalid value for property " + propertyName + ": '" + maxThreadsValue + "' is not a valid number of threads");
+            }
+            if (maxThreads < 1) {
+                throw new IllegalArgumentException("Invalid value for property " + propertyName + ": thread pool must have at least one thread");
+            }
+
+            final String groupsPropertyName = NiFiProperties.THREAD_POOL_PREFIX + poolName + NiFiProperties.THREAD_POOL_PROCESS_GROUPS_SUFFIX;
+            final String groupIds = nifiProperties.getProperty(groupsPropertyName, "");
+            for (final String groupId : groupIds.split(",")) {
+                final String trimmedGroupId = groupId.trim();
+                if (trimmedGroupId.isEmpty()) {
+                    continue;
+                }
+
+                final String existingPoolName = poolNamesByGroupId.putIfAbsent(trimmedGroupId, poolName);
+                if (existingPoolName != null) {
+                    throw new IllegalArgumentException("Process Group " + trimmedGroupId + " is assigned to both thread pool '" + existingPoolName + "' and thread pool '" + poolName + "'");
+                }
+            }
+
+            maxThreadCounts.put(poolName, maxThreads);
+        }
+
+        if (!maxThreadCounts.isEmpty()) {
+            logger.info("Configured dedicated Timer Driven thread pools {} for Process Groups {}", maxThreadCounts, poolNamesByGroupId);
+        }
+
+        return new ProcessGroupThreadPools(maxThreadCounts, poolNamesByGroupId);
+    }
+
+    /**
+     * Returns the name of the thread pool that the given Process Group's components run in
+     *
+     * @param group the Process Group
+     * @return the name of the thread pool assigned to the group or its nearest assigned ancestor, or <code>null</code> if the components run in the shared thread pool
+     */
+    public String getThreadPoolName(final ProcessGroup group) {
+        if (poolNamesByGroupId.isEmpty()) {
+            return null;
+        }
+
+        ProcessGroup current = group;
+        while (current != null) {
+            final String poolName = poolNamesByGroupId.get(current.getIdentifier());
+            if (poolName != null) {
+                return poolName;
+            }
+
+            current = current.getParent();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the engine that the given component should be scheduled in
+     *
+     * @param connectable the component
+     * @return the engine of the component's thread pool, or <code>null</code> if the component runs in the shared thread pool
+     */
+    public FlowEngine getFlowEngine(final Connectable connectable) {
+        final String poolName = getThreadPoolName(connectable.getProcessGroup());
+        return poolName == null ? null : flowEngines.get(poolName);
+    }
+
+    public int getActiveThreadCount() {
+        int activeThreads = 0;
+        for (final FlowEngine flowEngine : flowEngines.values()) {
+            activeThreads += flowEngine.getActiveCount();
+        }
+        return activeThreads;
+    }
+
+    public List<ThreadPoolStatus> getThreadPoolStatuses() {
+        final List<ThreadPoolStatus> statuses = new ArrayList<>(flowEngines.size());
+        flowEngines.forEach((poolName, flowEngine) -> {
+            final ThreadPoolStatus status = new ThreadPoolStatus();
+            status.setName(poolName);
+            status.setMaxThreads(maxThreadCounts.get(poolName));
+            status.setActiveThreads(flowEngine.getActiveCount());
+            statuses.add(status);
+        });
+        return statuses;
+    }
+
+    public void shutdown(final boolean kill) {
+        for (final FlowEngine flowEngine : flowEngines.values()) {
+            if (kill) {
+                flowEngine.shutdownNow();
+            } else {
+                flowEngine.shutdown();
+            }
+        }
+    }
+
+    public void awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (final FlowEngine flowEngine : flowEngines.values()) {
+            flowEngine.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isTerminated() {
+        return flowEngines.values().stream().allMatch(FlowEngine::isTerminated);
+    }
+}
@@ -23,8 +23,11 @@ import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.CounterRepository;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.ProvenanceRecordingPolicies;
 import org.apache.nifi.controller.repository.RepositoryContext;
 import org.apache.nifi.controller.repository.StandardRepositoryContext;
+import org.apache.nifi.controller.repository.uuid.FlowFileUuidGenerator;
+import org.apache.nifi.controller.repository.uuid.RandomFlowFileUuidGenerator;
 import org.apache.nifi.provenance.ProvenanceRepository;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,10 +40,35 @@ public class RepositoryContextFactory {
     private final CounterRepository counterRepo;
     private final ProvenanceRepository provenanceRepo;
     private final StateManagerProvider stateManagerProvider;
+    private final FlowFileUuidGenerator flowFileUuidGenerator;
+    private final String contentDigestAlgorithm;
+    private final ProvenanceRecordingPolicies provenanceRecordingPolicies;
 
     public RepositoryContextFactory(final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
             final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository,
             final ProvenanceRepository provenanceRepository, final StateManagerProvider stateManagerProvider) {
+        this(contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManagerProvider, new RandomFlowFileUuidGenerator());
+    }
+
+    public RepositoryContextFactory(final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+            final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository,
+            final ProvenanceRepository provenanceRepository, final StateManagerProvider stateManagerProvider,
+            final FlowFileUuidGenerator flowFileUuidGenerator) {
+        this(contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManagerProvider, flowFileUuidGenerator, null);
+    }
+
+    public RepositoryContextFactory(final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+            final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository,
+            final ProvenanceRepository provenanceRepository, final StateManagerProvider stateManagerProvider,
+            final FlowFileUuidGenerator flowFileUuidGenerator, final String contentDigestAlgorithm) {
+        this(contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, stateManagerProvider, flowFileUuidGenerator, contentDigestAlgorithm,
+            ProvenanceRecordingPolicies.EMPTY);
+    }
+
+    public RepositoryContextFactory(final ContentRepository contentRepository, final FlowFileRepository flowFileRepository,
+            final FlowFileEventRepository flowFileEventRepository, final CounterRepository counterRepository,
+            final ProvenanceRepository provenanceRepository, final StateManagerProvider stateManagerProvider,
+            final FlowFileUuidGenerator flowFileUuidGenerator, final String contentDigestAlgorithm, final ProvenanceRecordingPolicies provenanceRecordingPolicies) {
 
         this.contentRepo = contentRepository;
         this.flowFileRepo = flowFileRepository;
@@ -48,11 +76,15 @@ public class RepositoryContextFactory {
         this.counterRepo = counterRepository;
         this.provenanceRepo = provenanceRepository;
         this.stateManagerProvider = stateManagerProvider;
+        this.flowFileUuidGenerator = flowFileUuidGenerator;
+        this.contentDigestAlgorithm = contentDigestAlgorithm;
+        this.provenanceRecordingPolicies = provenanceRecordingPolicies;
     }
 
     public RepositoryContext newProcessContext(final Connectable connectable, final AtomicLong connectionIndex) {
         final StateManager stateManager = stateManagerProvider.getStateManager(connectable.getIdentifier());
-        return new StandardRepositoryContext(connectable, connectionIndex, contentRepo, flowFileRepo, flowFileEventRepo, counterRepo, provenanceRepo, stateManager);
+        return new StandardRepositoryContext(connectable, connectionIndex, contentRepo, flowFileRepo, flowFileEventRepo, counterRepo, provenanceRepo, stateManager,
+            flowFileUuidGenerator, contentDigestAlgorithm, provenanceRecordingPolicies);
     }
 
     public ContentRepository getContentRepository() {
@@ -17,27 +17,53 @@
 package org.apache.nifi.controller.scheduling;
 
 import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.ReportingTaskNode;
+import org.apache.nifi.controller.status.FlowFileAvailability;
 import org.apache.nifi.controller.tasks.ConnectableTask;
 import org.apache.nifi.controller.tasks.InvocationResult;
 import org.apache.nifi.controller.tasks.ReportingTaskWrapper;
 import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.nar.NarThreadContextClassLoader;
+import org.apache.nifi.util.Connectables;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent {
     private final long noWorkYieldNanos;
+    private final long noWorkParkNanos;
+    private final ProcessGroupThreadPools threadPools;
+    private final VirtualThreads virtualThreads;
+
+    // Triggers of components that have been parked because they had no data to process, so that they can be woken up when data arrives
+    private final ConcurrentMap<Connectable, Set<ParkedTrigger>> parkedTriggers = new ConcurrentHashMap<>();
 
     public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final RepositoryContextFactory contextFactory,
                                       final NiFiProperties nifiProperties) {
+        this(flowController, flowEngine, ProcessGroupThreadPools.empty(), VirtualThreads.disabled(), contextFactory, nifiProperties);
+    }
+
+    public TimerDrivenSchedulingAgent(final FlowController flowController, final FlowEngine flowEngine, final ProcessGroupThreadPools threadPools,
+                                      final VirtualThreads virtualThreads, final RepositoryContextFactory contextFactory, final NiFiProperties nifiProperties) {
         super(flowEngine, flowController, contextFactory);
+        this.threadPools = threadPools;
+        this.virtualThreads = virtualThreads;
 
         final String boredYieldDuration = nifiProperties.getBoredYieldDuration();
         try {
@@ -45,6 +71,13 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         } catch (final IllegalArgumentException e) {
             throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.BORED_YIELD_DURATION + " property is set to an invalid time duration: " + boredYieldDuration);
         }
+
+        final String boredParkDuration = nifiProperties.getBoredParkDuration();
+        try {
+            noWorkParkNanos = (long) FormatUtils.getPreciseTimeDuration(boredParkDuration, TimeUnit.NANOSECONDS);
+        } catch (final IllegalArgumentException e) {
+            throw new RuntimeException("Failed to create SchedulingAgent because the " + NiFiProperties.BORED_PARK_DURATION + " property is set to an invalid time duration: " + boredParkDuration);
+        }
     }
 
     @Override
@@ -68,35 +101,158 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
     @Override
     public void doSchedule(final Connectable connectable, final LifecycleState scheduleState) {
         final List<ScheduledFuture<?>> futures = new ArrayList<>();
-        final ConnectableTask connectableTask = new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+        final ConnectableTask connectableTask = createConnectableTask(connectable, scheduleState);
+
+        if (virtualThreads.isVirtual(connectable)) {
+            scheduleVirtualThreads(connectableTask, scheduleState);
+            return;
+        }
 
+        // Components of Process Groups that have a dedicated thread pool run only in that pool
+        final FlowEngine dedicatedFlowEngine = threadPools.getFlowEngine(connectable);
+        final FlowEngine connectableFlowEngine = dedicatedFlowEngine == null ? flowEngine : dedicatedFlowEngine;
+
+        // A trigger that yields or parks replaces its future in the ScheduleState while holding its lock, so hold the lock until the
+        // ScheduleState has the futures. Otherwise, the replacement could be overwritten by the original future, which is already cancelled.
+        synchronized (scheduleState) {
+            for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
+                // Determine the task to run and create it.
+                final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+
+                final Runnable trigger = createTrigger(connectableTask, connectableFlowEngine, scheduleState, futureRef);
+
+                // Schedule the task to run
+                final ScheduledFuture<?> future = connectableFlowEngine.scheduleWithFixedDelay(trigger, 0L,
+                    connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+                // now that we have the future, set the atomic reference so that if the component is yielded we
+                // are able to then cancel this future.
+                futureRef.set(future);
+
+                // Keep track of the futures so that we can update the ScheduleState.
+                futures.add(future);
+            }
+
+            scheduleState.setFutures(futures);
+        }
+        if (dedicatedFlowEngine == null) {
+            logger.info("Scheduled {} to run with {} threads", connectable, connectable.getMaxConcurrentTasks());
+        } else {
+            logger.info("Scheduled {} to run with {} threads in thread pool '{}'", connectable, connectable.getMaxConcurrentTasks(),
+                threadPools.getThreadPoolName(connectable.getProcessGroup()));
+        }
+    }
+
+    ConnectableTask createConnectableTask(final Connectable connectable, final LifecycleState scheduleState) {
+        return new ConnectableTask(this, connectable, flowController, contextFactory, scheduleState);
+    }
+
+    private void scheduleVirtualThreads(final ConnectableTask connectableTask, final LifecycleState scheduleState) {
+        final Connectable connectable = connectableTask.getConnectable();
+
+        // Each concurrent task runs on its own virtual thread for as long as the component is scheduled, so the component's
+        // concurrency is bounded only by its Concurrent Tasks setting.
+        final List<VirtualThreadTrigger> triggers = new ArrayList<>();
         for (int i = 0; i < connectable.getMaxConcurrentTasks(); i++) {
-            // Determine the task to run and create it.
-            final AtomicReference<ScheduledFuture<?>> futureRef = new AtomicReference<>();
+            triggers.add(new VirtualThreadTrigger(connectableTask, scheduleState));
+        }
 
-            final Runnable trigger = createTrigger(connectableTask, scheduleState, futureRef);
+        scheduleState.setFutures(new ArrayList<>(triggers));
+        for (final VirtualThreadTrigger trigger : triggers) {
+            virtualThreads.start(trigger);
+        }
+
+        logger.info("Scheduled {} to run with {} virtual threads", connectable, connectable.getMaxConcurrentTasks());
+    }
+
+    private void runOnVirtualThread(final ConnectableTask connectableTask, final VirtualThreadTrigger trigger) {
+        final Connectable connectable = connectableTask.getConnectable();
+        final ParkedTrigger parkedTrigger = new ParkedTrigger(Thread.currentThread(), trigger.scheduleState);
+        Thread.currentThread().setContextClassLoader(NarThreadContextClassLoader.getInstance());
+
+        while (!trigger.isCancelled() && !virtualThreads.isShutdown()) {
+            // Clear any interrupt left over from the previous invocation, as a thread pool does between tasks
+            Thread.interrupted();
 
-            // Schedule the task to run
-            final ScheduledFuture<?> future = flowEngine.scheduleWithFixedDelay(trigger, 0L,
-                connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            InvocationResult invocationResult;
+            virtualThreads.incrementActiveCount();
+            try {
+                invocationResult = connectableTask.invoke();
+            } catch (final Throwable t) {
+                logger.error("Uncaught Exception in Runnable task", t);
+                invocationResult = InvocationResult.DO_NOT_YIELD;
+            } finally {
+                virtualThreads.decrementActiveCount();
+            }
 
-            // now that we have the future, set the atomic reference so that if the component is yielded we
-            // are able to then cancel this future.
-            futureRef.set(future);
+            if (invocationResult.isYield()) {
+                logger.debug("Yielding {} due to {}", connectable, invocationResult.getYieldExplanation());
+            }
 
-            // Keep track of the futures so that we can update the ScheduleState.
-            futures.add(future);
+            // Wait for the same amount of time that a trigger in a thread pool would be rescheduled for
+            final long yieldExpiration = connectable.getYieldExpiration();
+            final long now = System.currentTimeMillis();
+            final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
+            if (yieldExpiration > now) {
+                sleep(trigger, Math.max(schedulingNanos, TimeUnit.MILLISECONDS.toNanos(yieldExpiration - now)), null);
+            } else if (noWorkParkNanos > 0L && invocationResult.isYield() && isParkable(connectable)) {
+                park(connectable, parkedTrigger);
+                sleep(trigger, noWorkParkNanos, parkedTrigger);
+                parkedTrigger.parked.set(false);
+            } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
+                sleep(trigger, noWorkYieldNanos, null);
+            } else {
+                sleep(trigger, schedulingNanos, null);
+            }
         }
+    }
 
-        scheduleState.setFutures(futures);
-        logger.info("Scheduled {} to run with {} threads", connectable, connectable.getMaxConcurrentTasks());
+    /**
+     * Waits on a virtual thread until the given amount of time has elapsed, or the trigger has been cancelled, or the given parked trigger
+     * (if any) has been woken up because data has been queued for the component.
+     */
+    private void sleep(final VirtualThreadTrigger trigger, final long nanos, final ParkedTrigger parkedTrigger) {
+        final long deadline = System.nanoTime() + nanos;
+        long remainingNanos = nanos;
+
+        while (remainingNanos > 0L && !trigger.isCancelled() && !virtualThreads.isShutdown()) {
+            if (parkedTrigger != null && !parkedTrigger.parked.get()) {
+                return;
+            }
+
+            LockSupport.parkNanos(this, remainingNanos);
+            remainingNanos = deadline - System.nanoTime();
+        }
     }
 
-    private Runnable createTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState, final AtomicReference<ScheduledFuture<?>> futureRef) {
+    private Runnable createTrigger(final ConnectableTask connectableTask, final FlowEngine connectableFlowEngine, final LifecycleState scheduleState,
+                                   final AtomicReference<ScheduledFuture<?>> futureRef) {
         final Connectable connectable = connectableTask.getConnectable();
         final Runnable yieldDetectionRunnable = new Runnable() {
+            private final ParkedTrigger parkedTrigger = new ParkedTrigger(this, connectableFlowEngine, scheduleState, futureRef);
+
             @Override
             public void run() {
+                if (noWorkParkNanos <= 0L) {
+                    trigger();
+                    return;
+                }
+
+                // A trigger that is woken up may briefly overlap with the run that its parked schedule had already started,
+                // so ensure that a trigger never runs concurrently with itself.
+                if (!parkedTrigger.running.compareAndSet(false, true)) {
+                    return;
+                }
+
+                try {
+                    parkedTrigger.parked.set(false);
+                    trigger();
+                } finally {
+                    parkedTrigger.running.set(false);
+                }
+            }
+
+            private void trigger() {
                 // Call the task. It will return a boolean indicating whether or not we should yield
                 // based on a lack of work for to do for the component.
                 final InvocationResult invocationResult = connectableTask.invoke();
@@ -125,13 +281,34 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                         synchronized (scheduleState) {
                             if (scheduleState.isScheduled()) {
                                 final long schedulingNanos = connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS);
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, yieldNanos, schedulingNanos, TimeUnit.NANOSECONDS);
+                                final ScheduledFuture<?> newFuture = connectableFlowEngine.scheduleWithFixedDelay(this, yieldNanos, schedulingNanos, TimeUnit.NANOSECONDS);
 
                                 scheduleState.replaceFuture(scheduledFuture, newFuture);
                                 futureRef.set(newFuture);
                             }
                         }
                     }
+                } else if (noWorkParkNanos > 0L && invocationResult.isYield() && isParkable(connectable)) {
+                    // Component has no data to process, so rather than checking again after the bored yield duration,
+                    // wait until data is queued for it, or until the park duration has elapsed.
+                    final ScheduledFuture<?> scheduledFuture = futureRef.get();
+                    if (scheduledFuture == null) {
+                        return;
+                    }
+
+                    if (scheduledFuture.cancel(false)) {
+                        synchronized (scheduleState) {
+                            if (scheduleState.isScheduled()) {
+                                final ScheduledFuture<?> newFuture = connectableFlowEngine.scheduleWithFixedDelay(this, noWorkParkNanos,
+                                    connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+                                scheduleState.replaceFuture(scheduledFuture, newFuture);
+                                futureRef.set(newFuture);
+                            }
+                        }
+
+                        park(connectable, parkedTrigger);
+                    }
                 } else if (noWorkYieldNanos > 0L && invocationResult.isYield()) {
                     // Component itself didn't yield but there was no work to do, so the framework will choose
                     // to yield the component automatically for a short period of time.
@@ -146,7 +323,7 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
                     if (scheduledFuture.cancel(false)) {
                         synchronized (scheduleState) {
                             if (scheduleState.isScheduled()) {
-                                final ScheduledFuture<?> newFuture = flowEngine.scheduleWithFixedDelay(this, noWorkYieldNanos,
+                                final ScheduledFuture<?> newFuture = connectableFlowEngine.scheduleWithFixedDelay(this, noWorkYieldNanos,
                                     connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
 
                                 scheduleState.replaceFuture(scheduledFuture, newFuture);
@@ -161,12 +338,89 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
         return yieldDetectionRunnable;
     }
 
+    /**
+     * Determines whether or not a component that has no work to do can be parked until data is queued for it. Only components that process
+     * data from other components can be parked; source components, and components whose head of queue is penalized, are not notified when
+     * they have work to do and so must continue to be triggered on their schedule.
+     */
+    private boolean isParkable(final Connectable connectable) {
+        if (connectable.isTriggerWhenEmpty() || !connectable.hasIncomingConnection() || !Connectables.hasNonLoopConnection(connectable)) {
+            return false;
+        }
+
+        for (final Connection connection : connectable.getIncomingConnections()) {
+            if (connection.getFlowFileQueue().getFlowFileAvailability() != FlowFileAvailability.ACTIVE_QUEUE_EMPTY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void park(final Connectable connectable, final ParkedTrigger parkedTrigger) {
+        parkedTrigger.parked.set(true);
+        parkedTriggers.computeIfAbsent(connectable, key -> ConcurrentHashMap.newKeySet()).add(parkedTrigger);
+
+        // The component may have been unscheduled while this trigger was running, after its parked triggers were discarded.
+        if (!parkedTrigger.scheduleState.isScheduled()) {
+            parkedTrigger.parked.set(false);
+            parkedTriggers.computeIfPresent(connectable, (key, triggers) -> {
+                triggers.remove(parkedTrigger);
+                return triggers.isEmpty() ? null : triggers;
+            });
+            return;
+        }
+
+        // Data may have been queued after the component last checked for work but before it was parked, in which case
+        // no event will arrive to wake it up.
+        if (Connectables.flowFilesQueued(connectable)) {
+            wake(connectable, parkedTrigger);
+        }
+    }
+
+    private void wake(final Connectable connectable, final ParkedTrigger parkedTrigger) {
+        if (!parkedTrigger.parked.compareAndSet(true, false)) {
+            return;
+        }
+
+        if (parkedTrigger.thread != null) {
+            LockSupport.unpark(parkedTrigger.thread);
+            return;
+        }
+
+        final ScheduledFuture<?> parkedFuture = parkedTrigger.futureRef.get();
+        if (parkedFuture == null || !parkedFuture.cancel(false)) {
+            return;
+        }
+
+        final LifecycleState scheduleState = parkedTrigger.scheduleState;
+        synchronized (scheduleState) {
+            if (scheduleState.isScheduled()) {
+                final ScheduledFuture<?> newFuture = parkedTrigger.flowEngine.scheduleWithFixedDelay(parkedTrigger.trigger, 0L,
+                    connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+                scheduleState.replaceFuture(parkedFuture, newFuture);
+                parkedTrigger.futureRef.set(newFuture);
+            }
+        }
+    }
+
+    /**
+     * @param connectable the component
+     * @return the number of the component's triggers that are parked, waiting for data to be queued for it
+     */
+    int getParkedTriggerCount(final Connectable connectable) {
+        final Set<ParkedTrigger> triggers = parkedTriggers.get(connectable);
+        return triggers == null ? 0 : (int) triggers.stream().filter(trigger -> trigger.parked.get()).count();
+    }
+
     @Override
     public void doUnschedule(final Connectable connectable, final LifecycleState scheduleState) {
         for (final ScheduledFuture<?> future : scheduleState.getFutures()) {
             // stop scheduling to run but do not interrupt currently running tasks.
             future.cancel(false);
         }
+        parkedTriggers.remove(connectable);
 
         logger.info("Stopped scheduling {} to run", connectable);
     }
@@ -183,9 +437,136 @@ public class TimerDrivenSchedulingAgent extends AbstractTimeBasedSchedulingAgent
 
     @Override
     public void onEvent(final Connectable connectable) {
+        if (parkedTriggers.isEmpty()) {
+            return;
+        }
+
+        final Set<ParkedTrigger> triggers = parkedTriggers.get(connectable);
+        if (triggers == null) {
+            return;
+        }
+
+        for (final ParkedTrigger parkedTrigger : triggers) {
+            if (parkedTrigger.parked.get()) {
+                wake(connectable, parkedTrigger);
+            }
+        }
     }
 
     @Override
     public void setMaxThreadCount(final int maxThreads) {
     }
+
+    private static class ParkedTrigger {
+        private final Runnable trigger;
+        private final FlowEngine flowEngine;
+        private final LifecycleState scheduleState;
+        private final AtomicReference<ScheduledFuture<?>> futureRef;
+        private final Thread thread;
+        private final AtomicBoolean parked = new AtomicBoolean(false);
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        ParkedTrigger(final Runnable trigger, final FlowEngine flowEngine, final LifecycleState scheduleState, final AtomicReference<ScheduledFuture<?>> futureRef) {
+            this.trigger = trigger;
+            this.flowEngine = flowEngine;
+            this.scheduleState = scheduleState;
+            this.futureRef = futureRef;
+            this.thread = null;
+        }
+
+        ParkedTrigger(final Thread thread, final LifecycleState scheduleState) {
+            this.trigger = null;
+            this.flowEngine = null;
+            this.scheduleState = scheduleState;
+            this.futureRef = null;
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * A concurrent task of a component that runs on a virtual thread until it is cancelled. It is a ScheduledFuture only so that it
+     * can be tracked and cancelled by the component's LifecycleState in the same way as tasks that run in a thread pool.
+     */
+    private class VirtualThreadTrigger implements Runnable, ScheduledFuture<Void> {
+        private final ConnectableTask connectableTask;
+        private final LifecycleState scheduleState;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile boolean cancelled = false;
+        private volatile Thread thread;
+
+        VirtualThreadTrigger(final ConnectableTask connectableTask, final LifecycleState scheduleState) {
+            this.connectableTask = connectableTask;
+            this.scheduleState = scheduleState;
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            try {
+                runOnVirtualThread(connectableTask, this);
+            } finally {
+                completed.countDown();
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            if (isDone()) {
+                return false;
+            }
+
+            cancelled = true;
+
+            // Wake the thread if it is waiting to run the component again, so that it stops promptly
+            final Thread runningThread = thread;
+            if (runningThread != null) {
+                LockSupport.unpark(runningThread);
+                if (mayInterruptIfRunning) {
+                    runningThread.interrupt();
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return cancelled || completed.getCount() == 0;
+        }
+
+        @Override
+        public Void get() throws InterruptedException {
+            completed.await();
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return null;
+        }
+
+        @Override
+        public Void get(final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+            if (!completed.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            return null;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return 0L;
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
 }
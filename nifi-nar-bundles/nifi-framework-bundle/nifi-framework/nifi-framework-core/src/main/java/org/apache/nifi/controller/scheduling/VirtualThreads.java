@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.ComponentNode;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Runs the concurrent tasks of selected Timer Driven components on virtual threads rather than in a thread pool. Components that spend
+ * most of their time blocked on the network, such as those that call remote services, otherwise need a thread pool that is sized for
+ * the number of requests that they have outstanding. A virtual thread gives up its carrier thread while it is blocked, so the number
+ * of concurrent tasks of these components is limited only by their own Concurrent Tasks setting and not by the size of any pool.
+ * </p>
+ *
+ * <p>
+ * The components are selected by type in nifi.properties, as a comma-separated list of fully qualified or simple class names:
+ * </p>
+ *
+ * <pre>
+ * nifi.virtual.threads.component.types=org.apache.nifi.processors.standard.InvokeHTTP,PutSFTP
+ * </pre>
+ *
+ * <p>
+ * Virtual threads require Java 21 or later. They are looked up reflectively so that NiFi continues to run on earlier versions,
+ * in which case the components run in the Timer Driven thread pool as usual.
+ * </p>
+ */
+public class VirtualThreads {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreads.class);
+    private static final String THREAD_NAME_PREFIX = "Timer-Driven Process Virtual Thread-";
+
+    private final Set<String> componentTypes;
+    private final ThreadFactory threadFactory;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeCount = new AtomicInteger(0);
+    private volatile boolean shutdown = false;
+
+    private VirtualThreads(final Set<String> componentTypes, final ThreadFactory threadFactory) {
+        this.componentTypes = componentTypes;
+        this.threadFactory = threadFactory;
+    }
+
+    public static VirtualThreads disabled() {
+        return new VirtualThreads(Collections.emptySet(), null);
+    }
+
+    /**
+     * Creates an instance for the component types that are configured in the given properties
+     *
+     * @param nifiProperties the properties
+     * @return an instance that runs the configured component types on virtual threads, or one that runs no components on virtual
+     * threads if none are configured or the runtime does not support virtual threads
+     */
+    public static VirtualThreads create(final NiFiProperties nifiProperties) {
+        final Set<String> componentTypes = new HashSet<>();
+        final String configuredTypes = nifiProperties.getProperty(NiFiProperties.VIRTUAL_THREADS_COMPONENT_TYPES, "");
+        for (final String componentType : configuredTypes.split(",")) {
+            final String trimmedType = componentType.trim();
+            if (!trimmedType.isEmpty()) {
+                componentTypes.add(trimmedType);
+            }
+        }
+
+        if (componentTypes.isEmpty()) {
+            return disabled();
+        }
+
+        final ThreadFactory threadFactory = createVirtualThreadFactory();
+        if (threadFactory == null) {
+            logger.warn("{} is configured for component types {} but virtual threads are not supported by Java {}; these components will run in the Timer Driven thread pool",
+                NiFiProperties.VIRTUAL_THREADS_COMPONENT_TYPES, componentTypes, System.getProperty("java.version"));
+            return disabled();
+        }
+
+        logger.info("Timer Driven components of types {} will run on virtual threads", componentTypes);
+        return new VirtualThreads(Collections.unmodifiableSet(componentTypes), threadFactory);
+    }
+
+    /**
+     * @return <code>true</code> if the Java runtime supports virtual threads, <code>false</code> otherwise
+     */
+    public static boolean isSupported() {
+        return createVirtualThreadFactory() != null;
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            // Equivalent to Thread.ofVirtual().name(THREAD_NAME_PREFIX, 1).factory(), which cannot be referenced directly without requiring Java 21
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+            final Method factoryMethod = builderClass.getMethod("factory");
+
+            final Object namedBuilder = nameMethod.invoke(builder, THREAD_NAME_PREFIX, 1L);
+            return (ThreadFactory) factoryMethod.invoke(namedBuilder);
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            logger.debug("Virtual threads are not supported by this Java runtime", e);
+            return null;
+        }
+    }
+
+    /**
+     * Indicates whether or not the concurrent tasks of the given component should run on virtual threads
+     *
+     * @param connectable the component
+     * @return <code>true</code> if the component's tasks should run on virtual threads, <code>false</code> if they should run in a thread pool
+     */
+    public boolean isVirtual(final Connectable connectable) {
+        if (threadFactory == null) {
+            return false;
+        }
+
+        final String componentType = connectable.getComponentType();
+        if (componentType == null) {
+            return false;
+        }
+
+        if (componentTypes.contains(componentType)) {
+            return true;
+        }
+
+        return connectable instanceof ComponentNode && componentTypes.contains(((ComponentNode) connectable).getCanonicalClassName());
+    }
+
+    /**
+     * Starts a new virtual thread that runs the given task
+     *
+     * @param task the task to run
+     * @return the thread that was started
+     * @throws IllegalStateException if virtual threads are not enabled, or have been shut down
+     */
+    public Thread start(final Runnable task) {
+        if (threadFactory == null) {
+            throw new IllegalStateException("Virtual threads are not enabled");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Virtual threads have been shut down");
+        }
+
+        final Thread thread = threadFactory.newThread(() -> {
+            try {
+                task.run();
+            } finally {
+                threads.remove(Thread.currentThread());
+            }
+        });
+
+        threads.add(thread);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @return <code>true</code> if virtual threads have been shut down and no tasks should continue to run on them
+     */
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    void incrementActiveCount() {
+        activeCount.incrementAndGet();
+    }
+
+    void decrementActiveCount() {
+        activeCount.decrementAndGet();
+    }
+
+    /**
+     * @return the number of virtual threads that are currently running a component's task
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public void shutdown(final boolean kill) {
+        shutdown = true;
+        for (final Thread thread : threads) {
+            if (kill) {
+                thread.interrupt();
+            } else {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    public void awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (final Thread thread : threads) {
+            final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0L) {
+                return;
+            }
+
+            thread.join(remainingMillis);
+        }
+    }
+
+    public boolean isTerminated() {
+        return shutdown && threads.isEmpty();
+    }
+}
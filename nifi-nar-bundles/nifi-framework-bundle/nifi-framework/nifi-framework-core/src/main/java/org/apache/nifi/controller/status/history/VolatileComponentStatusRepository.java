@@ -60,6 +60,7 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
 
     private static final String STORAGE_FREE_DESCRIPTION = "The usable space available for use by the underlying storage mechanism.";
     private static final String STORAGE_USED_DESCRIPTION = "The space in use on the underlying storage mechanism";
+    private static final String THREAD_POOL_ACTIVE_THREADS_DESCRIPTION = "The number of threads of the thread pool that are actively running components.";
 
     private static final String GC_TIME_DESCRIPTION = "The sum time the garbage collection has run since the start of the Java virtual machine.";
     private static final String GC_TIME_DIFF_DESCRIPTION = "The sum time the garbage collection has run since the last measurement.";
@@ -198,6 +199,10 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
                 nodeStatusDescriptors.add(getProvenanceStorageFree(referenceNodeStatus, i, counter.incrementAndGet()));
                 nodeStatusDescriptors.add(getProvenanceStorageUsed(referenceNodeStatus, i, counter.incrementAndGet()));
             }
+
+            for (int i = 0; i < referenceNodeStatus.getThreadPools().size(); i++) {
+                nodeStatusDescriptors.add(getThreadPoolActiveThreads(referenceNodeStatus, i, counter.incrementAndGet()));
+            }
         }
 
         // Uses the first measurement (if any) as reference for GC metrics descriptors. The reference will be used
@@ -294,6 +299,17 @@ public class VolatileComponentStatusRepository implements StatusHistoryRepositor
         );
     }
 
+    private StandardMetricDescriptor<NodeStatus> getThreadPoolActiveThreads(final NodeStatus referenceNodeStatus, final int poolNumber, final int order) {
+        return new StandardMetricDescriptor<>(
+                () -> order,
+                "threadPool" + poolNumber + "ActiveThreads",
+                "Thread Pool (" + referenceNodeStatus.getThreadPools().get(poolNumber).getName() + ") Active Threads",
+                THREAD_POOL_ACTIVE_THREADS_DESCRIPTION,
+                MetricDescriptor.Formatter.COUNT,
+                n -> (long) n.getThreadPools().get(poolNumber).getActiveThreads()
+        );
+    }
+
     // Descriptors for garbage collectors
 
     private static StandardMetricDescriptor<List<GarbageCollectionStatus>> getGarbageCollectorCount(final int gcNumber, final String memoryManagerName, final int order) {
@@ -49,7 +49,13 @@ public class StandardEventAccess extends AbstractEventAccess implements UserAwar
 
     public StandardEventAccess(final FlowManager flowManager, final FlowFileEventRepository flowFileEventRepository, final ProcessScheduler processScheduler,
                                final Authorizer authorizer, final ProvenanceRepository provenanceRepository, final AuditService auditService, final StatusAnalyticsEngine statusAnalyticsEngine) {
-        super(processScheduler, statusAnalyticsEngine, flowManager, flowFileEventRepository);
+        this(flowManager, flowFileEventRepository, processScheduler, authorizer, provenanceRepository, auditService, statusAnalyticsEngine, 0L);
+    }
+
+    public StandardEventAccess(final FlowManager flowManager, final FlowFileEventRepository flowFileEventRepository, final ProcessScheduler processScheduler,
+                               final Authorizer authorizer, final ProvenanceRepository provenanceRepository, final AuditService auditService, final StatusAnalyticsEngine statusAnalyticsEngine,
+                               final long statusSnapshotCacheMillis) {
+        super(processScheduler, statusAnalyticsEngine, flowManager, flowFileEventRepository, statusSnapshotCacheMillis);
         this.flowFileEventRepository = flowFileEventRepository;
         this.flowManager = flowManager;
         this.authorizer = authorizer;
@@ -94,7 +100,7 @@ public class StandardEventAccess extends AbstractEventAccess implements UserAwar
      * @return the component status
      */
     public ProcessGroupStatus getGroupStatus(final String groupId, final NiFiUser user, final int recursiveStatusDepth) {
-        final RepositoryStatusReport repoStatusReport = generateRepositoryStatusReport();
+        final RepositoryStatusReport repoStatusReport = getSharedRepositoryStatusReport();
         return getGroupStatus(groupId, repoStatusReport, user, recursiveStatusDepth);
     }
 
@@ -125,7 +131,7 @@ public class StandardEventAccess extends AbstractEventAccess implements UserAwar
      * @return the component status
      */
     public ProcessGroupStatus getGroupStatus(final String groupId, final NiFiUser user) {
-        final RepositoryStatusReport repoStatusReport = generateRepositoryStatusReport();
+        final RepositoryStatusReport repoStatusReport = getSharedRepositoryStatusReport();
         return getGroupStatus(groupId, repoStatusReport, user);
     }
 
@@ -31,18 +31,20 @@ import org.apache.nifi.controller.swap.StandardSwapSummary;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class MockSwapManager implements FlowFileSwapManager {
-    public final Map<String, List<FlowFileRecord>> swappedOut = new HashMap<>();
+    public final Map<String, List<FlowFileRecord>> swappedOut = new ConcurrentHashMap<>();
     public int swapOutCalledCount = 0;
     public int swapInCalledCount = 0;
+    public final AtomicInteger peekCalledCount = new AtomicInteger(0);
 
     public int incompleteSwapFileRecordsToInclude = -1;
 
@@ -118,6 +120,7 @@ public class MockSwapManager implements FlowFileSwapManager {
 
     @Override
     public SwapContents peek(String swapLocation, final FlowFileQueue flowFileQueue) throws IOException {
+        peekCalledCount.incrementAndGet();
         throwIncompleteIfNecessary(swapLocation, false);
         return new StandardSwapContents(getSwapSummary(swapLocation), swappedOut.get(swapLocation));
     }
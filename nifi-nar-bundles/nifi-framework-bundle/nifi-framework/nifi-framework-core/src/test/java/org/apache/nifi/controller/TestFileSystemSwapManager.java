@@ -45,7 +45,10 @@ import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -144,6 +147,46 @@ public class TestFileSystemSwapManager {
         assertEquals(10000, contents.getFlowFiles().size());
     }
 
+    @Test
+    public void testCompressedSwapFileRoundTrip() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            flowFileRecords.add(new MockFlowFileRecord(i));
+        }
+
+        final FileSystemSwapManager compressedSwapManager = createSwapManager(flowFileRepo, true);
+        final String compressedLocation = compressedSwapManager.swapOut(flowFileRecords, flowFileQueue, "partition-1");
+
+        // Swap Files must be readable regardless of whether or not compression is currently enabled
+        final FileSystemSwapManager swapManager = createSwapManager(flowFileRepo, false);
+        final String uncompressedLocation = swapManager.swapOut(flowFileRecords, flowFileQueue, "partition-1");
+        assertTrue(new File(compressedLocation).length() < new File(uncompressedLocation).length());
+
+        assertEquals(10000, swapManager.getSwapSummary(compressedLocation).getQueueSize().getObjectCount());
+        assertEquals(10000, compressedSwapManager.getSwapSummary(uncompressedLocation).getQueueSize().getObjectCount());
+
+        final SwapContents peeked = swapManager.peek(compressedLocation, flowFileQueue);
+        assertEquals(10000, peeked.getFlowFiles().size());
+
+        final SwapContents swappedIn = swapManager.swapIn(compressedLocation, flowFileQueue, peeked);
+        assertSame(peeked, swappedIn);
+        assertFalse(new File(compressedLocation).exists());
+        Mockito.verify(flowFileRepo).swapFlowFilesIn(compressedLocation, peeked.getFlowFiles(), flowFileQueue);
+
+        final SwapContents uncompressedContents = compressedSwapManager.swapIn(uncompressedLocation, flowFileQueue);
+        assertEquals(10000, uncompressedContents.getFlowFiles().size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i, uncompressedContents.getFlowFiles().get(i).getSize());
+            assertEquals(i, swappedIn.getFlowFiles().get(i).getSize());
+        }
+    }
+
     private FileSystemSwapManager createSwapManager() throws IOException {
         final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
         return createSwapManager(flowFileRepo);
@@ -153,7 +196,11 @@ public class TestFileSystemSwapManager {
     public Path temporaryFolder;
 
     private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo) {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder);
+        return createSwapManager(flowFileRepo, false);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo, final boolean compressed) {
+        final FileSystemSwapManager swapManager = new FileSystemSwapManager(temporaryFolder, compressed);
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         swapManager.initialize(new SwapManagerInitializationContext() {
             @Override
@@ -28,6 +28,7 @@ import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.StandardFlowFileQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
@@ -51,6 +52,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -519,6 +521,33 @@ public class TestStandardFlowFileQueue {
         assertNull(status.getFailureReason());
     }
 
+    @Test
+    public void testRecoverSwappedFlowFilesUsesGivenExecutor() {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            flowFiles.add(new MockFlowFileRecord());
+        }
+
+        queue.putAll(flowFiles);
+        final int swapFileCount = swapManager.swappedOut.size();
+        final int swappedFlowFileCount = swapManager.swappedOut.values().stream().mapToInt(List::size).sum();
+        assertTrue(swapFileCount > 0);
+
+        // Simulate a restart, in which a new queue recovers the Swap Files written by the previous one
+        final StandardFlowFileQueue recoveredQueue = new StandardFlowFileQueue("id", new NopConnectionEventListener(), flowFileRepo, provRepo, claimManager, scheduler, swapManager,
+            null, 10000, "0 sec", 0L, "0 B");
+
+        final AtomicInteger tasksExecuted = new AtomicInteger(0);
+        final SwapSummary summary = recoveredQueue.recoverSwappedFlowFiles(task -> {
+            tasksExecuted.incrementAndGet();
+            task.run();
+        });
+
+        assertEquals(swapFileCount, tasksExecuted.get());
+        assertEquals(swappedFlowFileCount, summary.getQueueSize().getObjectCount());
+        assertEquals(swappedFlowFileCount, recoveredQueue.size().getObjectCount());
+    }
+
     @Test
     @Timeout(10)
     public void testListFlowFilesResultsLimitedCollection() throws InterruptedException {
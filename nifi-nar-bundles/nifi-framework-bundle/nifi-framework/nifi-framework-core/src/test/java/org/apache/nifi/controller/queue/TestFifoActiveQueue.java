@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.MockFlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFifoActiveQueue {
+
+    @Test
+    public void testIsApplicable() {
+        final FlowFilePrioritizer prioritizer = (o1, o2) -> 0;
+
+        assertTrue(FifoActiveQueue.isApplicable(null));
+        assertTrue(FifoActiveQueue.isApplicable(Collections.emptyList()));
+        assertFalse(FifoActiveQueue.isApplicable(Collections.singletonList(prioritizer)));
+    }
+
+    @Test
+    public void testInsertionOrder() {
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final FlowFileRecord flowFile = new MockFlowFileRecord(i);
+            flowFiles.add(flowFile);
+            queue.add(flowFile);
+        }
+
+        assertEquals(100, queue.size());
+        for (final FlowFileRecord expected : flowFiles) {
+            assertSame(expected, queue.peek());
+            assertSame(expected, queue.poll());
+        }
+
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testPenalizedFlowFileDoesNotBlockQueue() {
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+
+        final MockFlowFileRecord penalized = new MockFlowFileRecord(1L);
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        final MockFlowFileRecord unpenalized = new MockFlowFileRecord(1L);
+
+        queue.add(penalized);
+        queue.add(unpenalized);
+
+        assertSame(unpenalized, queue.poll());
+        assertSame(penalized, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testExpiredPenaltyIsPolledFirst() {
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+
+        final MockFlowFileRecord penalized = new MockFlowFileRecord(1L);
+        penalized.setPenaltyExpiration(System.currentTimeMillis() + 60_000L);
+        queue.add(penalized);
+
+        final MockFlowFileRecord unpenalized = new MockFlowFileRecord(1L);
+        queue.add(unpenalized);
+
+        penalized.setPenaltyExpiration(0L);
+        assertSame(penalized, queue.poll());
+        assertSame(unpenalized, queue.poll());
+    }
+
+    @Test
+    public void testRequeuePreservesOrder() {
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+        final FlowFileRecord first = new MockFlowFileRecord(1L);
+        final FlowFileRecord second = new MockFlowFileRecord(1L);
+        final FlowFileRecord third = new MockFlowFileRecord(1L);
+        queue.addAll(Arrays.asList(first, second, third));
+
+        final List<FlowFileRecord> polled = Arrays.asList(queue.poll(), queue.poll());
+        queue.requeue(polled);
+
+        assertEquals(3, queue.size());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertSame(third, queue.poll());
+    }
+
+    @Test
+    public void testReturnedFlowFileIsPolledFirst() {
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+        final FlowFileRecord first = new MockFlowFileRecord(1L);
+        final FlowFileRecord second = new MockFlowFileRecord(1L);
+        final FlowFileRecord third = new MockFlowFileRecord(1L);
+        queue.addAll(Arrays.asList(first, second, third));
+
+        // A rolled back session returns the FlowFile with put(), rather than requeue()
+        final FlowFileRecord polled = queue.poll();
+        queue.offer(polled);
+
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertSame(third, queue.poll());
+    }
+
+    @Test
+    public void testOutOfOrderFlowFilesPolledInPriorityOrder() {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            flowFiles.add(new MockFlowFileRecord(1L));
+        }
+
+        final List<FlowFileRecord> shuffled = new ArrayList<>(flowFiles);
+        Collections.shuffle(shuffled, new Random(1L));
+
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+        queue.addAll(shuffled.subList(0, 500));
+
+        // Interleave polls with offers, as a queue that is receiving and delivering FlowFiles at the same time would
+        final PriorityQueue<FlowFileRecord> expected = new PriorityQueue<>(new QueuePrioritizer(Collections.emptyList()));
+        expected.addAll(shuffled.subList(0, 500));
+        for (final FlowFileRecord flowFile : shuffled.subList(500, 1000)) {
+            assertSame(expected.poll(), queue.poll());
+            queue.offer(flowFile);
+            expected.offer(flowFile);
+        }
+
+        assertEquals(expected.size(), queue.size());
+        while (!expected.isEmpty()) {
+            assertSame(expected.poll(), queue.poll());
+        }
+
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testFanInFlowFilesHeldInRuns() {
+        // Each of several upstream sessions creates FlowFiles in turn, but commits them to the queue in batches, so the queue receives
+        // FlowFiles that are in order within each session but interleaved across sessions
+        final int sessionCount = 4;
+        final List<List<FlowFileRecord>> sessions = new ArrayList<>();
+        for (int i = 0; i < sessionCount; i++) {
+            sessions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < 4000; i++) {
+            sessions.get(i % sessionCount).add(new MockFlowFileRecord(1L));
+        }
+
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+        final PriorityQueue<FlowFileRecord> expected = new PriorityQueue<>(new QueuePrioritizer(Collections.emptyList()));
+        for (int batchStart = 0; batchStart < 1000; batchStart += 50) {
+            for (final List<FlowFileRecord> session : sessions) {
+                final List<FlowFileRecord> batch = session.subList(batchStart, batchStart + 50);
+                queue.addAll(batch);
+                expected.addAll(batch);
+            }
+
+            assertTrue(queue.getRunCount() <= sessionCount);
+            assertEquals(0, queue.getUnorderedCount());
+
+            for (int i = 0; i < 100; i++) {
+                assertSame(expected.poll(), queue.poll());
+            }
+        }
+
+        assertEquals(expected.size(), queue.size());
+        while (!expected.isEmpty()) {
+            assertSame(expected.poll(), queue.poll());
+        }
+        assertEquals(0, queue.getRunCount());
+    }
+
+    @Test
+    public void testRunsBoundedWhenFlowFilesArriveUnordered() {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            flowFiles.add(new MockFlowFileRecord(1L));
+        }
+
+        final List<FlowFileRecord> shuffled = new ArrayList<>(flowFiles);
+        Collections.shuffle(shuffled, new Random(1L));
+
+        // FlowFiles that arrive in random order would form many short runs, so beyond the maximum number of runs they are held in a heap
+        final FifoActiveQueue queue = new FifoActiveQueue(4);
+        queue.addAll(shuffled);
+        assertEquals(FifoActiveQueue.MAX_RUNS, queue.getRunCount());
+        assertTrue(queue.getUnorderedCount() > 0);
+
+        for (final FlowFileRecord flowFile : flowFiles) {
+            assertSame(flowFile, queue.poll());
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
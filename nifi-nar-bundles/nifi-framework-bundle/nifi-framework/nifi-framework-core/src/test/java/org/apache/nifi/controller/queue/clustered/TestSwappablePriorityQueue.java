@@ -22,10 +22,12 @@ import org.apache.nifi.controller.MockSwapManager;
 import org.apache.nifi.controller.queue.DropFlowFileAction;
 import org.apache.nifi.controller.queue.DropFlowFileRequest;
 import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.LocalQueuePartitionDiagnostics;
 import org.apache.nifi.controller.queue.PollStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
@@ -519,6 +521,8 @@ public class TestSwappablePriorityQueue {
         assertEquals(0, swapManager.swapInCalledCount);
         assertEquals(0, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
 
+        // The Swap File is larger than the swap threshold, so it must not be read ahead of the swap-in
+        assertEquals(0, swapManager.peekCalledCount.get());
         assertEquals(1, swapManager.swapOutCalledCount);
 
         assertNotNull(queue.poll(exp, 500000)); // this should trigger a swap-in of 10,000 records, and then pull 1 off the top.
@@ -530,6 +534,52 @@ public class TestSwappablePriorityQueue {
         queue.poll(exp, 500000);
     }
 
+    @Test
+    @Timeout(10)
+    public void testSwapFileReadAheadOfSwapIn() throws InterruptedException {
+        final FlowEngine swapPrefetchExecutor = new FlowEngine(1, "Swap Prefetch", true);
+        try {
+            // The swap threshold must leave room for a Swap File to be held in addition to the active queue
+            queue = new SwappablePriorityQueue(swapManager, 20000, eventReporter, flowFileQueue, dropAction, "local", swapPrefetchExecutor);
+
+            for (int i = 1; i <= 30000; i++) {
+                queue.put(new MockFlowFileRecord());
+            }
+            assertEquals(1, swapManager.swappedOut.size());
+
+            final Set<FlowFileRecord> exp = new HashSet<>();
+            for (int i = 0; i < 14000; i++) {
+                assertNotNull(queue.poll(exp, 500000));
+            }
+
+            // The active queue is still well above the low-water mark, so the Swap File should not yet be read
+            assertEquals(0, swapManager.peekCalledCount.get());
+
+            for (int i = 0; i < 6000; i++) {
+                assertNotNull(queue.poll(exp, 500000));
+            }
+
+            // Once the active queue drains, the Swap File should be read in the background, and only once
+            while (swapManager.peekCalledCount.get() == 0) {
+                Thread.sleep(10L);
+            }
+            assertEquals(0, swapManager.swapInCalledCount);
+            assertEquals(0, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+
+            assertNotNull(queue.poll(exp, 500000));
+            assertEquals(1, swapManager.peekCalledCount.get());
+            assertEquals(1, swapManager.swapInCalledCount);
+            assertEquals(9999, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+            assertTrue(swapManager.swappedOut.isEmpty());
+
+            final LocalQueuePartitionDiagnostics diagnostics = queue.getQueueDiagnostics();
+            assertEquals(1, diagnostics.getSwapInCount());
+            assertTrue(diagnostics.getSwapInPrefetchHitCount() <= 1);
+        } finally {
+            swapPrefetchExecutor.shutdownNow();
+        }
+    }
+
     @Test
     public void testSwapInWhenThresholdIsLessThanSwapSize() {
         // create a queue where the swap threshold is less than 10k
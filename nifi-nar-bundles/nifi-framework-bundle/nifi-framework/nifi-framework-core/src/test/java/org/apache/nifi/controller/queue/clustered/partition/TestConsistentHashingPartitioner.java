@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestConsistentHashingPartitioner {
+    private static final String ATTRIBUTE = "correlation.id";
+    private static final int KEY_COUNT = 10_000;
+
+    private final NodeIdentifier node1 = createNodeId(1);
+    private final NodeIdentifier node2 = createNodeId(2);
+    private final NodeIdentifier node3 = createNodeId(3);
+    private final NodeIdentifier node4 = createNodeId(4);
+
+    @Test
+    public void testAllNodesAssignKeysToSameNode() {
+        // Node 1's view of the cluster, in which its own partition is local
+        final QueuePartition localPartition1 = createPartition(null);
+        final QueuePartition[] partitions1 = {localPartition1, createPartition(node2), createPartition(node3)};
+        final ConsistentHashingPartitioner partitioner1 = new ConsistentHashingPartitioner(ATTRIBUTE, () -> node1);
+
+        // Node 2's view of the cluster, in which the partitions are ordered differently
+        final QueuePartition localPartition2 = createPartition(null);
+        final QueuePartition[] partitions2 = {createPartition(node3), localPartition2, createPartition(node1)};
+        final ConsistentHashingPartitioner partitioner2 = new ConsistentHashingPartitioner(ATTRIBUTE, () -> node2);
+
+        for (int i = 0; i < KEY_COUNT; i++) {
+            final FlowFileRecord flowFile = createFlowFile("key-" + i);
+            final NodeIdentifier assignedByNode1 = getNodeId(partitioner1.getPartition(flowFile, partitions1, localPartition1), localPartition1, node1);
+            final NodeIdentifier assignedByNode2 = getNodeId(partitioner2.getPartition(flowFile, partitions2, localPartition2), localPartition2, node2);
+            assertEquals(assignedByNode1, assignedByNode2);
+        }
+    }
+
+    @Test
+    public void testKeysSpreadEvenly() {
+        final QueuePartition localPartition = createPartition(null);
+        final QueuePartition[] partitions = {localPartition, createPartition(node2), createPartition(node3), createPartition(node4)};
+        final Map<QueuePartition, Integer> counts = new HashMap<>();
+
+        final ConsistentHashingPartitioner partitioner = new ConsistentHashingPartitioner(ATTRIBUTE, () -> node1);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            counts.merge(partitioner.getPartition(createFlowFile("key-" + i), partitions, localPartition), 1, Integer::sum);
+        }
+
+        for (final QueuePartition partition : partitions) {
+            final int count = counts.get(partition);
+            assertTrue(count > KEY_COUNT * 0.15 && count < KEY_COUNT * 0.35, "Partition received " + count + " of " + KEY_COUNT + " keys");
+        }
+    }
+
+    @Test
+    public void testAddingNodeMovesOnlyKeysToNewNode() {
+        final QueuePartition localPartition = createPartition(null);
+        final QueuePartition partition2 = createPartition(node2);
+        final QueuePartition partition3 = createPartition(node3);
+        final QueuePartition partition4 = createPartition(node4);
+        final QueuePartition[] threeNodes = {localPartition, partition2, partition3};
+        final QueuePartition[] fourNodes = {localPartition, partition2, partition3, partition4};
+
+        final ConsistentHashingPartitioner partitioner = new ConsistentHashingPartitioner(ATTRIBUTE, () -> node1);
+        int moved = 0;
+        for (int i = 0; i < KEY_COUNT; i++) {
+            final FlowFileRecord flowFile = createFlowFile("key-" + i);
+            final QueuePartition before = partitioner.getPartition(flowFile, threeNodes, localPartition);
+            final QueuePartition after = partitioner.getPartition(flowFile, fourNodes, localPartition);
+
+            if (before != after) {
+                assertSame(partition4, after);
+                moved++;
+            }
+        }
+
+        // Roughly 1/4 of keys should move to the new node, where partitioning modulo the node count would move about 3/4
+        assertTrue(moved > KEY_COUNT * 0.15 && moved < KEY_COUNT * 0.35, moved + " of " + KEY_COUNT + " keys moved");
+    }
+
+    @Test
+    public void testFlowFilesWithoutAttributeAssignedToSamePartition() {
+        final QueuePartition localPartition = createPartition(null);
+        final QueuePartition[] partitions = {localPartition, createPartition(node2), createPartition(node3)};
+        final ConsistentHashingPartitioner partitioner = new ConsistentHashingPartitioner(ATTRIBUTE, () -> node1);
+
+        final QueuePartition partition = partitioner.getPartition(createFlowFile(null), partitions, localPartition);
+        for (int i = 0; i < 10; i++) {
+            assertSame(partition, partitioner.getPartition(createFlowFile(null), partitions, localPartition));
+        }
+    }
+
+    private static NodeIdentifier getNodeId(final QueuePartition partition, final QueuePartition localPartition, final NodeIdentifier localNodeId) {
+        return partition == localPartition ? localNodeId : partition.getNodeIdentifier().get();
+    }
+
+    private static FlowFileRecord createFlowFile(final String attributeValue) {
+        final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+        when(flowFile.getAttribute(ATTRIBUTE)).thenReturn(attributeValue);
+        return flowFile;
+    }
+
+    private static QueuePartition createPartition(final NodeIdentifier nodeId) {
+        final QueuePartition partition = mock(QueuePartition.class);
+        when(partition.getNodeIdentifier()).thenReturn(Optional.ofNullable(nodeId));
+        when(partition.getSwapPartitionName()).thenReturn(nodeId == null ? "local" : nodeId.getId());
+        return partition;
+    }
+
+    private static NodeIdentifier createNodeId(final int index) {
+        return new NodeIdentifier("node-" + index, "node" + index + ".nifi", 8443, "node" + index + ".nifi", 11443, "node" + index + ".nifi", 6342, "node" + index + ".nifi", 10443, null, false);
+    }
+}
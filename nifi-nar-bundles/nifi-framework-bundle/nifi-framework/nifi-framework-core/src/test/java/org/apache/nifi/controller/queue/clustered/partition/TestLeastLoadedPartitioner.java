@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestLeastLoadedPartitioner {
+    private final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+
+    @Test
+    public void testEvenlyLoadedPartitionsAreRoundRobin() {
+        final QueuePartition[] partitions = {createPartition(10), createPartition(10), createPartition(10)};
+        final LeastLoadedPartitioner partitioner = new LeastLoadedPartitioner(() -> 10_000L);
+
+        for (int i = 0; i < 30; i++) {
+            assertEquals(partitions[i % 3], partitioner.getPartition(flowFile, partitions, partitions[0]));
+        }
+    }
+
+    @Test
+    public void testBackedUpPartitionReceivesFewerFlowFiles() {
+        final QueuePartition[] partitions = {createPartition(0), createPartition(0), createPartition(900)};
+        final Map<QueuePartition, Integer> counts = partition(new LeastLoadedPartitioner(() -> 10_000L), partitions, 2100);
+
+        // The backed up partition has 10x the weight of the others, so receives 1 of every 21 FlowFiles
+        assertEquals(1000, counts.get(partitions[0]));
+        assertEquals(1000, counts.get(partitions[1]));
+        assertEquals(100, counts.get(partitions[2]));
+    }
+
+    @Test
+    public void testPartitionAtBackPressureReceivesNoFlowFiles() {
+        final QueuePartition[] partitions = {createPartition(0), createPartition(5), createPartition(400)};
+        final Map<QueuePartition, Integer> counts = partition(new LeastLoadedPartitioner(() -> 1_000L), partitions, 1000);
+
+        assertTrue(counts.get(partitions[0]) > counts.get(partitions[1]));
+        assertFalse(counts.containsKey(partitions[2]));
+    }
+
+    @Test
+    public void testLeastLoadedPartitionReceivesFlowFilesWhenAllAtBackPressure() {
+        final QueuePartition[] partitions = {createPartition(500), createPartition(600), createPartition(700)};
+        final Map<QueuePartition, Integer> counts = partition(new LeastLoadedPartitioner(() -> 1_000L), partitions, 100);
+
+        assertEquals(100, counts.get(partitions[0]));
+    }
+
+    @Test
+    public void testPartitionReceivesNoFlowFilesOnceExcluded() throws InterruptedException {
+        final QueuePartition[] partitions = {createPartition(0), createPartition(0), createPartition(0)};
+        final LeastLoadedPartitioner partitioner = new LeastLoadedPartitioner(() -> 1_000L);
+
+        // The partitions are selected in turn, so after the first two FlowFiles the third partition is next
+        assertEquals(partitions[0], partitioner.getPartition(flowFile, partitions, partitions[0]));
+        assertEquals(partitions[1], partitioner.getPartition(flowFile, partitions, partitions[0]));
+
+        // Once the weights are refreshed, the third partition is at back pressure, so none of the following FlowFiles may go to it
+        when(partitions[2].size()).thenReturn(new QueueSize(500, 500 * 1024L));
+        Thread.sleep(150L);
+
+        final Map<QueuePartition, Integer> counts = partition(partitioner, partitions, 10);
+        assertFalse(counts.containsKey(partitions[2]));
+    }
+
+    private Map<QueuePartition, Integer> partition(final FlowFilePartitioner partitioner, final QueuePartition[] partitions, final int flowFileCount) {
+        final Map<QueuePartition, Integer> counts = new HashMap<>();
+        for (int i = 0; i < flowFileCount; i++) {
+            final QueuePartition partition = partitioner.getPartition(flowFile, partitions, partitions[0]);
+            counts.merge(partition, 1, Integer::sum);
+        }
+
+        return counts;
+    }
+
+    private QueuePartition createPartition(final int queuedCount) {
+        final QueuePartition partition = mock(QueuePartition.class);
+        when(partition.size()).thenReturn(new QueueSize(queuedCount, queuedCount * 1024L));
+        return partition;
+    }
+}
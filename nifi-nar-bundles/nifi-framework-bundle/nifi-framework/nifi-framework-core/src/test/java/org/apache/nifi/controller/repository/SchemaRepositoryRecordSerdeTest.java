@@ -18,6 +18,9 @@
 package org.apache.nifi.controller.repository;
 
 import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
 import org.apache.nifi.controller.repository.schema.RepositoryRecordSchema;
 import org.apache.nifi.repository.schema.NoOpFieldCache;
@@ -34,6 +37,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.apache.nifi.controller.repository.RepositoryRecordType.SWAP_IN;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.mock;
@@ -245,6 +249,40 @@ public class SchemaRepositoryRecordSerdeTest {
         assertEquals(SWAP_IN, repositoryRecord.getType());
     }
 
+    @Test
+    public void testContentDigestRoundTrip() throws IOException {
+        final byte[] digest = new byte[] {1, 2, 3, 4};
+        final StandardContentClaim contentClaim = createContentClaim();
+        contentClaim.setDigest("SHA-256", digest);
+
+        schemaRepositoryRecordSerde.writeHeader(dataOutputStream);
+        schemaRepositoryRecordSerde.serializeRecord(new LiveSerializedRepositoryRecord(createCreateFlowFileRecord(contentClaim)), dataOutputStream);
+
+        DataInputStream dataInputStream = createDataInputStream();
+        schemaRepositoryRecordSerde.readHeader(dataInputStream);
+        SerializedRepositoryRecord repositoryRecord = schemaRepositoryRecordSerde.deserializeRecord(dataInputStream, 2);
+        final StandardContentClaim recoveredClaim = (StandardContentClaim) repositoryRecord.getFlowFileRecord().getContentClaim();
+        assertEquals(contentClaim, recoveredClaim);
+        assertEquals("SHA-256", recoveredClaim.getDigestAlgorithm());
+        assertArrayEquals(digest, recoveredClaim.getDigest());
+    }
+
+    private StandardContentClaim createContentClaim() {
+        final ResourceClaim resourceClaim = resourceClaimManager.newResourceClaim("container", "section", "1", false, false);
+        final StandardContentClaim contentClaim = new StandardContentClaim(resourceClaim, 0L);
+        contentClaim.setLength(10L);
+        return contentClaim;
+    }
+
+    private StandardRepositoryRecord createCreateFlowFileRecord(final ContentClaim contentClaim) {
+        StandardRepositoryRecord standardRepositoryRecord = new StandardRepositoryRecord(flowFileQueue);
+        StandardFlowFileRecord.Builder flowFileRecordBuilder = new StandardFlowFileRecord.Builder();
+        flowFileRecordBuilder.contentClaim(contentClaim);
+        flowFileRecordBuilder.size(contentClaim.getLength());
+        standardRepositoryRecord.setWorking(flowFileRecordBuilder.build(), false);
+        return standardRepositoryRecord;
+    }
+
     private DataInputStream createDataInputStream() throws IOException {
         dataOutputStream.flush();
         return new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
@@ -38,6 +38,7 @@ import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
 import org.apache.nifi.controller.repository.metrics.NopPerformanceTracker;
 import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.controller.repository.uuid.RandomFlowFileUuidGenerator;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
@@ -83,10 +84,13 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -623,6 +627,36 @@ public class StandardProcessSessionIT {
         assertArrayEquals("2".getBytes(StandardCharsets.UTF_8), readContents(ff2));
     }
 
+    @Test
+    public void testContentDigestComputedOnWrite() throws IOException, NoSuchAlgorithmException {
+        final StandardRepositoryContext digestContext = new StandardRepositoryContext(connectable, new AtomicLong(0L), contentRepo, flowFileRepo, flowFileEventRepository,
+            counterRepository, provenanceRepo, stateManager, new RandomFlowFileUuidGenerator(), "SHA-256");
+        final StandardProcessSession digestSession = new StandardProcessSession(digestContext, () -> false, new NopPerformanceTracker());
+        final byte[] content = "Hello, World".getBytes(StandardCharsets.UTF_8);
+
+        FlowFile flowFile = digestSession.create();
+        flowFile = digestSession.write(flowFile, out -> out.write(content));
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(content), digestSession.getContentDigest(flowFile, "SHA-256").get());
+        assertFalse(digestSession.getContentDigest(flowFile, "MD5").isPresent());
+
+        // A FlowFile that references only part of the content cannot use the digest
+        final FlowFile child = digestSession.clone(flowFile, 0L, 5L);
+        assertFalse(digestSession.getContentDigest(child, "SHA-256").isPresent());
+
+        flowFile = digestSession.write(flowFile, (in, out) -> {
+            StreamUtils.copy(in, out);
+            out.write('!');
+        });
+        final byte[] modified = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(modified), digestSession.getContentDigest(flowFile, "SHA-256").get());
+        digestSession.rollback();
+
+        // No digest is computed unless an algorithm is configured
+        FlowFile withoutDigest = session.create();
+        withoutDigest = session.write(withoutDigest, out -> out.write(content));
+        assertFalse(session.getContentDigest(withoutDigest, "SHA-256").isPresent());
+    }
+
     private byte[] readContents(final FlowFile flowFile) throws IOException {
         try (final InputStream in = session.read(flowFile);
              final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
@@ -1958,6 +1992,32 @@ public class StandardProcessSessionIT {
         assertFalse(flowFileQueue.isUnacknowledgedFlowFile());
     }
 
+    @Test
+    public void testRolledBackFlowFileIsPolledFirst() {
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
+                .id(i + 1)
+                .addAttribute("uuid", "12345678-1234-1234-1234-12345678901" + i)
+                .entryDate(System.currentTimeMillis())
+                .size(0L)
+                .build();
+
+            flowFiles.add(flowFileRecord);
+            flowFileQueue.put(flowFileRecord);
+        }
+
+        final FlowFile first = session.get();
+        assertEquals(flowFiles.get(0).getId(), first.getId());
+        session.rollback();
+
+        final List<FlowFile> polled = session.get(3);
+        assertEquals(3, polled.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(flowFiles.get(i).getId(), polled.get(i).getId());
+        }
+    }
+
     @Test
     public void testRollbackAfterCheckpoint() {
         final StandardFlowFileRecord.Builder recordBuilder = new StandardFlowFileRecord.Builder()
@@ -2036,6 +2096,25 @@ public class StandardProcessSessionIT {
         assertEquals(ProvenanceEventType.CREATE, event.getEventType());
     }
 
+    @Test
+    public void testProvenanceRecordingPolicyDiscardsEvents() throws IOException {
+        final ProvenanceRecordingPolicy policy = new ProvenanceRecordingPolicy("send-only", EnumSet.of(ProvenanceEventType.SEND), 100D, -1L);
+        final ProvenanceRecordingPolicies policies = new ProvenanceRecordingPolicies(Collections.singletonMap(connectable.getIdentifier(), policy));
+        final StandardRepositoryContext policyContext = new StandardRepositoryContext(connectable, new AtomicLong(0L), contentRepo, flowFileRepo, flowFileEventRepository,
+            counterRepository, provenanceRepo, stateManager, new RandomFlowFileUuidGenerator(), null, policies);
+        final StandardProcessSession policySession = new StandardProcessSession(policyContext, () -> false, new NopPerformanceTracker());
+
+        FlowFile flowFile = policySession.create();
+        flowFile = policySession.putAttribute(flowFile, "abc", "xyz");
+        policySession.getProvenanceReporter().send(flowFile, "nifi://unit-test");
+        policySession.transfer(flowFile, new Relationship.Builder().name("A").build());
+        policySession.commit();
+
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10000);
+        assertEquals(1, events.size());
+        assertEquals(ProvenanceEventType.SEND, events.get(0).getEventType());
+    }
+
     @Test
     public void testContentModifiedNotEmittedForCreate() throws IOException {
         FlowFile newFlowFile = session.create();
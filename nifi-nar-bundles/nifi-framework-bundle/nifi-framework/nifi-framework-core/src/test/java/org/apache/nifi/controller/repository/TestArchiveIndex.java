@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.FileSystemRepository.ArchiveInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestArchiveIndex {
+
+    @TempDir
+    private Path containerPath;
+
+    @Test
+    public void testFilesReturnedInOrderAppended() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            assertFalse(index.isExisting());
+            for (int i = 0; i < 5; i++) {
+                index.append(createArchiveInfo(i));
+            }
+
+            assertEquals(5, index.size());
+            assertEquals("0", index.peek().getName());
+            assertEquals("0", index.poll().getName());
+            assertEquals("1", index.poll().getName());
+
+            // Files may be appended while others are being removed
+            index.append(createArchiveInfo(5));
+            for (int i = 2; i <= 5; i++) {
+                final ArchiveInfo archiveInfo = index.poll();
+                assertEquals(String.valueOf(i), archiveInfo.getName());
+                assertEquals(i * 10L, archiveInfo.getSize());
+                assertEquals(1000L + i, archiveInfo.getLastModTime());
+                assertEquals(containerPath.resolve("1").resolve("archive").resolve(String.valueOf(i)), archiveInfo.toPath());
+            }
+
+            assertNull(index.peek());
+            assertEquals(0, index.size());
+        }
+    }
+
+    @Test
+    public void testHeadRecoveredFromCheckpoint() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            for (int i = 0; i < 10; i++) {
+                index.append(createArchiveInfo(i));
+            }
+
+            index.poll();
+            index.poll();
+            index.checkpoint();
+            index.poll();
+        }
+
+        // Closing the index checkpoints it as well
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            assertTrue(index.isExisting());
+            assertEquals(7, index.size());
+            assertEquals("3", index.poll().getName());
+
+            index.append(createArchiveInfo(10));
+            assertEquals(7, index.size());
+        }
+    }
+
+    @Test
+    public void testNoCheckpointWhenNothingAppended() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            index.checkpoint();
+        }
+
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            assertFalse(index.isExisting());
+        }
+    }
+
+    @Test
+    public void testConsumedSegmentsDeleted() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath, 3)) {
+            for (int i = 0; i < 10; i++) {
+                index.append(createArchiveInfo(i));
+            }
+
+            assertEquals(4, countSegments());
+
+            for (int i = 0; i < 7; i++) {
+                assertEquals(String.valueOf(i), index.poll().getName());
+            }
+
+            // The segment holding record 6 is still needed until record 7 is read
+            assertEquals("7", index.peek().getName());
+            assertEquals(2, countSegments());
+        }
+
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath, 3)) {
+            assertEquals(3, index.size());
+            assertEquals("7", index.poll().getName());
+            assertEquals("8", index.poll().getName());
+            assertEquals("9", index.poll().getName());
+            assertNull(index.poll());
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordTruncated() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            index.append(createArchiveInfo(0));
+            index.append(createArchiveInfo(1));
+        }
+
+        final Path segmentPath = containerPath.resolve(ArchiveIndex.SEGMENT_PREFIX + "0" + ArchiveIndex.SEGMENT_SUFFIX);
+        try (final FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            assertEquals(1, index.size());
+            index.append(createArchiveInfo(2));
+
+            assertEquals("0", index.poll().getName());
+            assertEquals("2", index.poll().getName());
+            assertNull(index.poll());
+        }
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath, 3)) {
+            for (int i = 0; i < 5; i++) {
+                index.append(createArchiveInfo(i));
+            }
+            index.checkpoint();
+
+            index.clear();
+            assertEquals(0, index.size());
+            assertNull(index.peek());
+            assertEquals(0, countSegments());
+            assertFalse(Files.exists(containerPath.resolve(ArchiveIndex.CHECKPOINT_FILENAME)));
+
+            index.append(createArchiveInfo(5));
+            assertEquals("5", index.poll().getName());
+        }
+    }
+
+    @Test
+    public void testRebuildMergesFilesAppendedDuringScan() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            assertFalse(index.isComplete());
+
+            // Files indexed before the rebuild starts are found again by the scan, so they are replaced
+            index.append(createArchiveInfo(4));
+            index.startRebuild();
+
+            // Files archived while the directories are scanned may also be found by the scan
+            index.append(createArchiveInfo(5));
+            index.append(createArchiveInfo(2));
+            index.completeRebuild(Arrays.asList(createArchiveInfo(0), createArchiveInfo(1), createArchiveInfo(3), createArchiveInfo(4), createArchiveInfo(5)));
+
+            assertTrue(index.isComplete());
+            assertEquals(6, index.size());
+            for (int i = 0; i <= 5; i++) {
+                assertEquals(String.valueOf(i), index.poll().getName());
+            }
+            assertNull(index.poll());
+        }
+
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            assertTrue(index.isComplete());
+        }
+    }
+
+    @Test
+    public void testClearedIndexIsIncomplete() throws IOException {
+        try (final ArchiveIndex index = ArchiveIndex.open(containerPath)) {
+            index.startRebuild();
+            index.completeRebuild(Arrays.asList(createArchiveInfo(0), createArchiveInfo(1)));
+            assertTrue(index.isComplete());
+
+            index.clear();
+            assertFalse(index.isComplete());
+        }
+    }
+
+    private ArchiveInfo createArchiveInfo(final int id) {
+        final Path path = containerPath.resolve("1").resolve("archive").resolve(String.valueOf(id));
+        return new ArchiveInfo(containerPath, path, id * 10L, 1000L + id);
+    }
+
+    private int countSegments() {
+        final File[] segments = containerPath.toFile().listFiles((dir, name) -> name.startsWith(ArchiveIndex.SEGMENT_PREFIX));
+        return segments == null ? 0 : segments.length;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.util.DiskUtils;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisabledOnOs(OS.WINDOWS)
+public class TestDeduplicatingFileSystemRepository {
+    private static final String LARGE_CONTENT = String.join("", Collections.nCopies(200, "0123456789"));
+
+    private final File rootFile = new File("target/content_repository");
+
+    private NiFiProperties nifiProperties;
+    private DeduplicatingFileSystemRepository repository;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 KB");
+        properties.put(NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false");
+        nifiProperties = NiFiProperties.createBasicNiFiProperties(TestDeduplicatingFileSystemRepository.class.getResource("/conf/nifi.properties").getFile(), properties);
+
+        if (rootFile.exists()) {
+            DiskUtils.deleteRecursively(rootFile);
+        }
+
+        createRepository();
+        repository.purge();
+    }
+
+    private void createRepository() throws IOException {
+        repository = new DeduplicatingFileSystemRepository(nifiProperties);
+        repository.initialize(new StandardContentRepositoryContext(new StandardResourceClaimManager(), EventReporter.NO_OP));
+    }
+
+    @AfterEach
+    public void shutdown() {
+        repository.shutdown();
+    }
+
+    @Test
+    public void testIdenticalContentStoredOnce() throws IOException {
+        final ContentClaim first = write(LARGE_CONTENT);
+        final ContentClaim second = write(LARGE_CONTENT);
+        final ContentClaim different = write(LARGE_CONTENT + "!");
+
+        final Path firstPath = repository.getPath(first.getResourceClaim());
+        final Path secondPath = repository.getPath(second.getResourceClaim());
+        assertFalse(firstPath.equals(secondPath));
+        assertTrue(Files.isSameFile(firstPath, secondPath));
+        assertFalse(Files.isSameFile(firstPath, repository.getPath(different.getResourceClaim())));
+
+        assertEquals(LARGE_CONTENT, read(first));
+        assertEquals(LARGE_CONTENT, read(second));
+        assertEquals(LARGE_CONTENT + "!", read(different));
+    }
+
+    @Test
+    public void testContentRemainsAfterOtherClaimRemoved() throws IOException {
+        final ContentClaim first = write(LARGE_CONTENT);
+        final ContentClaim second = write(LARGE_CONTENT);
+
+        repository.decrementClaimantCount(first);
+        assertTrue(repository.remove(first));
+        assertFalse(Files.exists(repository.getPath(first.getResourceClaim())));
+        assertEquals(LARGE_CONTENT, read(second));
+
+        // The removed file is replaced in the index by the next copy of the content
+        final ContentClaim third = write(LARGE_CONTENT);
+        final ContentClaim fourth = write(LARGE_CONTENT);
+        assertTrue(Files.isSameFile(repository.getPath(third.getResourceClaim()), repository.getPath(fourth.getResourceClaim())));
+    }
+
+    @Test
+    public void testPackedContentNotDeduplicated() throws IOException {
+        final ContentClaim first = write("Hello, World");
+        final ContentClaim second = write("Hello, World");
+
+        assertEquals(first.getResourceClaim(), second.getResourceClaim());
+        assertEquals(12, second.getOffset());
+        assertEquals("Hello, World", read(first));
+        assertEquals("Hello, World", read(second));
+    }
+
+    @Test
+    public void testIndexRestoredAfterRestart() throws IOException {
+        final ContentClaim first = write(LARGE_CONTENT);
+        final Path firstPath = repository.getPath(first.getResourceClaim());
+
+        repository.shutdown();
+        createRepository();
+
+        final ContentClaim second = write(LARGE_CONTENT);
+        assertTrue(Files.isSameFile(firstPath, repository.getPath(second.getResourceClaim())));
+    }
+
+    private ContentClaim write(final String content) throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return claim;
+    }
+
+    private String read(final ContentClaim claim) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final InputStream in = repository.read(claim)) {
+            StreamUtils.copy(in, baos);
+        }
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
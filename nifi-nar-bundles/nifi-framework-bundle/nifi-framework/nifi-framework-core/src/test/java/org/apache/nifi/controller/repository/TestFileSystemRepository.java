@@ -36,12 +36,15 @@ import org.junit.jupiter.api.condition.OS;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -585,6 +588,74 @@ public class TestFileSystemRepository {
         assertArrayEquals(doubleExpected, Files.readAllBytes(outPath));
     }
 
+    @Test
+    public void testExportToChannel() throws IOException {
+        final ContentClaim firstClaim = repository.create(true);
+        try (final OutputStream out = repository.write(firstClaim)) {
+            out.write("Hello".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final ContentClaim claim = repository.create(true);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("The quick brown fox".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(firstClaim.getResourceClaim(), claim.getResourceClaim());
+        assertTrue(claim.getOffset() > 0);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        assertEquals(5, repository.exportTo(claim, Channels.newChannel(baos), 4, 5));
+        assertEquals("quick", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+
+        // Length beyond the end of the claim is truncated to the claim's content
+        baos.reset();
+        assertEquals(9, repository.exportTo(claim, Channels.newChannel(baos), 10, 100));
+        assertEquals("brown fox", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+
+        final Path outPath = new File("target/testExportToChannel").toPath();
+        Files.deleteIfExists(outPath);
+        try (final FileChannel out = FileChannel.open(outPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            assertEquals(19, repository.exportTo(claim, out, 0, 19));
+        }
+        assertEquals("The quick brown fox", new String(Files.readAllBytes(outPath), StandardCharsets.UTF_8));
+
+        assertEquals(3, repository.exportTo(claim, outPath, true, 16, 3));
+        assertEquals("The quick brown foxfox", new String(Files.readAllBytes(outPath), StandardCharsets.UTF_8));
+        assertThrows(EOFException.class, () -> repository.exportTo(claim, outPath, false, 16, 4));
+    }
+
+    @Test
+    public void testExportToRepositoryOutputStream() throws IOException {
+        final ContentClaim source = repository.create(false);
+        try (final OutputStream out = repository.write(source)) {
+            out.write("The quick brown fox".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Content exported to a stream of the repository is transferred directly into the claim's file
+        final ContentClaim destination = repository.create(false);
+        try (final OutputStream out = repository.write(destination)) {
+            out.write("[".getBytes(StandardCharsets.UTF_8));
+            assertEquals(5, repository.exportTo(source, out, 4, 5));
+            assertEquals(19, repository.exportTo(source, out));
+            out.write("]".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(26, destination.getLength());
+
+        // The next claim starts after the transferred content
+        final ContentClaim next = repository.create(false);
+        try (final OutputStream out = repository.write(next)) {
+            out.write("next".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(destination.getOffset() + 26, next.getOffset());
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        repository.exportTo(destination, baos);
+        assertEquals("[quickThe quick brown fox]", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+
+        baos.reset();
+        repository.exportTo(next, baos);
+        assertEquals("next", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void testSize() throws IOException {
         final ContentClaim claim = repository.create(true);
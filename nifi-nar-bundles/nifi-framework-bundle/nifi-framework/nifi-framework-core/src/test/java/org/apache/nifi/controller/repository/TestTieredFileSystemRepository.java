@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.io.ContentClaimOutputStream;
+import org.apache.nifi.controller.repository.util.DiskUtils;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisabledOnOs(OS.WINDOWS)
+public class TestTieredFileSystemRepository {
+    private final File rootFile = new File("target/content_repository");
+
+    private TieredFileSystemRepository repository;
+    private StandardResourceClaimManager claimManager;
+
+    private void createRepository(final String durability, final String maxSize, final String maxAge) throws IOException {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.CONTENT_HOT_TIER_MAX_CONTENT_SIZE, "1 KB");
+        properties.put(NiFiProperties.CONTENT_HOT_TIER_MAX_SIZE, maxSize);
+        properties.put(NiFiProperties.CONTENT_HOT_TIER_MAX_AGE, maxAge);
+        properties.put(NiFiProperties.CONTENT_HOT_TIER_DURABILITY, durability);
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(TestTieredFileSystemRepository.class.getResource("/conf/nifi.properties").getFile(), properties);
+
+        if (rootFile.exists()) {
+            DiskUtils.deleteRecursively(rootFile);
+        }
+
+        repository = new TieredFileSystemRepository(nifiProperties);
+        claimManager = new StandardResourceClaimManager();
+        repository.initialize(new StandardContentRepositoryContext(claimManager, EventReporter.NO_OP));
+        repository.purge();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        if (repository != null) {
+            repository.shutdown();
+        }
+    }
+
+    @Test
+    public void testLossTolerantContentHeldInMemoryUntilPersisted() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 MB", "10 mins");
+
+        final ContentClaim claim = write("Hello, World");
+        final Path path = repository.getPath(claim.getResourceClaim());
+        assertTrue(repository.isHot(claim.getResourceClaim()));
+        assertFalse(Files.exists(path));
+        assertTrue(repository.isAccessible(claim));
+        assertEquals("Hello, World", read(claim));
+        assertEquals(12, repository.size(claim));
+
+        repository.persist(Collections.singletonList(claim));
+        assertFalse(repository.isHot(claim.getResourceClaim()));
+        assertEquals("Hello, World", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        assertEquals("Hello, World", read(claim));
+    }
+
+    @Test
+    public void testCommitDurabilityWritesOnClose() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_COMMIT, "1 MB", "10 mins");
+
+        final ContentClaim claim = write("Hello, World");
+        final Path path = repository.getPath(claim.getResourceClaim());
+        assertEquals("Hello, World", new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+
+        // Content is still served from memory
+        Files.delete(path);
+        assertEquals("Hello, World", read(claim));
+    }
+
+    @Test
+    public void testContentClaimsPackedIntoResourceClaim() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 MB", "10 mins");
+
+        final ContentClaim first = repository.create(false);
+        final ContentClaim second;
+        try (final ContentClaimOutputStream out = (ContentClaimOutputStream) repository.write(first)) {
+            out.write("first".getBytes(StandardCharsets.UTF_8));
+            second = out.newContentClaim();
+            out.write("second".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(first.getResourceClaim(), second.getResourceClaim());
+        assertEquals(5, second.getOffset());
+        assertEquals(2, claimManager.getClaimantCount(first.getResourceClaim()));
+        assertEquals("first", read(first));
+        assertEquals("second", read(second));
+        assertFalse(Files.exists(repository.getPath(first.getResourceClaim())));
+    }
+
+    @Test
+    public void testLargeContentSpillsToDisk() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 MB", "10 mins");
+
+        final String content = String.join("", Collections.nCopies(200, "0123456789"));
+        final ContentClaim claim = write(content);
+        assertFalse(repository.isHot(claim.getResourceClaim()));
+        assertEquals(content, new String(Files.readAllBytes(repository.getPath(claim.getResourceClaim())), StandardCharsets.UTF_8));
+        assertEquals(content, read(claim));
+    }
+
+    @Test
+    public void testFullPoolFallsBackToDisk() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 KB", "10 mins");
+
+        final ContentClaim hotClaim = write("hot");
+        final ContentClaim diskClaim = write("disk");
+        assertTrue(repository.isHot(hotClaim.getResourceClaim()));
+        assertFalse(repository.isHot(diskClaim.getResourceClaim()));
+        assertEquals("hot", read(hotClaim));
+        assertEquals("disk", read(diskClaim));
+    }
+
+    @Test
+    public void testBlockNotReusedWhileContentIsRead() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 KB", "10 mins");
+
+        final ContentClaim claim = write("Hello, World");
+        try (final InputStream in = repository.read(claim)) {
+            repository.persist(Collections.singletonList(claim));
+            assertFalse(repository.isHot(claim.getResourceClaim()));
+
+            // The only block is still being read from, so new content cannot be written to it
+            final ContentClaim diskClaim = write("disk");
+            assertFalse(repository.isHot(diskClaim.getResourceClaim()));
+
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            StreamUtils.copy(in, baos);
+            assertEquals("Hello, World", new String(baos.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        // Once the stream is closed, the block is free again
+        assertTrue(repository.isHot(write("hot").getResourceClaim()));
+    }
+
+    @Test
+    public void testSweepPersistsExpiredContent() throws IOException, InterruptedException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 MB", "1 millis");
+
+        final ContentClaim claim = write("Hello, World");
+        Thread.sleep(5L);
+        repository.sweep();
+
+        assertFalse(repository.isHot(claim.getResourceClaim()));
+        assertEquals("Hello, World", new String(Files.readAllBytes(repository.getPath(claim.getResourceClaim())), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSweepDiscardsUnreferencedContent() throws IOException {
+        createRepository(TieredFileSystemRepository.DURABILITY_LOSS_TOLERANT, "1 MB", "10 mins");
+
+        final ContentClaim claim = write("Hello, World");
+        repository.decrementClaimantCount(claim);
+        repository.sweep();
+
+        assertFalse(repository.isHot(claim.getResourceClaim()));
+        assertFalse(Files.exists(repository.getPath(claim.getResourceClaim())));
+    }
+
+    private ContentClaim write(final String content) throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return claim;
+    }
+
+    private String read(final ContentClaim claim) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final InputStream in = repository.read(claim)) {
+            StreamUtils.copy(in, baos);
+        }
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.controller.status.ThreadPoolStatus;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestProcessGroupThreadPools {
+
+    @Test
+    public void testNoThreadPoolsConfigured() {
+        final ProcessGroupThreadPools threadPools = ProcessGroupThreadPools.create(NiFiProperties.createBasicNiFiProperties(null, new HashMap<>()));
+
+        final ProcessGroup root = createGroup("root", null);
+        assertNull(threadPools.getThreadPoolName(root));
+        assertNull(threadPools.getFlowEngine(createConnectable(root)));
+        assertTrue(threadPools.getThreadPoolStatuses().isEmpty());
+        assertEquals(0, threadPools.getActiveThreadCount());
+    }
+
+    @Test
+    public void testNearestAncestorThreadPoolUsed() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("nifi.thread.pool.ingest.max.threads", "4");
+        properties.put("nifi.thread.pool.ingest.process.groups", "ingest-group");
+        properties.put("nifi.thread.pool.critical.max.threads", "2");
+        properties.put("nifi.thread.pool.critical.process.groups", " critical-group , other-critical-group");
+
+        final ProcessGroupThreadPools threadPools = ProcessGroupThreadPools.create(NiFiProperties.createBasicNiFiProperties(null, properties));
+        try {
+            final ProcessGroup root = createGroup("root", null);
+            final ProcessGroup ingest = createGroup("ingest-group", root);
+            final ProcessGroup ingestChild = createGroup("ingest-child", ingest);
+            final ProcessGroup critical = createGroup("critical-group", ingestChild);
+            final ProcessGroup otherCritical = createGroup("other-critical-group", root);
+
+            assertNull(threadPools.getThreadPoolName(root));
+            assertEquals("ingest", threadPools.getThreadPoolName(ingest));
+            assertEquals("ingest", threadPools.getThreadPoolName(ingestChild));
+            assertEquals("critical", threadPools.getThreadPoolName(critical));
+            assertEquals("critical", threadPools.getThreadPoolName(otherCritical));
+
+            final FlowEngine ingestEngine = threadPools.getFlowEngine(createConnectable(ingestChild));
+            final FlowEngine criticalEngine = threadPools.getFlowEngine(createConnectable(critical));
+            assertNotNull(ingestEngine);
+            assertNotNull(criticalEngine);
+            assertNotSame(ingestEngine, criticalEngine);
+            assertSame(criticalEngine, threadPools.getFlowEngine(createConnectable(otherCritical)));
+            assertEquals(4, ingestEngine.getCorePoolSize());
+            assertEquals(2, criticalEngine.getCorePoolSize());
+
+            final List<ThreadPoolStatus> statuses = threadPools.getThreadPoolStatuses();
+            assertEquals(2, statuses.size());
+            assertEquals("critical", statuses.get(0).getName());
+            assertEquals(2, statuses.get(0).getMaxThreads());
+            assertEquals("ingest", statuses.get(1).getName());
+            assertEquals(4, statuses.get(1).getMaxThreads());
+        } finally {
+            threadPools.shutdown(true);
+        }
+    }
+
+    @Test
+    public void testInvalidConfiguration() {
+        final Map<String, String> invalidThreads = new HashMap<>();
+        invalidThreads.put("nifi.thread.pool.ingest.max.threads", "0");
+        assertThrows(IllegalArgumentException.class, () -> ProcessGroupThreadPools.create(NiFiProperties.createBasicNiFiProperties(null, invalidThreads)));
+
+        final Map<String, String> duplicateGroup = new HashMap<>();
+        duplicateGroup.put("nifi.thread.pool.first.max.threads", "1");
+        duplicateGroup.put("nifi.thread.pool.first.process.groups", "group");
+        duplicateGroup.put("nifi.thread.pool.second.max.threads", "1");
+        duplicateGroup.put("nifi.thread.pool.second.process.groups", "group");
+        assertThrows(IllegalArgumentException.class, () -> ProcessGroupThreadPools.create(NiFiProperties.createBasicNiFiProperties(null, duplicateGroup)));
+    }
+
+    private ProcessGroup createGroup(final String identifier, final ProcessGroup parent) {
+        final ProcessGroup group = mock(ProcessGroup.class);
+        when(group.getIdentifier()).thenReturn(identifier);
+        when(group.getParent()).thenReturn(parent);
+        return group;
+    }
+
+    private Connectable createConnectable(final ProcessGroup group) {
+        final Connectable connectable = mock(Connectable.class);
+        when(connectable.getProcessGroup()).thenReturn(group);
+        return connectable;
+    }
+}
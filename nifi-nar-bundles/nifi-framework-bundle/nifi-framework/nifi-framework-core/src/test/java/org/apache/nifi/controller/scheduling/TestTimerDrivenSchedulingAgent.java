@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.MockFlowFileRecord;
+import org.apache.nifi.controller.MockSwapManager;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.queue.ConnectionEventListener;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.StandardFlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.status.FlowFileAvailability;
+import org.apache.nifi.controller.tasks.ConnectableTask;
+import org.apache.nifi.controller.tasks.InvocationResult;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Timeout(30)
+public class TestTimerDrivenSchedulingAgent {
+    // Long enough that a parked component runs again within a test only if it is woken up
+    private static final String PARK_DURATION = "10 mins";
+    private static final long IDLE_MILLIS = 300L;
+
+    private final AtomicInteger invocations = new AtomicInteger(0);
+    private final AtomicInteger processed = new AtomicInteger(0);
+    private final AtomicBoolean putDuringParkCheck = new AtomicBoolean(false);
+    private volatile Runnable onInvocation = () -> { };
+
+    private FlowEngine flowEngine;
+    private TimerDrivenSchedulingAgent agent;
+    private Connectable connectable;
+    private FlowFileQueue queue;
+    private LifecycleState scheduleState;
+
+    @BeforeEach
+    public void setup() {
+        connectable = mock(Connectable.class);
+        when(connectable.getIdentifier()).thenReturn("connectable-1");
+        when(connectable.getMaxConcurrentTasks()).thenReturn(1);
+        when(connectable.getSchedulingPeriod(TimeUnit.NANOSECONDS)).thenReturn(TimeUnit.MILLISECONDS.toNanos(1L));
+        when(connectable.getSchedulingPeriod(TimeUnit.MILLISECONDS)).thenReturn(1L);
+        when(connectable.hasIncomingConnection()).thenReturn(true);
+
+        // Events raised by the queue are delivered to the scheduling agent, as StandardConnection does for the connection's destination
+        final ConnectionEventListener eventListener = new ConnectionEventListener() {
+            @Override
+            public void triggerSourceEvent() {
+            }
+
+            @Override
+            public void triggerDestinationEvent() {
+                agent.onEvent(connectable);
+            }
+        };
+
+        final StandardFlowFileQueue standardQueue = new StandardFlowFileQueue("queue-1", eventListener, mock(FlowFileRepository.class), mock(ProvenanceEventRepository.class),
+            mock(ResourceClaimManager.class), mock(ProcessScheduler.class), new MockSwapManager(), null, 10000, "0 sec", 0L, "0 B");
+        queue = Mockito.spy(standardQueue);
+
+        // Simulates a FlowFile being queued after the component checks whether it can be parked but before it is parked
+        doAnswer(invocation -> {
+            if (putDuringParkCheck.compareAndSet(true, false)) {
+                queue.put(new MockFlowFileRecord());
+                return FlowFileAvailability.ACTIVE_QUEUE_EMPTY;
+            }
+            return invocation.callRealMethod();
+        }).when(queue).getFlowFileAvailability();
+
+        final Connection connection = mock(Connection.class);
+        when(connection.getSource()).thenReturn(mock(Connectable.class));
+        when(connection.getDestination()).thenReturn(connectable);
+        when(connection.getFlowFileQueue()).thenReturn(queue);
+        when(connectable.getIncomingConnections()).thenReturn(Collections.singletonList(connection));
+
+        // The task consumes a FlowFile if there is one, and otherwise yields because it has no work to do
+        final ConnectableTask connectableTask = mock(ConnectableTask.class);
+        when(connectableTask.getConnectable()).thenReturn(connectable);
+        when(connectableTask.invoke()).thenAnswer(invocation -> {
+            invocations.incrementAndGet();
+            onInvocation.run();
+
+            final FlowFileRecord flowFile = queue.isActiveQueueEmpty() ? null : queue.poll(Collections.emptySet());
+            if (flowFile == null) {
+                return InvocationResult.yield("No work to do");
+            }
+
+            queue.acknowledge(flowFile);
+            processed.incrementAndGet();
+            return InvocationResult.DO_NOT_YIELD;
+        });
+
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.BORED_YIELD_DURATION, "10 millis");
+        properties.put(NiFiProperties.BORED_PARK_DURATION, PARK_DURATION);
+
+        flowEngine = new FlowEngine(2, "Timer-Driven Process", true);
+        agent = new TimerDrivenSchedulingAgent(mock(FlowController.class), flowEngine, mock(RepositoryContextFactory.class),
+            NiFiProperties.createBasicNiFiProperties(null, properties)) {
+            @Override
+            ConnectableTask createConnectableTask(final Connectable connectable, final LifecycleState scheduleState) {
+                return connectableTask;
+            }
+        };
+
+        scheduleState = new LifecycleState();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        flowEngine.shutdownNow();
+    }
+
+    @Test
+    public void testIdleComponentIsParked() throws InterruptedException {
+        agent.schedule(connectable, scheduleState);
+        waitForParked();
+        final int invocationsAtPark = invocations.get();
+
+        // Without parking, the component would run again every bored yield duration
+        Thread.sleep(IDLE_MILLIS);
+        assertEquals(invocationsAtPark, invocations.get());
+        assertEquals(1, agent.getParkedTriggerCount(connectable));
+    }
+
+    @Test
+    public void testPutWakesParkedComponent() throws InterruptedException {
+        agent.schedule(connectable, scheduleState);
+        waitForParked();
+
+        queue.put(new MockFlowFileRecord());
+        waitFor(() -> processed.get() == 1);
+
+        // Once the queue is empty again, the component is parked again
+        waitForParked();
+        final int invocationsAfterPark = invocations.get();
+        Thread.sleep(IDLE_MILLIS);
+        assertEquals(invocationsAfterPark, invocations.get());
+    }
+
+    @Test
+    public void testUnscheduleParkedComponent() throws InterruptedException {
+        agent.schedule(connectable, scheduleState);
+        waitForParked();
+        final int invocationsAtPark = invocations.get();
+
+        agent.unschedule(connectable, scheduleState);
+        assertEquals(0, agent.getParkedTriggerCount(connectable));
+
+        // Data queued after the component is stopped must not cause it to run
+        queue.put(new MockFlowFileRecord());
+        Thread.sleep(IDLE_MILLIS);
+        assertEquals(invocationsAtPark, invocations.get());
+        assertEquals(0, processed.get());
+
+        for (final ScheduledFuture<?> future : scheduleState.getFutures()) {
+            assertTrue(future.isCancelled());
+        }
+        for (final Runnable task : flowEngine.getQueue()) {
+            assertTrue(((Future<?>) task).isCancelled());
+        }
+    }
+
+    @Test
+    public void testUnscheduleWhileRunningLeavesNoParkedTrigger() throws InterruptedException {
+        onInvocation = () -> agent.unschedule(connectable, scheduleState);
+        agent.schedule(connectable, scheduleState);
+        waitFor(() -> invocations.get() == 1);
+
+        queue.put(new MockFlowFileRecord());
+        Thread.sleep(IDLE_MILLIS);
+        assertEquals(1, invocations.get());
+        assertEquals(0, agent.getParkedTriggerCount(connectable));
+    }
+
+    @Test
+    public void testPutRacingWithParkIsNotLost() throws InterruptedException {
+        putDuringParkCheck.set(true);
+        agent.schedule(connectable, scheduleState);
+
+        // The FlowFile's event arrives before the component is parked, so the component must notice the FlowFile itself
+        // rather than waiting for the park duration to elapse.
+        waitFor(() -> processed.get() == 1);
+        assertTrue(invocations.get() >= 2);
+    }
+
+    private void waitForParked() throws InterruptedException {
+        waitFor(() -> agent.getParkedTriggerCount(connectable) == 1);
+    }
+
+    private void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(10L);
+        }
+    }
+}
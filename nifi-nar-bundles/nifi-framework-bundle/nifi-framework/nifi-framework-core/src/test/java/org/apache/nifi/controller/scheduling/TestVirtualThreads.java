@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestVirtualThreads {
+
+    @Test
+    public void testNoComponentTypesConfigured() {
+        final VirtualThreads virtualThreads = VirtualThreads.create(NiFiProperties.createBasicNiFiProperties(null, new HashMap<>()));
+
+        assertFalse(virtualThreads.isVirtual(createConnectable("InvokeHTTP")));
+        assertThrows(IllegalStateException.class, () -> virtualThreads.start(() -> { }));
+    }
+
+    @Test
+    public void testFallsBackWhenNotSupported() {
+        assumeFalse(VirtualThreads.isSupported());
+
+        final VirtualThreads virtualThreads = VirtualThreads.create(createProperties("InvokeHTTP"));
+        assertFalse(virtualThreads.isVirtual(createConnectable("InvokeHTTP")));
+    }
+
+    @Test
+    public void testComponentsRunOnVirtualThreads() throws InterruptedException {
+        assumeTrue(VirtualThreads.isSupported());
+
+        final VirtualThreads virtualThreads = VirtualThreads.create(createProperties(" InvokeHTTP, PutSFTP "));
+        assertTrue(virtualThreads.isVirtual(createConnectable("InvokeHTTP")));
+        assertTrue(virtualThreads.isVirtual(createConnectable("PutSFTP")));
+        assertFalse(virtualThreads.isVirtual(createConnectable("GenerateFlowFile")));
+
+        final int taskCount = 1000;
+        final CountDownLatch started = new CountDownLatch(taskCount);
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < taskCount; i++) {
+            virtualThreads.start(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ignored) {
+                }
+            });
+        }
+
+        // All tasks are blocked at once, which would require a pool of a thousand platform threads
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        release.countDown();
+
+        virtualThreads.shutdown(false);
+        virtualThreads.awaitTermination(30, TimeUnit.SECONDS);
+        assertTrue(virtualThreads.isTerminated());
+        assertEquals(0, virtualThreads.getActiveCount());
+        assertThrows(IllegalStateException.class, () -> virtualThreads.start(() -> { }));
+    }
+
+    private NiFiProperties createProperties(final String componentTypes) {
+        return NiFiProperties.createBasicNiFiProperties(null, Collections.singletonMap(NiFiProperties.VIRTUAL_THREADS_COMPONENT_TYPES, componentTypes));
+    }
+
+    private Connectable createConnectable(final String componentType) {
+        final Connectable connectable = mock(Connectable.class);
+        when(connectable.getComponentType()).thenReturn(componentType);
+        return connectable;
+    }
+}
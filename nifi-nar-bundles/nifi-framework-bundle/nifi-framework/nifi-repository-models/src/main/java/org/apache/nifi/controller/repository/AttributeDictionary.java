@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.repository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Holds the state that is shared among all {@link CompactAttributeMap}s: the distinct sets of attribute keys ('key layouts') and, for each
+ * attribute key, a dictionary of commonly occurring values.
+ * </p>
+ *
+ * <p>
+ * FlowFiles that pass through the same part of a flow nearly always have the same attribute keys, so each distinct set of keys is held
+ * once and shared by every FlowFile that has exactly those keys. Many attributes, such as <code>mime.type</code> or <code>kafka.topic</code>,
+ * also take only a handful of distinct values, and so those values are shared as well. An attribute whose values turn out to be mostly
+ * unique, such as <code>uuid</code> or <code>filename</code>, stops being tracked once it exceeds {@link #MAX_VALUES_PER_KEY} distinct
+ * values.
+ * </p>
+ *
+ * <p>
+ * All of the dictionaries are bounded so that a flow that generates unbounded keys or values cannot exhaust the heap. When a bound is
+ * reached, the least recently used key layout or value dictionary is evicted, so that the dictionaries follow the flow as it changes.
+ * Maps that already use an evicted layout or value keep it; it is simply no longer shared with new maps. While the key layouts are at
+ * their bound, a layout is not shared with the first map that has it, so that a flow whose FlowFiles each have distinct keys does not
+ * create a layout per FlowFile.
+ * </p>
+ */
+final class AttributeDictionary {
+    static final int MAX_KEY_LAYOUTS = 10_000;
+    static final int MAX_VALUE_DICTIONARIES = 1_000;
+    static final int MAX_VALUES_PER_KEY = 256;
+    static final int MAX_DICTIONARY_VALUES = 65_536;
+    static final int MAX_DICTIONARY_VALUE_LENGTH = 128;
+
+    private static final AttributeDictionary INSTANCE = new AttributeDictionary();
+
+    // Both maps are ordered by access so that the least recently used entry is evicted first. Access to them is synchronized on the map.
+    private final Map<Set<String>, KeyLayout> keyLayouts = new LinkedHashMap<Set<String>, KeyLayout>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Set<String>, KeyLayout> eldest) {
+            return size() > MAX_KEY_LAYOUTS;
+        }
+    };
+    private final Map<String, ValueDictionary> valueDictionaries = new LinkedHashMap<String, ValueDictionary>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, ValueDictionary> eldest) {
+            if (size() > MAX_VALUE_DICTIONARIES) {
+                eldest.getValue().evict();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final AtomicInteger dictionaryValueCount = new AtomicInteger(0);
+
+    static AttributeDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the shared layout for the keys of the given attributes, creating one if necessary
+     *
+     * @param attributes the attributes whose keys should be described by the layout
+     * @return a layout whose keys are exactly the keys of the given attributes, or <code>null</code> if the attributes should not use a
+     * shared layout
+     */
+    KeyLayout getKeyLayout(final Map<String, String> attributes) {
+        final boolean full;
+        synchronized (keyLayouts) {
+            final KeyLayout existing = keyLayouts.get(attributes.keySet());
+            if (existing != null) {
+                return existing;
+            }
+
+            full = keyLayouts.size() >= MAX_KEY_LAYOUTS;
+        }
+
+        final KeyLayout layout = new KeyLayout(attributes.keySet());
+        synchronized (keyLayouts) {
+            final KeyLayout raced = keyLayouts.putIfAbsent(layout.getKeySet(), layout);
+            if (raced != null) {
+                return raced;
+            }
+        }
+
+        // The layout is shared from the next map that has the same keys onward, by which time it is known not to be unique to one FlowFile
+        return full ? null : layout;
+    }
+
+    /**
+     * Returns a previously seen value that is equal to the given value, if the attribute is one whose values are being shared,
+     * or the given value otherwise
+     *
+     * @param key the attribute key
+     * @param value the attribute value
+     * @return a value equal to the given value
+     */
+    String getValue(final String key, final String value) {
+        if (value.length() > MAX_DICTIONARY_VALUE_LENGTH) {
+            return value;
+        }
+
+        final ValueDictionary dictionary;
+        synchronized (valueDictionaries) {
+            dictionary = valueDictionaries.computeIfAbsent(key, k -> new ValueDictionary());
+        }
+
+        return dictionary.getValue(value);
+    }
+
+    int getKeyLayoutCount() {
+        synchronized (keyLayouts) {
+            return keyLayouts.size();
+        }
+    }
+
+    int getDictionaryValueCount() {
+        return dictionaryValueCount.get();
+    }
+
+    /**
+     * Evicts the least recently used value dictionary, so that the values of the attributes that are currently in use can be shared
+     */
+    private void evictEldestValueDictionary() {
+        synchronized (valueDictionaries) {
+            final Iterator<ValueDictionary> itr = valueDictionaries.values().iterator();
+            if (itr.hasNext()) {
+                itr.next().evict();
+                itr.remove();
+            }
+        }
+    }
+
+    /**
+     * An immutable, ordered set of attribute keys along with the index of each key
+     */
+    static final class KeyLayout {
+        private final String[] keys;
+        private final Map<String, Integer> indices;
+        private final Set<String> keySet;
+
+        private KeyLayout(final Set<String> keys) {
+            this.keys = keys.toArray(new String[0]);
+            this.indices = new HashMap<>((int) (this.keys.length / 0.75f) + 1);
+            for (int i = 0; i < this.keys.length; i++) {
+                indices.put(this.keys[i], i);
+            }
+            this.keySet = Collections.unmodifiableSet(indices.keySet());
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        String getKey(final int index) {
+            return keys[index];
+        }
+
+        int indexOf(final Object key) {
+            final Integer index = indices.get(key);
+            return index == null ? -1 : index;
+        }
+
+        Set<String> getKeySet() {
+            return keySet;
+        }
+    }
+
+    private final class ValueDictionary {
+        private final Map<String, String> values = new HashMap<>();
+        private boolean highCardinality = false;
+        private boolean evicted = false;
+
+        String getValue(final String value) {
+            synchronized (this) {
+                if (highCardinality || evicted) {
+                    return value;
+                }
+
+                final String existing = values.get(value);
+                if (existing != null) {
+                    return existing;
+                }
+
+                if (values.size() >= MAX_VALUES_PER_KEY) {
+                    // Values of this attribute are mostly unique, so sharing them would only cost memory.
+                    highCardinality = true;
+                    dictionaryValueCount.addAndGet(-values.size());
+                    values.clear();
+                    return value;
+                }
+
+                if (dictionaryValueCount.get() < MAX_DICTIONARY_VALUES) {
+                    values.put(value, value);
+                    dictionaryValueCount.incrementAndGet();
+                    return value;
+                }
+            }
+
+            // The lock on this dictionary must not be held while evicting another, as eviction locks the dictionaries in the opposite order.
+            evictEldestValueDictionary();
+            return value;
+        }
+
+        synchronized void evict() {
+            evicted = true;
+            dictionaryValueCount.addAndGet(-values.size());
+            values.clear();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.AttributeDictionary.KeyLayout;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that holds only an array of values per FlowFile. The keys are held by a {@link KeyLayout}
+ * that is shared by every FlowFile with the same set of attribute keys, and values that are common across FlowFiles are shared via the
+ * {@link AttributeDictionary}. Compared to a {@link java.util.HashMap}, which requires a table and an entry object per attribute for each
+ * FlowFile, this considerably reduces the heap required to hold queued FlowFiles.
+ * </p>
+ *
+ * <p>
+ * Because the map is immutable, updating an attribute requires copying it. {@link StandardFlowFileRecord.Builder} already copies the
+ * attributes of the FlowFile that it is created from the first time that an attribute is added or removed, and a new CompactAttributeMap
+ * is then created when the FlowFile is built.
+ * </p>
+ *
+ * <p>
+ * If the {@link AttributeDictionary} does not share a layout for the attributes' keys, the attributes are instead held in a plain
+ * {@link java.util.HashMap}, as a layout held by a single FlowFile would cost more than the HashMap it replaces.
+ * </p>
+ */
+final class CompactAttributeMap extends AbstractMap<String, String> {
+    private final KeyLayout layout;
+    private final String[] values;
+
+    private CompactAttributeMap(final KeyLayout layout, final String[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Creates a compact, immutable copy of the given attributes
+     *
+     * @param attributes the attributes to copy
+     * @return a compact copy of the given attributes, or the given attributes themselves if they are already compact, or a
+     * {@link HashMap} copy of them if their keys do not have a shared layout
+     */
+    static Map<String, String> of(final Map<String, String> attributes) {
+        return of(attributes, AttributeDictionary.getInstance());
+    }
+
+    static Map<String, String> of(final Map<String, String> attributes, final AttributeDictionary dictionary) {
+        if (attributes == null || attributes.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (attributes instanceof CompactAttributeMap) {
+            return attributes;
+        }
+
+        final KeyLayout layout = dictionary.getKeyLayout(attributes);
+        if (layout == null) {
+            return new HashMap<>(attributes);
+        }
+
+        final String[] values = new String[layout.size()];
+        for (int i = 0; i < values.length; i++) {
+            final String key = layout.getKey(i);
+            final String value = attributes.get(key);
+            values[i] = value == null ? null : dictionary.getValue(key, value);
+        }
+
+        return new CompactAttributeMap(layout, values);
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = layout.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return layout.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final Entry<String, String> entry = new SimpleImmutableEntry<>(layout.getKey(index), values[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+}
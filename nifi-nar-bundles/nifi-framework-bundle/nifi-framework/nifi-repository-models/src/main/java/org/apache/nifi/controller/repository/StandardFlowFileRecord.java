@@ -56,7 +56,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     private StandardFlowFileRecord(final Builder builder) {
         this.id = builder.bId;
-        this.attributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        this.attributes = CompactAttributeMap.of(builder.bAttributes);
         this.entryDate = builder.bEntryDate;
         this.lineageStartDate = builder.bLineageStartDate;
         this.lineageStartIndex = builder.bLineageStartIndex;
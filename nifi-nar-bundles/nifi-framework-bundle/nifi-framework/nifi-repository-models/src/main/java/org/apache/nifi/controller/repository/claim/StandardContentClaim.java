@@ -30,6 +30,8 @@ public final class StandardContentClaim implements ContentClaim, Comparable<Cont
     private final ResourceClaim resourceClaim;
     private final long offset;
     private volatile long length;
+    private volatile String digestAlgorithm;
+    private volatile byte[] digest;
 
     public StandardContentClaim(final ResourceClaim resourceClaim, final long offset) {
         this.resourceClaim = resourceClaim;
@@ -41,6 +43,31 @@ public final class StandardContentClaim implements ContentClaim, Comparable<Cont
         this.length = length;
     }
 
+    /**
+     * Records the digest of the full content of this claim, as computed while the content was written
+     *
+     * @param digestAlgorithm the name of the algorithm that computed the digest
+     * @param digest the digest of the content
+     */
+    public void setDigest(final String digestAlgorithm, final byte[] digest) {
+        this.digest = digest;
+        this.digestAlgorithm = digestAlgorithm;
+    }
+
+    /**
+     * @return the name of the algorithm that computed the digest of this claim's content, or <code>null</code> if no digest is known
+     */
+    public String getDigestAlgorithm() {
+        return digestAlgorithm;
+    }
+
+    /**
+     * @return the digest of this claim's content, or <code>null</code> if no digest is known
+     */
+    public byte[] getDigest() {
+        return digest;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
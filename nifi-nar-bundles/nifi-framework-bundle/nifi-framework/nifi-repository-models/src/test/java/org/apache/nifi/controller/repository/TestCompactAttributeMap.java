@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCompactAttributeMap {
+
+    @Test
+    public void testBehavesAsMap() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", UUID.randomUUID().toString());
+        attributes.put("filename", "file-1.txt");
+        attributes.put("mime.type", "text/plain");
+
+        final Map<String, String> compact = CompactAttributeMap.of(attributes);
+        assertEquals(attributes, compact);
+        assertEquals(compact, attributes);
+        assertEquals(attributes.hashCode(), compact.hashCode());
+        assertEquals(3, compact.size());
+        assertEquals("text/plain", compact.get("mime.type"));
+        assertTrue(compact.containsKey("filename"));
+        assertFalse(compact.containsKey("path"));
+        assertNull(compact.get("path"));
+        assertEquals(attributes.keySet(), compact.keySet());
+        assertEquals(attributes, new HashMap<>(compact));
+
+        assertThrows(UnsupportedOperationException.class, () -> compact.put("path", "/"));
+        assertThrows(UnsupportedOperationException.class, () -> compact.remove("uuid"));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(CompactAttributeMap.of(null).isEmpty());
+        assertTrue(CompactAttributeMap.of(Collections.emptyMap()).isEmpty());
+    }
+
+    @Test
+    public void testKeysAndCommonValuesShared() {
+        final Map<String, String> first = new HashMap<>();
+        first.put(new String("kafka.topic"), new String("orders"));
+        first.put(new String("uuid"), UUID.randomUUID().toString());
+
+        final Map<String, String> second = new HashMap<>();
+        second.put(new String("kafka.topic"), new String("orders"));
+        second.put(new String("uuid"), UUID.randomUUID().toString());
+
+        final Map<String, String> firstCompact = CompactAttributeMap.of(first);
+        final Map<String, String> secondCompact = CompactAttributeMap.of(second);
+
+        assertSame(getKey(firstCompact, "kafka.topic"), getKey(secondCompact, "kafka.topic"));
+        assertSame(firstCompact.get("kafka.topic"), secondCompact.get("kafka.topic"));
+        assertNotSame(firstCompact.get("uuid"), secondCompact.get("uuid"));
+    }
+
+    @Test
+    public void testHighCardinalityValuesNotShared() {
+        final String key = "test.high.cardinality." + UUID.randomUUID();
+        for (int i = 0; i <= AttributeDictionary.MAX_VALUES_PER_KEY; i++) {
+            CompactAttributeMap.of(Collections.singletonMap(key, "value-" + i));
+        }
+
+        final Map<String, String> first = CompactAttributeMap.of(Collections.singletonMap(key, new String("value-0")));
+        final Map<String, String> second = CompactAttributeMap.of(Collections.singletonMap(key, new String("value-0")));
+        assertEquals(first, second);
+        assertNotSame(first.get(key), second.get(key));
+    }
+
+    @Test
+    public void testUnsharedKeyLayoutFallsBackToHashMap() {
+        final AttributeDictionary dictionary = new AttributeDictionary();
+        for (int i = 0; i < AttributeDictionary.MAX_KEY_LAYOUTS; i++) {
+            assertInstanceOf(CompactAttributeMap.class, CompactAttributeMap.of(Collections.singletonMap("key-" + i, "value"), dictionary));
+        }
+        assertEquals(AttributeDictionary.MAX_KEY_LAYOUTS, dictionary.getKeyLayoutCount());
+
+        // Once the layouts are at their bound, a new layout is not shared with the first map that has it
+        final Map<String, String> attributes = Collections.singletonMap("new.key", "value");
+        final Map<String, String> first = CompactAttributeMap.of(attributes, dictionary);
+        assertEquals(HashMap.class, first.getClass());
+        assertEquals(attributes, first);
+
+        // The new layout replaces the least recently used one, and is shared by subsequent maps
+        assertInstanceOf(CompactAttributeMap.class, CompactAttributeMap.of(attributes, dictionary));
+        assertInstanceOf(CompactAttributeMap.class, CompactAttributeMap.of(Collections.singletonMap("key-1", "value"), dictionary));
+        assertEquals(HashMap.class, CompactAttributeMap.of(Collections.singletonMap("key-0", "value"), dictionary).getClass());
+        assertEquals(AttributeDictionary.MAX_KEY_LAYOUTS, dictionary.getKeyLayoutCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedValuesEvicted() {
+        final AttributeDictionary dictionary = new AttributeDictionary();
+        final int valuesPerKey = AttributeDictionary.MAX_VALUES_PER_KEY / 2;
+        for (int i = 0; i < AttributeDictionary.MAX_DICTIONARY_VALUES / valuesPerKey; i++) {
+            for (int j = 0; j < valuesPerKey; j++) {
+                dictionary.getValue("key-" + i, "value-" + j);
+            }
+        }
+        assertEquals(AttributeDictionary.MAX_DICTIONARY_VALUES, dictionary.getDictionaryValueCount());
+
+        // The values of a new attribute are shared once the values of the least recently used attribute have been evicted
+        final String firstValue = dictionary.getValue("new.key", new String("value"));
+        final String secondValue = dictionary.getValue("new.key", new String("value"));
+        assertSame(secondValue, dictionary.getValue("new.key", new String("value")));
+        assertNotSame(firstValue, secondValue);
+        assertEquals(AttributeDictionary.MAX_DICTIONARY_VALUES - valuesPerKey + 1, dictionary.getDictionaryValueCount());
+    }
+
+    @Test
+    public void testFlowFileRecordAttributes() {
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder()
+            .addAttribute("uuid", UUID.randomUUID().toString())
+            .addAttribute("filename", "original.txt")
+            .build();
+
+        final FlowFileRecord updated = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .addAttribute("filename", "updated.txt")
+            .addAttribute("path", "/")
+            .build();
+
+        assertEquals("original.txt", original.getAttribute("filename"));
+        assertEquals(2, original.getAttributes().size());
+        assertEquals("updated.txt", updated.getAttribute("filename"));
+        assertEquals("/", updated.getAttribute("path"));
+        assertEquals(original.getAttribute("uuid"), updated.getAttribute("uuid"));
+
+        final FlowFileRecord removed = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(updated)
+            .removeAttributes("path")
+            .build();
+        assertFalse(removed.getAttributes().containsKey("path"));
+        assertEquals(2, removed.getAttributes().size());
+    }
+
+    private String getKey(final Map<String, String> map, final String key) {
+        return map.keySet().stream()
+            .filter(key::equals)
+            .findFirst()
+            .orElse(null);
+    }
+}
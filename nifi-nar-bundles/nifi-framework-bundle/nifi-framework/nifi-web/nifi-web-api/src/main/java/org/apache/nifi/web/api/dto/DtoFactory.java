@@ -3923,6 +3923,10 @@ public final class DtoFactory {
         dto.setAllActiveQueueFlowFilesPenalized(queueDiagnostics.isAllActiveFlowFilesPenalized());
         dto.setAnyActiveQueueFlowFilesPenalized(queueDiagnostics.isAnyActiveFlowFilePenalized());
 
+        dto.setSwapInCount(queueDiagnostics.getSwapInCount());
+        dto.setSwapInMillis(queueDiagnostics.getSwapInMillis());
+        dto.setSwapInPrefetchHitCount(queueDiagnostics.getSwapInPrefetchHitCount());
+
         return dto;
     }
 
@@ -32,6 +32,7 @@ import org.apache.nifi.authorization.user.NiFiUserUtils;
 import org.apache.nifi.bundle.Bundle;
 import org.apache.nifi.bundle.BundleCoordinate;
 import org.apache.nifi.c2.protocol.component.api.RuntimeManifest;
+import org.apache.nifi.cluster.manager.ProvenanceContinuationToken;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.components.ConfigurableComponent;
 import org.apache.nifi.components.RequiredPermission;
@@ -130,6 +131,7 @@ import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -1128,6 +1130,13 @@ public class ControllerFacade implements Authorizable {
 
             // set the max results desired
             query.setMaxResults(requestDto.getMaxResults());
+
+            // if the results are paginated, continue from where the previous page of this node's results ended
+            if (requestDto.getContinuationToken() != null) {
+                final Long maxEventId = ProvenanceContinuationToken.parse(requestDto.getContinuationToken()).getMaxEventId(getProvenanceNodeId());
+                query.setMaxEventId(maxEventId == null ? Long.MAX_VALUE : maxEventId);
+                query.setContinuationToken(requestDto.getContinuationToken());
+            }
         }
 
         // submit the query to the provenance repository
@@ -1174,6 +1183,8 @@ public class ControllerFacade implements Authorizable {
             requestDto.setMinimumFileSize(query.getMinFileSize());
             requestDto.setMaximumFileSize(query.getMaxFileSize());
             requestDto.setMaxResults(query.getMaxResults());
+            // echo the requested token unchanged, as it also holds where the page begins on the other nodes of the cluster
+            requestDto.setContinuationToken(query.getContinuationToken());
             if (query.getSearchTerms() != null) {
                 final Map<String, ProvenanceSearchValueDTO> searchTerms = new HashMap<>();
                 for (final SearchTerm searchTerm : query.getSearchTerms()) {
@@ -1210,6 +1221,12 @@ public class ControllerFacade implements Authorizable {
                 resultsDto.setTotal(FormatUtils.formatCount(queryResult.getTotalHitCount()));
             }
 
+            // include the token for the next page of results, if there is one
+            final Long nextMaxEventId = queryResult.getNextMaxEventId();
+            if (nextMaxEventId != null) {
+                resultsDto.setContinuationToken(createContinuationToken(nextMaxEventId));
+            }
+
             // include any errors
             if (queryResult.getError() != null) {
                 final Set<String> errors = new HashSet<>();
@@ -1235,6 +1252,15 @@ public class ControllerFacade implements Authorizable {
         }
     }
 
+    private String getProvenanceNodeId() {
+        final NodeIdentifier nodeId = getNodeId();
+        return nodeId == null ? ProvenanceContinuationToken.STANDALONE_NODE_ID : nodeId.getId();
+    }
+
+    private String createContinuationToken(final long maxEventId) {
+        return new ProvenanceContinuationToken(Collections.singletonMap(getProvenanceNodeId(), maxEventId)).toString();
+    }
+
     /**
      * Submits the specified lineage request.
      *
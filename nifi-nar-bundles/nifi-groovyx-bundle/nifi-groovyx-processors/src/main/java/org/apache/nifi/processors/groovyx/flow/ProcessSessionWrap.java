@@ -42,6 +42,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
@@ -721,6 +722,12 @@ public abstract class ProcessSessionWrap implements ProcessSession {
         return session.read(flowFile);
     }
 
+    @Override
+    public Optional<byte[]> getContentDigest(FlowFile flowFile, String algorithm) {
+        flowFile = unwrap(flowFile);
+        return session.getContentDigest(flowFile, algorithm);
+    }
+
     /**
      * Executes the given callback against the contents corresponding to the
      * given FlowFile.
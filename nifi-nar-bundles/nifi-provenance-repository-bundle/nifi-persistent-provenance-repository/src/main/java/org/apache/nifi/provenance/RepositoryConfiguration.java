@@ -28,6 +28,7 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.BlockCodec;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
@@ -56,6 +57,7 @@ public class RepositoryConfiguration {
     private List<SearchableField> searchableFields = new ArrayList<>();
     private List<SearchableField> searchableAttributes = new ArrayList<>();
     private boolean compress = true;
+    private BlockCodec blockCodec = BlockCodec.GZIP;
     private boolean alwaysSync = false;
     private int queryThreadPoolSize = 2;
     private int indexThreadPoolSize = 1;
@@ -226,6 +228,20 @@ public class RepositoryConfiguration {
         this.compress = compress;
     }
 
+    /**
+     * @return the codec used to compress each block of an event file when it is rolled over
+     */
+    public BlockCodec getBlockCodec() {
+        return blockCodec;
+    }
+
+    /**
+     * @param blockCodec the codec used to compress each block of an event file when it is rolled over
+     */
+    public void setBlockCodec(final BlockCodec blockCodec) {
+        this.blockCodec = blockCodec;
+    }
+
     /**
      * @return the number of threads to use to query the repo
      */
@@ -402,6 +418,7 @@ public class RepositoryConfiguration {
         final long rolloverBytes = DataUnit.parseDataSize(rolloverSize, DataUnit.B).longValue();
 
         final boolean compressOnRollover = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESS_ON_ROLLOVER));
+        final String compressionCodec = nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESSION_CODEC, NiFiProperties.DEFAULT_PROVENANCE_COMPRESSION_CODEC);
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
 
@@ -422,6 +439,18 @@ public class RepositoryConfiguration {
             maxAttrChars = defaultMaxAttrChars;
         }
 
+        BlockCodec blockCodec;
+        try {
+            blockCodec = BlockCodec.valueOf(compressionCodec.trim().toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            blockCodec = null;
+        }
+        if (blockCodec == null || blockCodec == BlockCodec.NONE) {
+            logger.warn("Found compression codec property set to {} but only {} and {} are supported; using {} instead",
+                compressionCodec, BlockCodec.GZIP, BlockCodec.SNAPPY, BlockCodec.GZIP);
+            blockCodec = BlockCodec.GZIP;
+        }
+
         final List<SearchableField> searchableFields = SearchableFieldParser.extractSearchableFields(indexedFieldString, true);
         final List<SearchableField> searchableAttributes = SearchableFieldParser.extractSearchableFields(indexedAttrString, false);
 
@@ -435,6 +464,7 @@ public class RepositoryConfiguration {
             config.addStorageDirectory(entry.getKey(), entry.getValue().toFile());
         }
         config.setCompressOnRollover(compressOnRollover);
+        config.setBlockCodec(blockCodec);
         config.setSearchableFields(searchableFields);
         config.setSearchableAttributes(searchableAttributes);
         config.setMaxEventFileCapacity(rolloverBytes);
@@ -44,6 +44,7 @@ import org.apache.nifi.provenance.lucene.IndexManager;
 import org.apache.nifi.provenance.lucene.LuceneUtil;
 import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerm;
 import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.EventStore;
 import org.apache.nifi.provenance.util.DirectoryUtils;
@@ -548,12 +549,18 @@ public class LuceneEventIndex implements EventIndex {
             throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
         }
 
-        final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user == null ? null : user.getIdentity());
+        final List<File> indexDirectories;
+        if (flowFileUuids.isEmpty()) {
+            indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
+        } else {
+            final Optional<Tuple<Long, Long>> timeRange = narrowTimeRange(flowFileUuids, startTimestamp, endTimestamp);
+            indexDirectories = timeRange.isPresent() ? directoryManager.getDirectories(timeRange.get().getKey(), timeRange.get().getValue()) : new ArrayList<>();
+        }
+
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirectories.size(), user == null ? null : user.getIdentity());
         lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
 
         final BooleanQuery lineageQuery = buildLineageQuery(flowFileUuids);
-        final List<File> indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
         if (indexDirectories.isEmpty()) {
             submission.getResult().update(Collections.emptyList(), 0L);
         } else {
@@ -577,6 +584,58 @@ public class LuceneEventIndex implements EventIndex {
         return submission;
     }
 
+    /**
+     * Narrows the given time range to the range of Event Times that the Event Store reports for events referencing any of the given
+     * FlowFile UUIDs or Component IDs. Index directories are selected by time, so this allows skipping those index directories that
+     * cannot hold any event for the identifiers.
+     *
+     * @param identifiers the FlowFile UUIDs or Component IDs of interest
+     * @param startTimestamp the earliest Event Time of interest, or <code>null</code> if unbounded
+     * @param endTimestamp the latest Event Time of interest, or <code>null</code> if unbounded
+     * @return the narrowed time range, whose bounds may be <code>null</code> if unbounded, or an empty Optional if no event in the given time range references the identifiers
+     */
+    private Optional<Tuple<Long, Long>> narrowTimeRange(final Collection<String> identifiers, final Long startTimestamp, final Long endTimestamp) {
+        final Optional<Tuple<Long, Long>> eventTimeRange = eventStore.getEventTimeRange(identifiers);
+        if (!eventTimeRange.isPresent()) {
+            logger.debug("Event Store holds no events referencing {}", identifiers);
+            return Optional.empty();
+        }
+
+        final long earliest = eventTimeRange.get().getKey();
+        final long latest = eventTimeRange.get().getValue();
+        final Long start = earliest == Long.MIN_VALUE ? startTimestamp : Long.valueOf(startTimestamp == null ? earliest : Math.max(startTimestamp, earliest));
+        final Long end = latest == Long.MAX_VALUE ? endTimestamp : Long.valueOf(endTimestamp == null ? latest : Math.min(endTimestamp, latest));
+        if (start != null && end != null && start > end) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Tuple<>(start, end));
+    }
+
+    private List<File> getIndexDirectories(final Query query) {
+        Long startTimestamp = query.getStartDate() == null ? null : query.getStartDate().getTime();
+        Long endTimestamp = query.getEndDate() == null ? null : query.getEndDate().getTime();
+
+        // Every search term must match, so each exact FlowFile UUID or Component ID that is searched for narrows the time range further.
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final boolean identifierField = SearchableFields.FlowFileUUID.equals(searchTerm.getSearchableField()) || SearchableFields.ComponentID.equals(searchTerm.getSearchableField());
+            final String value = searchTerm.getValue();
+            if (!identifierField || Boolean.TRUE.equals(searchTerm.isInverted()) || value == null || value.contains("*") || value.contains("?")) {
+                continue;
+            }
+
+            final Optional<Tuple<Long, Long>> timeRange = narrowTimeRange(Collections.singleton(value), startTimestamp, endTimestamp);
+            if (!timeRange.isPresent()) {
+                return new ArrayList<>();
+            }
+
+            startTimestamp = timeRange.get().getKey();
+            endTimestamp = timeRange.get().getValue();
+        }
+
+        return directoryManager.getDirectories(startTimestamp, endTimestamp);
+    }
+
     private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
         // Create a query for all Events related to the FlowFiles of interest. We do this by adding all ID's as
         // "SHOULD" clauses and then setting the minimum required to 1.
@@ -600,8 +659,9 @@ public class LuceneEventIndex implements EventIndex {
     public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
         validate(query);
 
-        // Check if we have any cached queries first that can give us the answer
-        for (final CachedQuery cachedQuery : cachedQueries) {
+        // Check if we have any cached queries first that can give us the answer. The cached queries do not account for a bound on Event ID.
+        final boolean boundedByEventId = query.getMaxEventId() != null;
+        for (final CachedQuery cachedQuery : boundedByEventId ? Collections.<CachedQuery>emptyList() : cachedQueries) {
             final Optional<List<Long>> eventIdListOption = cachedQuery.evaluate(query);
             if (eventIdListOption.isPresent()) {
                 final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, 1, userId);
@@ -636,9 +696,8 @@ public class LuceneEventIndex implements EventIndex {
             }
         }
 
-        final List<File> indexDirectories = directoryManager.getDirectories(
-            query.getStartDate() == null ? null : query.getStartDate().getTime(),
-            query.getEndDate() == null ? null : query.getEndDate().getTime());
+        // A query that is bounded by a negative Event ID cannot match any event
+        final List<File> indexDirectories = boundedByEventId && query.getMaxEventId() < 0 ? new ArrayList<>() : getIndexDirectories(query);
 
         final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, indexDirectories.size(), userId);
         querySubmissionMap.put(query.getIdentifier(), submission);
@@ -652,7 +711,7 @@ public class LuceneEventIndex implements EventIndex {
             indexDirectories.sort(DirectoryUtils.NEWEST_INDEX_FIRST);
 
             for (final File indexDir : indexDirectories) {
-                queryExecutor.submit(new QueryTask(luceneQuery, submission.getResult(), query.getMaxResults(), indexManager, indexDir,
+                queryExecutor.submit(new QueryTask(luceneQuery, submission.getResult(), query.getMaxResults(), boundedByEventId, indexManager, indexDir,
                     eventStore, authorizer, EventTransformer.EMPTY_TRANSFORMER));
             }
         }
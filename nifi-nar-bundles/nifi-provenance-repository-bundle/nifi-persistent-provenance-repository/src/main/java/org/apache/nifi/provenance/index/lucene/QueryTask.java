@@ -17,6 +17,9 @@
 
 package org.apache.nifi.provenance.index.lucene;
 
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
@@ -47,11 +50,13 @@ import java.util.stream.Collectors;
 
 public class QueryTask implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(QueryTask.class);
-    private static final Set<String> LUCENE_FIELDS_TO_LOAD = Collections.singleton(SearchableFields.Identifier.getSearchableFieldName());
+    private static final String EVENT_ID_FIELD_NAME = SearchableFields.Identifier.getSearchableFieldName();
+    private static final Set<String> LUCENE_FIELDS_TO_LOAD = Collections.singleton(EVENT_ID_FIELD_NAME);
 
     private final Query query;
     private final ProgressiveResult queryResult;
     private final int maxResults;
+    private final boolean exhaustive;
     private final IndexManager indexManager;
     private final File indexDir;
     private final EventStore eventStore;
@@ -59,11 +64,23 @@ public class QueryTask implements Runnable {
     private final EventTransformer transformer;
 
     public QueryTask(final Query query, final ProgressiveResult result, final int maxResults, final IndexManager indexManager,
+        final File indexDir, final EventStore eventStore, final EventAuthorizer authorizer,
+        final EventTransformer unauthorizedTransformer) {
+        this(query, result, maxResults, false, indexManager, indexDir, eventStore, authorizer, unauthorizedTransformer);
+    }
+
+    /**
+     * @param exhaustive whether or not the index must be searched even if the result already holds the maximum number of results. This is
+     * necessary when the result must hold the matching events with the largest IDs, as the index may hold events with larger IDs than
+     * those found so far.
+     */
+    public QueryTask(final Query query, final ProgressiveResult result, final int maxResults, final boolean exhaustive, final IndexManager indexManager,
         final File indexDir, final EventStore eventStore, final EventAuthorizer authorizer,
         final EventTransformer unauthorizedTransformer) {
         this.query = query;
         this.queryResult = result;
         this.maxResults = maxResults;
+        this.exhaustive = exhaustive;
         this.indexManager = indexManager;
         this.indexDir = indexDir;
         this.eventStore = eventStore;
@@ -73,7 +90,7 @@ public class QueryTask implements Runnable {
 
     @Override
     public void run() {
-        if (queryResult.getTotalHitCount() >= maxResults) {
+        if (isMaxResultsObtained()) {
             logger.debug("Will not query lucene index {} because maximum results have already been obtained", indexDir);
             queryResult.update(Collections.emptyList(), 0L);
             return;
@@ -111,7 +128,7 @@ public class QueryTask implements Runnable {
             final long startNanos = System.nanoTime();
 
             // If max number of results are retrieved, do not bother querying lucene
-            if (queryResult.getTotalHitCount() >= maxResults) {
+            if (isMaxResultsObtained()) {
                 logger.debug("Will not query lucene index {} because maximum results have already been obtained", indexDir);
                 queryResult.update(Collections.emptyList(), 0L);
                 return;
@@ -127,10 +144,7 @@ public class QueryTask implements Runnable {
             final TopDocs topDocs;
             try {
 
-                // Sort based on document id, descending. This gives us most recent events first.
-                final Sort sort = new Sort(new SortField(null, SortField.Type.DOC, true));
-
-                topDocs = searcher.getIndexSearcher().search(query, maxResults, sort);
+                topDocs = searcher.getIndexSearcher().search(query, maxResults, createSort(indexReader));
             } catch (final Exception e) {
                 logger.error("Failed to query Lucene for index " + indexDir, e);
                 queryResult.setError("Failed to query Lucene for index " + indexDir + " due to " + e);
@@ -141,7 +155,7 @@ public class QueryTask implements Runnable {
             }
 
             // If max number of results are retrieved, do not bother reading docs
-            if (queryResult.getTotalHitCount() >= maxResults) {
+            if (isMaxResultsObtained()) {
                 logger.debug("Will not read events from store for {} because maximum results have already been obtained", indexDir);
                 queryResult.update(Collections.emptyList(), 0L);
                 return;
@@ -152,14 +166,17 @@ public class QueryTask implements Runnable {
                 return;
             }
 
-            final Tuple<List<ProvenanceEventRecord>, Long> eventsAndTotalHits = readDocuments(topDocs, indexReader);
+            final List<Long> eventIds = readEventIds(topDocs, indexReader);
+            final Tuple<List<ProvenanceEventRecord>, Long> eventsAndTotalHits = readDocuments(topDocs, eventIds);
 
             if (eventsAndTotalHits == null) {
                 queryResult.update(Collections.emptyList(), 0L);
                 logger.info("Will not update query results for queried index {} for query {} because the maximum number of results have been reached already",
                     indexDir, query);
             } else {
-                queryResult.update(eventsAndTotalHits.getKey(), eventsAndTotalHits.getValue());
+                // If the index holds more matches than were retrieved, only the matches down to the smallest Event ID retrieved are known.
+                final long minimumCompleteEventId = eventIds.size() >= maxResults ? Collections.min(eventIds) : -1L;
+                queryResult.update(eventsAndTotalHits.getKey(), eventsAndTotalHits.getValue(), minimumCompleteEventId);
 
                 final long searchNanos = System.nanoTime() - startNanos;
                 final long millis = TimeUnit.NANOSECONDS.toMillis(searchNanos);
@@ -174,10 +191,27 @@ public class QueryTask implements Runnable {
         }
     }
 
-    private Tuple<List<ProvenanceEventRecord>, Long> readDocuments(final TopDocs topDocs, final IndexReader indexReader) {
-        // If no topDocs is supplied, just provide a Tuple that has no records and a hit count of 0.
-        if (topDocs == null || topDocs.totalHits.value == 0) {
-            return new Tuple<>(Collections.<ProvenanceEventRecord> emptyList(), 0L);
+    private boolean isMaxResultsObtained() {
+        return !exhaustive && queryResult.getTotalHitCount() >= maxResults;
+    }
+
+    /**
+     * Sorts the matches by Event ID, descending, so that the most recent events are returned first. Indices that were written by the
+     * PersistentProvenanceRepository do not hold the Event ID as a doc value, but their documents were added in order of Event ID, so
+     * sorting by document ID, descending, gives the same order.
+     */
+    private static Sort createSort(final IndexReader indexReader) {
+        final FieldInfo eventIdFieldInfo = FieldInfos.getMergedFieldInfos(indexReader).fieldInfo(EVENT_ID_FIELD_NAME);
+        if (eventIdFieldInfo != null && eventIdFieldInfo.getDocValuesType() == DocValuesType.NUMERIC) {
+            return new Sort(new SortField(EVENT_ID_FIELD_NAME, SortField.Type.LONG, true), new SortField(null, SortField.Type.DOC, true));
+        }
+
+        return new Sort(new SortField(null, SortField.Type.DOC, true));
+    }
+
+    private static List<Long> readEventIds(final TopDocs topDocs, final IndexReader indexReader) {
+        if (topDocs == null) {
+            return Collections.emptyList();
         }
 
         final long start = System.nanoTime();
@@ -190,12 +224,21 @@ public class QueryTask implements Runnable {
                     throw new SearchFailedException("Failed to read Provenance Events from Event File", e);
                 }
             })
-            .map(doc -> doc.getField(SearchableFields.Identifier.getSearchableFieldName()).numericValue().longValue())
+            .map(doc -> doc.getField(EVENT_ID_FIELD_NAME).numericValue().longValue())
             .collect(Collectors.toList());
 
-        final long endConvert = System.nanoTime();
-        final long ms = TimeUnit.NANOSECONDS.toMillis(endConvert - start);
+        final long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
         logger.trace("Converting documents took {} ms", ms);
+        return eventIds;
+    }
+
+    private Tuple<List<ProvenanceEventRecord>, Long> readDocuments(final TopDocs topDocs, final List<Long> eventIds) {
+        // If no topDocs is supplied, just provide a Tuple that has no records and a hit count of 0.
+        if (topDocs == null || topDocs.totalHits.value == 0) {
+            return new Tuple<>(Collections.<ProvenanceEventRecord> emptyList(), 0L);
+        }
+
+        final long endConvert = System.nanoTime();
 
         List<ProvenanceEventRecord> events;
         try {
@@ -18,6 +18,7 @@ package org.apache.nifi.provenance.lucene;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.Term;
@@ -93,7 +94,7 @@ public class LuceneUtil {
     }
 
     public static org.apache.lucene.search.Query convertQuery(final org.apache.nifi.provenance.search.Query query) {
-        if (query.getStartDate() == null && query.getEndDate() == null && query.getSearchTerms().isEmpty()) {
+        if (query.getStartDate() == null && query.getEndDate() == null && query.getSearchTerms().isEmpty() && query.getMaxEventId() == null) {
             return new MatchAllDocsQuery();
         }
 
@@ -137,6 +138,17 @@ public class LuceneUtil {
             occurMust = true;
         }
 
+        if (query.getMaxEventId() != null) {
+            // The Event ID is indexed as a point by the PersistentProvenanceRepository but is stored only as a doc value by the
+            // WriteAheadProvenanceRepository, so match on either.
+            final String eventIdFieldName = SearchableFields.Identifier.getSearchableFieldName();
+            final BooleanQuery.Builder eventIdQueryBuilder = new BooleanQuery.Builder();
+            eventIdQueryBuilder.add(LongPoint.newRangeQuery(eventIdFieldName, 0L, query.getMaxEventId()), Occur.SHOULD);
+            eventIdQueryBuilder.add(NumericDocValuesField.newSlowRangeQuery(eventIdFieldName, 0L, query.getMaxEventId()), Occur.SHOULD);
+            queryBuilder.add(eventIdQueryBuilder.build(), Occur.MUST);
+            occurMust = true;
+        }
+
         if (!occurMust) {
             queryBuilder.add(new MatchAllDocsQuery(), Occur.SHOULD);
         }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.stream.io.GZIPOutputStream;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p>
+ * The codec that is used to compress each block of a Provenance Event File. Every block is compressed independently
+ * so that the byte offsets stored in the Table of Contents can be used to seek directly to the block that holds a given
+ * event. The codec of a compressed Event File is recorded in the header of its Table of Contents, so files written with
+ * any codec remain readable regardless of the codec that is currently configured.
+ * </p>
+ *
+ * <p>
+ * The identifier of each codec is persisted and therefore must never change.
+ * </p>
+ */
+public enum BlockCodec {
+    NONE(0) {
+        @Override
+        public OutputStream compress(final OutputStream out) {
+            return out;
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) {
+            return in;
+        }
+    },
+
+    GZIP(1) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+
+    SNAPPY(2) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new SnappyFramedOutputStream(out);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new SnappyFramedInputStream(in);
+        }
+    };
+
+    private final int id;
+
+    BlockCodec(final int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the identifier that is persisted in the Table of Contents for this codec
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Wraps the given stream so that bytes written are compressed. The block is complete once the returned stream
+     * is closed, which also closes the given stream.
+     *
+     * @param out the stream to write compressed bytes to
+     * @return a stream that compresses the data written to it
+     * @throws IOException if unable to write the codec's header to the given stream
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the given stream, which must be positioned at the start of a block, so that the block's data can be read.
+     *
+     * @param in the stream to read compressed bytes from
+     * @return a stream that provides the decompressed data
+     * @throws IOException if unable to read the codec's header from the given stream
+     */
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * Returns the codec that has the given persisted identifier
+     *
+     * @param id the identifier of the codec
+     * @return the codec with the given identifier
+     * @throws IllegalArgumentException if no codec exists with the given identifier
+     */
+    public static BlockCodec fromId(final int id) {
+        for (final BlockCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown Block Codec identifier: " + id);
+    }
+
+    /**
+     * Determines which codec was used to write the Event File with the given name. Event Files whose name does not end
+     * with <code>.gz</code> are not compressed. Otherwise, the Table of Contents indicates the codec, and files that have
+     * no Table of Contents were compressed using GZIP.
+     *
+     * @param filename the name of the Event File
+     * @param tocReader the Table of Contents for the Event File, or <code>null</code> if there is none
+     * @return the codec that was used to write the Event File
+     */
+    public static BlockCodec forEventFile(final String filename, final TocReader tocReader) {
+        if (!filename.endsWith(".gz")) {
+            return NONE;
+        }
+
+        if (tocReader == null || !tocReader.isCompressed()) {
+            return GZIP;
+        }
+
+        return tocReader.getBlockCodec();
+    }
+}
@@ -24,7 +24,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
-import java.util.zip.GZIPInputStream;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.provenance.toc.TocReader;
@@ -40,7 +39,7 @@ public abstract class CompressableRecordReader implements RecordReader {
     private final ByteCountingInputStream rawInputStream;
     private final String filename;
     private final int serializationVersion;
-    private final boolean compressed;
+    private final BlockCodec blockCodec;
     private final TocReader tocReader;
     private final int headerLength;
     private final int maxAttributeChars;
@@ -71,14 +70,8 @@ public abstract class CompressableRecordReader implements RecordReader {
             }
         }
 
-        final InputStream readableStream;
-        if (filename.endsWith(".gz")) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
-            compressed = true;
-        } else {
-            readableStream = new BufferedInputStream(limitedStream);
-            compressed = false;
-        }
+        blockCodec = BlockCodec.forEventFile(filename, tocReader);
+        final InputStream readableStream = new BufferedInputStream(blockCodec.decompress(limitedStream));
 
         byteCountingIn = new ByteCountingInputStream(readableStream);
         dis = new DataInputStream(byteCountingIn);
@@ -143,12 +136,7 @@ public abstract class CompressableRecordReader implements RecordReader {
             }
         }
 
-        final InputStream readableStream;
-        if (compressed) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
-        } else {
-            readableStream = new BufferedInputStream(limitedStream);
-        }
+        final InputStream readableStream = new BufferedInputStream(blockCodec.decompress(limitedStream));
 
         byteCountingIn = new ByteCountingInputStream(readableStream, rawInputStream.getBytesConsumed());
         dis = new DataInputStream(byteCountingIn);
@@ -37,9 +37,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.zip.GZIPInputStream;
 
 public class RecordReaders {
+    private static final int PEEK_READ_LIMIT = 128 * 1024;
+
     /**
      * Creates a new Record Reader that is capable of reading Provenance Event Journals
      *
@@ -110,12 +111,16 @@ public class RecordReaders {
             }
 
             final File tocFile = TocUtil.getTocFile(file);
-
             final InputStream bufferedInStream = new BufferedInputStream(fis);
+            final TocReader tocReader;
             final String serializationName;
             try {
-                bufferedInStream.mark(4096);
-                final InputStream in = filename.endsWith(".gz") ? new GZIPInputStream(bufferedInStream) : bufferedInStream;
+                // The Table of Contents indicates which codec was used to compress the file, so it is needed before reading the header
+                tocReader = tocFile.exists() ? new StandardTocReader(tocFile) : null;
+
+                // Some codecs read an entire compressed frame before returning any data, so the mark must allow for that
+                bufferedInStream.mark(PEEK_READ_LIMIT);
+                final InputStream in = BlockCodec.forEventFile(filename, tocReader).decompress(bufferedInStream);
                 final DataInputStream dis = new DataInputStream(in);
                 serializationName = dis.readUTF();
                 bufferedInStream.reset();
@@ -126,35 +131,31 @@ public class RecordReaders {
 
             switch (serializationName) {
                 case StandardRecordReader.SERIALIZATION_NAME: {
-                    if (tocFile.exists()) {
-                        final TocReader tocReader = new StandardTocReader(tocFile);
+                    if (tocReader != null) {
                         return new StandardRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                     } else {
                         return new StandardRecordReader(bufferedInStream, filename, maxAttributeChars);
                     }
                 }
                 case ByteArraySchemaRecordWriter.SERIALIZATION_NAME: {
-                    if (tocFile.exists()) {
-                        final TocReader tocReader = new StandardTocReader(tocFile);
+                    if (tocReader != null) {
                         return new ByteArraySchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                     } else {
                         return new ByteArraySchemaRecordReader(bufferedInStream, filename, maxAttributeChars);
                     }
                 }
                 case EventIdFirstSchemaRecordWriter.SERIALIZATION_NAME: {
-                    if (!tocFile.exists()) {
+                    if (tocReader == null) {
                         throw new FileNotFoundException("Cannot create TOC Reader because the file " + tocFile + " does not exist");
                     }
 
-                    final TocReader tocReader = new StandardTocReader(tocFile);
                     return new EventIdFirstSchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                 }
                 case EncryptedSchemaRecordReader.SERIALIZATION_NAME: {
-                    if (!tocFile.exists()) {
+                    if (tocReader == null) {
                         throw new FileNotFoundException("Cannot create TOC Reader because the file " + tocFile + " does not exist");
                     }
 
-                    final TocReader tocReader = new StandardTocReader(tocFile);
                     // Return a reader with no eventEncryptor because this method contract cannot change, then inject the encryptor from the writer in the calling method
                     return new EncryptedSchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars, null);
                 }
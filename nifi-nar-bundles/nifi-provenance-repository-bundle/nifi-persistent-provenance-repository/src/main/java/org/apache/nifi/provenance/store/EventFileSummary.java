@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.lucene.LuceneUtil;
+import org.apache.nifi.provenance.util.BloomFilter;
+import org.apache.nifi.util.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A summary of the events that are held in a single Provenance Event File: the range of Event IDs and Event Times, along with a
+ * Bloom Filter of every FlowFile UUID and Component ID that the events reference. The summary allows queries for a given FlowFile
+ * or Component to determine which Event Files cannot possibly hold a matching event without reading the files themselves.
+ * </p>
+ *
+ * <p>
+ * The summary is written to the <code>summary</code> directory alongside the Event File when the Event File is rolled over. The
+ * Event ID and Event Time ranges are always held in memory, but the Bloom Filter is held only softly and is read back from disk
+ * if the JVM has reclaimed it.
+ * </p>
+ */
+public class EventFileSummary {
+    private static final Logger logger = LoggerFactory.getLogger(EventFileSummary.class);
+
+    private static final int SERIALIZATION_VERSION = 1;
+    private static final int NUM_HASH_FUNCTIONS = 5;
+    private static final int BITS_PER_IDENTIFIER_LOG2 = 3;
+    private static final int MIN_FILTER_LOG2_BITS = 6;
+    private static final int ACTIVE_FILTER_LOG2_BITS = 23;
+
+    private final File summaryFile;
+    private final int eventCount;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private volatile SoftReference<BloomFilter> identifierFilterRef;
+
+    private EventFileSummary(final File summaryFile, final int eventCount, final long minEventId, final long maxEventId, final long minEventTime, final long maxEventTime,
+                             final BloomFilter identifierFilter) {
+        this.summaryFile = summaryFile;
+        this.eventCount = eventCount;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.identifierFilterRef = new SoftReference<>(identifierFilter);
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    /**
+     * @param startTime the earliest Event Time of interest
+     * @param endTime the latest Event Time of interest
+     * @return <code>true</code> if any event in the file may have an Event Time between the given times, inclusive
+     */
+    public boolean overlaps(final long startTime, final long endTime) {
+        return eventCount > 0 && minEventTime <= endTime && maxEventTime >= startTime;
+    }
+
+    /**
+     * Determines the range of Event Times for the events in the file that may reference any of the given identifiers
+     *
+     * @param identifiers the FlowFile UUIDs or Component IDs of interest
+     * @return the earliest and latest Event Time in the file, or an empty Optional if no event in the file references any of the identifiers
+     */
+    public Optional<Tuple<Long, Long>> getEventTimeRange(final Collection<String> identifiers) {
+        if (eventCount == 0) {
+            return Optional.empty();
+        }
+
+        final BloomFilter identifierFilter = getIdentifierFilter();
+        if (identifierFilter != null && !mightContainAny(identifierFilter, identifiers)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Tuple<>(minEventTime, maxEventTime));
+    }
+
+    private BloomFilter getIdentifierFilter() {
+        final BloomFilter cached = identifierFilterRef.get();
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            final BloomFilter identifierFilter = readIdentifierFilter(summaryFile);
+            identifierFilterRef = new SoftReference<>(identifierFilter);
+            return identifierFilter;
+        } catch (final IOException ioe) {
+            logger.warn("Failed to read Event File Summary {}; will assume that the Event File may contain events for any FlowFile or Component", summaryFile, ioe);
+            return null;
+        }
+    }
+
+    private static boolean mightContainAny(final BloomFilter filter, final Collection<String> identifiers) {
+        for (final String identifier : identifiers) {
+            if (identifier != null && filter.mightContain(identifier.toLowerCase())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the file that holds the summary for the given Event File. Note, the file that is returned may not exist.
+     *
+     * @param eventFile the Event File
+     * @return the file that holds the summary of the given Event File
+     */
+    public static File getSummaryFile(final File eventFile) {
+        final File summaryDir = new File(eventFile.getParentFile(), "summary");
+        final String basename = LuceneUtil.substringBefore(eventFile.getName(), ".prov");
+        return new File(summaryDir, basename + ".summary");
+    }
+
+    private void write(final BloomFilter identifierFilter) throws IOException {
+        final File summaryDir = summaryFile.getParentFile();
+        Files.createDirectories(summaryDir.toPath());
+
+        // Write to a temporary file and rename it so that a partially written summary is never mistaken for a complete one.
+        final File tempFile = new File(summaryDir, summaryFile.getName() + ".tmp");
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(SERIALIZATION_VERSION);
+            out.writeInt(eventCount);
+            out.writeLong(minEventId);
+            out.writeLong(maxEventId);
+            out.writeLong(minEventTime);
+            out.writeLong(maxEventTime);
+            identifierFilter.writeTo(out);
+        }
+
+        Files.move(tempFile.toPath(), summaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the summary from the given file
+     *
+     * @param summaryFile the file to read
+     * @return the summary that is held in the file
+     * @throws IOException if unable to read the file or the file is not a valid summary
+     */
+    public static EventFileSummary read(final File summaryFile) throws IOException {
+        try (final DataInputStream in = openSummaryFile(summaryFile)) {
+            final int eventCount = in.readInt();
+            final long minEventId = in.readLong();
+            final long maxEventId = in.readLong();
+            final long minEventTime = in.readLong();
+            final long maxEventTime = in.readLong();
+            final BloomFilter identifierFilter = BloomFilter.readFrom(in);
+            return new EventFileSummary(summaryFile, eventCount, minEventId, maxEventId, minEventTime, maxEventTime, identifierFilter);
+        }
+    }
+
+    private static BloomFilter readIdentifierFilter(final File summaryFile) throws IOException {
+        try (final DataInputStream in = openSummaryFile(summaryFile)) {
+            // Skip the event count and the Event ID and Event Time ranges
+            in.readInt();
+            for (int i = 0; i < 4; i++) {
+                in.readLong();
+            }
+
+            return BloomFilter.readFrom(in);
+        }
+    }
+
+    private static DataInputStream openSummaryFile(final File summaryFile) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(summaryFile)));
+        try {
+            final int version = in.readInt();
+            if (version != SERIALIZATION_VERSION) {
+                throw new IOException("Cannot read Event File Summary " + summaryFile + " because it was written with unknown serialization version " + version);
+            }
+        } catch (final IOException ioe) {
+            in.close();
+            throw ioe;
+        }
+
+        return in;
+    }
+
+    @Override
+    public String toString() {
+        return "EventFileSummary[file=" + summaryFile + ", events=" + eventCount + ", eventIds=" + minEventId + "-" + maxEventId
+            + ", eventTimes=" + minEventTime + "-" + maxEventTime + "]";
+    }
+
+
+    /**
+     * Accumulates the summary of an Event File while events are being written to it. This class is thread-safe.
+     */
+    public static class Builder {
+        private final File summaryFile;
+        private final BloomFilter identifierFilter = new BloomFilter(ACTIVE_FILTER_LOG2_BITS, NUM_HASH_FUNCTIONS);
+        private int eventCount = 0;
+        private int identifierCount = 0;
+        private long minEventId = Long.MAX_VALUE;
+        private long maxEventId = Long.MIN_VALUE;
+        private long minEventTime = Long.MAX_VALUE;
+        private long maxEventTime = Long.MIN_VALUE;
+
+        /**
+         * @param eventFile the Event File that is being summarized
+         */
+        public Builder(final File eventFile) {
+            this.summaryFile = getSummaryFile(eventFile);
+        }
+
+        /**
+         * Adds the given event to the summary. The identifiers that are added are those that the Event Index searches for a FlowFile's
+         * lineage or for a Component, so that the summary never excludes an Event File that the index would find an event in.
+         *
+         * @param event the event that was written to the Event File
+         * @param eventId the ID that was assigned to the event when it was written
+         */
+        public synchronized void add(final ProvenanceEventRecord event, final long eventId) {
+            eventCount++;
+            minEventId = Math.min(minEventId, eventId);
+            maxEventId = Math.max(maxEventId, eventId);
+            minEventTime = Math.min(minEventTime, event.getEventTime());
+            maxEventTime = Math.max(maxEventTime, event.getEventTime());
+
+            addIdentifier(event.getFlowFileUuid());
+            addIdentifier(event.getComponentId());
+            for (final String uuid : event.getParentUuids()) {
+                addIdentifier(uuid);
+            }
+            for (final String uuid : event.getChildUuids()) {
+                addIdentifier(uuid);
+            }
+
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            if (event.getEventType() == ProvenanceEventType.RECEIVE && sourceIdentifier != null) {
+                addIdentifier(sourceIdentifier.substring(sourceIdentifier.lastIndexOf(':') + 1));
+            }
+        }
+
+        private void addIdentifier(final String identifier) {
+            if (identifier != null && identifierFilter.add(identifier.toLowerCase())) {
+                identifierCount++;
+            }
+        }
+
+        /**
+         * Determines the range of Event Times for the events added so far that may reference any of the given identifiers
+         *
+         * @param identifiers the FlowFile UUIDs or Component IDs of interest
+         * @return the earliest and latest Event Time added so far, or an empty Optional if no event added so far references any of the identifiers
+         */
+        public synchronized Optional<Tuple<Long, Long>> getEventTimeRange(final Collection<String> identifiers) {
+            if (eventCount == 0 || !mightContainAny(identifierFilter, identifiers)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new Tuple<>(minEventTime, maxEventTime));
+        }
+
+        /**
+         * Shrinks the Bloom Filter to suit the number of identifiers that were added and writes the summary to disk
+         *
+         * @return the summary
+         * @throws IOException if unable to write the summary
+         */
+        public synchronized EventFileSummary build() throws IOException {
+            final int log2Bits = 64 - Long.numberOfLeadingZeros(Math.max(1L, (long) identifierCount << BITS_PER_IDENTIFIER_LOG2) - 1);
+            final BloomFilter folded = identifierFilter.fold(Math.max(MIN_FILTER_LOG2_BITS, log2Bits));
+
+            final EventFileSummary summary = new EventFileSummary(summaryFile, eventCount, minEventId, maxEventId, minEventTime, maxEventTime, folded);
+            summary.write(folded);
+            return summary;
+        }
+    }
+}
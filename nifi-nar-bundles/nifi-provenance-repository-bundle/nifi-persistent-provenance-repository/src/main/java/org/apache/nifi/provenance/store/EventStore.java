@@ -23,9 +23,11 @@ import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.StorageSummary;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.util.Tuple;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -131,4 +133,17 @@ public interface EventStore extends Closeable {
      * @throws IOException if unable to retrieve records from the store
      */
     EventIterator getEventsByTimestamp(long minTimestamp, long maxTimestamp) throws IOException;
+
+    /**
+     * Determines the range of Event Times that any event referencing one of the given FlowFile UUIDs or Component IDs may have.
+     * The range is conservative: it may be wider than necessary, and an event store that is not able to determine the range
+     * returns one that spans all time.
+     *
+     * @param identifiers the FlowFile UUIDs or Component IDs of interest
+     * @return the earliest and latest Event Time of any event that may reference one of the given identifiers, or an empty Optional
+     *         if no event in the store references any of them
+     */
+    default Optional<Tuple<Long, Long>> getEventTimeRange(final Collection<String> identifiers) {
+        return Optional.of(new Tuple<>(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
 }
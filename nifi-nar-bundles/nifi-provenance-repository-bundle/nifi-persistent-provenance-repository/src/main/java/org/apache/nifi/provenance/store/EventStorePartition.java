@@ -19,6 +19,7 @@ package org.apache.nifi.provenance.store;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +27,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.util.Tuple;
 
 public interface EventStorePartition extends Closeable {
     /**
@@ -110,4 +112,17 @@ public interface EventStorePartition extends Closeable {
      * @return the number of bytes purged from the partition
      */
     long purgeOldestEvents();
+
+    /**
+     * Determines the range of Event Times that any event referencing one of the given FlowFile UUIDs or Component IDs may have.
+     * The range is conservative: it may be wider than necessary, and an event store that is not able to determine the range
+     * returns one that spans all time.
+     *
+     * @param identifiers the FlowFile UUIDs or Component IDs of interest
+     * @return the earliest and latest Event Time of any event that may reference one of the given identifiers, or an empty Optional
+     *         if no event in the store references any of them
+     */
+    default Optional<Tuple<Long, Long>> getEventTimeRange(final Collection<String> identifiers) {
+        return Optional.of(new Tuple<>(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
 }
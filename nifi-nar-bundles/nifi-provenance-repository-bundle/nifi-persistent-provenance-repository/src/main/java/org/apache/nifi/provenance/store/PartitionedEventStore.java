@@ -27,6 +27,7 @@ import org.apache.nifi.provenance.store.iterator.AuthorizingEventIterator;
 import org.apache.nifi.provenance.store.iterator.EventIterator;
 import org.apache.nifi.provenance.util.DirectoryUtils;
 import org.apache.nifi.reporting.Severity;
+import org.apache.nifi.util.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -145,6 +146,25 @@ public abstract class PartitionedEventStore implements EventStore {
         return Optional.empty();
     }
 
+    @Override
+    public Optional<Tuple<Long, Long>> getEventTimeRange(final Collection<String> identifiers) {
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (final EventStorePartition partition : getPartitions()) {
+            final Optional<Tuple<Long, Long>> partitionRange = partition.getEventTimeRange(identifiers);
+            if (partitionRange.isPresent()) {
+                earliest = Math.min(earliest, partitionRange.get().getKey());
+                latest = Math.max(latest, partitionRange.get().getValue());
+            }
+        }
+
+        if (earliest > latest) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Tuple<>(earliest, latest));
+    }
+
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords) throws IOException {
         return getEvents(firstRecordId, maxRecords, EventAuthorizer.GRANT_ALL, EventTransformer.EMPTY_TRANSFORMER);
@@ -30,14 +30,25 @@ public class RecordWriterLease {
     private final long maxBytes;
     private final int maxEvents;
     private final long maxSystemTime;
+    private final Runnable writerClosedCallback;
     private long usageCounter;
     private RolloverState rolloverState = RolloverState.SHOULD_NOT_ROLLOVER;
     private boolean closed = false;
+    private boolean writerClosed = false;
 
     public RecordWriterLease(final RecordWriter writer, final long maxBytes, final int maxEvents, final long maxMillis) {
+        this(writer, maxBytes, maxEvents, maxMillis, () -> { });
+    }
+
+    /**
+     * @param writerClosedCallback called once the lease has been closed and every claim on it relinquished, after the writer itself
+     * has been closed, at which point no further events will be written to the writer's file
+     */
+    public RecordWriterLease(final RecordWriter writer, final long maxBytes, final int maxEvents, final long maxMillis, final Runnable writerClosedCallback) {
         this.writer = writer;
         this.maxBytes = maxBytes;
         this.maxEvents = maxEvents;
+        this.writerClosedCallback = writerClosedCallback;
 
         // The max timestamp that we want to write to this lease is X number of milliseconds into the future.
         // We don't want X to be more than the given max millis. However, we also don't want to allow it to get too large. If it
@@ -67,18 +78,33 @@ public class RecordWriterLease {
         return true;
     }
 
-    public synchronized void relinquishClaim() {
-        usageCounter--;
+    public void relinquishClaim() {
+        final boolean closedWriter;
+        synchronized (this) {
+            usageCounter--;
+            closedWriter = closed && usageCounter < 1 && closeWriter();
+        }
 
-        if (closed && usageCounter < 1) {
-            try {
-                writer.close();
-            } catch (final Exception e) {
-                logger.warn("Failed to close " + writer, e);
-            }
+        if (closedWriter) {
+            writerClosedCallback.run();
         }
     }
 
+    private boolean closeWriter() {
+        if (writerClosed) {
+            return false;
+        }
+
+        writerClosed = true;
+        try {
+            writer.close();
+        } catch (final Exception e) {
+            logger.warn("Failed to close " + writer, e);
+        }
+
+        return true;
+    }
+
     private synchronized RolloverState determineRolloverReason() {
         if (writer.isClosed()) {
             return RolloverState.WRITER_ALREADY_CLOSED;
@@ -114,15 +140,15 @@ public class RecordWriterLease {
         return RolloverState.SHOULD_NOT_ROLLOVER;
     }
 
-    public synchronized void close() {
-        closed = true;
+    public void close() {
+        final boolean closedWriter;
+        synchronized (this) {
+            closed = true;
+            closedWriter = usageCounter < 1 && closeWriter();
+        }
 
-        if (usageCounter < 1) {
-            try {
-                writer.close();
-            } catch (final Exception e) {
-                logger.warn("Failed to close " + writer, e);
-            }
+        if (closedWriter) {
+            writerClosedCallback.run();
         }
     }
 
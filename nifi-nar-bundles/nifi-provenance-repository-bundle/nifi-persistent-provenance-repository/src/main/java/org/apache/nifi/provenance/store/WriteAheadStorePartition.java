@@ -33,6 +33,7 @@ import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.util.DirectoryUtils;
 import org.apache.nifi.provenance.util.NamedThreadFactory;
 import org.apache.nifi.util.FormatUtils;
+import org.apache.nifi.util.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +54,7 @@ import java.util.Optional;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -79,6 +82,8 @@ public class WriteAheadStorePartition implements EventStorePartition {
     private AtomicReference<RecordWriterLease> eventWriterLeaseRef = new AtomicReference<>();
 
     private final SortedMap<Long, File> minEventIdToPathMap = new TreeMap<>();  // guarded by synchronizing on object
+    private final Map<File, EventFileSummary.Builder> activeSummaryBuilders = new ConcurrentHashMap<>();
+    private final Map<Long, EventFileSummary> eventFileSummaries = new ConcurrentHashMap<>();
 
     public WriteAheadStorePartition(final File storageDirectory, final String partitionName, final RepositoryConfiguration repoConfig, final RecordWriterFactory recordWriterFactory,
                                     final RecordReaderFactory recordReaderFactory, final BlockingQueue<File> filesToCompress, final AtomicLong idGenerator, final EventReporter eventReporter,
@@ -145,6 +150,8 @@ public class WriteAheadStorePartition implements EventStorePartition {
 
         this.maxEventId.set(maxEventId);
 
+        recoverSummaries(fileList);
+
         // If configured to compress, compress any files that are not yet compressed.
         if (config.isCompressOnRollover()) {
             final File[] uncompressedFiles = partitionDirectory.listFiles(f -> f.getName().endsWith(".prov"));
@@ -273,11 +280,15 @@ public class WriteAheadStorePartition implements EventStorePartition {
         final RecordWriter updatedWriter = recordWriterFactory.createWriter(updatedEventFile, idGenerator, false, true);
         updatedWriter.writeHeader(nextEventId);
 
-        final RecordWriterLease updatedLease = new RecordWriterLease(updatedWriter, config.getMaxEventFileCapacity(), config.getMaxEventFileCount(), config.getMaxEventFileLife(TimeUnit.MILLISECONDS));
+        // The file is summarized only once the writer is closed, as events may still be written by claims that are outstanding when the lease is closed
+        final RecordWriterLease updatedLease = new RecordWriterLease(updatedWriter, config.getMaxEventFileCapacity(), config.getMaxEventFileCount(),
+            config.getMaxEventFileLife(TimeUnit.MILLISECONDS), () -> writeSummary(updatedEventFile));
+        activeSummaryBuilders.put(updatedEventFile, new EventFileSummary.Builder(updatedEventFile));
         final boolean updated = eventWriterLeaseRef.compareAndSet(lease, updatedLease);
 
         if (!updated) {
             logger.trace("Did not update Event Writer Lease. Will remain {}. Not rolling over Lease.", lease);
+            activeSummaryBuilders.remove(updatedEventFile);
             try {
                 updatedWriter.close();
             } catch (final Exception e) {
@@ -321,6 +332,7 @@ public class WriteAheadStorePartition implements EventStorePartition {
             long maxId = -1L;
             int numEvents = 0;
 
+            final EventFileSummary.Builder summaryBuilder = activeSummaryBuilders.get(writer.getFile());
             final Map<ProvenanceEventRecord, StorageSummary> writerSummaries = writer.writeRecords(events);
             for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : writerSummaries.entrySet()) {
                 final ProvenanceEventRecord eventRecord = entry.getKey();
@@ -330,6 +342,10 @@ public class WriteAheadStorePartition implements EventStorePartition {
                     writerSummary.getBlockIndex(), writerSummary.getSerializedLength(), writerSummary.getBytesWritten());
                 locationMap.put(eventRecord, summaryWithIndex);
                 maxId = Math.max(maxId, summaryWithIndex.getEventId());
+
+                if (summaryBuilder != null) {
+                    summaryBuilder.add(eventRecord, writerSummary.getEventId());
+                }
                 numEvents++;
             }
 
@@ -558,6 +574,7 @@ public class WriteAheadStorePartition implements EventStorePartition {
         synchronized (minEventIdToPathMap) {
             minEventIdToPathMap.remove(firstEventId);
         }
+        eventFileSummaries.remove(firstEventId);
 
         eventFileManager.obtainWriteLock(file);
         try {
@@ -571,12 +588,115 @@ public class WriteAheadStorePartition implements EventStorePartition {
                 logger.warn("Failed to remove Provenance Table-of-Contents file {}; this file should be cleaned up manually", tocFile);
             }
 
+            final File summaryFile = EventFileSummary.getSummaryFile(file);
+            if (summaryFile.exists() && !summaryFile.delete()) {
+                logger.warn("Failed to remove Provenance Event File Summary {}; this file should be cleaned up manually", summaryFile);
+            }
+
             return true;
         } finally {
             eventFileManager.releaseWriteLock(file);
         }
     }
 
+    @Override
+    public Optional<Tuple<Long, Long>> getEventTimeRange(final Collection<String> identifiers) {
+        final List<Map.Entry<Long, File>> eventFiles;
+        synchronized (minEventIdToPathMap) {
+            eventFiles = new ArrayList<>(minEventIdToPathMap.entrySet());
+        }
+
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (final Map.Entry<Long, File> entry : eventFiles) {
+            // A summary is added before the builder of the same file is removed, so if neither exists then the file was never summarized.
+            final Optional<Tuple<Long, Long>> fileRange;
+            final EventFileSummary.Builder summaryBuilder = activeSummaryBuilders.get(entry.getValue());
+            if (summaryBuilder == null) {
+                final EventFileSummary summary = eventFileSummaries.get(entry.getKey());
+                if (summary == null) {
+                    logger.debug("{} has no summary for Event File {} so cannot narrow the time range of events referencing {}", this, entry.getValue(), identifiers);
+                    return Optional.of(new Tuple<>(Long.MIN_VALUE, Long.MAX_VALUE));
+                }
+
+                fileRange = summary.getEventTimeRange(identifiers);
+            } else {
+                fileRange = summaryBuilder.getEventTimeRange(identifiers);
+            }
+
+            if (fileRange.isPresent()) {
+                earliest = Math.min(earliest, fileRange.get().getKey());
+                latest = Math.max(latest, fileRange.get().getValue());
+            }
+        }
+
+        if (earliest > latest) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new Tuple<>(earliest, latest));
+    }
+
+    private void writeSummary(final File eventFile) {
+        final EventFileSummary.Builder summaryBuilder = activeSummaryBuilders.get(eventFile);
+        if (summaryBuilder == null) {
+            return;
+        }
+
+        try {
+            final EventFileSummary summary = summaryBuilder.build();
+            eventFileSummaries.put(DirectoryUtils.getMinId(eventFile), summary);
+            logger.debug("Wrote {}", summary);
+        } catch (final IOException ioe) {
+            logger.warn("Failed to write summary of Provenance Event File {}; queries will need to consider all events in the file", eventFile, ioe);
+        } finally {
+            activeSummaryBuilders.remove(eventFile);
+        }
+    }
+
+    private void recoverSummaries(final List<File> eventFilesLargestIdFirst) {
+        for (final File eventFile : eventFilesLargestIdFirst) {
+            final File summaryFile = EventFileSummary.getSummaryFile(eventFile);
+            if (!summaryFile.exists()) {
+                continue;
+            }
+
+            try {
+                eventFileSummaries.put(DirectoryUtils.getMinId(eventFile), EventFileSummary.read(summaryFile));
+            } catch (final IOException ioe) {
+                logger.warn("Failed to read summary of Provenance Event File {}; queries will need to consider all events in the file", eventFile, ioe);
+            }
+        }
+
+        // The newest Event File will not have been summarized if NiFi was not shut down gracefully, so summarize it now.
+        // Event Files that were written before summaries were introduced are left alone and age off as usual.
+        if (eventFilesLargestIdFirst.isEmpty()) {
+            return;
+        }
+
+        final File newestEventFile = eventFilesLargestIdFirst.get(0);
+        if (eventFileSummaries.containsKey(DirectoryUtils.getMinId(newestEventFile))) {
+            return;
+        }
+
+        final EventFileSummary.Builder summaryBuilder = new EventFileSummary.Builder(newestEventFile);
+        try (final RecordReader reader = recordReaderFactory.newRecordReader(newestEventFile, Collections.emptyList(), config.getMaxAttributeChars())) {
+            StandardProvenanceEventRecord event;
+            while ((event = reader.nextRecord()) != null) {
+                summaryBuilder.add(event, event.getEventId());
+            }
+        } catch (final EOFException eof) {
+            // The file was not completely written. Summarize the events that could be read.
+            logger.debug("Reached unexpected end of Event File {} while summarizing it", newestEventFile);
+        } catch (final IOException ioe) {
+            logger.warn("Failed to summarize Provenance Event File {}; queries will need to consider all events in the file", newestEventFile, ioe);
+            return;
+        }
+
+        activeSummaryBuilders.put(newestEventFile, summaryBuilder);
+        writeSummary(newestEventFile);
+    }
+
     void reindexLatestEvents(final EventIndex eventIndex) {
         final List<File> eventFiles = getEventFilesFromDisk().sorted(DirectoryUtils.SMALLEST_ID_FIRST).collect(Collectors.toList());
         if (eventFiles.isEmpty()) {
@@ -712,6 +832,12 @@ public class WriteAheadStorePartition implements EventStorePartition {
 
         final List<File> relevantEventFiles = new ArrayList<>();
         for (final File eventFile : eventFiles) {
+            // If the file has been summarized, we know its exact time range and need not read from it unless it overlaps the given range.
+            final EventFileSummary summary = eventFileSummaries.get(DirectoryUtils.getMinId(eventFile));
+            if (summary != null && !summary.overlaps(minTimestmap, maxTimestamp)) {
+                continue;
+            }
+
             final ProvenanceEventRecord firstEvent = getFirstEvent(eventFile);
             if (firstEvent == null) {
                 return EventIterator.EMPTY;
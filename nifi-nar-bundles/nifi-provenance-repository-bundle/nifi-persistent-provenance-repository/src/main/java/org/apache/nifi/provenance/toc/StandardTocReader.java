@@ -16,6 +16,7 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import org.apache.nifi.provenance.serialization.BlockCodec;
 import org.apache.nifi.stream.io.StreamUtils;
 
 import java.io.EOFException;
@@ -30,7 +31,8 @@ import java.io.IOException;
  * Expects .toc file to be in the following format;
  *
  * byte 0: version
- * byte 1: boolean: compressionFlag -> 0 = journal is NOT compressed, 1 = journal is compressed
+ * byte 1: compressionFlag -> 0 = journal is NOT compressed, 1 = journal is compressed with GZIP. As of version 3,
+ *         any other value identifies the {@link BlockCodec} used to compress the journal
  * byte 2-9: long: offset of block 0
  * byte 10-17: long: offset of block 1
  * ...
@@ -38,6 +40,7 @@ import java.io.IOException;
  */
 public class StandardTocReader implements TocReader {
     private final boolean compressed;
+    private final BlockCodec blockCodec;
     private final long[] offsets;
     private final long[] firstEventIds;
     private final File file;
@@ -61,13 +64,21 @@ public class StandardTocReader implements TocReader {
             final int compressionFlag = buffer[1];
 
             if ( compressionFlag == 0 ) {
-                compressed = false;
+                blockCodec = BlockCodec.NONE;
             } else if ( compressionFlag == 1 ) {
-                compressed = true;
+                blockCodec = BlockCodec.GZIP;
+            } else if ( version > 2 ) {
+                try {
+                    blockCodec = BlockCodec.fromId(compressionFlag);
+                } catch (final IllegalArgumentException e) {
+                    throw new IOException("Table of Contents file " + file + " appears to be corrupt: could not read 'compression flag' from header; "
+                        + "no Block Codec exists with identifier " + compressionFlag);
+                }
             } else {
                 throw new IOException("Table of Contents file " + file + " appears to be corrupt: could not read 'compression flag' from header; "
                     + "expected value of 0 or 1 but got " + compressionFlag);
             }
+            compressed = blockCodec != BlockCodec.NONE;
 
             final int blockInfoBytes;
             switch (version) {
@@ -118,6 +129,11 @@ public class StandardTocReader implements TocReader {
         return compressed;
     }
 
+    @Override
+    public BlockCodec getBlockCodec() {
+        return blockCodec;
+    }
+
     @Override
     public File getFile() {
         return file;
@@ -191,6 +207,6 @@ public class StandardTocReader implements TocReader {
 
     @Override
     public String toString() {
-        return "StandardTocReader[file=" + file + ", compressed=" + compressed + "]";
+        return "StandardTocReader[file=" + file + ", blockCodec=" + blockCodec + "]";
     }
 }
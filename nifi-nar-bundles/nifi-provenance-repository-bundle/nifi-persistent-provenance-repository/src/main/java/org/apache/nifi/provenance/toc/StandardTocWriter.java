@@ -23,6 +23,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 
+import org.apache.nifi.provenance.serialization.BlockCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +32,7 @@ import org.slf4j.LoggerFactory;
  *
  * Format of .toc file:
  * byte 0: version
- * byte 1: compressed: 0 -> not compressed, 1 -> compressed
+ * byte 1: identifier of the {@link BlockCodec} used to compress the journal: 0 -> not compressed, 1 -> GZIP, 2 -> Snappy
  * byte 2-9: long: offset of block 0
  * byte 10-17: long: offset of block 1
  * ...
@@ -40,7 +41,7 @@ import org.slf4j.LoggerFactory;
 public class StandardTocWriter implements TocWriter {
     private static final Logger logger = LoggerFactory.getLogger(StandardTocWriter.class);
 
-    public static final byte VERSION = 2;
+    public static final byte VERSION = 3;
 
     private final File file;
     private final FileOutputStream fos;
@@ -54,6 +55,16 @@ public class StandardTocWriter implements TocWriter {
      * @throws IOException if unable to write header info to the specified file
      */
     public StandardTocWriter(final File file, final boolean compressionFlag, final boolean alwaysSync) throws IOException {
+        this(file, compressionFlag ? BlockCodec.GZIP : BlockCodec.NONE, alwaysSync);
+    }
+
+    /**
+     * Creates a StandardTocWriter that writes to the given file.
+     * @param file the file to write to
+     * @param blockCodec the codec used to compress the blocks of the journal
+     * @throws IOException if unable to write header info to the specified file
+     */
+    public StandardTocWriter(final File file, final BlockCodec blockCodec, final boolean alwaysSync) throws IOException {
         final File tocDir = file.getParentFile();
         if ( !tocDir.exists() ) {
             Files.createDirectories(tocDir.toPath());
@@ -65,7 +76,7 @@ public class StandardTocWriter implements TocWriter {
 
         final byte[] header = new byte[2];
         header[0] = VERSION;
-        header[1] = (byte) (compressionFlag ? 1 : 0);
+        header[1] = (byte) blockCodec.getId();
         fos.write(header);
         fos.flush();
 
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import org.apache.nifi.provenance.serialization.BlockCodec;
+
 import java.io.Closeable;
 import java.io.File;
 
@@ -37,6 +39,12 @@ public interface TocReader extends Closeable {
      */
     boolean isCompressed();
 
+    /**
+     * Indicates which codec was used to compress the blocks of the corresponding Journal file
+     * @return the codec used to compress each block, or {@link BlockCodec#NONE} if the event file is not compressed
+     */
+    BlockCodec getBlockCodec();
+
     /**
      * @return the file that holds the TOC information
      */
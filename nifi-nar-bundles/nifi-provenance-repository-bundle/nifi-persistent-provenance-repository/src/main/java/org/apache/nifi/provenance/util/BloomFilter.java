@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * <p>
+ * A Bloom Filter of Strings. The number of bits is always a power of two, which allows a filter to be folded into a smaller
+ * filter once the number of values that it holds is known. This way, a filter can be populated without knowing up front how many
+ * values it will receive and then be shrunk to an appropriate size before it is persisted.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class BloomFilter {
+    private static final int MIN_LOG2_BITS = 6;
+    private static final int MAX_LOG2_BITS = 30;
+
+    private final long[] words;
+    private final int numHashFunctions;
+    private final long mask;
+
+    /**
+     * Creates an empty Bloom Filter
+     *
+     * @param log2Bits the base-2 logarithm of the number of bits in the filter
+     * @param numHashFunctions the number of bits to set for each value
+     */
+    public BloomFilter(final int log2Bits, final int numHashFunctions) {
+        this(new long[1 << (validateLog2Bits(log2Bits) - MIN_LOG2_BITS)], numHashFunctions);
+    }
+
+    private BloomFilter(final long[] words, final int numHashFunctions) {
+        if (numHashFunctions < 1) {
+            throw new IllegalArgumentException("Number of hash functions must be positive but was " + numHashFunctions);
+        }
+
+        this.words = words;
+        this.numHashFunctions = numHashFunctions;
+        this.mask = (long) words.length * Long.SIZE - 1;
+    }
+
+    private static int validateLog2Bits(final int log2Bits) {
+        if (log2Bits < MIN_LOG2_BITS || log2Bits > MAX_LOG2_BITS) {
+            throw new IllegalArgumentException("Base-2 logarithm of number of bits must be between " + MIN_LOG2_BITS + " and " + MAX_LOG2_BITS + " but was " + log2Bits);
+        }
+
+        return log2Bits;
+    }
+
+    /**
+     * Adds the given value to the filter
+     *
+     * @param value the value to add
+     * @return <code>true</code> if adding the value changed the filter, <code>false</code> if the filter may already have contained the value
+     */
+    public boolean add(final String value) {
+        final long hash = hash(value);
+        final long hash1 = (int) hash;
+        final long hash2 = (int) (hash >>> 32) | 1;
+
+        boolean changed = false;
+        for (int i = 0; i < numHashFunctions; i++) {
+            final long bitIndex = (hash1 + i * hash2) & mask;
+            final int wordIndex = (int) (bitIndex >>> MIN_LOG2_BITS);
+            final long bit = 1L << bitIndex;
+            if ((words[wordIndex] & bit) == 0) {
+                words[wordIndex] |= bit;
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * @param value the value to check
+     * @return <code>false</code> if the value was definitely never added to the filter, <code>true</code> if it may have been
+     */
+    public boolean mightContain(final String value) {
+        final long hash = hash(value);
+        final long hash1 = (int) hash;
+        final long hash2 = (int) (hash >>> 32) | 1;
+
+        for (int i = 0; i < numHashFunctions; i++) {
+            final long bitIndex = (hash1 + i * hash2) & mask;
+            if ((words[(int) (bitIndex >>> MIN_LOG2_BITS)] & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of bits in the filter
+     */
+    public long getBitCount() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns a filter with the given number of bits that contains every value that this filter contains. Because the bit
+     * index of a value is its hash modulo a power of two, folding the upper halves of the filter onto the lower halves yields
+     * exactly the filter that would have been built had the smaller size been chosen to begin with.
+     *
+     * @param log2Bits the base-2 logarithm of the number of bits in the returned filter
+     * @return a filter of the given size, or this filter if it is not larger than the given size
+     */
+    public BloomFilter fold(final int log2Bits) {
+        final int foldedWordCount = 1 << (validateLog2Bits(log2Bits) - MIN_LOG2_BITS);
+        if (foldedWordCount >= words.length) {
+            return this;
+        }
+
+        final long[] folded = new long[foldedWordCount];
+        for (int i = 0; i < words.length; i++) {
+            folded[i & (foldedWordCount - 1)] |= words[i];
+        }
+
+        return new BloomFilter(folded, numHashFunctions);
+    }
+
+    public void writeTo(final DataOutputStream out) throws IOException {
+        out.writeInt(numHashFunctions);
+        out.writeInt(words.length);
+        for (final long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    public static BloomFilter readFrom(final DataInputStream in) throws IOException {
+        final int numHashFunctions = in.readInt();
+        final int wordCount = in.readInt();
+        if (wordCount < 1 || Integer.bitCount(wordCount) != 1 || wordCount > 1 << (MAX_LOG2_BITS - MIN_LOG2_BITS)) {
+            throw new IOException("Invalid Bloom Filter: word count of " + wordCount + " is not a supported power of two");
+        }
+
+        final long[] words = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = in.readLong();
+        }
+
+        return new BloomFilter(words, numHashFunctions);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of the value, followed by the MurmurHash3 finalizer so that the upper and lower
+     * halves of the hash are both well distributed and can be used independently.
+     */
+    private static long hash(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
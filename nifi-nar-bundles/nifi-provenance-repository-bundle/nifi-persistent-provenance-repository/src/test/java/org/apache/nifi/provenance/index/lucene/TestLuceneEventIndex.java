@@ -52,6 +52,7 @@ import org.mockito.stubbing.Answer;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -394,6 +395,56 @@ public class TestLuceneEventIndex {
         assertEquals(event, matchingEvents.get(0));
     }
 
+    @Test
+    public void testQueryWithMaxEventIdPaginatesResults() throws InterruptedException {
+        final RepositoryConfiguration repoConfig = createConfig();
+        final IndexManager indexManager = new StandardIndexManager(repoConfig);
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 1, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        for (int i = 0; i < 10; i++) {
+            final ProvenanceEventRecord event = createEvent("1234");
+            index.addEvents(eventStore.addEvent(event).getStorageLocations());
+        }
+
+        // Wait for all of the events to be indexed
+        final Query countQuery = new Query(UUID.randomUUID().toString());
+        countQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "1234", null));
+        long hitCount = 0;
+        while (hitCount < 10) {
+            final QueryResult result = index.submitQuery(countQuery, EventAuthorizer.GRANT_ALL, "unit test user").getResult();
+            result.awaitCompletion(4000, TimeUnit.MILLISECONDS);
+            hitCount = result.getTotalHitCount();
+            Thread.sleep(100L); // avoid crushing the CPU
+        }
+
+        final List<Long> eventIds = new ArrayList<>();
+        Long maxEventId = Long.MAX_VALUE;
+        int pages = 0;
+        while (maxEventId != null) {
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "1234", null));
+            query.setMaxResults(4);
+            query.setMaxEventId(maxEventId);
+
+            final QueryResult result = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test user").getResult();
+            assertTrue(result.awaitCompletion(4000, TimeUnit.MILLISECONDS));
+            assertNull(result.getError());
+
+            final List<Long> pageEventIds = result.getMatchingEvents().stream().map(ProvenanceEventRecord::getEventId).collect(Collectors.toList());
+            assertTrue(pageEventIds.size() <= 4);
+            eventIds.addAll(pageEventIds);
+
+            maxEventId = result.getNextMaxEventId();
+            pages++;
+        }
+
+        assertEquals(3, pages);
+        assertEquals(Arrays.asList(9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L, 0L), eventIds);
+    }
+
     @Test
     public void testQuerySpecificField() throws InterruptedException {
         final RepositoryConfiguration repoConfig = createConfig();
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import org.apache.nifi.provenance.EventIdFirstSchemaRecordWriter;
+import org.apache.nifi.provenance.IdentifierLookup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.TestUtil;
+import org.apache.nifi.provenance.store.EventFileManager;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEventFileCompressor {
+    private static final Logger logger = LoggerFactory.getLogger(TestEventFileCompressor.class);
+    private static final int BLOCK_SIZE = 1024 * 32;
+
+    @ParameterizedTest
+    @EnumSource(value = BlockCodec.class, names = {"GZIP", "SNAPPY"})
+    public void testRandomAccessAfterCompression(final BlockCodec blockCodec) throws IOException, InterruptedException {
+        final File eventFile = new File("target/storage/" + UUID.randomUUID() + "/1.prov");
+        final List<String> flowFileUuids = writeEvents(eventFile, 2_000);
+
+        final File compressedFile = compress(eventFile, blockCodec);
+        assertFalse(eventFile.exists());
+
+        try (final TocReader tocReader = new StandardTocReader(TocUtil.getTocFile(eventFile))) {
+            assertTrue(tocReader.isCompressed());
+            assertEquals(blockCodec, tocReader.getBlockCodec());
+            assertTrue(tocReader.getBlockOffset(1) > 0);
+        }
+
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, Collections.emptyList(), 2048)) {
+            for (final long eventId : new long[] {0L, 5L, 999L, 1000L, 1999L}) {
+                final Optional<ProvenanceEventRecord> event = reader.skipToEvent(eventId);
+                assertTrue(event.isPresent());
+                assertEquals(eventId, event.get().getEventId());
+                assertEquals(flowFileUuids.get((int) eventId), event.get().getFlowFileUuid());
+            }
+        }
+
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, Collections.emptyList(), 2048)) {
+            long expectedEventId = 0L;
+            ProvenanceEventRecord event;
+            while ((event = reader.nextRecord()) != null) {
+                assertEquals(expectedEventId++, event.getEventId());
+            }
+            assertEquals(2_000L, expectedEventId);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "nifi.test.performance", matches = "true")
+    public void testPerformanceOfCodecs() throws IOException, InterruptedException {
+        final int eventCount = 200_000;
+        final long[] eventIds = new long[] {4, 80, 1024, 40_000, 80_000, 120_000, 160_000, 199_000};
+
+        for (final BlockCodec blockCodec : new BlockCodec[] {BlockCodec.GZIP, BlockCodec.SNAPPY}) {
+            final File eventFile = new File("target/storage/" + UUID.randomUUID() + "/1.prov");
+            writeEvents(eventFile, eventCount);
+            final long uncompressedBytes = eventFile.length();
+
+            final long compressStart = System.nanoTime();
+            final File compressedFile = compress(eventFile, blockCodec);
+            final long compressNanos = System.nanoTime() - compressStart;
+
+            final int iterations = 1000;
+            final long readStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, Collections.emptyList(), 2048)) {
+                    for (final long eventId : eventIds) {
+                        assertEquals(eventId, reader.skipToEvent(eventId).get().getEventId());
+                    }
+                }
+            }
+            final long readNanos = System.nanoTime() - readStart;
+
+            final long eventsPerSecond = (long) (eventCount / (compressNanos / 1_000_000_000D));
+            final long nanosPerLookup = readNanos / iterations / eventIds.length;
+            logger.info("{}: compressed {} events ({} bytes to {} bytes) at {} events/sec; {} nanos per event lookup",
+                blockCodec, eventCount, uncompressedBytes, compressedFile.length(), eventsPerSecond, nanosPerLookup);
+        }
+    }
+
+    private List<String> writeEvents(final File eventFile, final int eventCount) throws IOException {
+        final List<String> flowFileUuids = new ArrayList<>(eventCount);
+        final StandardTocWriter tocWriter = new StandardTocWriter(TocUtil.getTocFile(eventFile), false, false);
+        try (final RecordWriter writer = new EventIdFirstSchemaRecordWriter(eventFile, new AtomicLong(0L), tocWriter, false, BLOCK_SIZE, IdentifierLookup.EMPTY)) {
+            writer.writeHeader(0L);
+            for (int i = 0; i < eventCount; i++) {
+                final ProvenanceEventRecord event = TestUtil.createEvent();
+                flowFileUuids.add(event.getFlowFileUuid());
+                writer.writeRecords(Collections.singletonList(event));
+            }
+        }
+
+        return flowFileUuids;
+    }
+
+    private File compress(final File eventFile, final BlockCodec blockCodec) throws InterruptedException {
+        final BlockingQueue<File> filesToCompress = new LinkedBlockingQueue<>();
+        filesToCompress.add(eventFile);
+
+        final EventFileCompressor compressor = new EventFileCompressor(filesToCompress, new EventFileManager(), blockCodec);
+        final Thread compressionThread = new Thread(compressor);
+        compressionThread.start();
+        try {
+            final long maxTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(30L);
+            while (eventFile.exists() && System.nanoTime() < maxTime) {
+                Thread.sleep(10L);
+            }
+        } finally {
+            compressor.shutdown();
+            compressionThread.join();
+        }
+
+        return new File(eventFile.getParentFile(), eventFile.getName() + ".gz");
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store;
+
+import org.apache.nifi.provenance.serialization.RecordWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestRecordWriterLease {
+
+    @Test
+    public void testWriterClosedCallbackWaitsForOutstandingClaims() throws IOException {
+        final RecordWriter writer = mock(RecordWriter.class);
+        final AtomicInteger callbackCount = new AtomicInteger(0);
+        final RecordWriterLease lease = new RecordWriterLease(writer, 1024L, 10, 60_000L, callbackCount::incrementAndGet);
+
+        assertTrue(lease.tryClaim());
+        assertTrue(lease.tryClaim());
+
+        // Events may still be written by the outstanding claims, so the writer must remain open
+        lease.close();
+        verify(writer, never()).close();
+        assertEquals(0, callbackCount.get());
+
+        lease.relinquishClaim();
+        verify(writer, never()).close();
+        assertEquals(0, callbackCount.get());
+
+        when(writer.isClosed()).thenReturn(true);
+        lease.relinquishClaim();
+        verify(writer, times(1)).close();
+        assertEquals(1, callbackCount.get());
+    }
+
+    @Test
+    public void testWriterClosedCallbackCalledOnce() throws IOException {
+        final RecordWriter writer = mock(RecordWriter.class);
+        final AtomicInteger callbackCount = new AtomicInteger(0);
+        final RecordWriterLease lease = new RecordWriterLease(writer, 1024L, 10, 60_000L, callbackCount::incrementAndGet);
+
+        lease.close();
+        lease.close();
+        verify(writer, times(1)).close();
+        assertEquals(1, callbackCount.get());
+    }
+}
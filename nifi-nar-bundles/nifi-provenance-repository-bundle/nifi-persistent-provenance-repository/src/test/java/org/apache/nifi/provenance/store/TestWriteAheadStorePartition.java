@@ -21,15 +21,19 @@ import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.EventIdFirstSchemaRecordWriter;
 import org.apache.nifi.provenance.IdentifierLookup;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.provenance.TestUtil;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.RecordReaders;
 import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
 import org.apache.nifi.provenance.toc.StandardTocWriter;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
 import org.apache.nifi.provenance.util.DirectoryUtils;
+import org.apache.nifi.util.Tuple;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
@@ -39,8 +43,10 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -48,6 +54,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestWriteAheadStorePartition {
@@ -139,6 +146,74 @@ public class TestWriteAheadStorePartition {
         assertEquals(maxEventId, partition.getMaxEventId());
     }
 
+    @Test
+    public void testEventTimeRangeFromSummaries() throws IOException {
+        final RepositoryConfiguration repoConfig = createConfig(1, "testEventTimeRangeFromSummaries");
+        repoConfig.setMaxEventFileCount(5);
+
+        final String partitionName = repoConfig.getStorageDirectories().keySet().iterator().next();
+        final File storageDirectory = repoConfig.getStorageDirectories().values().iterator().next();
+
+        final RecordWriterFactory recordWriterFactory = (file, idGenerator, compressed, createToc) -> {
+            final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
+            return new EventIdFirstSchemaRecordWriter(file, idGenerator, tocWriter, compressed, 32 * 1024, IdentifierLookup.EMPTY);
+        };
+
+        final RecordReaderFactory recordReaderFactory = RecordReaders::newRecordReader;
+
+        WriteAheadStorePartition partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+
+        // Files hold 5 events each, so events 0-4 are in the first file, 5-9 in the second, and so on.
+        final long t = System.currentTimeMillis() - 60_000L;
+        for (int i = 0; i < 22; i++) {
+            partition.addEvents(Collections.singleton(createEvent("flowfile-" + i, "component-" + (i % 2), t + 1000L * i)));
+        }
+
+        assertEquals(Optional.of(new Tuple<>(t + 5000L, t + 9000L)), partition.getEventTimeRange(Collections.singleton("flowfile-7")));
+        assertEquals(Optional.of(new Tuple<>(t + 5000L, t + 14000L)), partition.getEventTimeRange(Arrays.asList("flowfile-7", "FLOWFILE-12")));
+        assertEquals(Optional.of(new Tuple<>(t, t + 21000L)), partition.getEventTimeRange(Collections.singleton("component-1")));
+        assertFalse(partition.getEventTimeRange(Collections.singleton("flowfile-100")).isPresent());
+
+        // The active file is considered, too
+        assertEquals(Optional.of(new Tuple<>(t + 20000L, t + 21000L)), partition.getEventTimeRange(Collections.singleton("flowfile-21")));
+
+        partition.close();
+
+        // Summaries of rolled-over files are persisted, and the file that was active is summarized when the partition is closed
+        partition = new WriteAheadStorePartition(storageDirectory, partitionName, repoConfig, recordWriterFactory,
+            recordReaderFactory, new LinkedBlockingQueue<>(), new AtomicLong(0L), EventReporter.NO_OP, Mockito.mock(EventFileManager.class));
+        partition.initialize();
+
+        assertEquals(Optional.of(new Tuple<>(t + 5000L, t + 9000L)), partition.getEventTimeRange(Collections.singleton("flowfile-7")));
+        assertEquals(Optional.of(new Tuple<>(t + 20000L, t + 21000L)), partition.getEventTimeRange(Collections.singleton("flowfile-21")));
+        assertFalse(partition.getEventTimeRange(Collections.singleton("flowfile-100")).isPresent());
+
+        // Files whose time range does not overlap the requested range are not read
+        try (final EventIterator iterator = partition.getEventsByTimestamp(t + 11000L, t + 12000L)) {
+            assertEquals(11L, iterator.nextEvent().get().getEventId());
+            assertEquals(12L, iterator.nextEvent().get().getEventId());
+            assertFalse(iterator.nextEvent().isPresent());
+        }
+
+        partition.close();
+    }
+
+    private ProvenanceEventRecord createEvent(final String flowFileUuid, final String componentId, final long eventTime) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", flowFileUuid);
+
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(eventTime);
+        builder.setEventType(ProvenanceEventType.RECEIVE);
+        builder.setTransitUri("nifi://unit-test");
+        builder.fromFlowFile(TestUtil.createFlowFile(3L, 3000L, attributes));
+        builder.setComponentId(componentId);
+        builder.setComponentType("dummy processor");
+        return builder.build();
+    }
+
     private RepositoryConfiguration createConfig(final int numStorageDirs, final String testName) {
         final RepositoryConfiguration config = new RepositoryConfiguration();
         final File storageDir = new File("target/storage/" + testName + "/" + UUID.randomUUID());
@@ -18,6 +18,7 @@ package org.apache.nifi.provenance.toc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.DataOutputStream;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.UUID;
 
+import org.apache.nifi.provenance.serialization.BlockCodec;
 import org.junit.jupiter.api.Test;
 
 public class TestStandardTocReader {
@@ -63,6 +65,39 @@ public class TestStandardTocReader {
     }
 
 
+    @Test
+    public void testDetectsBlockCodec() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID());
+        try {
+            try (final StandardTocWriter writer = new StandardTocWriter(file, BlockCodec.SNAPPY, false)) {
+                writer.addBlockOffset(2L, 0L);
+            }
+
+            try (final StandardTocReader reader = new StandardTocReader(file)) {
+                assertTrue(reader.isCompressed());
+                assertEquals(BlockCodec.SNAPPY, reader.getBlockCodec());
+                assertEquals(2L, reader.getBlockOffset(0));
+            }
+
+            // Versions prior to 3 only support a compression flag of 0 or 1
+            try (final OutputStream out = new FileOutputStream(file)) {
+                out.write(2);
+                out.write(BlockCodec.SNAPPY.getId());
+            }
+            assertThrows(IOException.class, () -> new StandardTocReader(file));
+
+            try (final OutputStream out = new FileOutputStream(file)) {
+                out.write(2);
+                out.write(1);
+            }
+            try (final StandardTocReader reader = new StandardTocReader(file)) {
+                assertEquals(BlockCodec.GZIP, reader.getBlockCodec());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     @Test
     public void testGetBlockIndexV1() throws IOException {
         final File file = new File("target/" + UUID.randomUUID());
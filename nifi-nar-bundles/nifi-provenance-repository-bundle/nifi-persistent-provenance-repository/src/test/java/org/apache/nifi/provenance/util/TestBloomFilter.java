@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestBloomFilter {
+
+    @Test
+    public void testNoFalseNegativesAfterFolding() throws IOException {
+        final BloomFilter filter = new BloomFilter(20, 5);
+        final List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final String value = UUID.randomUUID().toString();
+            values.add(value);
+            assertTrue(filter.add(value));
+        }
+
+        // Adding a value a second time does not change the filter
+        assertFalse(filter.add(values.get(0)));
+
+        final BloomFilter folded = filter.fold(13);
+        assertEquals(8192L, folded.getBitCount());
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            folded.writeTo(out);
+        }
+        final BloomFilter restored = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+        for (final String value : values) {
+            assertTrue(filter.mightContain(value));
+            assertTrue(folded.mightContain(value));
+            assertTrue(restored.mightContain(value));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (restored.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // With 8 bits per value and 5 hash functions the false positive rate should be around 2%
+        assertTrue(falsePositives < 500, "Found " + falsePositives + " false positives in 10,000 lookups");
+    }
+
+    @Test
+    public void testFoldToLargerSizeReturnsSameFilter() {
+        final BloomFilter filter = new BloomFilter(10, 3);
+        assertTrue(filter == filter.fold(12));
+        assertEquals(1024L, filter.getBitCount());
+    }
+}
@@ -290,6 +290,10 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
                     return false;
                 }
 
+                if (query.getMaxEventId() != null && query.getMaxEventId() < event.getEventId()) {
+                    return false;
+                }
+
                 if (query.getStartDate() != null && query.getStartDate().getTime() > event.getEventTime()) {
                     return false;
                 }
@@ -21,8 +21,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.nifi.annotation.behavior.EventDriven;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.behavior.SideEffectFree;
@@ -141,8 +143,14 @@ public class CryptographicHashContent extends AbstractProcessor {
         final AtomicReference<String> hashValueHolder = new AtomicReference<>(null);
 
         try {
-            // Read the flowfile content via a lambda InputStreamCallback and hash the content
-            session.read(flowFile, in -> hashValueHolder.set(HashService.hashValueStreaming(algorithm, in)));
+            // Use the digest computed by the framework while the content was written, if there is one;
+            // otherwise read the flowfile content via a lambda InputStreamCallback and hash the content
+            final Optional<byte[]> contentDigest = session.getContentDigest(flowFile, algorithm.getName());
+            if (contentDigest.isPresent()) {
+                hashValueHolder.set(Hex.encodeHexString(contentDigest.get()));
+            } else {
+                session.read(flowFile, in -> hashValueHolder.set(HashService.hashValueStreaming(algorithm, in)));
+            }
 
             // Determine the destination attribute name
             final String attributeName = "content_" + algorithmName;
@@ -89,7 +89,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.OptionalLong;
@@ -638,56 +637,37 @@ public class MergeContent extends BinFiles {
 
             final ProcessSession session = bin.getSession();
             FlowFile bundle = session.create(bin.getContents());
-            final AtomicReference<String> bundleMimeTypeRef = new AtomicReference<>(null);
             try {
-                bundle = session.write(bundle, new OutputStreamCallback() {
-                    @Override
-                    public void process(final OutputStream out) throws IOException {
-                        final byte[] header = getDelimiterContent(context, contents, HEADER);
-                        if (header != null) {
-                            out.write(header);
-                        }
-
-                        final byte[] demarcator = getDelimiterContent(context, contents, DEMARCATOR);
-
-                        boolean isFirst = true;
-                        final Iterator<FlowFile> itr = contents.iterator();
-                        while (itr.hasNext()) {
-                            final FlowFile flowFile = itr.next();
-                            bin.getSession().read(flowFile, in -> StreamUtils.copy(in, out));
+                final byte[] header = getDelimiterContent(context, contents, HEADER);
+                final byte[] footer = getDelimiterContent(context, contents, FOOTER);
+                final byte[] demarcator = getDelimiterContent(context, contents, DEMARCATOR);
 
-                            if (itr.hasNext()) {
-                                if (demarcator != null) {
-                                    out.write(demarcator);
-                                }
-                            }
-
-                            final String flowFileMimeType = flowFile.getAttribute(CoreAttributes.MIME_TYPE.key());
-                            if (isFirst) {
-                                bundleMimeTypeRef.set(flowFileMimeType);
-                                isFirst = false;
-                            } else {
-                                if (bundleMimeTypeRef.get() != null && !bundleMimeTypeRef.get().equals(flowFileMimeType)) {
-                                    bundleMimeTypeRef.set(null);
-                                }
-                            }
-                        }
-
-                        final byte[] footer = getDelimiterContent(context, contents, FOOTER);
-                        if (footer != null) {
-                            out.write(footer);
-                        }
-                    }
-                });
+                // Let the framework concatenate the content so that it can copy the bytes from one claim to another without reading them
+                bundle = session.merge(contents, bundle, header, footer, demarcator);
+            } catch (final IOException e) {
+                removeFlowFileFromSession(session, bundle, context);
+                throw new ProcessException("Failed to read delimiter content", e);
             } catch (final Exception e) {
                 removeFlowFileFromSession(session, bundle, context);
                 throw e;
             }
 
+            String bundleMimeType = null;
+            boolean isFirst = true;
+            for (final FlowFile flowFile : contents) {
+                final String flowFileMimeType = flowFile.getAttribute(CoreAttributes.MIME_TYPE.key());
+                if (isFirst) {
+                    bundleMimeType = flowFileMimeType;
+                    isFirst = false;
+                } else if (bundleMimeType != null && !bundleMimeType.equals(flowFileMimeType)) {
+                    bundleMimeType = null;
+                }
+            }
+
             session.getProvenanceReporter().join(contents, bundle);
             bundle = session.putAttribute(bundle, CoreAttributes.FILENAME.key(), createFilename(contents));
-            if (bundleMimeTypeRef.get() != null) {
-                this.mimeType = bundleMimeTypeRef.get();
+            if (bundleMimeType != null) {
+                this.mimeType = bundleMimeType;
             }
 
             return bundle;